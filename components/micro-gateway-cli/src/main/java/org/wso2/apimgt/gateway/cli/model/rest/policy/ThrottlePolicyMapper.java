@@ -38,6 +38,7 @@ public class ThrottlePolicyMapper {
     private Integer unitTime = null;
     @NotNull
     private Boolean stopOnQuotaReach = true;
+    private String algorithm = null;
 
     public String getName() {
         return name;
@@ -79,6 +80,14 @@ public class ThrottlePolicyMapper {
         this.stopOnQuotaReach = stopOnQuotaReach;
     }
 
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
     @JsonAnySetter
     public void setValues(String key, LinkedHashMap<String, String> value) {
         this.name = key;
@@ -88,5 +97,8 @@ public class ThrottlePolicyMapper {
         if (value.get("stopOnQuota") != null) {
             this.stopOnQuotaReach = Boolean.parseBoolean(value.get("stopOnQuota"));
         }
+        if (value.get("algorithm") != null) {
+            this.algorithm = value.get("algorithm");
+        }
     }
 }
@@ -0,0 +1,63 @@
+// Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/task;
+
+# Emits the aggregates of the ended time buckets to the file upload analytics.
+function emitAnalyticsAggregates() {
+    int emitted = 0;
+    string? aggregate = pollAnalyticsAggregate(getCurrentTime());
+    while (aggregate is string) {
+        EventDTO eventDTO = {
+            streamId: "org.wso2.apimgt.statistics.aggregate:" + amAnalyticsVersion,
+            timeStamp: getCurrentTime(),
+            metaData: "null",
+            correlationData: "null",
+            payloadData: aggregate
+        };
+        writeEventToFile(eventDTO);
+        emitted += 1;
+        aggregate = pollAnalyticsAggregate(getCurrentTime());
+    }
+    printDebug(KEY_AGGREGATE_TASK, emitted.toString() + " analytics aggregates emitted.");
+}
+
+function aggregateEmittingTask() {
+    int interval = getConfigIntValue(ANALYTICS_AGGREGATION, AGGREGATION_INTERVAL,
+        DEFAULT_AGGREGATION_INTERVAL_IN_MILLIS);
+    initAnalyticsAggregator(interval, getConfigIntValue(ANALYTICS_AGGREGATION, AGGREGATION_MAX_AGGREGATES,
+        DEFAULT_AGGREGATION_MAX_AGGREGATES));
+    task:TimerConfiguration timerConfiguration = {
+        intervalInMillis: interval,
+        initialDelayInMillis: interval
+    };
+    task:Scheduler timer = new (timerConfiguration);
+    var attachResult = timer.attach(aggregateEmitting);
+    if (attachResult is error) {
+        printError(KEY_AGGREGATE_TASK, attachResult.toString());
+    }
+    var startResult = timer.start();
+    if (startResult is error) {
+        printError(KEY_AGGREGATE_TASK, "Starting the task is failed: " + startResult.toString());
+    }
+    printDebug(KEY_AGGREGATE_TASK, "Analytics aggregate emitting task initialized.");
+}
+
+service aggregateEmitting = service {
+    resource function onTrigger() {
+        emitAnalyticsAggregates();
+    }
+};
@@ -16,7 +16,6 @@
 
 import ballerina/http;
 import ballerina/io;
-import ballerina/runtime;
 import ballerina/time;
 
 
@@ -30,27 +29,26 @@ int rotatingTime = 0;
 
 function setRequestAttributesToContext(http:Request request, http:FilterContext context) returns error? {
     //ready authentication context to get values
-    boolean isSecured = <boolean>context.attributes[IS_SECURED];
+    GatewayRequestContext requestContext = getGatewayRequestContext();
     printDebug(KEY_THROTTLE_FILTER, "Resource level throttled out: false");
-    runtime:InvocationContext invocationContext = runtime:getInvocationContext();
-    if (isSecured && invocationContext.attributes.hasKey(AUTHENTICATION_CONTEXT)) {
-        AuthenticationContext authContext = <AuthenticationContext>invocationContext.attributes[AUTHENTICATION_CONTEXT];
-        context.attributes[APPLICATION_OWNER_PROPERTY] = authContext.subscriber;
-        context.attributes[API_TIER_PROPERTY] = authContext.apiTier;
-        context.attributes[CONTINUE_ON_TROTTLE_PROPERTY] = !authContext.stopOnQuotaReach;
+    AuthenticationContext? authContext = requestContext.authenticationContext;
+    if (requestContext.isSecured && authContext is AuthenticationContext) {
+        requestContext.applicationOwner = authContext.subscriber;
+        requestContext.apiTier = authContext.apiTier;
+        requestContext.continueOnThrottle = !authContext.stopOnQuotaReach;
     } else {
-        context.attributes[APPLICATION_OWNER_PROPERTY] = ANONYMOUS_APP_OWNER;
-        context.attributes[API_TIER_PROPERTY] = UNAUTHENTICATED_TIER;
-        context.attributes[CONTINUE_ON_TROTTLE_PROPERTY] = <boolean>context.attributes[ALLOWED_ON_QUOTA_REACHED];
+        requestContext.applicationOwner = ANONYMOUS_APP_OWNER;
+        requestContext.apiTier = UNAUTHENTICATED_TIER;
+        requestContext.continueOnThrottle = requestContext.allowedOnQuotaReached;
     }
-    context.attributes[USER_AGENT_PROPERTY] = request.userAgent;
-    context.attributes[USER_IP_PROPERTY] = <string>context.attributes[REMOTE_ADDRESS];
-    context.attributes[API_CREATOR_TENANT_DOMAIN_PROPERTY] = getTenantDomain(context);
-    context.attributes[API_METHOD_PROPERTY] = request.method;
+    requestContext.userAgent = request.userAgent;
+    requestContext.userIp = requestContext.remoteAddress;
+    requestContext.apiCreatorTenantDomain = getTenantDomain(context);
+    requestContext.apiMethod = request.method;
 
     time:Time time = time:currentTime();
     int currentTimeMills = time.time;
-    context.attributes[REQUEST_TIME_PROPERTY] = currentTimeMills;
+    requestContext.requestTimestamp = currentTimeMills;
 }
 
 public function getEventData(EventDTO dto) returns string {
@@ -61,22 +59,12 @@ public function getEventData(EventDTO dto) returns string {
 }
 
 function writeEventToFile(EventDTO eventDTO) {
-    string fileLocation = retrieveConfig(API_USAGE_PATH, API_USAGE_DIR) + PATH_SEPERATOR;
-    // errors from 'openWritableFile' will be 'panicked'
-    var writableChannel = <io:WritableByteChannel>io:openWritableFile(fileLocation + TEMP_API_USAGE_FILE, true);
-    io:WritableCharacterChannel charChannel = new (writableChannel, "UTF-8");
-    var result = charChannel.write(getEventData(eventDTO), 0);
-    if (result is io:GenericError) {
-        closeWC(charChannel);
-        panic result;
-    } else if (result is io:ConnectionTimedOutError) {
-        closeWC(charChannel);
-        panic result;
-    } else {
-        closeWC(charChannel);
+    // The event is encoded and written to the event file in a batch by the native appender.
+    if (appendAnalyticsEvent(eventDTO)) {
         printDebug(KEY_ANALYTICS_FILTER, "Event is being written");
+    } else {
+        printDebug(KEY_ANALYTICS_FILTER, "Event is dropped as the analytics event writer is full");
     }
-
 }
 
 public function closeWC(io:WritableCharacterChannel charChannel) {
@@ -20,11 +20,11 @@ import ballerina/runtime;
 
 public function generateExecutionTimeEvent(http:FilterContext context) returns ExecutionTimeDTO {
     ExecutionTimeDTO executionTimeDTO = {};
-    boolean isSecured = <boolean>context.attributes[IS_SECURED];
-    printDebug(KEY_ANALYTICS_FILTER, "Resource is secured : " + isSecured.toString());
+    GatewayRequestContext requestContext = getGatewayRequestContext();
+    printDebug(KEY_ANALYTICS_FILTER, "Resource is secured : " + requestContext.isSecured.toString());
     runtime:InvocationContext invocationContext = runtime:getInvocationContext();
-    if (isSecured && invocationContext.attributes.hasKey(AUTHENTICATION_CONTEXT)) {
-        AuthenticationContext authContext = <AuthenticationContext>invocationContext.attributes[AUTHENTICATION_CONTEXT];
+    AuthenticationContext? authContext = requestContext.authenticationContext;
+    if (requestContext.isSecured && authContext is AuthenticationContext) {
         executionTimeDTO.provider = authContext.apiPublisher;
         executionTimeDTO.keyType = authContext.keyType;
     } else {
@@ -41,13 +41,11 @@ public function generateExecutionTimeEvent(http:FilterContext context) returns E
     }
     executionTimeDTO.tenantDomain = getTenantDomain(context);
     executionTimeDTO.context = getContext(context);
-    executionTimeDTO.correleationID = <string>context.attributes[MESSAGE_ID];
+    executionTimeDTO.correleationID = requestContext.messageId;
 
     executionTimeDTO.securityLatency = getSecurityLatency(context);
     executionTimeDTO.eventTime = getCurrentTime();
-    if (context.attributes.hasKey(THROTTLE_LATENCY)) {
-         executionTimeDTO.throttlingLatency = <int>context.attributes[THROTTLE_LATENCY];
-    }
+    executionTimeDTO.throttlingLatency = requestContext.throttleLatency;
     executionTimeDTO.requestMediationLatency = 0;
     executionTimeDTO.otherLatency = 0;
     executionTimeDTO.responseMediationLatency = 0;
@@ -61,21 +59,8 @@ public function generateExecutionTimeEvent(http:FilterContext context) returns E
 }
 
 public function getSecurityLatency(http:FilterContext context) returns int {
-    int latency = 0;
-    if (context.attributes.hasKey(SECURITY_LATENCY_AUTHN)) {
-        latency += <int>context.attributes[SECURITY_LATENCY_AUTHN];
-    }
-    if (context.attributes.hasKey(SECURITY_LATENCY_AUTHZ)) {
-        latency += <int>context.attributes[SECURITY_LATENCY_AUTHZ];
-    }
-    if (context.attributes.hasKey(SECURITY_LATENCY_AUTHZ_RESPONSE)) {
-        latency += <int>context.attributes[SECURITY_LATENCY_AUTHZ_RESPONSE];
-    }
-    if (context.attributes.hasKey(SECURITY_LATENCY_SUBS)) {
-        latency += <int>context.attributes[SECURITY_LATENCY_SUBS];
-    }
-    if (context.attributes.hasKey(SECURITY_LATENCY_VALIDATION)) {
-        latency += <int>context.attributes[SECURITY_LATENCY_VALIDATION];
-    }
-    return latency;
+    GatewayRequestContext requestContext = getGatewayRequestContext();
+    return requestContext.securityLatencyAuthn + requestContext.securityLatencyAuthz +
+        requestContext.securityLatencyAuthzResponse + requestContext.securityLatencySubs +
+        requestContext.securityLatencyValidation;
 }
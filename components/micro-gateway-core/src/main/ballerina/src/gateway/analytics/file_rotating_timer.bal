@@ -25,6 +25,11 @@ function sendFileRotatingEvent() returns error? {
     printDebug(KEY_ROTATE_TASK, "Rotate file location : " + fileLocation);
     string path = fileLocation + TEMP_API_USAGE_FILE;
     if (file:exists(path)) {
+        if (isAnalyticsUploadBacklogFull()) {
+            // The events keep being written to the current file, up to its maximum size, until the backlog is uploaded.
+            printWarn(KEY_ROTATE_TASK, "File is not rotated as the backlog of files to be uploaded is full.");
+            return;
+        }
         var result = rotateFile(path);
         if (result is string) {
             printInfo(KEY_ROTATE_TASK, "File rotated successfully.");
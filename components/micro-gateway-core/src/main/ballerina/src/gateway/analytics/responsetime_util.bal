@@ -81,10 +81,10 @@ public function generateRequestResponseExecutionDataEvent(http:Response response
 @tainted RequestResponseExecutionDTO | error
 {
     RequestResponseExecutionDTO requestResponseExecutionDTO = {};
-    boolean isSecured = <boolean>context.attributes[IS_SECURED];
+    GatewayRequestContext requestContext = getGatewayRequestContext();
     runtime:InvocationContext invocationContext = runtime:getInvocationContext();
-    if (isSecured && invocationContext.attributes.hasKey(AUTHENTICATION_CONTEXT)) {
-        AuthenticationContext authContext = <AuthenticationContext>invocationContext.attributes[AUTHENTICATION_CONTEXT];
+    AuthenticationContext? authContext = requestContext.authenticationContext;
+    if (requestContext.isSecured && authContext is AuthenticationContext) {
         requestResponseExecutionDTO.apiCreator = authContext.apiPublisher;
         requestResponseExecutionDTO.metaClientType = authContext.keyType;
         requestResponseExecutionDTO.applicationConsumerKey = authContext.consumerKey;
@@ -122,15 +122,14 @@ public function generateRequestResponseExecutionDataEvent(http:Response response
     }
 
     requestResponseExecutionDTO.apiContext = analyticsContext;
-    requestResponseExecutionDTO.correlationId = <string>context.attributes[MESSAGE_ID];
+    requestResponseExecutionDTO.correlationId = requestContext.messageId;
     http:ResponseCacheControl? responseCacheControl = response.cacheControl;
     if (responseCacheControl is http:ResponseCacheControl) {
         var res = responseCacheControl.noCache;
         requestResponseExecutionDTO.cacheHit = res;
     }
 
-    requestResponseExecutionDTO.apiHostname = retrieveHostname(DATACENTER_ID, <string>context.attributes[
-    HOSTNAME_PROPERTY]);
+    requestResponseExecutionDTO.apiHostname = retrieveHostname(DATACENTER_ID, requestContext.hostname);
     // if response contains Content-Length header that value will be taken
     if (response.hasHeader(CONTENT_LENGHT_HEADER)) {
         var respSize = 'int:fromString(response.getHeader(CONTENT_LENGHT_HEADER));
@@ -153,12 +152,11 @@ public function generateRequestResponseExecutionDataEvent(http:Response response
         requestResponseExecutionDTO.apiResourceTemplate = httpResourceConfig.path;
     }
     //request method
-    if (context.attributes[API_METHOD_PROPERTY] is string) {
-        requestResponseExecutionDTO.apiMethod = <string>context.attributes[API_METHOD_PROPERTY];
-    }
+    requestResponseExecutionDTO.apiMethod = requestContext.apiMethod;
     
-    if (context.attributes[REQUEST_TIME] is int && invocationContext.attributes[TS_RESPONSE_IN] is int && invocationContext.attributes[TS_REQUEST_OUT] is int) {
-        int initTime = <int>context.attributes[REQUEST_TIME];
+    if (requestContext.requestTime > 0 && invocationContext.attributes[TS_RESPONSE_IN] is int &&
+        invocationContext.attributes[TS_REQUEST_OUT] is int) {
+        int initTime = requestContext.requestTime;
         int timeRequestOut = <int>invocationContext.attributes[TS_REQUEST_OUT];
         int timeResponseIn = <int>invocationContext.attributes[TS_RESPONSE_IN];
         requestResponseExecutionDTO.serviceTime = timeRequestOut - initTime;
@@ -167,34 +165,18 @@ public function generateRequestResponseExecutionDataEvent(http:Response response
     }
     
     //dummy values for protocol and destination for now
-    if (context.attributes[PROTOCOL_PROPERTY] is string) {
-        requestResponseExecutionDTO.protocol = <string>context.attributes[PROTOCOL_PROPERTY];
-    }
+    requestResponseExecutionDTO.protocol = requestContext.protocol;
     if (invocationContext.attributes[DESTINATION] is string) {
         requestResponseExecutionDTO.destination = <string>invocationContext.attributes[DESTINATION];
     }
     //Set data which were set to context in the Request path
-    if (context.attributes[APPLICATION_OWNER_PROPERTY] is string) {
-        requestResponseExecutionDTO.applicationOwner = <string>context.attributes[APPLICATION_OWNER_PROPERTY];
-    }
-    if (context.attributes[API_CREATOR_TENANT_DOMAIN_PROPERTY] is string) {
-        requestResponseExecutionDTO.apiCreatorTenantDomain = <string>context.attributes[API_CREATOR_TENANT_DOMAIN_PROPERTY];
-    }
-    if (context.attributes[API_TIER_PROPERTY] is string) {
-        requestResponseExecutionDTO.apiTier = <string>context.attributes[API_TIER_PROPERTY];
-    }
-    if (context.attributes[CONTINUE_ON_TROTTLE_PROPERTY] is boolean) {
-        requestResponseExecutionDTO.throttledOut = <boolean>context.attributes[CONTINUE_ON_TROTTLE_PROPERTY];
-    }
-    if (context.attributes[USER_AGENT_PROPERTY] is string) {
-        requestResponseExecutionDTO.userAgent = <string>context.attributes[USER_AGENT_PROPERTY];
-    }
-    if (context.attributes[USER_IP_PROPERTY] is string) {
-        requestResponseExecutionDTO.userIp = <string>context.attributes[USER_IP_PROPERTY];
-    }
-    if (context.attributes[REQUEST_TIME_PROPERTY] is int) {
-        requestResponseExecutionDTO.requestTimestamp = <int>context.attributes[REQUEST_TIME_PROPERTY];
-    }
+    requestResponseExecutionDTO.applicationOwner = requestContext.applicationOwner;
+    requestResponseExecutionDTO.apiCreatorTenantDomain = requestContext.apiCreatorTenantDomain;
+    requestResponseExecutionDTO.apiTier = requestContext.apiTier;
+    requestResponseExecutionDTO.throttledOut = requestContext.continueOnThrottle;
+    requestResponseExecutionDTO.userAgent = requestContext.userAgent;
+    requestResponseExecutionDTO.userIp = requestContext.userIp;
+    requestResponseExecutionDTO.requestTimestamp = requestContext.requestTimestamp;
     requestResponseExecutionDTO.gatewayType = GATEWAY_TYPE;
     requestResponseExecutionDTO.label = GATEWAY_TYPE;
     requestResponseExecutionDTO.executionTime = generateExecutionTimeEvent(context);
@@ -14,8 +14,6 @@
 // specific language governing permissions and limitations
 // under the License.
 
-import ballerina/file;
-import ballerina/filepath;
 import ballerina/http;
 import ballerina/stringutils;
 import ballerina/task;
@@ -26,43 +24,13 @@ string analyticsPassword = "";
 
 
 function searchFilesToUpload() returns (error?) {
-    int cnt = 0;
-    string fileLocation = retrieveConfig(API_USAGE_PATH, API_USAGE_DIR);
-
-    if (!file:exists(fileLocation)) {
-        printDebug(KEY_UPLOAD_TASK, "Usage data directory not found");
-        return ();
-    }
-
-    file:FileInfo[] | error pathList = file:readDir(fileLocation);
-
-    if (pathList is error) {
-        printError(KEY_UPLOAD_TASK, "Error occured in getting path lists");
-        return pathList;
-    } else {
-        foreach var pathEntry in pathList {
-            string fileName = pathEntry.getName();
-
-            if (contains(fileName, ZIP_EXTENSION)) {
-                http:Response response = multipartSender(fileLocation, pathEntry.getName(),
-                analyticsUsername, analyticsPassword);
-                if (response.statusCode == 201) {
-                    printInfo(KEY_UPLOAD_TASK, "Successfully uploaded the file: " + fileName);
-                    var result = file:remove(fileLocation + filepath:getPathSeparator() + fileName);
-                } else {
-                    printError(KEY_UPLOAD_TASK, "Error occurred while uploading the file. Upload request returned" +
-                    "with status code : " + response.statusCode.toString());
-                }
-                cnt = cnt + 1;
-            }
-        }
-        if (cnt == 0) {
-            error er = error("No files present to upload.");
-            return er;
-        } else {
-            return ();
-        }
+    // The files are uploaded in parallel by the native uploader, which skips the files already being uploaded.
+    int submitted = uploadAnalyticsFiles();
+    if (submitted == 0) {
+        error er = error("No files present to upload.");
+        return er;
     }
+    printDebug(KEY_UPLOAD_TASK, submitted.toString() + " files submitted to be uploaded");
 }
 
 function timerTask() {
@@ -77,6 +45,11 @@ function timerTask() {
     }
     if (uploadFiles) {
         printInfo(KEY_UPLOAD_TASK, "Enabled file uploading task.");
+        error? initResult = initAnalyticsFileUploader(getAnalyticsUploaderConfig());
+        if (initResult is error) {
+            printError(KEY_UPLOAD_TASK, "Failed to initialize the file uploader", initResult);
+            return;
+        }
         //below config reads enable analytics suppot for old versions
         int | error timeSpan = <int>getConfigIntValue(FILE_UPLOAD_ANALYTICS, UPLOADING_TIME_SPAN, DEFAULT_UPLOADING_TIME_SPAN_IN_MILLIS);
         int delay = <int>getConfigIntValue(FILE_UPLOAD_ANALYTICS,INITIAL_DELAY, DEFAULT_INITIAL_DELAY_IN_MILLIS);
@@ -105,6 +78,35 @@ function timerTask() {
     }
 }
 
+function getAnalyticsUploaderConfig() returns AnalyticsUploaderConfig {
+    AnalyticsUploaderConfig config = {
+        directory: retrieveConfig(API_USAGE_PATH, API_USAGE_DIR),
+        endpoint: uploadingUrl,
+        username: analyticsUsername,
+        password: analyticsPassword,
+        trustStorePath: getConfigValue(LISTENER_CONF_INSTANCE_ID, TRUST_STORE_PATH, DEFAULT_TRUST_STORE_PATH),
+        trustStorePassword: getConfigValue(LISTENER_CONF_INSTANCE_ID, TRUST_STORE_PASSWORD,
+            DEFAULT_TRUST_STORE_PASSWORD),
+        verifyHostname: getConfigBooleanValue(HTTP_CLIENTS_INSTANCE_ID, ENABLE_HOSTNAME_VERIFICATION, true),
+        uploadThreads: getConfigIntValue(FILE_UPLOAD_ANALYTICS, UPLOAD_THREADS, DEFAULT_UPLOAD_THREADS),
+        maxRetries: getConfigIntValue(FILE_UPLOAD_ANALYTICS, UPLOAD_MAX_RETRIES, DEFAULT_UPLOAD_MAX_RETRIES),
+        retryIntervalInMillis: getConfigIntValue(FILE_UPLOAD_ANALYTICS, UPLOAD_RETRY_INTERVAL,
+            DEFAULT_UPLOAD_RETRY_INTERVAL_IN_MILLIS),
+        maxRetryIntervalInMillis: getConfigIntValue(FILE_UPLOAD_ANALYTICS, UPLOAD_MAX_RETRY_INTERVAL,
+            DEFAULT_UPLOAD_MAX_RETRY_INTERVAL_IN_MILLIS),
+        maxBacklogFiles: getConfigIntValue(FILE_UPLOAD_ANALYTICS, UPLOAD_MAX_BACKLOG_FILES,
+            DEFAULT_UPLOAD_MAX_BACKLOG_FILES)
+    };
+    http:ProxyConfig? proxy = getClientProxyForInternalServices();
+    if (proxy is http:ProxyConfig) {
+        config.proxyHost = proxy.host;
+        config.proxyPort = proxy.port;
+        config.proxyUsername = proxy.userName;
+        config.proxyPassword = proxy.password;
+    }
+    return config;
+}
+
 // Creating a service on the task Listener.
 service searchFiles = service {
     resource function onTrigger() {
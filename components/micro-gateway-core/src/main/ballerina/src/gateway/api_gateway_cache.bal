@@ -16,6 +16,7 @@
 
 import ballerina/cache;
 import ballerina/runtime;
+import ballerina/time;
 
 // TODO: Refactor the cache
 map<cache:Cache> jwtCacheMap = {};
@@ -25,6 +26,14 @@ float evictionFactor = getConfigFloatValue(CACHING_ID,
                                             TOKEN_CACHE_EVICTION_FACTOR,
                                             DEFAULT_TOKEN_CACHE_EVICTION_FACTOR);
 
+float refreshAheadFactor = getConfigFloatValue(CACHING_ID,
+                                                TOKEN_CACHE_REFRESH_AHEAD_FACTOR,
+                                                DEFAULT_TOKEN_CACHE_REFRESH_AHEAD_FACTOR);
+// Maximum estimated heap used by each of the token caches in bytes. The token caches are keyed by the digest of the
+// token and bounded by their size in bytes if it is set, instead of by the capacity and the eviction factor.
+int tokenCacheMaxSize = getConfigIntValue(CACHING_ID, TOKEN_CACHE_MAX_SIZE_IN_BYTES,
+                                            DEFAULT_TOKEN_CACHE_MAX_SIZE_IN_BYTES);
+
 cache:CacheConfig genericCacheConfig = {
     capacity: cacheSize,
     evictionFactor: evictionFactor,
@@ -39,6 +48,9 @@ int jwtGeneratorCacheSize = getConfigIntValue(JWT_GENERATOR_CACHING_ID,
 float jwtGeneratorEvictionFactor = getConfigFloatValue(JWT_GENERATOR_CACHING_ID,
                                                         JWT_GENERATOR_TOKEN_CACHE_EVICTION_FACTOR,
                                                         DEFAULT_TOKEN_CACHE_EVICTION_FACTOR);
+int jwtGeneratorCacheMaxSize = getConfigIntValue(JWT_GENERATOR_CACHING_ID,
+                                                    JWT_GENERATOR_TOKEN_CACHE_MAX_SIZE_IN_BYTES,
+                                                    DEFAULT_TOKEN_CACHE_MAX_SIZE_IN_BYTES);
 
 cache:CacheConfig jwtGenerationCacheConfig = {
     capacity: jwtGeneratorCacheSize,
@@ -48,19 +60,68 @@ cache:CacheConfig jwtGenerationCacheConfig = {
 
 // Caches are globally defined in order to initialize them before the authentication handlers are initialized.
 // These cache objects are passed in authentication handlers while handler init phase.
-cache:Cache gatewayTokenCache = new (genericCacheConfig);
+DigestKeyedCache gatewayTokenCache = new (genericCacheConfig, "gatewayTokenCache", tokenCacheMaxSize, cacheExpiryTime);
 cache:Cache gatewayKeyValidationCache = new (genericCacheConfig);
 cache:Cache invalidTokenCache = new (genericCacheConfig);
 cache:Cache apiKeyCache = new (genericCacheConfig);
 cache:Cache introspectCache = new (genericCacheConfig);
-cache:Cache gatewayClaimsCache = new (genericCacheConfig);
+DigestKeyedCache gatewayClaimsCache = new (genericCacheConfig, "gatewayClaimsCache", tokenCacheMaxSize, cacheExpiryTime);
 
-cache:Cache jwtGeneratorCache = new (jwtGenerationCacheConfig);
-cache:Cache jwtGeneratorExpTimeCache = new (jwtGenerationCacheConfig);
+DigestKeyedCache jwtGeneratorCache = new (jwtGenerationCacheConfig, "jwtGeneratorCache", jwtGeneratorCacheMaxSize,
+    jwtGeneratorCacheExpiryTime);
+DigestKeyedCache jwtGeneratorExpTimeCache = new (jwtGenerationCacheConfig, "jwtGeneratorExpTimeCache",
+    jwtGeneratorCacheMaxSize, jwtGeneratorCacheExpiryTime);
 cache:Cache mutualSslCertificateCache = new (genericCacheConfig);
 
 APIGatewayCache gatewayCacheObject = new;
 
+boolean rejectedCredentialFilterEnabled = getConfigBooleanValue(REJECTED_CREDENTIAL_FILTER_ID,
+                                                                REJECTED_CREDENTIAL_FILTER_ENABLED,
+                                                                DEFAULT_REJECTED_CREDENTIAL_FILTER_ENABLED);
+
+# Token cache which either delegates to a ballerina cache, or keys the entries by the digest of the key and bounds the
+# estimated heap used by the entries, if a maximum size in bytes is configured. The ballerina cache is only created if
+# the cache is not digest keyed. The hit ratio and the heap use of the digest keyed caches are exposed as
+# `org.wso2.micro.gateway:type=TokenCache,name=<name>` MBeans.
+public type DigestKeyedCache object {
+
+    private cache:Cache? cache = ();
+    private string name;
+
+    public function __init(cache:CacheConfig cacheConfig, string name, int maxSizeInBytes, int maxAgeInSeconds) {
+        self.name = name;
+        if (maxSizeInBytes > 0) {
+            initTokenCache(name, maxSizeInBytes, maxAgeInSeconds * 1000);
+        } else {
+            self.cache = new (cacheConfig);
+        }
+    }
+
+    public function get(string key) returns any|error {
+        cache:Cache? ballerinaCache = self.cache;
+        if (ballerinaCache is cache:Cache) {
+            return ballerinaCache.get(key);
+        }
+        return getFromTokenCache(self.name, key);
+    }
+
+    public function put(string key, any value) returns error? {
+        cache:Cache? ballerinaCache = self.cache;
+        if (ballerinaCache is cache:Cache) {
+            return ballerinaCache.put(key, value);
+        }
+        putToTokenCache(self.name, key, value);
+    }
+
+    public function invalidate(string key) returns error? {
+        cache:Cache? ballerinaCache = self.cache;
+        if (ballerinaCache is cache:Cache) {
+            return ballerinaCache.invalidate(key);
+        }
+        invalidateTokenCache(self.name, key);
+    }
+};
+
 public type APIGatewayCache object {
 
     public function authenticateFromGatewayKeyValidationCache(string tokenCacheKey) returns
@@ -76,6 +137,7 @@ public type APIGatewayCache object {
 
     public function addToGatewayKeyValidationCache(string tokenCacheKey, APIKeyValidationDto
     apiKeyValidationDto) {
+        apiKeyValidationDto.cachedTime = time:currentTime().time;
         error? err = gatewayKeyValidationCache.put(tokenCacheKey, <@untainted>apiKeyValidationDto);
         if (err is error) {
             printError(KEY_GW_CACHE, "Error while adding token cache key to the gateway key validation cache", err);
@@ -83,6 +145,18 @@ public type APIGatewayCache object {
         printDebug(KEY_GW_CACHE, "Added key validation information to the key validation cache. key: " + mask(tokenCacheKey));
     }
 
+    # Checks whether a key validation cache entry should be validated again ahead of its expiry, as it has been in
+    # the cache for longer than the refresh ahead fraction of the cache expiry time. An entry whose last refresh
+    # failed is kept, and is only due again after the retry interval.
+    #
+    # + apiKeyValidationDto - key validation information retrieved from the cache
+    # + return - `true` if the entry should be validated again
+    public function isDueForRefresh(APIKeyValidationDto apiKeyValidationDto) returns boolean {
+        int? cachedTime = apiKeyValidationDto?.cachedTime;
+        return cachedTime is int && isRefreshAheadDue(cachedTime, apiKeyValidationDto?.refreshTime ?: 0,
+            cacheExpiryTime * 1000, refreshAheadFactor);
+    }
+
     public function removeFromGatewayKeyValidationCache(string tokenCacheKey) {
         error? err = gatewayKeyValidationCache.invalidate(tokenCacheKey);
         if (err is error) {
@@ -193,11 +267,11 @@ public type APIGatewayCache object {
         return introspectCache;
     }
 
-    public function getJwtGeneratorCache() returns cache:Cache {
+    public function getJwtGeneratorCache() returns DigestKeyedCache {
         return jwtGeneratorCache;
     }
 
-    public function getGatewayClaimsCache() returns cache:Cache {
+    public function getGatewayClaimsCache() returns DigestKeyedCache {
         return gatewayClaimsCache;
     }
 
@@ -205,7 +279,7 @@ public type APIGatewayCache object {
         return mutualSslCertificateCache;
     }
 
-    public function getGatewayTokenCache() returns cache:Cache {
+    public function getGatewayTokenCache() returns DigestKeyedCache {
         return gatewayTokenCache;
     }
 
@@ -217,7 +291,7 @@ public type APIGatewayCache object {
         return invalidTokenCache;
     }
 
-    public function getJwtGeneratorExpTimeCache() returns cache:Cache {
+    public function getJwtGeneratorExpTimeCache() returns DigestKeyedCache {
         return jwtGeneratorExpTimeCache;
     }
 };
@@ -226,3 +300,40 @@ public function getCacheObject() returns APIGatewayCache {
     return gatewayCacheObject;
 }
 
+# Creates the filter of the recently rejected credentials, which is shared by the authentication handlers, if it is
+# enabled.
+function initializeRejectedCredentialFilter() {
+    if (rejectedCredentialFilterEnabled) {
+        initRejectedCredentialFilter(getConfigIntValue(REJECTED_CREDENTIAL_FILTER_ID,
+            REJECTED_CREDENTIAL_FILTER_EXPECTED_INSERTIONS, DEFAULT_REJECTED_CREDENTIAL_FILTER_EXPECTED_INSERTIONS),
+            getConfigFloatValue(REJECTED_CREDENTIAL_FILTER_ID, REJECTED_CREDENTIAL_FILTER_FALSE_POSITIVE_RATE,
+            DEFAULT_REJECTED_CREDENTIAL_FILTER_FALSE_POSITIVE_RATE),
+            getConfigIntValue(REJECTED_CREDENTIAL_FILTER_ID, REJECTED_CREDENTIAL_FILTER_ROTATION_PERIOD,
+            DEFAULT_REJECTED_CREDENTIAL_FILTER_ROTATION_PERIOD));
+        printDebug(KEY_GW_CACHE, "Initialized the rejected credential filter.");
+    }
+}
+
+# Checks whether the credential was rejected recently, in which case it can be rejected without being validated
+# again. Credentials which were not rejected are reported as rejected with the configured false positive rate, hence
+# the caches of the valid credentials should be checked first.
+#
+# + credential - credential, prefixed by the issuer if it is only rejected by a particular issuer
+# + return - `true` if the credential was rejected recently
+function isRejectedCredential(string credential) returns boolean {
+    if (rejectedCredentialFilterEnabled && isInRejectedCredentialFilter(credential)) {
+        printDebug(KEY_GW_CACHE, "Credential found in the rejected credential filter.");
+        return true;
+    }
+    return false;
+}
+
+# Adds a credential which failed validation to the rejected credential filter. Only failures which do not depend on
+# the API or the resource being accessed should be added.
+#
+# + credential - credential, prefixed by the issuer if it is only rejected by a particular issuer
+function addRejectedCredential(string credential) {
+    if (rejectedCredentialFilterEnabled) {
+        addToRejectedCredentialFilter(credential);
+    }
+}
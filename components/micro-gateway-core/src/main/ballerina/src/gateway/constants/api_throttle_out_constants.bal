@@ -33,3 +33,11 @@ const string THROTTLE_OUT_REASON_RESOURCE_LIMIT_EXCEEDED = "RESOURCE_LIMIT_EXCEE
 const string THROTTLE_OUT_REASON_SUBSCRIPTION_LIMIT_EXCEEDED = "SUBSCRIPTION_LIMIT_EXCEEDED";
 const string THROTTLE_OUT_REASON_APPLICATION_LIMIT_EXCEEDED = "APPLICATION_LIMIT_EXCEEDED";
 const string POLICY_NOT_FOUND_DESCRIPTION = "POLICY ENFORCEMENT ERROR";
+
+// Local throttle decisions returned by the native throttle counters
+const int LOCAL_THROTTLE_API_LEVEL = 1;
+const int LOCAL_THROTTLE_RESOURCE_LEVEL = 2;
+const int LOCAL_THROTTLE_SUBSCRIPTION_LEVEL = 3;
+const int LOCAL_THROTTLE_APP_LEVEL = 4;
+const int LOCAL_THROTTLE_LEVEL_MASK = 7;
+const int LOCAL_THROTTLE_QUOTA_EXCEEDED_FLAG = 8;
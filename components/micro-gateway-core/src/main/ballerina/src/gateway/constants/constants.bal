@@ -57,6 +57,7 @@ public const string WWW_AUTHENTICATE_ERROR = ", error=\"invalid token\" , error_
 public const string X_FORWARD_FOR_HEADER = "X-FORWARDED-FOR";
 public const string KEY_VALIDATION_RESPONSE = "KEY_VALIDATION_RESPONSE";
 public const string AUTHENTICATION_CONTEXT = "AUTHENTICATION_CONTEXT";
+public const string GATEWAY_REQUEST_CONTEXT = "GATEWAY_REQUEST_CONTEXT";
 public const string SUPER_TENANT_DOMAIN_NAME = "carbon.super";
 public const int SUPER_TENANT_ID = -1234;
 public const string THROTTLE_KEY = "throttleKey";
@@ -175,6 +176,18 @@ public const string FILE_UPLOAD_TASK = "taskUploadFiles";
 public const string INITIAL_DELAY = "initialDelayInMillis";
 public const string DESTINATION = "destination";
 public const string FILE_UPLOAD_ENABLE = "enable";
+public const string EVENT_WRITER_RING_SIZE = "eventWriterRingSize";
+public const string EVENT_WRITER_FLUSH_SIZE = "eventWriterFlushSizeInBytes";
+public const string EVENT_WRITER_FLUSH_INTERVAL = "eventWriterFlushIntervalInMillis";
+public const string EVENT_FILE_MAX_SIZE = "maxEventFileSizeInBytes";
+public const string EVENT_FILE_FORMAT = "eventFileFormat";
+public const string EVENT_FILE_COMPRESS_ON_WRITE = "compressEventFileOnWrite";
+public const string EVENT_FILE_COMPRESSION_LEVEL = "eventFileCompressionLevel";
+public const string UPLOAD_THREADS = "uploadThreads";
+public const string UPLOAD_MAX_RETRIES = "uploadMaxRetries";
+public const string UPLOAD_RETRY_INTERVAL = "uploadRetryIntervalInMillis";
+public const string UPLOAD_MAX_RETRY_INTERVAL = "uploadMaxRetryIntervalInMillis";
+public const string UPLOAD_MAX_BACKLOG_FILES = "maxBacklogFiles";
 public const string APIM_ANALYTICS_STREAM_VERSION = "streamVersion";
 
 //gRPC analytics related constants
@@ -182,6 +195,23 @@ public const string GRPC_ANALYTICS = "analytics.gRPCAnalytics";
 public const string GRPC_ANALYTICS_ENABLE = "enable";
 public const string GRPC_ENDPOINT_URL = "endpointURL";
 public const string GRPC_RETRY_TIME_MILLISECONDS = "reconnectTimeInMillies";
+public const string GRPC_BATCH_SIZE = "batchSize";
+public const string GRPC_LINGER_TIME = "lingerTimeInMillis";
+public const string GRPC_MEMORY_QUEUE_SIZE = "memoryQueueSize";
+public const string GRPC_MAX_DISK_BUFFER_SIZE = "maxDiskBufferSizeInBytes";
+public const string GRPC_ANALYTICS_BUFFER_DIR = "grpc-analytics-buffer";
+public const int GRPC_ANALYTICS_QUEUED = 0;
+public const int GRPC_ANALYTICS_BATCH_READY = 1;
+public const int GRPC_ANALYTICS_BUFFER_FULL = 2;
+
+//analytics aggregation related constants
+public const string ANALYTICS_AGGREGATION = "analytics.aggregation";
+public const string AGGREGATION_ENABLE = "enable";
+public const string AGGREGATION_INTERVAL = "intervalInMillis";
+public const string AGGREGATION_MAX_AGGREGATES = "maxAggregates";
+public const int ANALYTICS_AGGREGATE_RESPONSE = 0;
+public const int ANALYTICS_AGGREGATE_FAULT = 1;
+public const int ANALYTICS_AGGREGATE_THROTTLE = 2;
  
 //validation_filter related constatnts
 public const string PATHS = "paths";
@@ -244,6 +274,10 @@ public const string VERSIONS = "versions";
 public const string VERSION = "version";
 public const string ALIAS_LIST = "aliasList";
 public const string KM_CONF_ISSUER = "issuer";
+public const string KM_CONF_COALESCE_VALIDATION = "coalesceValidation";
+public const string KM_CONF_COALESCE_TIMEOUT = "coalesceTimeout";
+public const string KEY_VALIDATION_SINGLE_FLIGHT = "keyValidation";
+public const string INTROSPECTION_SINGLE_FLIGHT = "introspection";
 
 public const string HTTP_CLIENTS_INSTANCE_ID = "httpClients";
 public const string HTTP_CLIENTS_POOL_CONFIG_INSTANCE_ID = "httpClients.poolConfig";
@@ -350,6 +384,13 @@ public const string TOKEN_CACHE_ENABLED = "enabled";
 public const string TOKEN_CACHE_EXPIRY = "tokenCacheExpiryTime";
 public const string TOKEN_CACHE_CAPACITY = "tokenCacheCapacity";
 public const string TOKEN_CACHE_EVICTION_FACTOR = "tokenCacheEvictionFactor";
+public const string TOKEN_CACHE_REFRESH_AHEAD_FACTOR = "tokenCacheRefreshAheadFactor";
+public const string TOKEN_CACHE_MAX_SIZE_IN_BYTES = "tokenCacheMaxSizeInBytes";
+public const string REJECTED_CREDENTIAL_FILTER_ID = "caching.rejectedCredentialFilter";
+public const string REJECTED_CREDENTIAL_FILTER_ENABLED = "enabled";
+public const string REJECTED_CREDENTIAL_FILTER_EXPECTED_INSERTIONS = "expectedInsertions";
+public const string REJECTED_CREDENTIAL_FILTER_FALSE_POSITIVE_RATE = "falsePositiveRate";
+public const string REJECTED_CREDENTIAL_FILTER_ROTATION_PERIOD = "rotationPeriod";
 
 public const string JWT_CONFIG_INSTANCE_ID = "jwtConfig";
 public const string JWT_HEADER = "header";
@@ -358,6 +399,13 @@ public const string EXPECT_HEADER = "Expect";
 public const string VALIDATION_CONFIG_INSTANCE_ID = "validationConfig";
 public const string REQUEST_VALIDATION_ENABLED = "enableRequestValidation";
 public const string RESPONSE_VALIDATION_ENABLED = "enableResponseValidation";
+public const string VALIDATION_MAX_PAYLOAD_SIZE = "maxPayloadSize";
+public const string VALIDATION_MAX_PAYLOAD_DEPTH = "maxPayloadDepth";
+public const string RESPONSE_VALIDATION_MODE = "responseValidationMode";
+public const string RESPONSE_VALIDATION_SAMPLE_RATE = "responseValidationSampleRate";
+public const string RESPONSE_VALIDATION_WORKERS = "responseValidationWorkers";
+public const string RESPONSE_VALIDATION_QUEUE_SIZE = "responseValidationQueueSize";
+public const string RESPONSE_VALIDATION_MODE_ASYNC = "async";
 public const string SWAGGER_ABSOLUTE_PATH = "absolutePathToSwagger";
 
 public const string THROTTLE_CONF_INSTANCE_ID = "throttlingConfig";
@@ -365,7 +413,10 @@ public const string LOCAL_THROTTLE_CONF_INSTANCE_ID = "throttlingConfig.nodeLoca
 public const string PROCESS_THREAD_POOL_CORE_SIZE = "processThreadPoolCoreSize";
 public const string PROCESS_THREAD_POOL_MAXIMUM_SIZE = "processThreadPoolMaximumSize";
 public const string PROCESS_THREAD_POOL_KEEP_ALIVE_TIME = "processThreadPoolKeepAliveTime";
-public const string THROTTLE_CLEANUP_FREQUENCY = "cleanUpFrequency";
+public const string THROTTLE_ALGORITHM = "algorithm";
+public const string THROTTLE_UPDATE_MODE = "updateMode";
+public const string THROTTLE_UPDATE_RING_COUNT = "updateRingCount";
+public const string THROTTLE_UPDATE_RING_BUFFER_SIZE = "updateRingBufferSize";
 public const string GLOBAL_TM_EVENT_PUBLISH_ENABLED = "enabledGlobalTMEventPublishing";
 public const string HEADER_CONDITIONS_ENABLED = "enableHeaderConditions";
 public const string QUERY_CONDITIONS_ENABLED = "enableQueryParamConditions";
@@ -420,6 +471,8 @@ public const string TM_AGENT_SECURE_MIN_IDLE_TIME_IN_POOL = "secureMinIdleTimeIn
 
 public const string TOKEN_REVOCATION_CONF_INSTANCE_ID = "tokenRevocationConfig";
 public const string TOKEN_REVOCATION_ENABLED = "enabledTokenRevocation";
+public const string TOKEN_REVOCATION_BLOOM_FILTER_ENABLED = "enableBloomFilter";
+public const string TOKEN_REVOCATION_BLOOM_FILTER_CAPACITY = "bloomFilterCapacity";
 public const string REALTIME_MESSAGE_INSTANCE_ID = "tokenRevocationConfig.realtime";
 public const string REALTIME_MESSAGE_ENABLED = "enableRealtimeMessageRetrieval";
 public const string REALTIME_JMS_CONNECTION_INITIAL_CONTEXT_FACTORY = "jmsConnectioninitialContextFactory";
@@ -512,6 +565,7 @@ const string KEY_UTILS = "Utils";
 const string KEY_OAUTH_PROVIDER = "OAuthAuthProvider";
 const string KEY_UPLOAD_TASK = "UploadTimerTask";
 const string KEY_ROTATE_TASK = "RotateTimerTask";
+const string KEY_AGGREGATE_TASK = "AggregateTimerTask";
 const string KEY_ETCD_UTIL = "EtcdUtil";
 const string KEY_TOKEN_REVOCATION_ETCD_UTIL = "TokenRevocationETCDUtil";
 const string KEY_TOKEN_REVOCATION_JMS = "TokenRevocationJMS";
@@ -599,6 +653,7 @@ public const string JWT_GENERATOR_TOKEN_CACHE_ENABLED = "tokenCacheEnable";
 public const string JWT_GENERATOR_TOKEN_CACHE_EXPIRY = "tokenCacheExpiryTime";
 public const string JWT_GENERATOR_TOKEN_CACHE_CAPACITY = "tokenCacheCapacity";
 public const string JWT_GENERATOR_TOKEN_CACHE_EVICTION_FACTOR = "tokenCacheEvictionFactor";
+public const string JWT_GENERATOR_TOKEN_CACHE_MAX_SIZE_IN_BYTES = "tokenCacheMaxSizeInBytes";
 
 // server configurations
 public const string SERVER_CONF_ID = "server";
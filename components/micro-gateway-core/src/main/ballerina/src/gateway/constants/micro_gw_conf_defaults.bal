@@ -37,6 +37,8 @@ public const string DEFAULT_KM_TOKEN_CONTEXT = "oauth2";
 public const int DEFAULT_TIMESTAMP_SKEW = 5000;
 public const boolean DEFAULT_EXTERNAL = false;
 public const string DEFAULT_KM_CONF_ISSUER = "https://localhost:9443/oauth2/token";
+public const boolean DEFAULT_KM_CONF_COALESCE_VALIDATION = true;
+public const int DEFAULT_KM_CONF_COALESCE_TIMEOUT = 30000;
 
 public const boolean DEFAULT_KM_REMOTE_USER_CLAIM_RETRIEVAL_ENABLED = false;
 
@@ -69,6 +71,12 @@ public const boolean DEFAULT_CACHING_ENABLED = true;
 public const int DEFAULT_TOKEN_CACHE_EXPIRY = 900000;
 public const int DEFAULT_TOKEN_CACHE_CAPACITY = 10000;
 public const float DEFAULT_TOKEN_CACHE_EVICTION_FACTOR = 0.25;
+public const float DEFAULT_TOKEN_CACHE_REFRESH_AHEAD_FACTOR = 0.8;
+public const int DEFAULT_TOKEN_CACHE_MAX_SIZE_IN_BYTES = 0;
+public const boolean DEFAULT_REJECTED_CREDENTIAL_FILTER_ENABLED = false;
+public const int DEFAULT_REJECTED_CREDENTIAL_FILTER_EXPECTED_INSERTIONS = 100000;
+public const float DEFAULT_REJECTED_CREDENTIAL_FILTER_FALSE_POSITIVE_RATE = 0.001;
+public const int DEFAULT_REJECTED_CREDENTIAL_FILTER_ROTATION_PERIOD = 300000;
 
 //note, for analytics some configuration default values are not set. They are read directly from conf.
 public const boolean DEFAULT_ANALYTICS_ENABLED = false;
@@ -77,12 +85,32 @@ public const int DEFAULT_INITIAL_DELAY_IN_MILLIS = 5000;
 public const string DEFAULT_UPLOADING_EP = "https://localhost:9444/analytics/v1.0/usage/upload-file";
 public const int DEFAULT_ROTATING_PERIOD_IN_MILLIS =  600000;
 public const boolean DEFAULT_TASK_UPLOAD_FILES_ENABLED = true;
+public const int DEFAULT_EVENT_WRITER_RING_SIZE = 8192;
+public const int DEFAULT_EVENT_WRITER_FLUSH_SIZE = 65536;
+public const int DEFAULT_EVENT_WRITER_FLUSH_INTERVAL_IN_MILLIS = 1000;
+public const int DEFAULT_EVENT_FILE_MAX_SIZE = 104857600;
+public const string DEFAULT_EVENT_FILE_FORMAT = "text";
+public const boolean DEFAULT_EVENT_FILE_COMPRESS_ON_WRITE = false;
+public const int DEFAULT_EVENT_FILE_COMPRESSION_LEVEL = 6;
+public const int DEFAULT_UPLOAD_THREADS = 2;
+public const int DEFAULT_UPLOAD_MAX_RETRIES = 3;
+public const int DEFAULT_UPLOAD_RETRY_INTERVAL_IN_MILLIS = 1000;
+public const int DEFAULT_UPLOAD_MAX_RETRY_INTERVAL_IN_MILLIS = 60000;
+public const int DEFAULT_UPLOAD_MAX_BACKLOG_FILES = 100;
 public const string DEFAULT_AM_ANALYTICS_VERSION = "3.2.0";
 public const string DEFAULT_AM_ANALYTICS_VERSION_300 = "3.0.0";
 public const string DEFAULT_AM_ANALYTICS_VERSION_310 = "3.1.0";
 //constants for gRPC analytics
 public const string DEFAULT_GRPC_ENDPOINT_URL = "https://localhost:9806";
 public const int DEFAULT_GRPC_RECONNECT_TIME_IN_MILLES = 6000;
+public const int DEFAULT_GRPC_BATCH_SIZE = 100;
+public const int DEFAULT_GRPC_LINGER_TIME_IN_MILLIS = 1000;
+public const int DEFAULT_GRPC_MEMORY_QUEUE_SIZE = 10000;
+public const int DEFAULT_GRPC_MAX_DISK_BUFFER_SIZE = 104857600;
+//constants for analytics aggregation
+public const boolean DEFAULT_AGGREGATION_ENABLED = false;
+public const int DEFAULT_AGGREGATION_INTERVAL_IN_MILLIS = 60000;
+public const int DEFAULT_AGGREGATION_MAX_AGGREGATES = 100000;
 
 public const boolean DEFAULT_HTTP2_ENABLED = true;
 
@@ -104,12 +132,21 @@ public const string DEFAULT_MTSL_CONF_CERT_HEADER_NAME = "X-WSO2-CLIENT-CERTIFIC
 
 public const boolean DEFAULT_REQUEST_VALIDATION_ENABLED = false;
 public const boolean DEFAULT_RESPONSE_VALIDATION_ENABLED = false;
+public const int DEFAULT_VALIDATION_MAX_PAYLOAD_SIZE = 10485760;
+public const int DEFAULT_VALIDATION_MAX_PAYLOAD_DEPTH = 100;
+public const string DEFAULT_RESPONSE_VALIDATION_MODE = "blocking";
+public const float DEFAULT_RESPONSE_VALIDATION_SAMPLE_RATE = 1.0;
+public const int DEFAULT_RESPONSE_VALIDATION_WORKERS = 2;
+public const int DEFAULT_RESPONSE_VALIDATION_QUEUE_SIZE = 1000;
 
 // Local throttling related constants
 public const int DEFAULT_PROCESS_THREAD_POOL_CORE_SIZE = 200;
 public const int DEFAULT_PROCESS_THREAD_POOL_MAXIMUM_SIZE = 1000;
 public const int DEFAULT_PROCESS_THREAD_POOL_KEEP_ALIVE_TIME = 200;
-public const int DEFAULT_THROTTLE_CLEANUP_FREQUENCY = 3600000;
+public const string DEFAULT_THROTTLE_ALGORITHM = "fixedWindow";
+public const string DEFAULT_THROTTLE_UPDATE_MODE = "inline";
+public const int DEFAULT_THROTTLE_UPDATE_RING_COUNT = 4;
+public const int DEFAULT_THROTTLE_UPDATE_RING_BUFFER_SIZE = 4096;
 
 public const boolean DEFAULT_GLOBAL_TM_EVENT_PUBLISH_ENABLED = false;
 public const boolean DEFAULT_HEADER_CONDITIONS_ENABLED = false;
@@ -165,6 +202,8 @@ public const int DEFAULT_TM_AGENT_SECURE_EVICTION_TIME_PERIOD = 5500;
 public const int DEFAULT_TM_AGENT_SECURE_MIN_IDLE_TIME_IN_POOL = 5000;
 
 public const boolean DEFAULT_TOKEN_REVOCATION_ENABLED = false;
+public const boolean DEFAULT_TOKEN_REVOCATION_BLOOM_FILTER_ENABLED = true;
+public const int DEFAULT_TOKEN_REVOCATION_BLOOM_FILTER_CAPACITY = 10000;
 public const string DEFAULT_REALTIME_JMS_CONNECTION_TOPIC = "tokenRevocation";
 public const boolean DEFAULT_PERSISTENT_USE_DEFAULT = false;
 public const string DEFAULT_PERSISTENT_TYPE = "default";
@@ -65,6 +65,15 @@ public const string FILTER_VALIDATION = "Validation";
 public const string PER_REQ_DURATION = "Per_Request_Duration";
 public const string REQ_FLTER_DURATION = "Request_Filter_Duration";
 public const string REQ_DURATION_TOTAL = "Request_Duration_Total";
+public const string LOCAL_THROTTLE_QUEUE_DEPTH = "Local_Throttle_Update_Queue_Depth";
+public const string LOCAL_THROTTLE_QUEUE_DEPTH_DESC = "Throttle events waiting to update the local throttle counters";
+public const string LOCAL_THROTTLE_UPDATE_LAG = "Local_Throttle_Update_Lag";
+public const string LOCAL_THROTTLE_UPDATE_LAG_DESC = "Time between the arrival of a request and the update of the " +
+    "local throttle counters";
+public const string LOCAL_THROTTLE_LIVE_KEYS = "Local_Throttle_Live_Keys";
+public const string LOCAL_THROTTLE_LIVE_KEYS_DESC = "Throttle keys which have local throttle counters";
+public const string LOCAL_THROTTLE_EXPIRED_KEYS_RATE = "Local_Throttle_Expired_Keys_Per_Second";
+public const string LOCAL_THROTTLE_EXPIRED_KEYS_RATE_DESC = "Rate at which local throttle counters expire";
 public const string FILTER_TOTAL_DURATION = "Filter_Total_Duration";
 public const string ANALYTIC_GAUGE_TAGS = "ANALYTIC_GAUGE_TAGS";
 public const string VALIDATION_GAUGE_TAGS = "VALIDATION_GAUGE_TAGS";
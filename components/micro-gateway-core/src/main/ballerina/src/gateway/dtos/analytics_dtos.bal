@@ -103,3 +103,22 @@ public type EventDTO record {
     string correlationData = "";
     string payloadData = "";
 };
+
+type AnalyticsUploaderConfig record {|
+    string directory;
+    string endpoint;
+    string username;
+    string password;
+    string trustStorePath;
+    string trustStorePassword;
+    boolean verifyHostname;
+    string proxyHost = "";
+    int proxyPort = 0;
+    string proxyUsername = "";
+    string proxyPassword = "";
+    int uploadThreads;
+    int maxRetries;
+    int retryIntervalInMillis;
+    int maxRetryIntervalInMillis;
+    int maxBacklogFiles;
+|};
@@ -40,6 +40,8 @@ public type APIKeyValidationDto record {
     string userType?;
     string validationStatus = "";
     string validityPeriod?;
+    int cachedTime?;
+    int refreshTime?;
 };
 
 public type APIRequestMetaDataDto record {
@@ -77,6 +79,40 @@ public type AuthenticationContext record {
     string apiPublisher = UNKNOWN_VALUE;
 };
 
+# Per request state shared by the gateway filters and authentication handlers. It is kept in the single
+# `GATEWAY_REQUEST_CONTEXT` attribute of the invocation context, instead of a string keyed attribute for each value.
+# The attributes read by the generated services and the extension filters, such as `FILTER_FAILED` and the error
+# details, are still set to the filter and invocation contexts.
+public type GatewayRequestContext record {|
+    string messageId = "";
+    int requestTime = 0;
+    boolean isSecured = false;
+    string remoteAddress = "";
+    AuthenticationContext? authenticationContext = ();
+    // throttling
+    boolean isThrottleOut = false;
+    string throttleOutReason = "";
+    boolean allowedOnQuotaReached = false;
+    // latencies in milliseconds
+    int securityLatencyAuthn = 0;
+    int securityLatencyAuthz = 0;
+    int securityLatencyAuthzResponse = 0;
+    int securityLatencySubs = 0;
+    int securityLatencyValidation = 0;
+    int throttleLatency = 0;
+    // analytics
+    string protocol = "";
+    string hostname = "";
+    string apiMethod = "";
+    string applicationOwner = "";
+    string apiTier = "";
+    string apiCreatorTenantDomain = "";
+    boolean continueOnThrottle = false;
+    string userAgent = "";
+    string userIp = "";
+    int requestTimestamp = 0;
+|};
+
 //todo: update all the properties accordingly.
 public type KeyManagerConf record {
     string serverUrl = getConfigValue(KM_CONF_INSTANCE_ID, KM_SERVER_URL, DEFAULT_KM_SERVER_URL);
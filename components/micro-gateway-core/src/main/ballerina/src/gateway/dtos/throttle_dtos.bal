@@ -73,18 +73,26 @@ public type RequestStreamDTO record {
     string appId = "";
     string apiName = "";
     string properties = "";
+    // matching resource and http method of the request, which are only set by local throttle events of requests
+    // throttled by a resource level policy
+    string resourcePath = "";
+    string httpMethod = "";
     int resourceTierCount = -1;
     int resourceTierUnitTime = -1;
     string resourceTierTimeUnit = "";
+    string resourceTierAlgorithm = "";
     int appTierCount = -1;
     int appTierUnitTime = -1;
     string appTierTimeUnit = "";
+    string appTierAlgorithm = "";
     int apiTierCount = -1;
     int apiTierUnitTime = -1;
     string apiTierTimeUnit = "";
+    string apiTierAlgorithm = "";
     int subscriptionTierCount = -1;
     int subscriptionTierUnitTime = -1;
     string subscriptionTierTimeUnit = "";
+    string subscriptionTierAlgorithm = "";
 };
 
 public type GlobalThrottleStreamDTO record {
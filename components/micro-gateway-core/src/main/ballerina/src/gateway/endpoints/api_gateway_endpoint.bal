@@ -33,23 +33,6 @@ getConfigValue(KM_CONF_INSTANCE_ID, KM_SERVER_URL, DEFAULT_KM_SERVER_URL),
     }
 });
 
-http:Client analyticsFileUploadEndpoint = new (
-getConfigValue(FILE_UPLOAD_ANALYTICS, UPLOADING_EP, DEFAULT_UPLOADING_EP),
-{
-    cache: {enabled: false},
-    secureSocket: {
-        trustStore: {
-            path: getConfigValue(LISTENER_CONF_INSTANCE_ID, TRUST_STORE_PATH, DEFAULT_TRUST_STORE_PATH),
-            password: getConfigValue(LISTENER_CONF_INSTANCE_ID, TRUST_STORE_PASSWORD, DEFAULT_TRUST_STORE_PASSWORD)
-        },
-        verifyHostname: getConfigBooleanValue(HTTP_CLIENTS_INSTANCE_ID, ENABLE_HOSTNAME_VERIFICATION, true)
-
-    },
-    http1Settings : {
-        proxy: getClientProxyForInternalServices()
-    }
-});
-
 public function getTokenEndpoint() returns http:Client {
     return tokenEndpoint;
 }
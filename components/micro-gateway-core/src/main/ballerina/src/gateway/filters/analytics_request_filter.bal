@@ -20,21 +20,21 @@ import ballerina/runtime;
 public type AnalyticsRequestFilter object {
 
     public function filterRequest(http:Caller caller, http:Request request, http:FilterContext context) returns boolean {
-        printDebug(KEY_ANALYTICS_FILTER, "Analytics Version " + amAnalyticsVersion);
+        printDebugFormat(KEY_ANALYTICS_FILTER, "Analytics Version {}", amAnalyticsVersion);
         if (context.attributes.hasKey(SKIP_ALL_FILTERS) && <boolean>context.attributes[SKIP_ALL_FILTERS]) {
             printDebug(KEY_ANALYTICS_FILTER, "Skip all filter annotation set in the service. Skip the filter");
             return true;
         }
         //Filter only if analytics is enabled.
         if (isAnalyticsEnabled || isGrpcAnalyticsEnabled) {
-            context.attributes[PROTOCOL_PROPERTY] = caller.protocol;
+            getGatewayRequestContext().protocol = caller.protocol;
             doFilterRequest(request, context);
         }
         return true;
     }
 
     public function filterResponse(http:Response response, http:FilterContext context) returns boolean {
-        printDebug(KEY_ANALYTICS_FILTER, "Analytics Version " + amAnalyticsVersion);
+        printDebugFormat(KEY_ANALYTICS_FILTER, "Analytics Version {}", amAnalyticsVersion);
         if (context.attributes.hasKey(SKIP_ALL_FILTERS) && <boolean>context.attributes[SKIP_ALL_FILTERS]) {
             printDebug(KEY_ANALYTICS_FILTER, "Skip all filter annotation set in the service. Skip the filter");
             return true;
@@ -42,40 +42,38 @@ public type AnalyticsRequestFilter object {
         if (isAnalyticsEnabled || isGrpcAnalyticsEnabled) {
             runtime:InvocationContext invocationContext = runtime:getInvocationContext();
             boolean filterFailed = <boolean>invocationContext.attributes[FILTER_FAILED];
-            if (context.attributes.hasKey(IS_THROTTLE_OUT)) {
-                boolean isThrottleOut = <boolean>context.attributes[IS_THROTTLE_OUT];
-                if (isThrottleOut) {
-                    ThrottleAnalyticsEventDTO|error throttleAnalyticsEventDTO = trap populateThrottleAnalyticsDTO(context);
-                    if (throttleAnalyticsEventDTO is ThrottleAnalyticsEventDTO) {
-                        if (isGrpcAnalyticsEnabled) {
-                            // throttle stream gRPC Analytics
-                            AnalyticsStreamMessage message = createThrottleMessage(throttleAnalyticsEventDTO);
-                            printDebug(KEY_ANALYTICS_FILTER, "gRPC throttle stream message created.");
-                            future<()> throttleDataPublishFuture = start dataToAnalytics(message);
-                            printDebug(KEY_ANALYTICS_FILTER, "gRPC throttle stream message published.");
-                        }
-                        if (isAnalyticsEnabled) {
-                            EventDTO|error eventDTO  = trap getEventFromThrottleData(throttleAnalyticsEventDTO);
-                            if (eventDTO is EventDTO) {
-                                future<()> responseDataPublishFuture = start writeEventToFile(eventDTO);
-                                printDebug(KEY_ANALYTICS_FILTER, "File upload throttle stream data published." + eventDTO.streamId);
-                            } else {
-                                printError(KEY_ANALYTICS_FILTER, "Error while creating throttle analytics event", eventDTO);
-                            }
+            GatewayRequestContext requestContext = getGatewayRequestContext();
+            if (requestContext.isThrottleOut) {
+                ThrottleAnalyticsEventDTO|error throttleAnalyticsEventDTO = trap populateThrottleAnalyticsDTO(context);
+                if (throttleAnalyticsEventDTO is ThrottleAnalyticsEventDTO) {
+                    if (isGrpcAnalyticsEnabled) {
+                        // throttle stream gRPC Analytics
+                        AnalyticsStreamMessage message = createThrottleMessage(throttleAnalyticsEventDTO);
+                        printDebug(KEY_ANALYTICS_FILTER, "gRPC throttle stream message created.");
+                        dataToAnalytics(message);
+                        printDebug(KEY_ANALYTICS_FILTER, "gRPC throttle stream message published.");
+                    }
+                    if (isAnalyticsAggregationEnabled) {
+                        recordAnalyticsAggregate(throttleAnalyticsEventDTO.apiName,
+                            throttleAnalyticsEventDTO.apiVersion, throttleAnalyticsEventDTO.apiContext,
+                            throttleAnalyticsEventDTO.apiResourceTemplate, throttleAnalyticsEventDTO.apiMethod,
+                            throttleAnalyticsEventDTO.applicationId, throttleAnalyticsEventDTO.applicationName, 0,
+                            ANALYTICS_AGGREGATE_THROTTLE, 0, 0, throttleAnalyticsEventDTO.throttledTime);
+                    } else if (isAnalyticsEnabled) {
+                        EventDTO|error eventDTO  = trap getEventFromThrottleData(throttleAnalyticsEventDTO);
+                        if (eventDTO is EventDTO) {
+                            writeEventToFile(eventDTO);
+                            printDebugFormat(KEY_ANALYTICS_FILTER, "File upload throttle stream data published.{}",
+                                    eventDTO.streamId);
+                        } else {
+                            printError(KEY_ANALYTICS_FILTER, "Error while creating throttle analytics event", eventDTO);
                         }
-                    } else {
-                        printError(KEY_ANALYTICS_FILTER, "Error while populating throttle analytics event data", throttleAnalyticsEventDTO);
                     }
                 } else {
-                    if (!filterFailed) {
-                        doFilterAll(response, context);
-                    }
-                }
-            } else {
-                if (!filterFailed) {
-                    context.attributes[THROTTLE_LATENCY] = 0;
-                    doFilterAll(response, context);
+                    printError(KEY_ANALYTICS_FILTER, "Error while populating throttle analytics event data", throttleAnalyticsEventDTO);
                 }
+            } else if (!filterFailed) {
+                doFilterAll(response, context);
             }
         }
         return true;
@@ -94,19 +92,28 @@ function doFilterRequest(http:Request request, http:FilterContext context) {
 function doFilterFault(http:FilterContext context, string errorMessage) {
     FaultDTO|error faultDTO = trap populateFaultAnalyticsDTO(context, errorMessage);
     if (faultDTO is FaultDTO) {
-        printDebug(KEY_ANALYTICS_FILTER, "doFilterFault method called. Client type : " + faultDTO. metaClientType + " applicationName :" + faultDTO.applicationName);
+        printDebugFormat(KEY_ANALYTICS_FILTER, "doFilterFault method called. Client type : {} applicationName :{}",
+                faultDTO.metaClientType, faultDTO.applicationName);
         if (isGrpcAnalyticsEnabled) {
             //fault stream gRPC Analytics
-            printDebug(KEY_ANALYTICS_FILTER, "gRPC fault stream message publishing for API : " + faultDTO.apiName);
+            printDebugFormat(KEY_ANALYTICS_FILTER, "gRPC fault stream message publishing for API : {}",
+                    faultDTO.apiName);
             AnalyticsStreamMessage message = createFaultMessage(faultDTO);
-            future<()> faultDataPublishFuture = start dataToAnalytics(message);
+            dataToAnalytics(message);
+            return;
+        }
+        if (isAnalyticsAggregationEnabled) {
+            recordAnalyticsAggregate(faultDTO.apiName, faultDTO.apiVersion, faultDTO.apiContext,
+                faultDTO.apiResourceTemplate, faultDTO.method, faultDTO.applicationId, faultDTO.applicationName,
+                faultDTO.errorCode, ANALYTICS_AGGREGATE_FAULT, 0, 0, faultDTO.faultTime);
             return;
         }
         EventDTO|error eventDTO = trap getEventFromFaultData(faultDTO);
         if (eventDTO is EventDTO) {
             if (isAnalyticsEnabled != false) {
-                printDebug(KEY_ANALYTICS_FILTER, "File Upload fault stream invoked for API : " + faultDTO.apiName);
-                future<()> responseDataPublishFuture = start writeEventToFile(eventDTO);
+                printDebugFormat(KEY_ANALYTICS_FILTER, "File Upload fault stream invoked for API : {}",
+                        faultDTO.apiName);
+                writeEventToFile(eventDTO);
             }
         } else {
             printError(KEY_ANALYTICS_FILTER, "Error while genaratting analytics data for fault event", eventDTO);
@@ -125,15 +132,25 @@ function doFilterResponseData(http:Response response, http:FilterContext context
         //Response stream gRPC Analyrics
         AnalyticsStreamMessage message = createResponseMessage(requestResponseExecutionDTO);
         printDebug(KEY_ANALYTICS_FILTER,"gRPC response stream Data starting to publish");
-        future<()> responseDataPublishFuture = start dataToAnalytics(message);
+        dataToAnalytics(message);
+        return;
+    }
+    if (isAnalyticsAggregationEnabled && requestResponseExecutionDTO is RequestResponseExecutionDTO) {
+        recordAnalyticsAggregate(requestResponseExecutionDTO.apiName, requestResponseExecutionDTO.apiVersion,
+            requestResponseExecutionDTO.apiContext, requestResponseExecutionDTO.apiResourceTemplate,
+            requestResponseExecutionDTO.apiMethod, requestResponseExecutionDTO.applicationId,
+            requestResponseExecutionDTO.applicationName, requestResponseExecutionDTO.responseCode,
+            ANALYTICS_AGGREGATE_RESPONSE, requestResponseExecutionDTO.responseTime,
+            requestResponseExecutionDTO.responseSize, requestResponseExecutionDTO.requestTimestamp);
         return;
     }
     if (requestResponseExecutionDTO is RequestResponseExecutionDTO) {
         EventDTO|error event = trap generateEventFromRequestResponseExecutionDTO(requestResponseExecutionDTO);
         if(event is EventDTO) {
             if (isAnalyticsEnabled) {
-                printDebug(KEY_ANALYTICS_FILTER, "File Upload eventRequestStream called for API : " + requestResponseExecutionDTO.apiName);
-                future<()> responseDataPublishFuture = start writeEventToFile(event);
+                printDebugFormat(KEY_ANALYTICS_FILTER, "File Upload eventRequestStream called for API : {}",
+                        requestResponseExecutionDTO.apiName);
+                writeEventToFile(event);
             }
         } else {
             printError(KEY_ANALYTICS_FILTER, "Error while genarating analytics data event", event);
@@ -146,7 +163,7 @@ function doFilterResponseData(http:Response response, http:FilterContext context
 
 function doFilterAll(http:Response response, http:FilterContext context) {
     var resp = runtime:getInvocationContext().attributes[ERROR_RESPONSE];
-    printDebug(KEY_ANALYTICS_FILTER, "doFilterAll method resp value : "+ resp.toString());
+    printDebugFormat(KEY_ANALYTICS_FILTER, "doFilterAll method resp value : {}", resp);
     if (resp is ()) {
         printDebug(KEY_ANALYTICS_FILTER, "No any faulty analytics events to handle.");
         doFilterResponseData(response, context);
@@ -44,7 +44,7 @@ public type OAuthzFilter object {
             // scope validation is done in authn filter for oauth2, hence we only need to
             //validate scopes if auth scheme is jwt.
             if (authScheme is string && authScheme == AUTH_SCHEME_JWT) {
-                printDebug(KEY_AUTHZ_FILTER, "Auth scheme was resolved as : " + authScheme);
+                printDebugFormat(KEY_AUTHZ_FILTER, "Auth scheme was resolved as : {}", authScheme);
                 //Start a new child span for the span.
                 int | error | () balSpan = startSpan(BALLERINA_AUTHZ_FILTER);
                 result = self.authzFilter.filterRequest(caller, request, context);
@@ -52,7 +52,7 @@ public type OAuthzFilter object {
                 finishSpan(BALLERINA_AUTHZ_FILTER, balSpan);
             }
         }
-        printDebug(KEY_AUTHZ_FILTER, "Returned with value: " + result.toString());
+        printDebugFormat(KEY_AUTHZ_FILTER, "Returned with value: {}", result);
         string authHeader = runtime:getInvocationContext().attributes[AUTH_HEADER].toString();
         checkAndRemoveAuthHeaders(request, authHeader);
         setLatency(startingTime, context, SECURITY_LATENCY_AUTHZ);
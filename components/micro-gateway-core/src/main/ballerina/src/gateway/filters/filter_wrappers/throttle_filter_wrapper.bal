@@ -36,6 +36,7 @@ public type ThrottleFilterWrapper object {
         float | () latency = setGaugeDuration(startingTime);
         updateGauge(localGauge, latency);
         updateGauge(localGaugeTotal, latency);
+        updateLocalThrottleGauges();
         //Finish span.
         finishSpan(THROTTLE_FILTER_REQUEST, spanIdReq);
         return result;
@@ -46,3 +47,21 @@ public type ThrottleFilterWrapper object {
         return result;
     }
 };
+
+function updateLocalThrottleGauges() {
+    if (!isMetricsEnabled || enabledGlobalTMEventPublishing) {
+        return;
+    }
+    observe:Gauge | () queueDepthGauge = initializeGauge(LOCAL_THROTTLE_QUEUE_DEPTH, LOCAL_THROTTLE_QUEUE_DEPTH_DESC,
+        {"Category": FILTER_THROTTLING});
+    updateGauge(queueDepthGauge, <float>getLocalThrottleUpdateQueueDepth());
+    observe:Gauge | () updateLagGauge = initializeGauge(LOCAL_THROTTLE_UPDATE_LAG, LOCAL_THROTTLE_UPDATE_LAG_DESC,
+        {"Category": FILTER_THROTTLING});
+    updateGauge(updateLagGauge, <float>getLocalThrottleUpdateLag());
+    observe:Gauge | () liveKeysGauge = initializeGauge(LOCAL_THROTTLE_LIVE_KEYS, LOCAL_THROTTLE_LIVE_KEYS_DESC,
+        {"Category": FILTER_THROTTLING});
+    updateGauge(liveKeysGauge, <float>getLiveThrottleKeyCount());
+    observe:Gauge | () expiredKeysGauge = initializeGauge(LOCAL_THROTTLE_EXPIRED_KEYS_RATE,
+        LOCAL_THROTTLE_EXPIRED_KEYS_RATE_DESC, {"Category": FILTER_THROTTLING});
+    updateGauge(expiredKeysGauge, getExpiredThrottleKeysPerSecond());
+}
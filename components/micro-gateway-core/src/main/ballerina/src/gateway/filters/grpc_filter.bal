@@ -28,7 +28,7 @@ public type GrpcFilter object {
             returns boolean {
         if ( request.getContentType() == GRPC_CONTENT_TYPE_HEADER) {
             addGrpcToFilterContext(context);
-            printDebug(KEY_GRPC_FILTER, "Grpc filter is applied for request" + context.attributes[MESSAGE_ID].toString());
+            printDebugFormat(KEY_GRPC_FILTER, "Grpc filter is applied for request{}", context.attributes[MESSAGE_ID]);
         }
         return true;
     }
@@ -37,7 +37,7 @@ public type GrpcFilter object {
         if (!needGrpcResponseFiltering(response, context)) {
            return true;
         }
-        printDebug(KEY_GRPC_FILTER, "Grpc filter is applied for response" + context.attributes[MESSAGE_ID].toString());
+        printDebugFormat(KEY_GRPC_FILTER, "Grpc filter is applied for response{}", context.attributes[MESSAGE_ID]);
         string statusCode = response.statusCode.toString();
         if (statusCode == "200") {
            return true;
@@ -56,7 +56,7 @@ function addGrpcToFilterContext(http:FilterContext context) {
     runtime:InvocationContext invocationContext = runtime:getInvocationContext();
     context.attributes[IS_GRPC] = true;
     invocationContext.attributes[IS_GRPC] = true;
-    printDebug(KEY_GRPC_FILTER, "\"isGrpc\" key is added to the request " + context.attributes[MESSAGE_ID].toString());
+    printDebugFormat(KEY_GRPC_FILTER, "\"isGrpc\" key is added to the request {}", context.attributes[MESSAGE_ID]);
 }
 
 function needGrpcResponseFiltering(http:Response response, http:FilterContext context) returns boolean {
@@ -88,7 +88,7 @@ public function attachGrpcErrorHeaders(http:Response response, string errorMsg)
     response.setHeader(GRPC_MESSAGE_HEADER, grpcErrorMessage, mime:TRAILING);
     response.setTextPayload("");
     response.setContentType(GRPC_CONTENT_TYPE_HEADER);
-    printDebug(KEY_GRPC_FILTER, "grpc status is " + grpcStatus + " and grpc Message is " + grpcErrorMessage);
+    printDebugFormat(KEY_GRPC_FILTER, "grpc status is {} and grpc Message is {}", grpcStatus, grpcErrorMessage);
 
 }
 
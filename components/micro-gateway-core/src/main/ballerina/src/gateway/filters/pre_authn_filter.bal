@@ -28,10 +28,12 @@ public type PreAuthnFilter object {
             printDebug(KEY_PRE_AUTHN_FILTER, "Skip all filter annotation set in the service. Skip the filter");
             return true;
         }
+        GatewayRequestContext requestContext = createGatewayRequestContext();
         //Setting UUID
         int startingTime = getCurrentTimeForAnalytics();
-        context.attributes[REQUEST_TIME] = startingTime;
+        requestContext.requestTime = startingTime;
         checkOrSetMessageID(context);
+        requestContext.messageId = <string>context.attributes[MESSAGE_ID];
         setHostHeaderToFilterContext(request, context);
         //To set the properties which are required for the validation filter
         setReqPathAndMethodToFilterContext(request, context);
@@ -72,10 +74,11 @@ function doAuthnFilterRequest(http:Caller caller, http:Request request, http:Fil
 returns boolean {
     boolean isOauth2Enabled = false;
     runtime:InvocationContext invocationContext = runtime:getInvocationContext();
-    invocationContext.attributes[MESSAGE_ID] = <string>context.attributes[MESSAGE_ID];
+    GatewayRequestContext requestContext = getGatewayRequestContext();
+    invocationContext.attributes[MESSAGE_ID] = requestContext.messageId;
     printDebug(KEY_PRE_AUTHN_FILTER, "Processing request via Pre Authentication filter.");
 
-    context.attributes[REMOTE_ADDRESS] = getClientIp(request, caller);
+    requestContext.remoteAddress = getClientIp(request, caller);
     context.attributes[FILTER_FAILED] = false;
     invocationContext.attributes[FILTER_FAILED] = false;
     string serviceName = context.getServiceName();
@@ -83,19 +86,18 @@ returns boolean {
     invocationContext.attributes[SERVICE_TYPE_ATTR] = context.getService();
     invocationContext.attributes[RESOURCE_NAME_ATTR] = resourceName;
     boolean isSecuredResource = isSecured(serviceName, resourceName);
-    printDebug(KEY_PRE_AUTHN_FILTER, "Resource secured : " + isSecuredResource.toString());
-    invocationContext.attributes[IS_SECURED] = isSecuredResource;
-    context.attributes[IS_SECURED] = isSecuredResource;
+    printDebugFormat(KEY_PRE_AUTHN_FILTER, "Resource secured : {}", isSecuredResource);
+    requestContext.isSecured = isSecuredResource;
     invocationContext.attributes[REQUEST_METHOD] = request.method;
     invocationContext.attributes[REQUEST_RAWPATH] = request.rawPath;
 
     string authHeader = "";
     string | error extractedToken = "";
     string authHeaderName = getAuthHeaderFromFilterContext(context);
-    printDebug(KEY_PRE_AUTHN_FILTER, "Authentication header name : " + authHeaderName);
+    printDebugFormat(KEY_PRE_AUTHN_FILTER, "Authentication header name : {}", authHeaderName);
     invocationContext.attributes[AUTH_HEADER] = authHeaderName;
     string[] authProvidersIds = getAuthProviders(context.getServiceName(), context.getResourceName());
-    printDebug(KEY_PRE_AUTHN_FILTER, "Auth providers array  : " + authProvidersIds.toString());
+    printDebugFormat(KEY_PRE_AUTHN_FILTER, "Auth providers array : {}", authProvidersIds);
 
     boolean isAPIKeyAuth = false;
     if (request.hasHeader(authHeaderName)) {
@@ -110,16 +112,17 @@ returns boolean {
                     if (apiKey is  map<json>) {
                         string inName = apiKey[API_KEY_IN].toString();
                         string name = apiKey[API_KEY_NAME].toString();
-                        printDebug(KEY_PRE_AUTHN_FILTER, "Detected apikey security in : " + inName + " name: " + name);
+                        printDebugFormat(KEY_PRE_AUTHN_FILTER, "Detected apikey security in : {} name: {}",
+                                inName, name);
                         if (stringutils:equalsIgnoreCase(HEADER, inName) && request.hasHeader(name)) {
-                            printDebug(KEY_PRE_AUTHN_FILTER, "Request has apikey header : " + name);
+                            printDebugFormat(KEY_PRE_AUTHN_FILTER, "Request has apikey header : {}", name);
                             isAPIKeyAuth = true;
                             setAPIKeyAuth(inName, name);
                             authHeader = AUTH_SCHEME_API_KEY;
                             break;
                         } else if (stringutils:equalsIgnoreCase(QUERY, inName)
                                 && request.getQueryParamValue(name) is string) {
-                            printDebug(KEY_PRE_AUTHN_FILTER, "Request has apikey query : " + name);
+                            printDebugFormat(KEY_PRE_AUTHN_FILTER, "Request has apikey query : {}", name);
                             isAPIKeyAuth = true;
                             setAPIKeyAuth(inName, name);
                             authHeader = AUTH_SCHEME_API_KEY;
@@ -134,7 +137,7 @@ returns boolean {
     setMutualSSL(context.getServiceName());
 
     string providerId = getAuthenticationProviderType(authHeader);
-    printDebug(KEY_PRE_AUTHN_FILTER, "Provider Id for authentication handler : " + providerId);
+    printDebugFormat(KEY_PRE_AUTHN_FILTER, "Provider Id for authentication handler : {}", providerId);
     boolean canHandleAuthentication = isAPIKeyAuth;
     foreach string provider in authProvidersIds {
         if (provider == providerId) {
@@ -163,7 +166,7 @@ returns boolean {
 }
 
 function getAuthenticationProviderType(string authHeader) returns (string) {
-    printDebug(KEY_PRE_AUTHN_FILTER, "authHeader: " + authHeader);
+    printDebugFormat(KEY_PRE_AUTHN_FILTER, "authHeader: {}", authHeader);
     string authHdr = authHeader.toLowerAscii();
     if (contains(authHdr, AUTH_SCHEME_BASIC_LOWERCASE)) {
         return AUTHN_SCHEME_BASIC;
@@ -61,26 +61,32 @@ deployedPolicies) returns boolean {
     boolean isThrottled = false;
     boolean stopOnQuota;
     string apiContext = getContext(context);
-    boolean isSecured = <boolean>invocationContext.attributes[IS_SECURED];
-    context.attributes[ALLOWED_ON_QUOTA_REACHED] = false;
-    context.attributes[IS_THROTTLE_OUT] = false;
-    context.attributes[API_METHOD_PROPERTY] = request.method;
+    GatewayRequestContext requestContext = getGatewayRequestContext();
+    boolean isSecured = requestContext.isSecured;
+    requestContext.allowedOnQuotaReached = false;
+    requestContext.isThrottleOut = false;
+    requestContext.apiMethod = request.method;
 
     AuthenticationContext keyValidationResult = {};
     string? apiVersion = getVersion(context);
-    string resourceLevelThrottleKey = getResourceThrottleKey(invocationContext, apiContext, apiVersion);
     string? resourceLevelPolicyName = getResourceLevelPolicy(context);
     string clientIP = (enabledGlobalTMEventPublishing) ? getClientIp(request, caller): "";
     string tenantDomain = (enabledGlobalTMEventPublishing) ? getTenantDomain(context) : "";
-    if (invocationContext.attributes.hasKey(AUTHENTICATION_CONTEXT)) {
+    AuthenticationContext? authenticationContext = requestContext.authenticationContext;
+    if (authenticationContext is AuthenticationContext) {
         printDebug(KEY_THROTTLE_FILTER, "Context contains Authentication Context");
-        keyValidationResult = <AuthenticationContext>invocationContext.attributes[AUTHENTICATION_CONTEXT];
+        keyValidationResult = authenticationContext;
         if (isRequestBlocked(caller, request, context, keyValidationResult, apiContext, tenantDomain, clientIP)) {
             setThrottleErrorMessageToContext(context, FORBIDDEN, BLOCKING_ERROR_CODE,
             BLOCKING_MESSAGE, BLOCKING_DESCRIPTION);
             sendErrorResponse(caller, request, context, KEY_THROTTLE_FILTER);
             return false;
         }
+        if (!enabledGlobalTMEventPublishing) {
+            return doLocalThrottleFilterRequest(caller, request, context, keyValidationResult, deployedPolicies,
+                apiContext, apiVersion, resourceLevelPolicyName);
+        }
+        string resourceLevelThrottleKey = getResourceThrottleKey(invocationContext, apiContext, apiVersion);
         string apiLevelPolicy = getAPITier(context.getServiceName(),keyValidationResult.apiTier);
         if(!checkAPILevelThrottled(caller, request, context, apiLevelPolicy, deployedPolicies, apiContext, apiVersion)) {
             return false;
@@ -88,11 +94,11 @@ deployedPolicies) returns boolean {
         if(!checkResourceLevelThrottled(caller, request, context, resourceLevelPolicyName, deployedPolicies, resourceLevelThrottleKey)) {
             return false;
         }
-        printDebug(KEY_THROTTLE_FILTER, "Checking subscription level throttle policy '" + keyValidationResult.
-                tier + "' exist.");
+        printDebugFormat(KEY_THROTTLE_FILTER, "Checking subscription level throttle policy '{}' exist.",
+                keyValidationResult.tier);
         if (keyValidationResult.tier != UNLIMITED_TIER && !isPolicyExist(deployedPolicies, keyValidationResult.tier, SUB_LEVEL_PREFIX)) {
-            printDebug(KEY_THROTTLE_FILTER, "Subscription level throttle policy '" + keyValidationResult.tier
-            + "' does not exist.");
+            printDebugFormat(KEY_THROTTLE_FILTER, "Subscription level throttle policy '{}' does not exist.",
+                    keyValidationResult.tier);
             setThrottleErrorMessageToContext(context, INTERNAL_SERVER_ERROR,
             INTERNAL_ERROR_CODE_POLICY_NOT_FOUND,
             INTERNAL_SERVER_ERROR_MESSAGE, POLICY_NOT_FOUND_DESCRIPTION);
@@ -102,29 +108,29 @@ deployedPolicies) returns boolean {
         printDebug(KEY_THROTTLE_FILTER, "Checking subscription level throttling-out.");
         [isThrottled, stopOnQuota] = isSubscriptionLevelThrottled(keyValidationResult, deployedPolicies,
             apiContext, apiVersion);
-        printDebug(KEY_THROTTLE_FILTER, "Subscription level throttling result:: isThrottled:"
-        + isThrottled.toString() + ", stopOnQuota:" + stopOnQuota.toString());
+        printDebugFormat(KEY_THROTTLE_FILTER,
+                "Subscription level throttling result:: isThrottled:{}, stopOnQuota:{}", isThrottled, stopOnQuota);
         if (isThrottled) {
             if (stopOnQuota) {
                 printDebug(KEY_THROTTLE_FILTER, "Sending throttled out responses.");
-                context.attributes[IS_THROTTLE_OUT] = true;
-                context.attributes[THROTTLE_OUT_REASON] = THROTTLE_OUT_REASON_SUBSCRIPTION_LIMIT_EXCEEDED;
+                requestContext.isThrottleOut = true;
+                requestContext.throttleOutReason = THROTTLE_OUT_REASON_SUBSCRIPTION_LIMIT_EXCEEDED;
                 setThrottleErrorMessageToContext(context, THROTTLED_OUT, SUBSCRIPTION_THROTTLE_OUT_ERROR_CODE,
                 THROTTLE_OUT_MESSAGE, THROTTLE_OUT_DESCRIPTION);
                 sendErrorResponse(caller, request, context, KEY_THROTTLE_FILTER);
                 return false;
             } else {
                 // set properties in order to publish into analytics for billing
-                context.attributes[ALLOWED_ON_QUOTA_REACHED] = true;
+                requestContext.allowedOnQuotaReached = true;
                 printDebug(KEY_THROTTLE_FILTER, "Proceeding(1st) since stopOnQuota is set to false.");
             }
         }
-        printDebug(KEY_THROTTLE_FILTER, "Checking application level throttle policy '"
-        + keyValidationResult.applicationTier + "' exist.");
+        printDebugFormat(KEY_THROTTLE_FILTER, "Checking application level throttle policy '{}' exist.",
+                keyValidationResult.applicationTier);
         if (keyValidationResult.applicationTier != UNLIMITED_TIER &&
         !isPolicyExist(deployedPolicies, keyValidationResult.applicationTier, APP_LEVEL_PREFIX)) {
-            printDebug(KEY_THROTTLE_FILTER, "Application level throttle policy '"
-            + keyValidationResult.applicationTier + "' does not exist.");
+            printDebugFormat(KEY_THROTTLE_FILTER, "Application level throttle policy '{}' does not exist.",
+                    keyValidationResult.applicationTier);
             setThrottleErrorMessageToContext(context, INTERNAL_SERVER_ERROR,
             INTERNAL_ERROR_CODE_POLICY_NOT_FOUND,
             INTERNAL_SERVER_ERROR_MESSAGE, POLICY_NOT_FOUND_DESCRIPTION);
@@ -134,8 +140,8 @@ deployedPolicies) returns boolean {
         printDebug(KEY_THROTTLE_FILTER, "Checking application level throttling-out.");
         if (isApplicationLevelThrottled(keyValidationResult, deployedPolicies)) {
             printDebug(KEY_THROTTLE_FILTER, "Application level throttled out. Sending throttled out response.");
-            context.attributes[IS_THROTTLE_OUT] = true;
-            context.attributes[THROTTLE_OUT_REASON] = THROTTLE_OUT_REASON_APPLICATION_LIMIT_EXCEEDED;
+            requestContext.isThrottleOut = true;
+            requestContext.throttleOutReason = THROTTLE_OUT_REASON_APPLICATION_LIMIT_EXCEEDED;
             setThrottleErrorMessageToContext(context, THROTTLED_OUT, APPLICATION_THROTTLE_OUT_ERROR_CODE,
             THROTTLE_OUT_MESSAGE, THROTTLE_OUT_DESCRIPTION);
             sendErrorResponse(caller, request, context, KEY_THROTTLE_FILTER);
@@ -150,6 +156,7 @@ deployedPolicies) returns boolean {
         }
 
     } else if (!isSecured) {
+        string resourceLevelThrottleKey = getResourceThrottleKey(invocationContext, apiContext, apiVersion);
         string apiLevelPolicy = getAPITier(context.getServiceName(),"");
         if (!checkAPILevelThrottled(caller, request, context, apiLevelPolicy, deployedPolicies, apiContext, apiVersion)) {
             return false;
@@ -161,11 +168,11 @@ deployedPolicies) returns boolean {
         // setting keytype to invocationContext
         invocationContext.attributes[KEY_TYPE_ATTR] = PRODUCTION_KEY_TYPE;
 
-        printDebug(KEY_THROTTLE_FILTER, "Checking unauthenticated throttle policy '" + UNAUTHENTICATED_TIER
-        + "' exist.");
+        printDebugFormat(KEY_THROTTLE_FILTER, "Checking unauthenticated throttle policy '{}' exist.",
+                UNAUTHENTICATED_TIER);
         if (!isPolicyExist(deployedPolicies, UNAUTHENTICATED_TIER, SUB_LEVEL_PREFIX)) {
-            printDebug(KEY_THROTTLE_FILTER, "Unauthenticated throttle policy '" + UNAUTHENTICATED_TIER
-            + "' is not exist.");
+            printDebugFormat(KEY_THROTTLE_FILTER, "Unauthenticated throttle policy '{}' is not exist.",
+                    UNAUTHENTICATED_TIER);
             setThrottleErrorMessageToContext(context, INTERNAL_SERVER_ERROR,
             INTERNAL_ERROR_CODE_POLICY_NOT_FOUND,
             INTERNAL_SERVER_ERROR_MESSAGE, POLICY_NOT_FOUND_DESCRIPTION);
@@ -173,24 +180,24 @@ deployedPolicies) returns boolean {
             return false;
         }
         [isThrottled, stopOnQuota] = isUnauthenticateLevelThrottled(context, apiContext, apiVersion);
-        printDebug(KEY_THROTTLE_FILTER, "Unauthenticated tier throttled out result:: isThrottled:"
-        + isThrottled.toString() + ", stopOnQuota:" + stopOnQuota.toString());
+        printDebugFormat(KEY_THROTTLE_FILTER,
+                "Unauthenticated tier throttled out result:: isThrottled:{}, stopOnQuota:{}", isThrottled, stopOnQuota);
         if (isThrottled) {
             if (stopOnQuota) {
                 printDebug(KEY_THROTTLE_FILTER, "Sending throttled out response.");
-                context.attributes[IS_THROTTLE_OUT] = true;
-                context.attributes[THROTTLE_OUT_REASON] = THROTTLE_OUT_REASON_SUBSCRIPTION_LIMIT_EXCEEDED;
+                requestContext.isThrottleOut = true;
+                requestContext.throttleOutReason = THROTTLE_OUT_REASON_SUBSCRIPTION_LIMIT_EXCEEDED;
                 setThrottleErrorMessageToContext(context, THROTTLED_OUT, SUBSCRIPTION_THROTTLE_OUT_ERROR_CODE,
                 THROTTLE_OUT_MESSAGE, THROTTLE_OUT_DESCRIPTION);
                 sendErrorResponse(caller, request, context, KEY_THROTTLE_FILTER);
                 return false;
             } else {
                 // set properties in order to publish into analytics for billing
-                context.attributes[ALLOWED_ON_QUOTA_REACHED] = true;
+                requestContext.allowedOnQuotaReached = true;
                 printDebug(KEY_THROTTLE_FILTER, "Proceeding(2nd) since stopOnQuota is set to false.");
             }
         }
-        string clientIp = <string>context.attributes[REMOTE_ADDRESS];
+        string clientIp = requestContext.remoteAddress;
         keyValidationResult.authenticated = true;
         keyValidationResult.tier = UNAUTHENTICATED_TIER;
         keyValidationResult.stopOnQuotaReach = true;
@@ -216,6 +223,76 @@ deployedPolicies) returns boolean {
     return true;
 }
 
+# Evaluates all the throttle levels of an authenticated request against the local throttle counters with a single
+# native call, which also updates the counters if the request is allowed.
+function doLocalThrottleFilterRequest(http:Caller caller, http:Request request, http:FilterContext context,
+        AuthenticationContext keyValidationResult, map<json> deployedPolicies, string apiContext, string? apiVersion,
+        string? resourceLevelPolicyName) returns boolean {
+    string apiLevelPolicy = getAPITier(context.getServiceName(), keyValidationResult.apiTier);
+    string resourceLevelPolicy = resourceLevelPolicyName ?: "";
+    if (!checkPolicyExist(caller, request, context, deployedPolicies, apiLevelPolicy, RESOURCE_LEVEL_PREFIX, true) ||
+        !checkPolicyExist(caller, request, context, deployedPolicies, resourceLevelPolicy, RESOURCE_LEVEL_PREFIX, true) ||
+        !checkPolicyExist(caller, request, context, deployedPolicies, keyValidationResult.tier, SUB_LEVEL_PREFIX, false) ||
+        !checkPolicyExist(caller, request, context, deployedPolicies, keyValidationResult.applicationTier,
+            APP_LEVEL_PREFIX, false)) {
+        return false;
+    }
+    RequestStreamDTO throttleEvent = generateLocalThrottleEvent(request, context, keyValidationResult,
+        deployedPolicies, apiContext, apiVersion);
+    int decision = checkAndUpdateLocalThrottleCounters(throttleEvent);
+    printDebugFormat(KEY_THROTTLE_FILTER, "Local throttle decision for the application '{}' of the API '{}' : {}",
+            throttleEvent.appId, apiContext, decision);
+    if ((decision & LOCAL_THROTTLE_QUOTA_EXCEEDED_FLAG) != 0) {
+        // set properties in order to publish into analytics for billing
+        getGatewayRequestContext().allowedOnQuotaReached = true;
+        printDebug(KEY_THROTTLE_FILTER, "Proceeding since stopOnQuota is set to false.");
+    }
+    int throttledLevel = decision & LOCAL_THROTTLE_LEVEL_MASK;
+    if (throttledLevel == LOCAL_THROTTLE_API_LEVEL) {
+        sendThrottleOutResponse(caller, request, context, THROTTLE_OUT_REASON_API_LIMIT_EXCEEDED,
+            API_THROTTLE_OUT_ERROR_CODE);
+        return false;
+    } else if (throttledLevel == LOCAL_THROTTLE_RESOURCE_LEVEL) {
+        sendThrottleOutResponse(caller, request, context, THROTTLE_OUT_REASON_RESOURCE_LIMIT_EXCEEDED,
+            RESOURCE_THROTTLE_OUT_ERROR_CODE);
+        return false;
+    } else if (throttledLevel == LOCAL_THROTTLE_SUBSCRIPTION_LEVEL) {
+        sendThrottleOutResponse(caller, request, context, THROTTLE_OUT_REASON_SUBSCRIPTION_LIMIT_EXCEEDED,
+            SUBSCRIPTION_THROTTLE_OUT_ERROR_CODE);
+        return false;
+    } else if (throttledLevel == LOCAL_THROTTLE_APP_LEVEL) {
+        sendThrottleOutResponse(caller, request, context, THROTTLE_OUT_REASON_APPLICATION_LIMIT_EXCEEDED,
+            APPLICATION_THROTTLE_OUT_ERROR_CODE);
+        return false;
+    }
+    printDebug(KEY_THROTTLE_FILTER, "Request is not throttled");
+    return true;
+}
+
+function checkPolicyExist(http:Caller caller, http:Request request, http:FilterContext context,
+        map<json> deployedPolicies, string policyName, string prefix, boolean allowEmpty) returns boolean {
+    if ((allowEmpty && policyName == "") || policyName == UNLIMITED_TIER ||
+        isPolicyExist(deployedPolicies, policyName, prefix)) {
+        return true;
+    }
+    printDebugFormat(KEY_THROTTLE_FILTER, "Throttle policy '{}' does not exist.", policyName);
+    setThrottleErrorMessageToContext(context, INTERNAL_SERVER_ERROR, INTERNAL_ERROR_CODE_POLICY_NOT_FOUND,
+        INTERNAL_SERVER_ERROR_MESSAGE, POLICY_NOT_FOUND_DESCRIPTION);
+    sendErrorResponse(caller, request, context, KEY_THROTTLE_FILTER);
+    return false;
+}
+
+function sendThrottleOutResponse(http:Caller caller, http:Request request, http:FilterContext context,
+        string reason, int errorCode) {
+    printDebugFormat(KEY_THROTTLE_FILTER, "Request throttled out due to {}. Sending throttled out response.", reason);
+    GatewayRequestContext requestContext = getGatewayRequestContext();
+    requestContext.isThrottleOut = true;
+    requestContext.throttleOutReason = reason;
+    setThrottleErrorMessageToContext(context, THROTTLED_OUT, errorCode, THROTTLE_OUT_MESSAGE,
+        THROTTLE_OUT_DESCRIPTION);
+    sendErrorResponse(caller, request, context, KEY_THROTTLE_FILTER);
+}
+
 function publishEvent(RequestStreamDTO throttleEvent) {
     printDebug(KEY_THROTTLE_FILTER, "Checking application sending throttle event to another worker.");
     publishNonThrottleEvent(throttleEvent);
@@ -241,7 +318,7 @@ function isSubscriptionLevelThrottled(AuthenticationContext keyValidationDto,
     if (apiVersion is string) {
         subscriptionLevelThrottleKey += ":" + apiVersion;
     }
-    printDebug(KEY_THROTTLE_FILTER, "Subscription level throttle key : " + subscriptionLevelThrottleKey);
+    printDebugFormat(KEY_THROTTLE_FILTER, "Subscription level throttle key : {}", subscriptionLevelThrottleKey);
     if (!enabledGlobalTMEventPublishing) {
         boolean stopOnQuota = <boolean>deployedPolicies.get(SUB_LEVEL_PREFIX + keyValidationDto.tier).stopOnQuota;
         boolean isThrottled = isSubLevelThrottled(subscriptionLevelThrottleKey);
@@ -256,7 +333,7 @@ function isApplicationLevelThrottled(AuthenticationContext keyValidationDto, map
         return false;
     }
     string applicationLevelThrottleKey = keyValidationDto.applicationId + ":" + keyValidationDto.username;
-    printDebug(KEY_THROTTLE_FILTER, "Application level throttle key : " + applicationLevelThrottleKey);
+    printDebugFormat(KEY_THROTTLE_FILTER, "Application level throttle key : {}", applicationLevelThrottleKey);
     boolean throttled;
     boolean stopOnQuota;
     if (!enabledGlobalTMEventPublishing) {
@@ -307,7 +384,7 @@ function getResourceLevelPolicy(http:FilterContext context) returns string? {
 }
 
 function isUnauthenticateLevelThrottled(http:FilterContext context, string apiContext, string? apiVersion) returns [boolean, boolean] {
-    string clientIp = <string>context.attributes[REMOTE_ADDRESS];
+    string clientIp = getGatewayRequestContext().remoteAddress;
     string throttleKey = clientIp + ":" + apiContext;
     if (apiVersion is string) {
         throttleKey += ":" + apiVersion;
@@ -332,85 +409,77 @@ function isRequestBlocked(http:Caller caller, http:Request request, http:FilterC
 }
 
 function isIpLevelBlocked(string clientIp, string tenanatDomain) returns boolean {
-    foreach IPRangeDTO ipRange in IpBlockConditionsMap {
-        if(ipRange.tenantDomain == tenanatDomain) {
-            if(ipRange.'type == BLOCKING_CONDITION_IP) {
-                if(ipRange.fixedIp == clientIp) {
-                    if(!ipRange.invert) {
-                        printDebug(KEY_THROTTLE_FILTER, "Blocked IP selected for blocking : " + clientIp);
-                        return true;
-                    }
-                } else {
-                    if(ipRange.invert) {
-                        printDebug(KEY_THROTTLE_FILTER, "Blocked IP invert condition selected for IP : " + clientIp);
-                        return true;
-                    }
-                }
-            } else if(ipRange.'type == BLOCKING_CONDITION_IP_RANGE) {
-                boolean isIpInRange = isIpWithinRange(clientIp, ipRange.startingIpNumber, ipRange.endingIpNumber);
-                if(isIpInRange) {
-                    if(!ipRange.invert) {
-                        printDebug(KEY_THROTTLE_FILTER, "The client IP : " + clientIp + " is within the blocking " +
-                        "IP range : [" + ipRange.startingIp + ", " + ipRange.endingIp + "].");
-                        return true;
-                    }
-                } else {
-                    if(ipRange.invert) {
-                        printDebug(KEY_THROTTLE_FILTER, "The client IP : " + clientIp + " is within the inverted  " +
-                        "blocking IP range : [" + ipRange.startingIp + ", " + ipRange.endingIp + "].");
-                        return true;
-                    }
-                }
-            }
-        }
+    boolean isBlocked = isIpBlockedByIndex(clientIp, tenanatDomain);
+    if (isBlocked) {
+        printDebugFormat(KEY_THROTTLE_FILTER, "Blocked IP selected for blocking : {}", clientIp);
     }
-    return false;
+    return isBlocked;
 }
 
 function generateThrottleEvent(http:Request req, http:FilterContext context, AuthenticationContext keyValidationDto,
                         map<json> deployedPolicies, string tenantDomain, string apiContext, string? apiVersion)
     returns (RequestStreamDTO) {
-    RequestStreamDTO requestStreamDTO = {};
     if (!enabledGlobalTMEventPublishing) {
-        requestStreamDTO = generateLocalThrottleEvent(req, context, keyValidationDto, deployedPolicies,
-            apiContext, apiVersion);
-    } else {
-        requestStreamDTO = generateGlobalThrottleEvent(req, context, keyValidationDto, deployedPolicies, tenantDomain,
-            apiContext, apiVersion);
+        return generateLocalThrottleEvent(req, context, keyValidationDto, deployedPolicies, apiContext, apiVersion);
     }
-    printDebug(KEY_THROTTLE_FILTER, "Resource key : " + requestStreamDTO.resourceKey +
-    "\nSubscription key : " + requestStreamDTO.subscriptionKey +
-    "\nApp key : " + requestStreamDTO.appKey +
-    "\nAPI key : " + requestStreamDTO.apiKey +
-    "\nResource Tier : " + requestStreamDTO.resourceTier +
-    "\nSubscription Tier : " + requestStreamDTO.subscriptionTier +
-    "\nApp Tier : " + requestStreamDTO.appTier +
-    "\nAPI Tier : " + requestStreamDTO.apiTier);
+    RequestStreamDTO requestStreamDTO = generateGlobalThrottleEvent(req, context, keyValidationDto, deployedPolicies,
+        tenantDomain, apiContext, apiVersion);
+    printDebugFormat(KEY_THROTTLE_FILTER, "Resource key : {}\nSubscription key : {}\nApp key : {}\nAPI key : {}"
+        + "\nResource Tier : {}\nSubscription Tier : {}\nApp Tier : {}\nAPI Tier : {}",
+        requestStreamDTO.resourceKey, requestStreamDTO.subscriptionKey, requestStreamDTO.appKey,
+        requestStreamDTO.apiKey, requestStreamDTO.resourceTier, requestStreamDTO.subscriptionTier,
+        requestStreamDTO.appTier, requestStreamDTO.apiTier);
     return requestStreamDTO;
 
 }
 
+# Generates the local throttle event of the request. The throttle keys are not built here, since the local throttle
+# counters look up the keys by their parts, i.e. the API context and version, the application id, the user id, and
+# the matching resource and http method if the resource is throttled by a resource level policy.
 function generateLocalThrottleEvent(http:Request req, http:FilterContext context, AuthenticationContext keyValidationDto,
     map<json> deployedPolicies, string apiContext, string? apiVersion) returns (RequestStreamDTO) {
-    RequestStreamDTO requestStreamDTO = setCommonThrottleData(req, context, keyValidationDto, deployedPolicies,
-        apiContext, apiVersion);
+    RequestStreamDTO requestStreamDTO = {};
+    runtime:InvocationContext invocationContext = runtime:getInvocationContext();
+    requestStreamDTO.appTier = keyValidationDto.applicationTier;
+    requestStreamDTO.apiTier = getAPITier(context.getServiceName(), keyValidationDto.apiTier);
+    requestStreamDTO.subscriptionTier = keyValidationDto.tier;
+    requestStreamDTO.apiContext = apiContext;
+    requestStreamDTO.apiVersion = apiVersion ?: "";
+    requestStreamDTO.appId = keyValidationDto.applicationId;
+    requestStreamDTO.userId = keyValidationDto.username;
+    if (requestStreamDTO.apiTier != UNLIMITED_TIER && requestStreamDTO.apiTier != "") {
+        requestStreamDTO.resourceTier = requestStreamDTO.apiTier;
+    } else {
+        requestStreamDTO.resourceTier = getResourceTier(context.getResourceName());
+        requestStreamDTO.resourcePath = invocationContext.attributes[MATCHING_RESOURCE].toString();
+        requestStreamDTO.httpMethod = invocationContext.attributes[REQUEST_METHOD].toString();
+    }
+    printDebugFormat(KEY_THROTTLE_FILTER, "API : {}:{}\nResource : {} {}\nApplication : {}\nUser : {}"
+        + "\nResource Tier : {}\nSubscription Tier : {}\nApp Tier : {}\nAPI Tier : {}", apiContext,
+        requestStreamDTO.apiVersion, requestStreamDTO.httpMethod, requestStreamDTO.resourcePath,
+        requestStreamDTO.appId, requestStreamDTO.userId, requestStreamDTO.resourceTier,
+        requestStreamDTO.subscriptionTier, requestStreamDTO.appTier, requestStreamDTO.apiTier);
     map<json> appPolicyDetails = getPolicyDetails(deployedPolicies, keyValidationDto.applicationTier, APP_LEVEL_PREFIX);
     requestStreamDTO.appTierCount = <int>appPolicyDetails.count;
     requestStreamDTO.appTierUnitTime = <int>appPolicyDetails.unitTime;
     requestStreamDTO.appTierTimeUnit = appPolicyDetails.timeUnit.toString();
+    requestStreamDTO.appTierAlgorithm = getPolicyAlgorithm(appPolicyDetails);
     map<json> subPolicyDetails = getPolicyDetails(deployedPolicies, keyValidationDto.tier, SUB_LEVEL_PREFIX);
     requestStreamDTO.subscriptionTierCount = <int>subPolicyDetails.count;
     requestStreamDTO.subscriptionTierUnitTime = <int>subPolicyDetails.unitTime;
     requestStreamDTO.subscriptionTierTimeUnit = subPolicyDetails.timeUnit.toString();
+    requestStreamDTO.subscriptionTierAlgorithm = getPolicyAlgorithm(subPolicyDetails);
     requestStreamDTO.stopOnQuota = <boolean>subPolicyDetails.stopOnQuota;
     map<json> resourcePolicyDetails = getPolicyDetails(deployedPolicies, requestStreamDTO.resourceTier, RESOURCE_LEVEL_PREFIX);
     requestStreamDTO.resourceTierCount = <int>resourcePolicyDetails.count;
     requestStreamDTO.resourceTierUnitTime = <int>resourcePolicyDetails.unitTime;
     requestStreamDTO.resourceTierTimeUnit = resourcePolicyDetails.timeUnit.toString();
+    requestStreamDTO.resourceTierAlgorithm = getPolicyAlgorithm(resourcePolicyDetails);
     map<json> apiPolicyDetails = getPolicyDetails(deployedPolicies, requestStreamDTO.apiTier, RESOURCE_LEVEL_PREFIX);
     requestStreamDTO.apiTierCount = <int>apiPolicyDetails.count;
     requestStreamDTO.apiTierUnitTime = <int>apiPolicyDetails.unitTime;
     requestStreamDTO.apiTierTimeUnit = apiPolicyDetails.timeUnit.toString();
+    requestStreamDTO.apiTierAlgorithm = getPolicyAlgorithm(apiPolicyDetails);
     return requestStreamDTO;
 }
 
@@ -419,7 +488,7 @@ function generateGlobalThrottleEvent(http:Request req, http:FilterContext contex
     returns (RequestStreamDTO) {
     RequestStreamDTO requestStreamDTO = setCommonThrottleData(req, context, keyValidationDto, deployedPolicies,
         apiContext, apiVersion);
-    requestStreamDTO.messageID = <string>context.attributes[MESSAGE_ID];
+    requestStreamDTO.messageID = getGatewayRequestContext().messageId;
     requestStreamDTO.userId = keyValidationDto.username;
     requestStreamDTO.apiContext = apiContext;
     requestStreamDTO.appTenant = keyValidationDto.subscriberTenantDomain;
@@ -478,10 +547,9 @@ function getVersion(http:FilterContext context) returns string | () {
 
 function checkAPILevelThrottled(http:Caller caller, http:Request request, http:FilterContext context,
                 string apiLevelPolicy,  map<json> deployedPolicies, string apiContext, string? apiVersion) returns boolean {
-    printDebug(KEY_THROTTLE_FILTER, "Checking api level throttle policy '" + apiLevelPolicy + "' exist.");
+    printDebugFormat(KEY_THROTTLE_FILTER, "Checking api level throttle policy '{}' exist.", apiLevelPolicy);
     if (apiLevelPolicy != "" && apiLevelPolicy != UNLIMITED_TIER && !isPolicyExist(deployedPolicies, apiLevelPolicy, RESOURCE_LEVEL_PREFIX)) {
-        printDebug(KEY_THROTTLE_FILTER, "API level throttle policy '" + apiLevelPolicy
-        + "' does not exist.");
+        printDebugFormat(KEY_THROTTLE_FILTER, "API level throttle policy '{}' does not exist.", apiLevelPolicy);
         setThrottleErrorMessageToContext(context, INTERNAL_SERVER_ERROR,
         INTERNAL_ERROR_CODE_POLICY_NOT_FOUND,
         INTERNAL_SERVER_ERROR_MESSAGE, POLICY_NOT_FOUND_DESCRIPTION);
@@ -492,8 +560,9 @@ function checkAPILevelThrottled(http:Caller caller, http:Request request, http:F
     ConditionalThrottleInfo info = buildConditionalThrottleInfo(caller, request);
     if (isAPILevelThrottled(apiContext, apiVersion, info)) {
         printDebug(KEY_THROTTLE_FILTER, "API level throttled out. Sending throttled out response.");
-        context.attributes[IS_THROTTLE_OUT] = true;
-        context.attributes[THROTTLE_OUT_REASON] = THROTTLE_OUT_REASON_API_LIMIT_EXCEEDED;
+        GatewayRequestContext requestContext = getGatewayRequestContext();
+        requestContext.isThrottleOut = true;
+        requestContext.throttleOutReason = THROTTLE_OUT_REASON_API_LIMIT_EXCEEDED;
         setThrottleErrorMessageToContext(context, THROTTLED_OUT, API_THROTTLE_OUT_ERROR_CODE,
         THROTTLE_OUT_MESSAGE, THROTTLE_OUT_DESCRIPTION);
         sendErrorResponse(caller, request, context, KEY_THROTTLE_FILTER);
@@ -507,11 +576,11 @@ function checkAPILevelThrottled(http:Caller caller, http:Request request, http:F
 function checkResourceLevelThrottled(http:Caller caller, http:Request request, http:FilterContext context,
                             string? resourceLevelPolicyName,  map<json> deployedPolicies, string resourceKey) returns boolean {
     if (resourceLevelPolicyName is string) {
-        printDebug(KEY_THROTTLE_FILTER, "Resource level throttle policy : " + resourceLevelPolicyName);
+        printDebugFormat(KEY_THROTTLE_FILTER, "Resource level throttle policy : {}", resourceLevelPolicyName);
         if (resourceLevelPolicyName.length() > 0 && resourceLevelPolicyName != UNLIMITED_TIER &&
             !isPolicyExist(deployedPolicies, resourceLevelPolicyName, RESOURCE_LEVEL_PREFIX)) {
-            printDebug(KEY_THROTTLE_FILTER, "Resource level throttle policy '" + resourceLevelPolicyName
-            + "' does not exist.");
+            printDebugFormat(KEY_THROTTLE_FILTER, "Resource level throttle policy '{}' does not exist.",
+                    resourceLevelPolicyName);
             setThrottleErrorMessageToContext(context, INTERNAL_SERVER_ERROR,
             INTERNAL_ERROR_CODE_POLICY_NOT_FOUND,
             INTERNAL_SERVER_ERROR_MESSAGE, POLICY_NOT_FOUND_DESCRIPTION);
@@ -523,8 +592,9 @@ function checkResourceLevelThrottled(http:Caller caller, http:Request request, h
     ConditionalThrottleInfo info = buildConditionalThrottleInfo(caller, request);
     if (isResourceLevelThrottled(resourceLevelPolicyName, deployedPolicies, resourceKey, info)) {
         printDebug(KEY_THROTTLE_FILTER, "Resource level throttled out. Sending throttled out response.");
-        context.attributes[IS_THROTTLE_OUT] = true;
-        context.attributes[THROTTLE_OUT_REASON] = THROTTLE_OUT_REASON_RESOURCE_LIMIT_EXCEEDED;
+        GatewayRequestContext requestContext = getGatewayRequestContext();
+        requestContext.isThrottleOut = true;
+        requestContext.throttleOutReason = THROTTLE_OUT_REASON_RESOURCE_LIMIT_EXCEEDED;
         setThrottleErrorMessageToContext(context, THROTTLED_OUT, RESOURCE_THROTTLE_OUT_ERROR_CODE,
         THROTTLE_OUT_MESSAGE, THROTTLE_OUT_DESCRIPTION);
         sendErrorResponse(caller, request, context, KEY_THROTTLE_FILTER);
@@ -540,36 +610,19 @@ function checkCustomThrottlePolicies(http:Caller caller, http:Request request, h
                         string resourceLevelThrottleKey, string tenantDomain, string clientIp)  returns boolean {
 
     printDebug(KEY_THROTTLE_FILTER, "Checking custom throttlle policies");
-    string userId = keyValidationDto.username;
-    string appTenant = keyValidationDto.subscriberTenantDomain;
-    string apiTenant = tenantDomain;
-    string appId = keyValidationDto.applicationId;
-
-    foreach KeyTemplate key in keyTemplateMap {
-        string modifiedKey = replaceAll(key.value, "\\$resourceKey", resourceLevelThrottleKey);
-        modifiedKey = replaceAll(modifiedKey, "\\$userId", userId);
-        modifiedKey = replaceAll(modifiedKey, "\\$apiContext", apiContext);
-        if(apiVersion is string) {
-            modifiedKey = replaceAll(modifiedKey, "\\$apiVersion", apiVersion);
-        }
-        modifiedKey = replaceAll(modifiedKey, "\\$appTenant", appTenant);
-        modifiedKey = replaceAll(modifiedKey, "\\$apiTenant", apiTenant);
-        modifiedKey = replaceAll(modifiedKey, "\\$appId", appId);
-        modifiedKey = replaceAll(modifiedKey, "\\$clientIp", clientIp);
-        printDebug(KEY_THROTTLE_FILTER, "Custom policy throttle key : " + modifiedKey);
-        boolean isThrottled;
-        boolean stopOnQuota;
-        [isThrottled, stopOnQuota] = isRequestThrottled(modifiedKey);
-        if(isThrottled) {
-            printDebug(KEY_THROTTLE_FILTER, "Custom policy throttle out for key : " + modifiedKey + ". Sending throttled out response.");
-            context.attributes[IS_THROTTLE_OUT] = true;
-            context.attributes[THROTTLE_OUT_REASON] = THROTTLE_OUT_REASON_RESOURCE_LIMIT_EXCEEDED;
-            setThrottleErrorMessageToContext(context, THROTTLED_OUT, CUSTOM_POLICY_THROTTLE_OUT_ERROR_CODE,
-            THROTTLE_OUT_MESSAGE, THROTTLE_OUT_DESCRIPTION);
-            sendErrorResponse(caller, request, context, KEY_THROTTLE_FILTER);
-            return false;
-        }
-
+    string throttledKey = getThrottledCustomKey(resourceLevelThrottleKey, keyValidationDto.username, apiContext,
+        apiVersion ?: "$apiVersion", keyValidationDto.subscriberTenantDomain, tenantDomain,
+        keyValidationDto.applicationId, clientIp);
+    if (throttledKey != "") {
+        printDebugFormat(KEY_THROTTLE_FILTER,
+                "Custom policy throttle out for key : {}. Sending throttled out response.", throttledKey);
+        GatewayRequestContext requestContext = getGatewayRequestContext();
+        requestContext.isThrottleOut = true;
+        requestContext.throttleOutReason = THROTTLE_OUT_REASON_RESOURCE_LIMIT_EXCEEDED;
+        setThrottleErrorMessageToContext(context, THROTTLED_OUT, CUSTOM_POLICY_THROTTLE_OUT_ERROR_CODE,
+        THROTTLE_OUT_MESSAGE, THROTTLE_OUT_DESCRIPTION);
+        sendErrorResponse(caller, request, context, KEY_THROTTLE_FILTER);
+        return false;
     }
     return true;
 }
@@ -582,7 +635,7 @@ function checkCustomThrottlePolicies(http:Caller caller, http:Request request, h
 function getAdditionalProperties(http:FilterContext context, http:Request req) returns map<json> {
     // Set IP address properties
     map<json> propMap = {};
-    string clientIp = <string>context.attributes[REMOTE_ADDRESS];
+    string clientIp = getGatewayRequestContext().remoteAddress;
     string[] ipParts = stringutils:split(clientIp, ":");
     boolean jwtGeneratorEnabled = gatewayConf.jwtGeneratorConfig.jwtGeneratorEnabled;
 
@@ -59,30 +59,38 @@ function doValidationFilterRequest(http:Caller caller, http:Request request, htt
     //todo: Accept only the content types which are mentioned in the openAPI definition
     //If the content-type is not application/json, validation fiter is not applied.
     if (!stringutils:equalsIgnoreCase(request.getContentType(), APPLICATION_JSON)) {
-        printDebug(KEY_VALIDATION_FILTER, "Validation Filter is not applied as the request content type is : " + 
-            request.getContentType());
+        printDebugFormat(KEY_VALIDATION_FILTER, "Validation Filter is not applied as the request content type is : {}",
+                request.getContentType());
         return true;
     }    
 
     printDebug(KEY_VALIDATION_FILTER, "The Request validation is enabled.");
     string serviceName = filterContext.getServiceName();
-    printDebug(KEY_VALIDATION_FILTER, "Relevent Service name : " + serviceName);
+    printDebugFormat(KEY_VALIDATION_FILTER, "Relevent Service name : {}", serviceName);
 
-    printDebug(KEY_VALIDATION_FILTER, "The Request resource Path : " + requestPath + ", method : " + requestMethod);
+    printDebugFormat(KEY_VALIDATION_FILTER, "The Request resource Path : {}, method : {}", requestPath, requestMethod);
        
-    //getting the payload of the request
-    string payloadVal = "";
-
-    var reqPayload  = request.getJsonPayload();
-    if (reqPayload is json) {
-        payloadVal = reqPayload.toJsonString();
+    string validationStatus;
+    string? contentLength = request.hasHeader(CONTENT_LENGHT_HEADER) ? request.getHeader(CONTENT_LENGHT_HEADER) : ();
+    string? payloadSizeError = getPayloadSizeLimitError(contentLength);
+    if (payloadSizeError is string) {
+        validationStatus = payloadSizeError;
+    } else {
+        //getting the payload bytes of the request, which are parsed once while validating
+        byte[] payloadVal = [];
+        var reqPayload = request.getBinaryPayload();
+        if (reqPayload is byte[]) {
+            payloadVal = reqPayload;
+        }
+        var valResult = requestPayloadValidate(requestPath, requestMethod, payloadVal, serviceName,
+            validationMaxPayloadSize, validationMaxPayloadDepth);
+        validationStatus = valResult.toString();
     }
-    var valResult = requestValidate(requestPath, requestMethod, payloadVal, serviceName);
-    if (valResult is handle && stringutils:equalsIgnoreCase(valResult.toString(), VALIDATION_STATUS)) {
+    if (stringutils:equalsIgnoreCase(validationStatus, VALIDATION_STATUS)) {
         return true;
     } else {
         string errorMessage = "Bad Request";
-        string errorDescription = valResult.toString();
+        string errorDescription = validationStatus;
         json newPayload = { fault: {
             code: http:STATUS_BAD_REQUEST,
             message: errorMessage,
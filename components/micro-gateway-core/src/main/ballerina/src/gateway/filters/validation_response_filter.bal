@@ -39,8 +39,8 @@ public type ValidationResponseFilter object {
         runtime:InvocationContext invocationContext = runtime:getInvocationContext();
         boolean filterFailed = <boolean>invocationContext.attributes[FILTER_FAILED];
         if (filterFailed) {
-            printDebug(KEY_VALIDATION_FILTER, "The response validation filter is skipped as microgateway filter" +
-                "has been failed");
+            printDebug(KEY_VALIDATION_FILTER,
+                "The response validation filter is skipped as microgateway filter has been failed");
             return true;
         }
         printDebug(KEY_VALIDATION_FILTER, "The response validation filter");
@@ -53,33 +53,46 @@ function doValidationFilterResponse(@tainted http:Response response, http:Filter
 
     string reqestPath = getRequestPathFromFilterContext(filterContext);
     string requestMethod = getRequestMethodFromFilterContext(filterContext);
-    string resPayload = "";
+    byte[] resPayload = [];
 
     //todo: Accept only the content types which are mentioned in the openAPI definition
     //If the content-type is not application/json, validation fiter is not applied.
     if (!stringutils:equalsIgnoreCase(response.getContentType(), APPLICATION_JSON)) {
-        printDebug(KEY_VALIDATION_FILTER, "Validation Filter is not applied as the response content type is : " + 
-            response.getContentType());
+        printDebugFormat(KEY_VALIDATION_FILTER, "Validation Filter is not applied as the response content type is : {}",
+                response.getContentType());
         return true;
     }    
 
     printDebug(KEY_VALIDATION_FILTER, "The Response validation is enabled.");
     string responseCode = response.statusCode.toString();
-    var payload = response.getJsonPayload();
-    if (payload is json)  {
-        resPayload = payload.toJsonString();
-    }
     string servName = filterContext.getServiceName();
-    var valResult = responseValidate(reqestPath, requestMethod, responseCode, resPayload, servName);
-    if (valResult is handle && stringutils:equalsIgnoreCase(valResult.toString(), VALIDATION_STATUS)) {
+    if (isAsyncResponseValidation) {
+        return doAsyncValidationFilterResponse(response, reqestPath, requestMethod, responseCode, servName);
+    }
+    string validationStatus;
+    string? contentLength = response.hasHeader(CONTENT_LENGHT_HEADER) ?
+        response.getHeader(CONTENT_LENGHT_HEADER) : ();
+    string? payloadSizeError = getPayloadSizeLimitError(contentLength);
+    if (payloadSizeError is string) {
+        validationStatus = payloadSizeError;
+    } else {
+        var payload = response.getBinaryPayload();
+        if (payload is byte[])  {
+            resPayload = payload;
+        }
+        var valResult = responsePayloadValidate(reqestPath, requestMethod, responseCode, resPayload, servName,
+            validationMaxPayloadSize, validationMaxPayloadDepth);
+        validationStatus = valResult.toString();
+    }
+    if (stringutils:equalsIgnoreCase(validationStatus, VALIDATION_STATUS)) {
         return true;
     } else {
         string errorMessage = "Bad Response";
-        string errorDescription = valResult.toString();
+        string errorDescription = validationStatus;
         json newPayload = { fault: {
                                 code: http:STATUS_INTERNAL_SERVER_ERROR,
                                 message: errorMessage,
-                                description: valResult.toString()
+                                description: errorDescription
                             } };
         runtime:InvocationContext invocationContext = runtime:getInvocationContext();
         invocationContext.attributes["error_response_code"] = http:STATUS_INTERNAL_SERVER_ERROR;
@@ -89,3 +102,29 @@ function doValidationFilterResponse(@tainted http:Response response, http:Filter
         return true;
     }
 }
+
+# Queues a sample of the responses to be validated off the response path. The response is never failed, and
+# mismatches are reported as logs and metrics.
+function doAsyncValidationFilterResponse(@tainted http:Response response, string requestPath, string requestMethod,
+        string responseCode, string serviceName) returns boolean {
+    if (!isResponseValidationSampled(serviceName, requestPath, requestMethod)) {
+        printDebug(KEY_VALIDATION_FILTER, "The response is not sampled for validation.");
+        return true;
+    }
+    string? contentLength = response.hasHeader(CONTENT_LENGHT_HEADER) ?
+        response.getHeader(CONTENT_LENGHT_HEADER) : ();
+    string? payloadSizeError = getPayloadSizeLimitError(contentLength);
+    if (payloadSizeError is string) {
+        printDebugFormat(KEY_VALIDATION_FILTER, "The response validation is skipped. {}", payloadSizeError);
+        return true;
+    }
+    var payload = response.getBinaryPayload();
+    if (payload is byte[]) {
+        boolean queued = responsePayloadValidateAsync(requestPath, requestMethod, responseCode, payload, serviceName,
+            validationMaxPayloadSize, validationMaxPayloadDepth);
+        if (!queued) {
+            printDebug(KEY_VALIDATION_FILTER, "The response validation is skipped as the validation queue is full.");
+        }
+    }
+    return true;
+}
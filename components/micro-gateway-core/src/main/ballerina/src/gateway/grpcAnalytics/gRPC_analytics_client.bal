@@ -5,12 +5,26 @@ grpc:StreamingClient gRPCEp = new grpc:StreamingClient();
 boolean gRPCConnection = false; //check gRPC connection
 int reConnectTime =  <int>getConfigIntValue(GRPC_ANALYTICS,GRPC_RETRY_TIME_MILLISECONDS, DEFAULT_GRPC_RECONNECT_TIME_IN_MILLES);
 boolean isTaskStarted = false;    //to check gRPC reconnect task
+boolean gRPCStreamAvailable = true; //buffered messages are published only while the stream is available
+int gRPCBatchSize = <int>getConfigIntValue(GRPC_ANALYTICS, GRPC_BATCH_SIZE, DEFAULT_GRPC_BATCH_SIZE);
 
 task:Scheduler gRPCConnectTimer = new({
         intervalInMillis :  reConnectTime,
         initialDelayInMillis:0
 });
 
+//publishes the buffered messages which did not fill a batch within the linger time
+task:Scheduler gRPCLingerTimer = new({
+        intervalInMillis : <int>getConfigIntValue(GRPC_ANALYTICS, GRPC_LINGER_TIME, DEFAULT_GRPC_LINGER_TIME_IN_MILLIS),
+        initialDelayInMillis : <int>getConfigIntValue(GRPC_ANALYTICS, GRPC_LINGER_TIME, DEFAULT_GRPC_LINGER_TIME_IN_MILLIS)
+});
+
+service flushGRPC = service {
+    resource function onTrigger() {
+        flushGRPCAnalytics();
+    }
+};
+
 service connectGRPC = service {
     resource function onTrigger(){
         printDebug(KEY_GRPC_ANALYTICS, "gRPC Reconnect Task Still Running.");
@@ -49,6 +63,23 @@ config = {
     timeoutInMillis : 2147483647
 } );
 
+# `initGRPCAnalyticsPublisher` function starts the buffer of the analytics messages and the linger task, which
+# publishes the buffered messages in batches.
+public function initGRPCAnalyticsPublisher() {
+    initGRPCAnalyticsBuffer(retrieveConfig(API_USAGE_PATH, API_USAGE_DIR) + PATH_SEPERATOR + GRPC_ANALYTICS_BUFFER_DIR,
+        getConfigIntValue(GRPC_ANALYTICS, GRPC_MEMORY_QUEUE_SIZE, DEFAULT_GRPC_MEMORY_QUEUE_SIZE),
+        getConfigIntValue(GRPC_ANALYTICS, GRPC_MAX_DISK_BUFFER_SIZE, DEFAULT_GRPC_MAX_DISK_BUFFER_SIZE), gRPCBatchSize);
+    var attachResult = gRPCLingerTimer.attach(flushGRPC);
+    if (attachResult is error) {
+        printError(KEY_GRPC_ANALYTICS, "Error attaching the gRPC analytics publishing service.");
+        return;
+    }
+    var startResult = gRPCLingerTimer.start();
+    if (startResult is error) {
+        printError(KEY_GRPC_ANALYTICS, "Starting the gRPC analytics publishing task is failed.");
+    }
+}
+
 # `initGRPCService` function binds gRPC streaming client endpoint with server message listner.
 
 public function initGRPCService(){
@@ -82,24 +113,86 @@ public function pingMessage(AnalyticsStreamMessage message){
         } else {
             printDebug(KEY_GRPC_ANALYTICS, "Completed Sending gRPC Analytics data.");
             gRPCConnection = true;
+            gRPCStreamAvailable = true;
+            //replays the messages buffered while the stream was not available
+            future<()> replayFuture = start flushGRPCAnalytics();
         }
 }
 
-# `dataToAnalytics` function sends analytics data to the gRPC server
-# It sends AnalyticsStream message to  APIM_EVENT_RECEIVER Siddhi app's gRPCStream
+# `dataToAnalytics` function buffers analytics data to be published to the gRPC server
+# The buffered AnalyticsStream messages are sent to APIM_EVENT_RECEIVER Siddhi app's gRPCStream in batches
 # 
 # + message - 'AnalyticsStreamMessage' Message structure defined in the Analytics.proto file
 # 
 public function dataToAnalytics(AnalyticsStreamMessage message){
-    //publishes data to relevant stream
-    printDebug(KEY_GRPC_ANALYTICS, "gRPC analytics data publishing method executed.");
-    grpc:Error? connErr = gRPCEp->send(message);
-        if (connErr is grpc:Error) {
-            printInfo(KEY_GRPC_ANALYTICS, "Error from Connector: " + connErr.reason() + " - " + <string> connErr.detail()["message"]);
-           
-        } else {
-            printDebug(KEY_GRPC_ANALYTICS, "gRPC analytics data published successfully: ");
+    int result = offerGRPCAnalyticsMessage(message);
+    if (result == GRPC_ANALYTICS_BUFFER_FULL) {
+        printDebug(KEY_GRPC_ANALYTICS, "gRPC analytics data written to the disk buffer.");
+        spillGRPCAnalyticsMessage(message);
+    } else if (result == GRPC_ANALYTICS_BATCH_READY && gRPCStreamAvailable) {
+        future<()> flushFuture = start flushGRPCAnalytics();
+    }
+}
+
+# `flushGRPCAnalytics` function publishes the buffered analytics data to the gRPC server in batches
+# A single publisher sends the messages one after another on the stream, hence a slow server holds back the
+# publisher instead of accumulating pending sends. The messages are left in the buffer when the stream fails.
+# The right to publish is released however the publishing ends, so a panic does not stop the later flushes.
+# 
+function flushGRPCAnalytics() {
+    if (!gRPCStreamAvailable || !tryStartGRPCAnalyticsFlush()) {
+        return;
+    }
+    int|error batchCount = trap publishGRPCAnalyticsBatches();
+    if (batchCount is int) {
+        endGRPCAnalyticsFlush(batchCount);
+    } else {
+        printError(KEY_GRPC_ANALYTICS, "Error while publishing the gRPC analytics data", batchCount);
+        endGRPCAnalyticsFlush(0);
+    }
+}
+
+# `publishGRPCAnalyticsBatches` function sends the buffered messages until the buffer is empty or the stream fails
+#
+# + return - number of batches published
+function publishGRPCAnalyticsBatches() returns int {
+    int batchCount = 0;
+    boolean publishing = true;
+    while (publishing) {
+        int sent = 0;
+        while (publishing && sent < gRPCBatchSize) {
+            AnalyticsStreamMessage? message = pollGRPCAnalyticsMessage();
+            if (message is AnalyticsStreamMessage) {
+                grpc:Error? connErr = gRPCEp->send(message);
+                if (connErr is grpc:Error) {
+                    printError(KEY_GRPC_ANALYTICS, "Error from Connector while publishing the gRPC analytics data",
+                        connErr);
+                    returnGRPCAnalyticsMessage(message);
+                    gRPCStreamAvailable = false;
+                    startGRPCReconnectTask();
+                    publishing = false;
+                } else {
+                    sent += 1;
+                }
+            } else {
+                publishing = false;
+            }
         }
+        if (sent > 0) {
+            batchCount += 1;
+            printDebug(KEY_GRPC_ANALYTICS, "gRPC analytics batch of " + sent.toString() + " messages published.");
+        }
+    }
+    return batchCount;
+}
+
+function startGRPCReconnectTask() {
+    if (isTaskStarted == false) {
+        var startResult = gRPCConnectTimer.start();
+        if (startResult is error ) {
+            printDebug(KEY_GRPC_ANALYTICS, "Starting the gRPC reconnect task is failed.");
+        }
+    }
 }
 
 service AnalyticsSendServiceMessageListener = service {
@@ -114,14 +207,9 @@ service AnalyticsSendServiceMessageListener = service {
         if (err.reason() == "{ballerina/grpc}UnavailableError" && gRPCConnection == false) {
             printDebug(KEY_GRPC_ANALYTICS, "gRPC unavaliable error identified.");
             printError(KEY_GRPC_ANALYTICS, "Error reported from server: " + err.reason() + " - " + <string> err.detail()["message"]);
-            //starts gRPC reconnect task
-            if (isTaskStarted == false) {
-                var startResult = gRPCConnectTimer.start();
-                if (startResult is error ) {
-                    printDebug(KEY_GRPC_ANALYTICS, "Starting the gRPC reconnect task is failed.");
-                    return;
-                }   
-            }
+            //buffers the messages until the stream is restored by the reconnect task
+            gRPCStreamAvailable = false;
+            startGRPCReconnectTask();
         }
     }
 
@@ -24,22 +24,31 @@ public type APIKeyProvider object {
     *auth:InboundAuthProvider;
 
     public jwt:InboundJwtAuthProvider authProvider;
+    private jwt:JwtValidatorConfig apiKeyValidatorConfig;
 
     # Provides authentication based on the provided api key token.
     #
     # + apiKeyValidatorConfig - api key validator configurations
     public function __init(jwt:JwtValidatorConfig apiKeyValidatorConfig) {
         self.authProvider = new (apiKeyValidatorConfig);
+        self.apiKeyValidatorConfig = apiKeyValidatorConfig;
     }
 
     public function authenticate(string credential) returns @tainted (boolean | auth:Error) {
         //Start a span attaching to the system span.
         int | error | () spanIdAuth = startSpan(API_KEY_PROVIDER_AUTHENTICATE);
+        string rejectedCredentialKey = (self.apiKeyValidatorConfig?.issuer ?: "") + ":" + credential;
+        if (isRejectedCredential(rejectedCredentialKey) && !self.apiKeyValidatorConfig.jwtCache.hasKey(credential)) {
+            finishSpan(API_KEY_PROVIDER_AUTHENTICATE, spanIdAuth);
+            setErrorMessageToInvocationContext(API_AUTH_INVALID_CREDENTIALS);
+            return false;
+        }
         var isValidJWT = self.authProvider.authenticate(credential);
         //finishing span
         finishSpan(API_KEY_PROVIDER_AUTHENTICATE, spanIdAuth);
         if (isValidJWT is boolean) {
             if (!isValidJWT) {
+                addRejectedCredential(rejectedCredentialKey);
                 printDebug(API_KEY_PROVIDER, "JWT validation failed.");
                 setErrorMessageToInvocationContext(API_AUTH_INVALID_CREDENTIALS);
                 return false;
@@ -50,6 +59,11 @@ public type APIKeyProvider object {
             }
             return validated;
         } else {
+            // Errors of a validation using a JWKS endpoint or a truststore which cannot be read are not caused by
+            // the api key.
+            if (self.apiKeyValidatorConfig?.jwksConfig is () && isCredentialRejection(isValidJWT)) {
+                addRejectedCredential(rejectedCredentialKey);
+            }
             setErrorMessageToInvocationContext(API_AUTH_INVALID_CREDENTIALS);
             return prepareError("Failed to authenticate with api key auth provider.", isValidJWT);
         }
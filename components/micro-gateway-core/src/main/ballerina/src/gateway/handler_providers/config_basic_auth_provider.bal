@@ -70,7 +70,7 @@ public type BasicAuthProvider object {
                 }
                 string[] decodedCred = split(decodedCredentialsString.trim(), ":");
                 userName = decodedCred[0];
-                printDebug(KEY_AUTHN_FILTER, "Decoded user name from the header : " + userName);
+                printDebugFormat(KEY_AUTHN_FILTER, "Decoded user name from the header : {}", userName);
                 if (decodedCred.length() < 2) {
                     setErrorMessageToInvocationContext(API_AUTH_INVALID_BASICAUTH_CREDENTIALS);
                     return false;
@@ -95,11 +95,11 @@ public type BasicAuthProvider object {
         if(passwordFromConfig != "" && !passwordFromConfig.startsWith(SHA_PREFIX)) {
             hashedPass = crypto:hashSha1(password.toBytes()).toBase16();
         }
-        printDebug(KEY_AUTHN_FILTER, "Hashed password value : " + hashedPass);
+        printDebugFormat(KEY_AUTHN_FILTER, "Hashed password value : {}", hashedPass);
         string credentials = userName + ":" + hashedPass;
         string hashedRequest;
         string encodedVal = credentials.toBytes().toBase64();
-        printDebug(KEY_AUTHN_FILTER, "Encoded Auth header value : " + encodedVal);
+        printDebugFormat(KEY_AUTHN_FILTER, "Encoded Auth header value : {}", encodedVal);
         hashedRequest = BASIC_PREFIX_WITH_SPACE + encodedVal;
         //finishing span
         finishSpan(HASHING_MECHANISM, spanHash);
@@ -109,15 +109,13 @@ public type BasicAuthProvider object {
         //finishing span
         finishSpan(BALLERINA_INBOUND_BASICAUTH, spanInbound);
         if (isAuthorized is boolean) {
-            printDebug(KEY_AUTHN_FILTER, "Basic auth provider returned with value : " + isAuthorized.toString());
+            printDebugFormat(KEY_AUTHN_FILTER, "Basic auth provider returned with value : {}", isAuthorized);
             if (!isAuthorized) {
                 //TODO: Handle the error message properly
                 setErrorMessageToInvocationContext(API_AUTH_INVALID_BASICAUTH_CREDENTIALS);
                 //sendErrorResponse(caller, request, <@untainted> context);
                 return false;
             }
-            int startingTimeReq = getCurrentTimeForAnalytics();
-            invocationContext.attributes[REQUEST_TIME] = startingTimeReq;
             invocationContext.attributes[FILTER_FAILED] = false;
             //Set authenticationContext data
             authenticationContext.authenticated = true;
@@ -136,7 +134,7 @@ public type BasicAuthProvider object {
             authenticationContext.subscriberTenantDomain = ANONYMOUS_USER_TENANT_DOMAIN;
             authenticationContext.keyType = PRODUCTION_KEY_TYPE;
             invocationContext.attributes[KEY_TYPE_ATTR] = authenticationContext.keyType;
-            invocationContext.attributes[AUTHENTICATION_CONTEXT] = authenticationContext;
+            setAuthenticationContext(authenticationContext);
             isAuthenticated = true;
             return isAuthenticated;
         } else {
@@ -68,12 +68,20 @@ public type JwtAuthProvider object {
             // validation has failed. Hence we do not need to continue rest of the jwt auth providers.
             return false;
         }
+        // A token may be valid for another issuer, hence the rejections are remembered per issuer.
+        string rejectedCredentialKey = (self.jwtValidatorConfig?.issuer ?: DEFAULT_JWT_ISSUER) + ":" + credential;
+        if (isRejectedCredential(rejectedCredentialKey) && !self.jwtValidatorConfig.jwtCache.hasKey(credential)) {
+            finishSpan(JWT_PROVIDER_AUTHENTICATE, spanIdAuth);
+            setErrorMessageToInvocationContext(API_AUTH_INVALID_CREDENTIALS);
+            return false;
+        }
         var handleVar = self.inboundJwtAuthProvider.authenticate(credential);
         map<anydata>[] | error claimsSet = self.claims;
         //finishing span
         finishSpan(JWT_PROVIDER_AUTHENTICATE, spanIdAuth);
         if (handleVar is boolean) {
             if (!handleVar) {
+                addRejectedCredential(rejectedCredentialKey);
                 setErrorMessageToInvocationContext(API_AUTH_INVALID_CREDENTIALS);
                 return handleVar;
             }
@@ -85,7 +93,7 @@ public type JwtAuthProvider object {
                 string? iss = self.jwtValidatorConfig?.issuer;
                 string? jwtToken = authContext?.authToken;
                 if (jwtToken is string && iss is string) {
-                    printDebug(KEY_JWT_AUTH_PROVIDER, "jwt authenticated from the issuer : " + iss);
+                    printDebugFormat(KEY_JWT_AUTH_PROVIDER, "jwt authenticated from the issuer : {}", iss);
                     boolean isGRPC = invocationContext.attributes.hasKey(IS_GRPC);
                     //Start a new child span for the span.
                     int | error | () spanIdCache = startSpan(JWT_CACHE);
@@ -97,22 +105,18 @@ public type JwtAuthProvider object {
                         jti = jwtPayloadFromCache["jti"];
                         if (jti is string) {
                             printDebug(KEY_JWT_AUTH_PROVIDER, "jti claim found in the jwt");
-                            printDebug(KEY_JWT_AUTH_PROVIDER, "Checking for the JTI in the gateway invalid revoked token map.");
-                            var statusJTI = retrieveFromRevokedTokenMap(jti);
-                            // To support APIM 3.1.0, check the signature in the revoked jwt map.
-                            printDebug(KEY_JWT_AUTH_PROVIDER, "Checking for the Signature in the gateway invalid revoked token map.");
-                            var statusSig = retrieveFromRevokedTokenMap(stringutils:split(credential, "\\.")[2]);
-                            if (statusJTI is boolean && statusSig is boolean) {
-                                if (statusJTI || statusSig) {
-                                    printDebug(KEY_JWT_AUTH_PROVIDER, "JTI or Signature found in the invalid token map.");
-                                    isRevoked = true;
-                                } else {
-                                    printDebug(KEY_JWT_AUTH_PROVIDER, "JTI or Signature not found in the invalid token map.");
-                                    isRevoked = false;
-                                }
+                            // To support APIM 3.1.0, the signature is checked in the revoked jwt map along with the JTI.
+                            printDebug(KEY_JWT_AUTH_PROVIDER, "Checking for the JTI and the Signature in the gateway invalid revoked token map.");
+                            if (isJwtRevokedInTokenMap(jti, stringutils:split(credential, "\\.")[2])) {
+                                printDebug(KEY_JWT_AUTH_PROVIDER, "JTI or Signature found in the invalid token map.");
+                                isRevoked = true;
+                            } else {
+                                printDebug(KEY_JWT_AUTH_PROVIDER, "JTI or Signature not found in the invalid token map.");
+                                isRevoked = false;
                             }
                             if (isRevoked) {
-                                printDebug(KEY_JWT_AUTH_PROVIDER, "JWT Authentication Handler value for, is token revoked : " + isRevoked.toString());
+                                printDebugFormat(KEY_JWT_AUTH_PROVIDER,
+                                        "JWT Authentication Handler value for, is token revoked : {}", isRevoked);
                                 printDebug(KEY_JWT_AUTH_PROVIDER, "JWT Token is revoked");
                                 setErrorMessageToInvocationContext(API_AUTH_INVALID_CREDENTIALS);
                                 return false;
@@ -162,6 +166,11 @@ public type JwtAuthProvider object {
             }
             return handleVar;
         } else {
+            // Errors of a validation using a JWKS endpoint may be caused by the endpoint being unavailable, and
+            // errors of other modules, e.g. of a truststore which cannot be read, are not caused by the token.
+            if (self.jwtValidatorConfig?.jwksConfig is () && isCredentialRejection(handleVar)) {
+                addRejectedCredential(rejectedCredentialKey);
+            }
             setErrorMessageToInvocationContext(API_AUTH_INVALID_CREDENTIALS);
             return prepareError("Failed to authenticate with jwt auth provider.", handleVar);
         }
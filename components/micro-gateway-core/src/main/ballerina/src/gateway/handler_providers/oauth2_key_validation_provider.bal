@@ -38,9 +38,16 @@ public type OAuth2KeyValidationProvider object {
 
     public http:Client keyValidationClient;
     public APIGatewayCache gatewayCache = new;
+    private boolean coalesceValidation = DEFAULT_KM_CONF_COALESCE_VALIDATION;
 
     public function __init(oauth2:IntrospectionServerConfig config) {
         self.keyValidationClient = new (config.url, config.clientConfig);
+        self.coalesceValidation = getConfigBooleanValue(KM_CONF_INSTANCE_ID, KM_CONF_COALESCE_VALIDATION,
+            DEFAULT_KM_CONF_COALESCE_VALIDATION);
+        if (self.coalesceValidation) {
+            initSingleFlightGroup(KEY_VALIDATION_SINGLE_FLIGHT, getConfigIntValue(KM_CONF_INSTANCE_ID,
+                KM_CONF_COALESCE_TIMEOUT, DEFAULT_KM_CONF_COALESCE_TIMEOUT));
+        }
     }
 
 
@@ -56,8 +63,7 @@ public type OAuth2KeyValidationProvider object {
         finishSpan(OAUTH_VALIDATION_PROVIDER_CACHE_CHECK, spanId_cacheCheck);
         if (apiKeyValidationDto is APIKeyValidationDto) {
             isAuthorized = apiKeyValidationDto.authorized;
-            printDebug(KEY_AUTHN_FILTER, "Authentication handler returned with value : " +
-            isAuthorized.toString());
+            printDebugFormat(KEY_AUTHN_FILTER, "Authentication handler returned with value : {}", isAuthorized);
             if (isAuthorized) {
                 authenticationContext.authenticated = true;
                 authenticationContext.tier = apiKeyValidationDto?.tier;
@@ -87,20 +93,20 @@ public type OAuth2KeyValidationProvider object {
                 authenticationContext.stopOnQuotaReach = stringutils:toBoolean(apiKeyValidationDto.
                 stopOnQuotaReach);
 
-                invocationContext.attributes[AUTHENTICATION_CONTEXT] = authenticationContext;
+                setAuthenticationContext(authenticationContext);
 
                 // setting keytype to invocationContext
                 invocationContext.attributes[KEY_TYPE_ATTR] = authenticationContext.keyType;
                 runtime:AuthenticationContext authContext = {scheme: AUTH_SCHEME_OAUTH2, authToken: credential};
 
-                printDebug(KEY_AUTHN_FILTER, "Set the auth context schema as : " + AUTH_SCHEME_OAUTH2);
+                printDebugFormat(KEY_AUTHN_FILTER, "Set the auth context schema as : {}", AUTH_SCHEME_OAUTH2);
                 invocationContext.authenticationContext = authContext;
                 return isAuthorized;
             } else {
                 int | error status = 'int:fromString(apiKeyValidationDto.validationStatus);
                 int errorStatus = (status is int) ? status : INTERNAL_SERVER_ERROR;
-                printDebug(KEY_AUTHN_FILTER,
-                "Authentication handler returned with validation status : " + errorStatus.toString());
+                printDebugFormat(KEY_AUTHN_FILTER, "Authentication handler returned with validation status : {}",
+                        errorStatus);
                 //TODO: Send proper error messages
                 setErrorMessageToInvocationContext(errorStatus);
                 //sendErrorResponse(caller, request, <@untainted>  context);
@@ -134,20 +140,27 @@ public type OAuth2KeyValidationProvider object {
                         self.gatewayCache.removeFromGatewayKeyValidationCache(cacheKey);
                         self.gatewayCache.addToInvalidTokenCache(cacheKey, apiKeyValidationDtoFromcache);
                         self.gatewayCache.removeFromTokenCache(accessToken);
+                        addRejectedCredential(accessToken);
                         apiKeyValidationDtoFromcache.authorized = false;
                         printDebug(KEY_OAUTH_PROVIDER, "Token has expired");
                         return apiKeyValidationDtoFromcache;
                     }
                     authorized = apiKeyValidationDtoFromcache.authorized;
                     apiKeyValidationDto = apiKeyValidationDtoFromcache;
-                    printDebug(KEY_OAUTH_PROVIDER, "Authorized value from the token cache: " + authorized.toString());
+                    if (self.gatewayCache.isDueForRefresh(apiKeyValidationDtoFromcache)) {
+                        self.refreshKeyValidation(apiRequestMetaDataDto, apiKeyValidationDtoFromcache);
+                    }
+                    printDebugFormat(KEY_OAUTH_PROVIDER, "Authorized value from the token cache: {}", authorized);
                 } else {
                     printDebug(KEY_OAUTH_PROVIDER, "Access token not found in the invalid token cache."
                     + " Calling the key validation service.");
-                    [authorized, apiKeyValidationDto] = self.invokeKeyValidation(apiRequestMetaDataDto);
+                    [authorized, apiKeyValidationDto] = self.coalesceKeyValidation(apiRequestMetaDataDto);
                 }
             } else {
                 printDebug(KEY_OAUTH_PROVIDER, "Access token not found in the gateway token cache.");
+                if (isRejectedCredential(accessToken)) {
+                    return {authorized: false, validationStatus: API_AUTH_INVALID_CREDENTIALS_STRING};
+                }
 
                 printDebug(KEY_OAUTH_PROVIDER, "Checking for the access token in the invalid token cache.");
                 var cacheAuthorizedValue = self.gatewayCache.retrieveFromInvalidTokenCache(cacheKey);
@@ -157,13 +170,13 @@ public type OAuth2KeyValidationProvider object {
                 } else {
                     printDebug(KEY_OAUTH_PROVIDER, "Access token not found in the invalid token cache."
                     + " Calling the key validation service.");
-                    [authorized, apiKeyValidationDto] = self.invokeKeyValidation(apiRequestMetaDataDto);
+                    [authorized, apiKeyValidationDto] = self.coalesceKeyValidation(apiRequestMetaDataDto);
                 }
             }
 
         } else {
             printDebug(KEY_OAUTH_PROVIDER, "Gateway cache disabled. Calling the key validation service.");
-            [authorized, apiKeyValidationDto] = self.invokeKeyValidation(apiRequestMetaDataDto);
+            [authorized, apiKeyValidationDto] = self.coalesceKeyValidation(apiRequestMetaDataDto);
         }
         if (authorized) {
             // set username
@@ -199,7 +212,7 @@ public type OAuth2KeyValidationProvider object {
         time = time:currentTime();
         int endTimeMills = time.time;
         int timeDiff = endTimeMills - startTimeMills;
-        printDebug(KEY_OAUTH_PROVIDER, "Total time taken for the key validation service call : " + timeDiff.toString() + "ms");
+        printDebugFormat(KEY_OAUTH_PROVIDER, "Total time taken for the key validation service call : {}ms", timeDiff);
         if (result is http:Response) {
             keyValidationResponse = result;
         } else {
@@ -219,6 +232,73 @@ public type OAuth2KeyValidationProvider object {
 
     }
 
+    # Validates a cached token again in the background, so that the cache entry is replaced before it expires while
+    # the current requests keep using it. Nothing is done if a validation of the entry is already in progress.
+    #
+    # + apiRequestMetaDataDto - the key validation request of the cache entry
+    # + cachedDto - the cache entry, which records the time of the refresh attempt
+    function refreshKeyValidation(APIRequestMetaDataDto apiRequestMetaDataDto, APIKeyValidationDto cachedDto) {
+        handle flight = joinSingleFlight(KEY_VALIDATION_SINGLE_FLIGHT, getAccessTokenCacheKey(apiRequestMetaDataDto));
+        if (isSingleFlightLeader(flight)) {
+            printDebug(KEY_OAUTH_PROVIDER, "Validating the cached access token ahead of the cache expiry.");
+            // The requests using the entry do not start another refresh until the retry interval elapses, even if
+            // this refresh fails.
+            cachedDto.refreshTime = time:currentTime().time;
+            future<()> refreshFuture = start self.revalidateCacheEntry(flight, apiRequestMetaDataDto);
+        }
+    }
+
+    function revalidateCacheEntry(handle flight, APIRequestMetaDataDto apiRequestMetaDataDto) {
+        [boolean, APIKeyValidationDto]|error validationResult = trap self.invokeKeyValidation(apiRequestMetaDataDto);
+        if (validationResult is error) {
+            // The cached entry is kept, as the key manager could not tell whether the token is still valid.
+            failSingleFlight(flight, validationResult);
+            printError(KEY_OAUTH_PROVIDER, "Error while validating the cached access token ahead of the cache expiry",
+                validationResult);
+            return;
+        }
+        completeSingleFlight(flight, validationResult);
+        if (!validationResult[0]) {
+            // The token is no longer valid, hence the current entries are removed instead of waiting for them to
+            // expire. The invalid token cache is already updated by the key validation.
+            self.gatewayCache.removeFromGatewayKeyValidationCache(getAccessTokenCacheKey(apiRequestMetaDataDto));
+            self.gatewayCache.removeFromTokenCache(apiRequestMetaDataDto.accessToken);
+        }
+    }
+
+    # Calls the key validation service, unless a validation of the same token, API and resource is already in
+    # progress. In that case the result of that validation is used once it completes.
+    #
+    # + apiRequestMetaDataDto - the key validation request
+    # + return - whether the token is authorized and the key validation response
+    function coalesceKeyValidation(APIRequestMetaDataDto apiRequestMetaDataDto) returns @tainted [boolean,
+            APIKeyValidationDto] {
+        if (!self.coalesceValidation) {
+            return self.invokeKeyValidation(apiRequestMetaDataDto);
+        }
+        handle flight = joinSingleFlight(KEY_VALIDATION_SINGLE_FLIGHT, getAccessTokenCacheKey(apiRequestMetaDataDto));
+        if (isSingleFlightLeader(flight)) {
+            [boolean, APIKeyValidationDto]|error validationResult =
+                trap self.invokeKeyValidation(apiRequestMetaDataDto);
+            if (validationResult is error) {
+                failSingleFlight(flight, validationResult);
+                panic validationResult;
+            }
+            completeSingleFlight(flight, validationResult);
+            return validationResult;
+        }
+        any|error sharedResult = awaitSingleFlight(flight);
+        if (sharedResult is [boolean, APIKeyValidationDto]) {
+            printDebug(KEY_OAUTH_PROVIDER, "Used the result of the key validation in progress for the same token.");
+            return sharedResult;
+        } else if (sharedResult is error) {
+            panic sharedResult;
+        }
+        printDebug(KEY_OAUTH_PROVIDER, "Timed out waiting for the key validation in progress for the same token."
+            + " Calling the key validation service.");
+        return self.invokeKeyValidation(apiRequestMetaDataDto);
+    }
+
     public function invokeKeyValidation(APIRequestMetaDataDto apiRequestMetaDataDto) returns @tainted [boolean,
  APIKeyValidationDto] {
         APIKeyValidationDto apiKeyValidationDto = {};
@@ -234,11 +314,11 @@ public type OAuth2KeyValidationProvider object {
             xml keyValidationInfoXML = keyValidationResponseXML/<soapenv:Body>/<xsd:validateKeyResponse>/<xsd:'return>;
             string authorizeValue = (keyValidationInfoXML/<apim:authorized>/*).toString();
             boolean auth = stringutils:toBoolean(authorizeValue);
-            printDebug(KEY_OAUTH_PROVIDER, "Authorized value from key validation service: " + auth.toString());
+            printDebugFormat(KEY_OAUTH_PROVIDER, "Authorized value from key validation service: {}", auth);
             string cacheKey = getAccessTokenCacheKey(apiRequestMetaDataDto);
             if (auth) {
                 apiKeyValidationDto = convertXmlToKeyValidationObject(keyValidationInfoXML);
-                printDebug(KEY_OAUTH_PROVIDER, "key type: " + apiKeyValidationDto.keyType);
+                printDebugFormat(KEY_OAUTH_PROVIDER, "key type: {}", apiKeyValidationDto.keyType);
                 authorized = auth;
                 if (getConfigBooleanValue(CACHING_ID, TOKEN_CACHE_ENABLED, DEFAULT_CACHING_ENABLED)) {
                     self.gatewayCache.addToGatewayKeyValidationCache(cacheKey, apiKeyValidationDto);
@@ -247,6 +327,10 @@ public type OAuth2KeyValidationProvider object {
             } else {
                 apiKeyValidationDto.authorized = false;
                 apiKeyValidationDto.validationStatus = (keyValidationInfoXML/<apim:validationStatus>/*).toString();
+                // Other statuses, such as a missing subscription, depend on the API being accessed.
+                if (apiKeyValidationDto.validationStatus == API_AUTH_INVALID_CREDENTIALS_STRING) {
+                    addRejectedCredential(accessToken);
+                }
                 if (getConfigBooleanValue(CACHING_ID, TOKEN_CACHE_ENABLED, DEFAULT_CACHING_ENABLED)) {
                     self.gatewayCache.addToInvalidTokenCache(cacheKey, apiKeyValidationDto);
                 }
@@ -74,7 +74,7 @@ public type APIKeyHandler object {
                 }
             }
         }
-        printDebug(KEY_AUTHN_FILTER, "credentials: " + credentials);
+        printDebugFormat(KEY_AUTHN_FILTER, "credentials: {}", credentials);
         var authenticationResult = self.apiKeyProvider.authenticate(<@untainted>credentials);
         if (authenticationResult is boolean) {
             if(authenticationResult) {
@@ -75,7 +75,8 @@ public type MutualSSLHandler object {
                 string apiVersion = invocationContext.attributes[API_VERSION_PROPERTY].toString();
                 string apiName = invocationContext.attributes[API_NAME].toString();
                 if (self.headerName != "" &&  req.hasHeader(self.headerName)) {
-                    printDebug(KEY_AUTHN_FILTER, "Mutual ssl expected header " + self.headerName + " present in the request");
+                    printDebugFormat(KEY_AUTHN_FILTER, "Mutual ssl expected header {} present in the request",
+                            self.headerName);
                     //If certificate header is present and if validation is disabled for client certificate present
                     //in the context (i.e. 'isClientCertificateValidationEnabled' is false), then we should always
                     //validate the certificate present in the header.
@@ -220,15 +221,13 @@ function doMTSLFilterRequest(http:Request request, runtime:InvocationContext con
     runtime:InvocationContext invocationContext = runtime:getInvocationContext();
     AuthenticationContext authenticationContext = {};
     printDebug(KEY_AUTHN_FILTER, "Processing request via MutualSSL filter.");
-    context.attributes[IS_SECURED] = true;
-    int startingTime = getCurrentTimeForAnalytics();
-    context.attributes[REQUEST_TIME] = startingTime;
+    getGatewayRequestContext().isSecured = true;
     context.attributes[FILTER_FAILED] = false;
     //Set authenticationContext data
     authenticationContext.authenticated = true;
     authenticationContext.username = USER_NAME_UNKNOWN;
     invocationContext.attributes[KEY_TYPE_ATTR] = authenticationContext.keyType;
-    context.attributes[AUTHENTICATION_CONTEXT] = authenticationContext;
+    setAuthenticationContext(authenticationContext);
 }
 
 public function isExistApiAlias(string apiVersionFromRequest, string apiNameFromRequest, string certAliasFromRequest,
@@ -242,9 +241,9 @@ public function isExistApiAlias(string apiVersionFromRequest, string apiNameFrom
             int? index = aliasListResult.indexOf(certAliasFromRequest);
             if (apiName is string && apiVersion is string && stringutils:equalsIgnoreCase(apiName, apiNameFromRequest) &&
                 index is int && stringutils:equalsIgnoreCase(apiVersion, apiVersionFromRequest)) {
-                printDebug(KEY_AUTHN_FILTER, "Matching alias found from the list : " + aliasListResult[index]);
-                printDebug(KEY_AUTHN_FILTER, "Mutual SSL authentication is successful. Certfiacate alias correctly " +
-                "validated against per API");
+                printDebugFormat(KEY_AUTHN_FILTER, "Matching alias found from the list : {}", aliasListResult[index]);
+                printDebug(KEY_AUTHN_FILTER,
+                    "Mutual SSL authentication is successful. Certfiacate alias correctly validated against per API");
                 return true;
             }
         }
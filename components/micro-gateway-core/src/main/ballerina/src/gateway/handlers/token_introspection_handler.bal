@@ -37,6 +37,7 @@ public type KeyValidationHandler object {
     private string issuer = "";
     private boolean remoteUserClaimRetrievalEnabled = false;
     private boolean isLegacyKM = false;
+    private boolean coalesceIntrospection = DEFAULT_KM_CONF_COALESCE_VALIDATION;
 
     public function __init(OAuth2KeyValidationProvider oauth2KeyValidationProvider, oauth2:InboundOAuth2Provider introspectProvider) {
         GatewayConf gatewayConf = getGatewayConfInstance();
@@ -44,6 +45,12 @@ public type KeyValidationHandler object {
         self.introspectProvider = introspectProvider;
         self.validateSubscriptions = getConfigBooleanValue(SECURITY_INSTANCE_ID, SECURITY_VALIDATE_SUBSCRIPTIONS, DEFAULT_VALIDATE_SUBSCRIPTIONS);
         self.isLegacyKM = getConfigBooleanValue(KM_CONF_INSTANCE_ID, KM_CONF_IS_LEGACY_KM, DEFAULT_KM_CONF_IS_LEGACY_KM);
+        self.coalesceIntrospection = getConfigBooleanValue(KM_CONF_INSTANCE_ID, KM_CONF_COALESCE_VALIDATION,
+            DEFAULT_KM_CONF_COALESCE_VALIDATION);
+        if (self.coalesceIntrospection && !self.isLegacyKM) {
+            initSingleFlightGroup(INTROSPECTION_SINGLE_FLIGHT, getConfigIntValue(KM_CONF_INSTANCE_ID,
+                KM_CONF_COALESCE_TIMEOUT, DEFAULT_KM_CONF_COALESCE_TIMEOUT));
+        }
         self.issuer = gatewayConf.getKeyManagerConf().issuer;
         self.enabledJWTGenerator = gatewayConf.jwtGeneratorConfig.jwtGeneratorEnabled;
         if (self.enabledJWTGenerator) {
@@ -125,10 +132,15 @@ public type KeyValidationHandler object {
             }
         } else {
             // With any external key manager or APIM - 3.2.0, introspection endpoint is used to validate the token.
-            authenticationResult = self.introspectProvider.authenticate(credential);
+            if (isRejectedCredential(credential) && !introspectCache.hasKey(credential)) {
+                setErrorMessageToInvocationContext(API_AUTH_INVALID_CREDENTIALS);
+                return false;
+            }
+            authenticationResult = self.introspect(credential);
             if (authenticationResult is auth:Error) {
                 return prepareAuthenticationError("Failed to authenticate with introspect auth provider.", authenticationResult);
             } else if (!authenticationResult) {
+                addRejectedCredential(credential);
                 setErrorMessageToInvocationContext(API_AUTH_INVALID_CREDENTIALS);
                 return authenticationResult;
             } else {
@@ -159,7 +171,7 @@ public type KeyValidationHandler object {
                          validateSubscriptionFromDataStores(credential, clientId, apiName, apiVersion,
                          self.validateSubscriptions);
                        authenticationContext.username = principal?.username ?: USER_NAME_UNKNOWN;
-                       invocationContext.attributes[AUTHENTICATION_CONTEXT] = authenticationContext;
+                       setAuthenticationContext(authenticationContext);
                        invocationContext.attributes[KEY_TYPE_ATTR] = authenticationContext.keyType;
                        if (isAllowed) {
                            boolean tokenGenStatus = generateAndSetBackendJwtHeader(credential,
@@ -178,7 +190,7 @@ public type KeyValidationHandler object {
                        return isAllowed;
                     } else { // Otherwise return the introspection response.
                         authenticationContext.username = principal?.username ?: USER_NAME_UNKNOWN;
-                        invocationContext.attributes[AUTHENTICATION_CONTEXT] = authenticationContext;
+                        setAuthenticationContext(authenticationContext);
                         invocationContext.attributes[KEY_TYPE_ATTR] = authenticationContext.keyType;
                         if (authenticationResult) {
                             boolean tokenGenStatus = generateAndSetBackendJwtHeader(credential,
@@ -203,4 +215,39 @@ public type KeyValidationHandler object {
         setErrorMessageToInvocationContext(API_AUTH_INVALID_CREDENTIALS);
         return false;
     }
+
+    # Introspects the token, unless an introspection of the same token is already in progress. In that case the
+    # result of that introspection is used once it completes.
+    #
+    # + credential - the access token
+    # + return - Returns `true` if the token is active. Else, returns `false` or the `auth:Error` of the introspection.
+    function introspect(string credential) returns @tainted boolean|auth:Error {
+        if (!self.coalesceIntrospection) {
+            return self.introspectProvider.authenticate(credential);
+        }
+        handle flight = joinSingleFlight(INTROSPECTION_SINGLE_FLIGHT, credential);
+        if (isSingleFlightLeader(flight)) {
+            boolean|auth:Error|error introspectionResult = trap self.introspectProvider.authenticate(credential);
+            if (introspectionResult is boolean) {
+                completeSingleFlight(flight, introspectionResult);
+                return introspectionResult;
+            } else if (introspectionResult is auth:Error) {
+                failSingleFlight(flight, introspectionResult);
+                return introspectionResult;
+            }
+            failSingleFlight(flight, introspectionResult);
+            panic introspectionResult;
+        }
+        any|error sharedResult = awaitSingleFlight(flight);
+        if (sharedResult is auth:Error) {
+            return sharedResult;
+        } else if (sharedResult is error) {
+            panic sharedResult;
+        } else if (sharedResult is boolean && !sharedResult) {
+            return false;
+        }
+        // The introspection provider caches the active tokens, hence this sets the principal of the request from the
+        // cache unless the leader timed out.
+        return self.introspectProvider.authenticate(credential);
+    }
 };
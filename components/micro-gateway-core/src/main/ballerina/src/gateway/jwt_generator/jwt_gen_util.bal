@@ -39,7 +39,7 @@ function setGeneratedTokenAsHeader(http:Request req,
         return false;
     } else {
         printDebug(JWT_GEN_UTIL, "Generated jwt token");
-        printDebug(JWT_GEN_UTIL, "Token: " + generatedToken.toString());
+        printDebugFormat(JWT_GEN_UTIL, "Token: {}", generatedToken);
 
         if (enabledCaching) {
             error? err = jwtGeneratorCache.put(<@untainted>cacheKey, <@untainted>generatedToken.toString());
@@ -62,7 +62,7 @@ function createMapFromRetrievedUserClaimsListDTO(BackendJWTGenUserContextDTO tok
     CustomClaimsMapDTO customClaimsMapDTO = {};
 
     runtime:InvocationContext invocationContext = runtime:getInvocationContext();
-    AuthenticationContext authContext = <AuthenticationContext>invocationContext.attributes[AUTHENTICATION_CONTEXT];
+    AuthenticationContext authContext = <AuthenticationContext>getGatewayRequestContext().authenticationContext;
 
     runtime:Principal? principal = invocationContext?.principal;
     if (principal is runtime:Principal) {
@@ -91,7 +91,7 @@ function createMapFromRetrievedUserClaimsListDTO(BackendJWTGenUserContextDTO tok
                                                                                                     tokenContextDTO.isJWT);
             RetrievedUserClaimsListDTO ? claimsListDTO = retrieveClaims(userInfo);
             if (claimsListDTO is RetrievedUserClaimsListDTO) {
-                printDebug(JWT_GEN_UTIL, "Retrieved Claims from the custom claim retriever : " + claimsListDTO.toString());
+                printDebugFormat(JWT_GEN_UTIL, "Retrieved Claims from the custom claim retriever : {}", claimsListDTO);
                 ClaimDTO[] claimList = claimsListDTO.list;
                 foreach ClaimDTO claim in claimList {
                     customClaimsMapDTO[claim.uri] = claim.value;
@@ -126,7 +126,7 @@ function createMapFromRetrievedUserClaimsListDTO(BackendJWTGenUserContextDTO tok
 function createAPIDetailsMap () returns map<string> {
     map<string> apiDetails = {};
     runtime:InvocationContext invocationContext = runtime:getInvocationContext();
-    AuthenticationContext authenticationContext = <AuthenticationContext>invocationContext.attributes[AUTHENTICATION_CONTEXT];
+    AuthenticationContext authenticationContext = <AuthenticationContext>getGatewayRequestContext().authenticationContext;
     APIConfiguration? apiConfig = apiConfigAnnotationMap[<string>invocationContext.attributes[http:SERVICE_NAME]];
     if (apiConfig is APIConfiguration) {
         apiDetails["apiName"] = apiConfig.name;
@@ -240,10 +240,10 @@ function setJWTTokenWithCacheCheck(http:Request req,
     map<string> apiDetails = createAPIDetailsMap();
     if (enabledCaching) {
         var cachedToken = jwtGeneratorCache.get(cacheKey);
-        printDebug(JWT_GEN_UTIL, "Key: " + cacheKey);
+        printDebugFormat(JWT_GEN_UTIL, "Key: {}", cacheKey);
         if (cachedToken is string) {
             printDebug(JWT_GEN_UTIL, "Found in jwt generator cache");
-            printDebug(JWT_GEN_UTIL, "Token: " + cachedToken);
+            printDebugFormat(JWT_GEN_UTIL, "Token: {}", cachedToken);
 
             int currentTime = getCurrentTime();
             int? cachedTokenExpiry = getGeneratedTokenExpTimeFromCache(cacheKey, cachedToken);
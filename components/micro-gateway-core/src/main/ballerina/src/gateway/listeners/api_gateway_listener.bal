@@ -96,10 +96,12 @@ public function initiateGatewayConfigurations(http:ListenerConfiguration config)
     config.host = getConfigValue(LISTENER_CONF_INSTANCE_ID, LISTENER_CONF_HOST, DEFAULT_CONF_HOST);
     initiateKeyManagerConfigurations();
     printDebug(KEY_GW_LISTNER, "Initialized key manager configurations");
+    initializeRejectedCredentialFilter();
     printDebug(KEY_GW_LISTNER, "Initialized gateway caches");
     //TODO : migrate this method and re enable
     initializeAnalytics();
     initializegRPCAnalytics();
+    initializeAnalyticsAggregation();
 
     //Change the httpVersion
     if (getConfigBooleanValue(HTTP2_INSTANCE_ID, HTTP2_PROPERTY, DEFAULT_HTTP2_ENABLED)) {
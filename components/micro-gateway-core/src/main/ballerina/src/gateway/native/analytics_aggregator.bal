@@ -0,0 +1,76 @@
+// Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/java;
+
+# Starts the native aggregator, which rolls up the analytics events into aggregates per time bucket.
+#
+# + interval - length of the time buckets in milliseconds
+# + maxAggregates - maximum number of aggregates of the buckets which are not emitted yet
+function initAnalyticsAggregator(int interval, int maxAggregates) {
+    jInitAnalyticsAggregator(interval, maxAggregates);
+}
+
+# Records an analytics event into the aggregate of its time bucket, API, resource, application and status.
+#
+# + apiName - name of the API
+# + apiVersion - version of the API
+# + apiContext - context of the API
+# + resourceTemplate - resource template of the API
+# + method - HTTP method
+# + applicationId - id of the application
+# + applicationName - name of the application
+# + status - response code of a response, or the error code of a fault
+# + eventType - `ANALYTICS_AGGREGATE_RESPONSE`, `ANALYTICS_AGGREGATE_FAULT` or `ANALYTICS_AGGREGATE_THROTTLE`
+# + responseTime - response time in milliseconds of a response
+# + responseSize - response size in bytes of a response
+# + timestamp - time of the event in milliseconds
+function recordAnalyticsAggregate(string apiName, string apiVersion, string apiContext, string resourceTemplate,
+        string method, string applicationId, string applicationName, int status, int eventType, int responseTime,
+        int responseSize, int timestamp) {
+    jRecordAnalyticsAggregate(java:fromString(apiName), java:fromString(apiVersion), java:fromString(apiContext),
+        java:fromString(resourceTemplate), java:fromString(method), java:fromString(applicationId),
+        java:fromString(applicationName), status, eventType, responseTime, responseSize, timestamp);
+}
+
+# Takes the next aggregate of the time buckets which have ended.
+#
+# + now - current time in milliseconds
+# + return - the aggregate as a JSON string, or `()` if there is no aggregate to be emitted
+function pollAnalyticsAggregate(int now) returns string? {
+    any aggregate = jPollAnalyticsAggregate(now);
+    if (aggregate is string) {
+        return aggregate;
+    }
+    return ();
+}
+
+function jInitAnalyticsAggregator(int interval, int maxAggregates) = @java:Method {
+    name: "init",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsAggregator"
+} external;
+
+function jRecordAnalyticsAggregate(handle apiName, handle apiVersion, handle apiContext, handle resourceTemplate,
+        handle method, handle applicationId, handle applicationName, int status, int eventType, int responseTime,
+        int responseSize, int timestamp) = @java:Method {
+    name: "record",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsAggregator"
+} external;
+
+function jPollAnalyticsAggregate(int now) returns any = @java:Method {
+    name: "poll",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsAggregator"
+} external;
@@ -0,0 +1,83 @@
+// Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/java;
+
+# Starts the native appender writing the file upload analytics events to the event file.
+#
+# + filePath - path of the event file
+# + format - format of new event files, either `text` or `binary`
+# + compressed - whether the event file is compressed while it is written
+# + compressionLevel - deflate level of the compressed event file, from 0 to 9
+# + ringSize - maximum number of events waiting to be written
+# + flushSize - buffered bytes after which the events are written
+# + flushInterval - maximum time in milliseconds an event is buffered before it is written
+# + maxFileSize - size in bytes of the event file after which the events are dropped until the file is rotated, or 0
+#                 for no limit
+public function initAnalyticsFileAppender(string filePath, string format, boolean compressed, int compressionLevel,
+        int ringSize, int flushSize, int flushInterval, int maxFileSize) {
+    jInitAnalyticsFileAppender(java:fromString(filePath), java:fromString(format), compressed, compressionLevel,
+        ringSize, flushSize, flushInterval, maxFileSize);
+}
+
+# Publishes an event to be encoded and written to the event file.
+#
+# + event - analytics event
+# + return - false if the event is rejected as the appender is full
+function appendAnalyticsEvent(EventDTO event) returns boolean {
+    return jAppendAnalyticsEvent(java:fromString(event.streamId), event.timeStamp, java:fromString(event.metaData),
+        java:fromString(event.correlationData), java:fromString(event.payloadData));
+}
+
+# Renames the event file while the appender is not writing to it.
+#
+# + sourcePath - path of the event file
+# + targetPath - new path of the event file
+# + return - an error if the file could not be renamed
+function renameAnalyticsEventFile(string sourcePath, string targetPath) returns error? {
+    return jRenameAnalyticsEventFile(java:fromString(sourcePath), java:fromString(targetPath));
+}
+
+# Compresses a renamed event file, which is not compressed while it is written.
+#
+# + sourcePath - path of the renamed event file
+# + targetPath - path of the compressed file
+# + return - an error if the file could not be compressed
+function compressAnalyticsEventFile(string sourcePath, string targetPath) returns error? {
+    return jCompressAnalyticsEventFile(java:fromString(sourcePath), java:fromString(targetPath));
+}
+
+function jInitAnalyticsFileAppender(handle filePath, handle format, boolean compressed, int compressionLevel,
+        int ringSize, int flushSize, int flushInterval, int maxFileSize) = @java:Method {
+    name: "init",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsFileAppender"
+} external;
+
+function jAppendAnalyticsEvent(handle streamId, int timestamp, handle metaData, handle correlationData,
+        handle payloadData) returns boolean = @java:Method {
+    name: "append",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsFileAppender"
+} external;
+
+function jRenameAnalyticsEventFile(handle sourcePath, handle targetPath) returns error? = @java:Method {
+    name: "renameEventFile",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsFileAppender"
+} external;
+
+function jCompressAnalyticsEventFile(handle sourcePath, handle targetPath) returns error? = @java:Method {
+    name: "compressEventFile",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsFileAppender"
+} external;
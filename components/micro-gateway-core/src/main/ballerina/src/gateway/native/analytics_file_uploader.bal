@@ -0,0 +1,54 @@
+// Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/java;
+
+# Starts the native uploader of the rotated analytics event files.
+#
+# + config - directory, endpoint, credentials, trust store, proxy, parallelism, retry and backlog settings
+# + return - an error if the uploader could not be initialized
+function initAnalyticsFileUploader(AnalyticsUploaderConfig config) returns error? {
+    return jInitAnalyticsFileUploader(config);
+}
+
+# Submits the rotated event files, which are not being uploaded yet, to be uploaded in parallel.
+#
+# + return - number of event files submitted
+function uploadAnalyticsFiles() returns int {
+    return jUploadAnalyticsFiles();
+}
+
+# Checks whether the backlog of rotated event files waiting to be uploaded is full.
+#
+# + return - true if the event file should not be rotated until the backlog is uploaded
+function isAnalyticsUploadBacklogFull() returns boolean {
+    return jIsAnalyticsUploadBacklogFull();
+}
+
+function jInitAnalyticsFileUploader(AnalyticsUploaderConfig config) returns error? = @java:Method {
+    name: "init",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsFileUploader"
+} external;
+
+function jUploadAnalyticsFiles() returns int = @java:Method {
+    name: "uploadFiles",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsFileUploader"
+} external;
+
+function jIsAnalyticsUploadBacklogFull() returns boolean = @java:Method {
+    name: "isBacklogFull",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsFileUploader"
+} external;
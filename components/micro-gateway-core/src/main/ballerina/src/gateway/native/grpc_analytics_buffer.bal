@@ -0,0 +1,133 @@
+// Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/java;
+
+# Starts the native buffer of the gRPC analytics messages.
+#
+# + directory - directory of the disk buffer
+# + memoryQueueSize - maximum number of messages kept in the memory
+# + maxDiskBufferSize - maximum size in bytes of the disk buffer
+# + batchSize - number of messages after which a batch is published without waiting for the linger time
+function initGRPCAnalyticsBuffer(string directory, int memoryQueueSize, int maxDiskBufferSize, int batchSize) {
+    jInitGRPCAnalyticsBuffer(java:fromString(directory), memoryQueueSize, maxDiskBufferSize, batchSize);
+}
+
+# Adds a message to the memory queue of the buffer.
+#
+# + message - analytics stream message
+# + return - `GRPC_ANALYTICS_QUEUED`, `GRPC_ANALYTICS_BATCH_READY` or `GRPC_ANALYTICS_BUFFER_FULL`
+function offerGRPCAnalyticsMessage(AnalyticsStreamMessage message) returns int {
+    return jOfferGRPCAnalyticsMessage(message);
+}
+
+# Returns a message, which could not be published, to the buffer.
+#
+# + message - analytics stream message
+function returnGRPCAnalyticsMessage(AnalyticsStreamMessage message) {
+    if (!jReturnGRPCAnalyticsMessage(message)) {
+        jSpillGRPCAnalyticsMessage(java:fromString(message.toJsonString()));
+    }
+}
+
+# Writes a message to the disk buffer, as the memory queue is full.
+#
+# + message - analytics stream message
+function spillGRPCAnalyticsMessage(AnalyticsStreamMessage message) {
+    jSpillGRPCAnalyticsMessage(java:fromString(message.toJsonString()));
+}
+
+# Takes the next message to be published from the buffer.
+#
+# + return - the next message, or `()` if the buffer is empty
+function pollGRPCAnalyticsMessage() returns AnalyticsStreamMessage? {
+    AnalyticsStreamMessage? next = ();
+    boolean polling = true;
+    while (polling) {
+        any message = jPollGRPCAnalyticsMessage();
+        if (message is AnalyticsStreamMessage) {
+            next = message;
+            polling = false;
+        } else if (message is string) {
+            // Messages of the disk buffer are serialized as JSON.
+            json|error payload = message.fromJsonString();
+            if (payload is json) {
+                AnalyticsStreamMessage|error streamMessage = AnalyticsStreamMessage.constructFrom(payload);
+                if (streamMessage is AnalyticsStreamMessage) {
+                    next = streamMessage;
+                    polling = false;
+                } else {
+                    printError(KEY_GRPC_ANALYTICS, "Dropped an invalid message of the disk buffer", streamMessage);
+                }
+            } else {
+                printError(KEY_GRPC_ANALYTICS, "Dropped an invalid message of the disk buffer", payload);
+            }
+        } else {
+            polling = false;
+        }
+    }
+    return next;
+}
+
+# Acquires the right to publish the buffered messages, which is held by a single publisher at a time.
+#
+# + return - false if another publisher is publishing the messages
+function tryStartGRPCAnalyticsFlush() returns boolean {
+    return jTryStartGRPCAnalyticsFlush();
+}
+
+# Releases the right to publish the buffered messages.
+#
+# + batchCount - number of batches published
+function endGRPCAnalyticsFlush(int batchCount) {
+    jEndGRPCAnalyticsFlush(batchCount);
+}
+
+function jInitGRPCAnalyticsBuffer(handle directory, int memoryQueueSize, int maxDiskBufferSize, int batchSize) =
+@java:Method {
+    name: "init",
+    class: "org.wso2.micro.gateway.core.analytics.GrpcAnalyticsBuffer"
+} external;
+
+function jOfferGRPCAnalyticsMessage(any message) returns int = @java:Method {
+    name: "offer",
+    class: "org.wso2.micro.gateway.core.analytics.GrpcAnalyticsBuffer"
+} external;
+
+function jReturnGRPCAnalyticsMessage(any message) returns boolean = @java:Method {
+    name: "returnMessage",
+    class: "org.wso2.micro.gateway.core.analytics.GrpcAnalyticsBuffer"
+} external;
+
+function jSpillGRPCAnalyticsMessage(handle message) = @java:Method {
+    name: "spill",
+    class: "org.wso2.micro.gateway.core.analytics.GrpcAnalyticsBuffer"
+} external;
+
+function jPollGRPCAnalyticsMessage() returns any = @java:Method {
+    name: "poll",
+    class: "org.wso2.micro.gateway.core.analytics.GrpcAnalyticsBuffer"
+} external;
+
+function jTryStartGRPCAnalyticsFlush() returns boolean = @java:Method {
+    name: "tryStartFlush",
+    class: "org.wso2.micro.gateway.core.analytics.GrpcAnalyticsBuffer"
+} external;
+
+function jEndGRPCAnalyticsFlush(int batchCount) = @java:Method {
+    name: "endFlush",
+    class: "org.wso2.micro.gateway.core.analytics.GrpcAnalyticsBuffer"
+} external;
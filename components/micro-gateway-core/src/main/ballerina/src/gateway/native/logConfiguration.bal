@@ -25,3 +25,16 @@ public function jInitNativeImpLog4jConfig(handle isDebugEnabled) = @java:Method
     name: "modifyAfterInitialization",
     class: "org.wso2.micro.gateway.core.logging.MgwLog4j2ConfigurationFactory"
 } external;
+
+# Builds a log message by replacing each `{}` placeholder of the format with the string value of the next argument.
+# + format - The message format.
+# + args - The values to be substituted for the placeholders.
+# + return - The formatted message.
+public function formatLogMessage(string format, any[] args) returns string {
+    return jFormatLogMessage(java:fromString(format), args).toString();
+}
+
+function jFormatLogMessage(handle format, any[] args) returns handle = @java:Method {
+    name: "format",
+    class: "org.wso2.micro.gateway.core.logging.LogMessageFormatter"
+} external;
@@ -0,0 +1,33 @@
+// Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/java;
+
+# Checks whether a cached key validation result should be validated again ahead of its expiry.
+#
+# + cachedTime - time in milliseconds the entry was cached
+# + refreshTime - time in milliseconds of the last refresh attempt of the entry, or 0 if it was not refreshed
+# + maxAge - maximum age of the cache entries in milliseconds
+# + factor - fraction of the maximum age after which the entry is refreshed, 0 to disable the refresh
+# + return - `true` if the entry is due for a refresh
+function isRefreshAheadDue(int cachedTime, int refreshTime, int maxAge, float factor) returns boolean {
+    return jIsRefreshAheadDue(cachedTime, refreshTime, maxAge, factor);
+}
+
+function jIsRefreshAheadDue(int cachedTime, int refreshTime, int maxAge, float factor) returns boolean = @java:Method {
+    name: "isDue",
+    class: "org.wso2.micro.gateway.core.keyvalidation.RefreshAheadPolicy"
+} external;
@@ -0,0 +1,57 @@
+// Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/java;
+
+# Creates the native rotating Bloom filter of the credentials which were rejected recently.
+#
+# + expectedInsertions - number of rejected credentials a generation of the filter is sized for
+# + falsePositiveRate - probability of reporting a credential which was not rejected as rejected
+# + rotationPeriod - time in milliseconds after which the older generation of the filter is discarded
+function initRejectedCredentialFilter(int expectedInsertions, float falsePositiveRate, int rotationPeriod) {
+    jInitRejectedCredentialFilter(expectedInsertions, falsePositiveRate, rotationPeriod);
+}
+
+# Checks whether the credential is in the rejected credential filter.
+#
+# + credential - credential, prefixed by the issuer if it is only rejected by a particular issuer
+# + return - `true` if the credential was rejected recently, or is a false positive of the filter
+function isInRejectedCredentialFilter(string credential) returns boolean {
+    return jIsInRejectedCredentialFilter(java:fromString(credential));
+}
+
+# Adds a credential which failed validation to the rejected credential filter.
+#
+# + credential - credential, prefixed by the issuer if it is only rejected by a particular issuer
+function addToRejectedCredentialFilter(string credential) {
+    jAddToRejectedCredentialFilter(java:fromString(credential));
+}
+
+function jInitRejectedCredentialFilter(int expectedInsertions, float falsePositiveRate, int rotationPeriod) =
+@java:Method {
+    name: "init",
+    class: "org.wso2.micro.gateway.core.cache.RejectedCredentialFilter"
+} external;
+
+function jIsInRejectedCredentialFilter(handle credential) returns boolean = @java:Method {
+    name: "isRejected",
+    class: "org.wso2.micro.gateway.core.cache.RejectedCredentialFilter"
+} external;
+
+function jAddToRejectedCredentialFilter(handle credential) = @java:Method {
+    name: "addRejected",
+    class: "org.wso2.micro.gateway.core.cache.RejectedCredentialFilter"
+} external;
@@ -0,0 +1,97 @@
+// Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/java;
+
+# Creates the native single flight group of the given name, which coalesces the concurrent remote calls of a key.
+#
+# + name - name of the group
+# + timeout - maximum time in milliseconds a request waits for the call made by another request
+function initSingleFlightGroup(string name, int timeout) {
+    jInitSingleFlightGroup(java:fromString(name), timeout);
+}
+
+# Joins the remote call in progress for the key, or starts a new one led by the caller.
+#
+# + name - name of the group
+# + key - key of the remote call
+# + return - the flight, which has to be completed by the caller if `isSingleFlightLeader` returns true
+function joinSingleFlight(string name, string key) returns handle {
+    return jJoinSingleFlight(java:fromString(name), java:fromString(key));
+}
+
+# Checks whether the caller has to make the remote call of the flight.
+#
+# + flight - flight returned when joining
+# + return - `true` if the caller is the leader of the flight
+function isSingleFlightLeader(handle flight) returns boolean {
+    return jIsSingleFlightLeader(flight);
+}
+
+# Waits until the leader of the flight completes. The strand yields while it waits, so the waiting requests do not
+# hold the threads of the scheduler.
+#
+# + flight - flight returned when joining
+# + return - the result or the error of the leader, or `()` if the timeout elapsed
+function awaitSingleFlight(handle flight) returns any|error {
+    return jAwaitSingleFlight(flight);
+}
+
+# Completes the flight led by the caller and shares the result with the waiting requests.
+#
+# + flight - flight returned when joining
+# + result - result of the remote call
+function completeSingleFlight(handle flight, any result) {
+    jCompleteSingleFlight(flight, result);
+}
+
+# Completes the flight led by the caller and shares the error with the waiting requests.
+#
+# + flight - flight returned when joining
+# + err - error of the remote call
+function failSingleFlight(handle flight, error err) {
+    jFailSingleFlight(flight, err);
+}
+
+function jInitSingleFlightGroup(handle name, int timeout) = @java:Method {
+    name: "init",
+    class: "org.wso2.micro.gateway.core.keyvalidation.SingleFlightGroup"
+} external;
+
+function jJoinSingleFlight(handle name, handle key) returns handle = @java:Method {
+    name: "join",
+    class: "org.wso2.micro.gateway.core.keyvalidation.SingleFlightGroup"
+} external;
+
+function jIsSingleFlightLeader(handle flight) returns boolean = @java:Method {
+    name: "isLeader",
+    class: "org.wso2.micro.gateway.core.keyvalidation.SingleFlightGroup"
+} external;
+
+function jAwaitSingleFlight(handle flight) returns any|error = @java:Method {
+    name: "await",
+    class: "org.wso2.micro.gateway.core.keyvalidation.SingleFlightGroup"
+} external;
+
+function jCompleteSingleFlight(handle flight, any result) = @java:Method {
+    name: "complete",
+    class: "org.wso2.micro.gateway.core.keyvalidation.SingleFlightGroup"
+} external;
+
+function jFailSingleFlight(handle flight, error err) = @java:Method {
+    name: "fail",
+    class: "org.wso2.micro.gateway.core.keyvalidation.SingleFlightGroup"
+} external;
@@ -14,21 +14,122 @@
 // specific language governing permissions and limitations
 // under the License.
 
+import ballerina/http;
 import ballerina/java;
 
 public function initThrottleDataPublisher() {
     int processThreadPoolCoreSize = getConfigIntValue(LOCAL_THROTTLE_CONF_INSTANCE_ID, PROCESS_THREAD_POOL_CORE_SIZE, DEFAULT_PROCESS_THREAD_POOL_CORE_SIZE);
     int processThreadPoolMaximumSize = getConfigIntValue(LOCAL_THROTTLE_CONF_INSTANCE_ID, PROCESS_THREAD_POOL_MAXIMUM_SIZE, DEFAULT_PROCESS_THREAD_POOL_MAXIMUM_SIZE);
     int processThreadPoolKeepAliveTime = getConfigIntValue(LOCAL_THROTTLE_CONF_INSTANCE_ID, PROCESS_THREAD_POOL_KEEP_ALIVE_TIME, DEFAULT_PROCESS_THREAD_POOL_KEEP_ALIVE_TIME);
-    int cleanUpFrequency = getConfigIntValue(LOCAL_THROTTLE_CONF_INSTANCE_ID, THROTTLE_CLEANUP_FREQUENCY, DEFAULT_THROTTLE_CLEANUP_FREQUENCY);
+    string updateMode = getConfigValue(LOCAL_THROTTLE_CONF_INSTANCE_ID, THROTTLE_UPDATE_MODE, DEFAULT_THROTTLE_UPDATE_MODE);
+    int updateRingCount = getConfigIntValue(LOCAL_THROTTLE_CONF_INSTANCE_ID, THROTTLE_UPDATE_RING_COUNT, DEFAULT_THROTTLE_UPDATE_RING_COUNT);
+    int updateRingBufferSize = getConfigIntValue(LOCAL_THROTTLE_CONF_INSTANCE_ID, THROTTLE_UPDATE_RING_BUFFER_SIZE, DEFAULT_THROTTLE_UPDATE_RING_BUFFER_SIZE);
     jInitThrottleDataPublisher (processThreadPoolCoreSize,
-        processThreadPoolMaximumSize, processThreadPoolKeepAliveTime, cleanUpFrequency);
+        processThreadPoolMaximumSize, processThreadPoolKeepAliveTime, java:fromString(updateMode),
+        updateRingCount, updateRingBufferSize);
+}
+
+public function getLocalThrottleUpdateQueueDepth() returns int {
+    return jGetUpdateQueueDepth();
+}
+
+public function getLocalThrottleUpdateLag() returns int {
+    return jGetUpdateLag();
+}
+
+public function getLiveThrottleKeyCount() returns int {
+    return jGetLiveThrottleKeyCount();
+}
+
+public function getExpiredThrottleKeysPerSecond() returns float {
+    return jGetExpiredThrottleKeysPerSecond();
 }
 
 public function publishNonThrottledEvent(RequestStreamDTO throttleEvent) {
     jPublishNonThrottledEvent(throttleEvent);
 }
 
+# Checks the API, resource, subscription and application level throttle counters of the request, and updates the
+# counters if the request is not throttled out.
+#
+# + throttleEvent - Local throttle event of the request
+# + return - Throttle decision of the request
+public function checkAndUpdateLocalThrottleCounters(RequestStreamDTO throttleEvent) returns int {
+    return jCheckAndUpdateThrottleCounters(throttleEvent);
+}
+
+public function addCompiledKeyTemplate(string template) {
+    jAddKeyTemplate(java:fromString(template));
+}
+
+public function removeCompiledKeyTemplate(string template) {
+    jRemoveKeyTemplate(java:fromString(template));
+}
+
+public function putCustomThrottledKey(string throttleKey, int resetTimestamp) {
+    jPutThrottledKey(java:fromString(throttleKey), resetTimestamp);
+}
+
+public function removeCustomThrottledKey(string throttleKey) {
+    jRemoveThrottledKey(java:fromString(throttleKey));
+}
+
+# Builds the custom policy throttle keys of the request for all the key templates and returns a key which is
+# throttled.
+#
+# + return - Throttled custom policy key or an empty string if the request is not throttled by a custom policy
+public function getThrottledCustomKey(string resourceKey, string userId, string apiContext, string apiVersion,
+        string appTenant, string apiTenant, string appId, string clientIp) returns string {
+    handle throttledKey = jGetThrottledKey(java:fromString(resourceKey), java:fromString(userId),
+        java:fromString(apiContext), java:fromString(apiVersion), java:fromString(appTenant),
+        java:fromString(apiTenant), java:fromString(appId), java:fromString(clientIp));
+    return throttledKey.toString();
+}
+
+public function addIpBlockConditionToIndex(IPRangeDTO ipRange) {
+    jAddIpBlockCondition(ipRange.id, java:fromString(ipRange.tenantDomain), java:fromString(ipRange.'type),
+        java:fromString(ipRange.fixedIp), java:fromString(ipRange.startingIp), java:fromString(ipRange.endingIp),
+        ipRange.invert);
+}
+
+public function removeIpBlockConditionFromIndex(int id) {
+    jRemoveIpBlockCondition(id);
+}
+
+# Checks the client IP against all the IP and IP range blocking conditions of the tenant.
+#
+# + clientIp - Client IP address
+# + tenantDomain - Tenant domain of the API
+# + return - `true` if the client IP is blocked
+public function isIpBlockedByIndex(string clientIp, string tenantDomain) returns boolean {
+    return jIsIpBlocked(java:fromString(clientIp), java:fromString(tenantDomain));
+}
+
+public function compileThrottledConditions(string resourceKey, string conditionKey, string base64Conditions) {
+    jPutThrottledConditions(java:fromString(resourceKey), java:fromString(conditionKey),
+        java:fromString(base64Conditions));
+}
+
+public function removeCompiledConditions(string resourceKey, string conditionKey) {
+    jRemoveThrottledConditions(java:fromString(resourceKey), java:fromString(conditionKey));
+}
+
+public function removeAllThrottledConditions(string resourceKey) {
+    jRemoveAllThrottledConditions(java:fromString(resourceKey));
+}
+
+# Evaluates the compiled throttle conditions of the throttle key against the request.
+#
+# + resourceKey - API or resource throttle key
+# + info - Request details required to make conditional throttle decisions
+# + return - Name of the condition group which throttles the request or an empty string
+function getThrottledCondition(string resourceKey, ConditionalThrottleInfo info) returns string {
+    handle conditionKey = jGetThrottledCondition(java:fromString(resourceKey), java:fromString(info.clientIp),
+        info.request, info.isHeaderConditionsEnabled, info.isQueryConditionsEnabled, info.isJwtConditionsEnabled,
+        java:fromString(jwtheaderName));
+    return conditionKey.toString();
+}
+
 public function isResourceThrottled(string resourceKey) returns boolean {
     handle key = java:fromString(resourceKey);
     return jIsResourceThrottled(key);
@@ -96,17 +197,107 @@ public function jIsApiLevelThrottled(handle apiKey) returns boolean = @java:Meth
 } external;
 
 public function jInitThrottleDataPublisher(int processThreadPoolCoreSize, int processThreadPoolMaximumSize,
-    int processThreadPoolKeepAliveTime, int cleanUpFrequency) = @java:Method {
+    int processThreadPoolKeepAliveTime, handle updateMode, int updateRingCount,
+    int updateRingBufferSize) = @java:Method {
     name: "initThrottleDataReceiver",
     class: "org.wso2.micro.gateway.core.throttle.ThrottleDataReceiver"
 } external;
 
+public function jGetUpdateQueueDepth() returns int = @java:Method {
+    name: "getUpdateQueueDepth",
+    class: "org.wso2.micro.gateway.core.throttle.ThrottleDataReceiver"
+} external;
+
+public function jGetUpdateLag() returns int = @java:Method {
+    name: "getUpdateLag",
+    class: "org.wso2.micro.gateway.core.throttle.ThrottleDataReceiver"
+} external;
+
+public function jGetLiveThrottleKeyCount() returns int = @java:Method {
+    name: "getLiveThrottleKeyCount",
+    class: "org.wso2.micro.gateway.core.throttle.ThrottleDataReceiver"
+} external;
+
+public function jGetExpiredThrottleKeysPerSecond() returns float = @java:Method {
+    name: "getExpiredThrottleKeysPerSecond",
+    class: "org.wso2.micro.gateway.core.throttle.ThrottleDataReceiver"
+} external;
+
 
 public function jPublishNonThrottledEvent(RequestStreamDTO throttleEvent) = @java:Method {
     name: "processNonThrottledEvent",
     class: "org.wso2.micro.gateway.core.throttle.ThrottleDataReceiver"
 } external;
 
+public function jCheckAndUpdateThrottleCounters(RequestStreamDTO throttleEvent) returns int = @java:Method {
+    name: "checkAndUpdateThrottleCounters",
+    class: "org.wso2.micro.gateway.core.throttle.ThrottleDataReceiver"
+} external;
+
+public function jAddKeyTemplate(handle template) = @java:Method {
+    name: "addKeyTemplate",
+    class: "org.wso2.micro.gateway.core.throttle.global.KeyTemplateRegistry"
+} external;
+
+public function jRemoveKeyTemplate(handle template) = @java:Method {
+    name: "removeKeyTemplate",
+    class: "org.wso2.micro.gateway.core.throttle.global.KeyTemplateRegistry"
+} external;
+
+public function jPutThrottledKey(handle throttleKey, int resetTimestamp) = @java:Method {
+    name: "putThrottledKey",
+    class: "org.wso2.micro.gateway.core.throttle.global.KeyTemplateRegistry"
+} external;
+
+public function jRemoveThrottledKey(handle throttleKey) = @java:Method {
+    name: "removeThrottledKey",
+    class: "org.wso2.micro.gateway.core.throttle.global.KeyTemplateRegistry"
+} external;
+
+public function jGetThrottledKey(handle resourceKey, handle userId, handle apiContext, handle apiVersion,
+    handle appTenant, handle apiTenant, handle appId, handle clientIp) returns handle = @java:Method {
+    name: "getThrottledKey",
+    class: "org.wso2.micro.gateway.core.throttle.global.KeyTemplateRegistry"
+} external;
+
+public function jAddIpBlockCondition(int id, handle tenantDomain, handle 'type, handle fixedIp, handle startingIp,
+    handle endingIp, boolean invert) = @java:Method {
+    name: "addCondition",
+    class: "org.wso2.micro.gateway.core.throttle.global.IpBlockConditionIndex"
+} external;
+
+public function jRemoveIpBlockCondition(int id) = @java:Method {
+    name: "removeCondition",
+    class: "org.wso2.micro.gateway.core.throttle.global.IpBlockConditionIndex"
+} external;
+
+public function jIsIpBlocked(handle clientIp, handle tenantDomain) returns boolean = @java:Method {
+    name: "isBlocked",
+    class: "org.wso2.micro.gateway.core.throttle.global.IpBlockConditionIndex"
+} external;
+
+public function jPutThrottledConditions(handle resourceKey, handle conditionKey, handle base64Conditions) = @java:Method {
+    name: "putConditions",
+    class: "org.wso2.micro.gateway.core.throttle.global.ThrottleConditionEvaluator"
+} external;
+
+public function jRemoveThrottledConditions(handle resourceKey, handle conditionKey) = @java:Method {
+    name: "removeConditions",
+    class: "org.wso2.micro.gateway.core.throttle.global.ThrottleConditionEvaluator"
+} external;
+
+public function jRemoveAllThrottledConditions(handle resourceKey) = @java:Method {
+    name: "removeAllConditions",
+    class: "org.wso2.micro.gateway.core.throttle.global.ThrottleConditionEvaluator"
+} external;
+
+function jGetThrottledCondition(handle resourceKey, handle clientIp, http:Request request,
+    boolean isHeaderConditionsEnabled, boolean isQueryConditionsEnabled, boolean isJwtConditionsEnabled,
+    handle jwtHeaderName) returns handle = @java:Method {
+    name: "getThrottledCondition",
+    class: "org.wso2.micro.gateway.core.throttle.global.ThrottleConditionEvaluator"
+} external;
+
 public function jIpToBigInteger(handle ip) returns handle = @java:Method {
     name: "ipToBigInteger",
     class: "org.wso2.micro.gateway.core.throttle.global.ThrottleUtils"
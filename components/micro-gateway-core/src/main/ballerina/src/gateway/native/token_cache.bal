@@ -0,0 +1,73 @@
+// Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/java;
+
+# Creates the native token cache of the given name, which keys the entries by the SHA-256 digest of the key and
+# bounds the estimated heap used by the entries.
+#
+# + name - name of the cache
+# + maxSizeInBytes - maximum estimated heap used by the entries in bytes
+# + maxAgeInMillis - time in milliseconds after which an entry expires
+function initTokenCache(string name, int maxSizeInBytes, int maxAgeInMillis) {
+    jInitTokenCache(java:fromString(name), maxSizeInBytes, maxAgeInMillis);
+}
+
+# Retrieves the cached value of the key.
+#
+# + name - name of the cache
+# + key - cache key
+# + return - the cached value, or `()` if there is no live entry for the key
+function getFromTokenCache(string name, string key) returns any {
+    return jGetFromTokenCache(java:fromString(name), java:fromString(key));
+}
+
+# Adds or replaces the cached value of the key.
+#
+# + name - name of the cache
+# + key - cache key
+# + value - value to be cached
+function putToTokenCache(string name, string key, any value) {
+    jPutToTokenCache(java:fromString(name), java:fromString(key), value);
+}
+
+# Removes the cached value of the key.
+#
+# + name - name of the cache
+# + key - cache key
+function invalidateTokenCache(string name, string key) {
+    jInvalidateTokenCache(java:fromString(name), java:fromString(key));
+}
+
+function jInitTokenCache(handle name, int maxSizeInBytes, int maxAgeInMillis) = @java:Method {
+    name: "init",
+    class: "org.wso2.micro.gateway.core.cache.TokenCache"
+} external;
+
+function jGetFromTokenCache(handle name, handle key) returns any = @java:Method {
+    name: "get",
+    class: "org.wso2.micro.gateway.core.cache.TokenCache"
+} external;
+
+function jPutToTokenCache(handle name, handle key, any value) = @java:Method {
+    name: "put",
+    class: "org.wso2.micro.gateway.core.cache.TokenCache"
+} external;
+
+function jInvalidateTokenCache(handle name, handle key) = @java:Method {
+    name: "invalidate",
+    class: "org.wso2.micro.gateway.core.cache.TokenCache"
+} external;
@@ -0,0 +1,58 @@
+// Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/java;
+
+# Initializes the native revoked token store with the bloom filter configuration.
+public function initRevokedTokenStore() {
+    boolean bloomFilterEnabled = getConfigBooleanValue(TOKEN_REVOCATION_CONF_INSTANCE_ID,
+        TOKEN_REVOCATION_BLOOM_FILTER_ENABLED, DEFAULT_TOKEN_REVOCATION_BLOOM_FILTER_ENABLED);
+    int bloomFilterCapacity = getConfigIntValue(TOKEN_REVOCATION_CONF_INSTANCE_ID,
+        TOKEN_REVOCATION_BLOOM_FILTER_CAPACITY, DEFAULT_TOKEN_REVOCATION_BLOOM_FILTER_CAPACITY);
+    jInitRevokedTokenStore(bloomFilterEnabled, bloomFilterCapacity);
+}
+
+function addRevokedToken(string token, string expiryTime) {
+    jAddRevokedToken(java:fromString(token), java:fromString(expiryTime));
+}
+
+function isTokenRevoked(string token) returns boolean {
+    return jIsRevoked(java:fromString(token));
+}
+
+function isJwtRevoked(string jti, string signature) returns boolean {
+    return jIsJwtRevoked(java:fromString(jti), java:fromString(signature));
+}
+
+function jInitRevokedTokenStore(boolean bloomFilterEnabled, int expectedRevocations) = @java:Method {
+    name: "init",
+    class: "org.wso2.micro.gateway.core.revocation.RevokedTokenStore"
+} external;
+
+function jAddRevokedToken(handle token, handle expiryTime) = @java:Method {
+    name: "addRevokedToken",
+    class: "org.wso2.micro.gateway.core.revocation.RevokedTokenStore"
+} external;
+
+function jIsRevoked(handle token) returns boolean = @java:Method {
+    name: "isRevoked",
+    class: "org.wso2.micro.gateway.core.revocation.RevokedTokenStore"
+} external;
+
+function jIsJwtRevoked(handle jti, handle signature) returns boolean = @java:Method {
+    name: "isJwtRevoked",
+    class: "org.wso2.micro.gateway.core.revocation.RevokedTokenStore"
+} external;
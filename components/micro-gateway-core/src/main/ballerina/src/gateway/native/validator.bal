@@ -50,6 +50,81 @@ public function responseValidate(string reqPath, string requestMethod, string re
      return jResponseValidate(requestPath, reqMethod, resCode, responsePayload, servName);
 }
 
+# Validate request payload while reading the payload bytes.
+#
+# + reqPath - request resource path
+# + requestMethod - request method
+# + payload - request payload bytes
+# + serviceName - qualified service name of the API
+# + maxSize - maximum payload size in bytes
+# + maxDepth - maximum nesting depth of the payload
+# + return - status of the validation
+public function requestPayloadValidate(string reqPath, string requestMethod, byte[] payload, string serviceName,
+    int maxSize, int maxDepth) returns handle | error {
+     handle requestPath = java:fromString(reqPath);
+     handle reqMethod = java:fromString(requestMethod);
+     handle servName = java:fromString(serviceName);
+     return jRequestPayloadValidate(requestPath, reqMethod, payload, servName, maxSize, maxDepth);
+}
+
+# Validate response payload while reading the payload bytes.
+#
+# + reqPath - request resource path
+# + requestMethod - request method
+# + responseCode - response status code
+# + response - response payload bytes
+# + serviceName - qualified service name of the API
+# + maxSize - maximum payload size in bytes
+# + maxDepth - maximum nesting depth of the payload
+# + return - status of the validation
+public function responsePayloadValidate(string reqPath, string requestMethod, string responseCode, byte[] response,
+    string serviceName, int maxSize, int maxDepth) returns handle | error {
+     handle requestPath = java:fromString(reqPath);
+     handle reqMethod = java:fromString(requestMethod);
+     handle resCode = java:fromString(responseCode);
+     handle servName = java:fromString(serviceName);
+     return jResponsePayloadValidate(requestPath, reqMethod, resCode, response, servName, maxSize, maxDepth);
+}
+
+# Start the workers validating a sample of the responses off the response path.
+#
+# + workerCount - number of validation workers
+# + queueSize - maximum number of responses waiting to be validated
+# + sampleRate - fraction of the responses to be validated, unless the API definition defines one
+public function initAsyncResponseValidation(int workerCount, int queueSize, float sampleRate) {
+     jInitAsyncResponseValidation(workerCount, queueSize, sampleRate);
+}
+
+# Decide whether the response of a resource is sampled for asynchronous validation.
+#
+# + serviceName - qualified service name of the API
+# + reqPath - request resource path
+# + requestMethod - request method
+# + return - true if the response should be validated
+public function isResponseValidationSampled(string serviceName, string reqPath, string requestMethod) returns boolean {
+     return jIsResponseValidationSampled(java:fromString(serviceName), java:fromString(reqPath),
+          java:fromString(requestMethod));
+}
+
+# Queue a response payload to be validated asynchronously. Mismatches are logged and counted, not failed.
+#
+# + reqPath - request resource path
+# + requestMethod - request method
+# + responseCode - response status code
+# + response - response payload bytes
+# + serviceName - qualified service name of the API
+# + maxSize - maximum payload size in bytes
+# + maxDepth - maximum nesting depth of the payload
+# + return - true if the response is queued, false if it is dropped as the validation queue is full
+public function responsePayloadValidateAsync(string reqPath, string requestMethod, string responseCode,
+    byte[] response, string serviceName, int maxSize, int maxDepth) returns boolean {
+     handle requestPath = java:fromString(reqPath);
+     handle reqMethod = java:fromString(requestMethod);
+     handle resCode = java:fromString(responseCode);
+     handle servName = java:fromString(serviceName);
+     return jResponsePayloadValidateAsync(requestPath, reqMethod, resCode, response, servName, maxSize, maxDepth);
+}
+
 # Extract Resource artifcats.
 #
 # + projectName - project Name
@@ -76,3 +151,32 @@ function jResponseValidate(handle resourcePath, handle reqMethod, handle resCode
      name: "validateResponse",
      class: "org.wso2.micro.gateway.core.validation.Validate"
 } external;
+
+function jRequestPayloadValidate(handle resourcePath, handle reqMethod, byte[] requestPayload, handle serviceName,
+    int maxSize, int maxDepth) returns handle | error = @java:Method {
+     name: "validateRequestPayload",
+     class: "org.wso2.micro.gateway.core.validation.Validate"
+} external;
+
+function jResponsePayloadValidate(handle resourcePath, handle reqMethod, handle resCode, byte[] res,
+    handle serName, int maxSize, int maxDepth) returns handle | error = @java:Method {
+     name: "validateResponsePayload",
+     class: "org.wso2.micro.gateway.core.validation.Validate"
+} external;
+
+function jInitAsyncResponseValidation(int workerCount, int queueSize, float sampleRate) = @java:Method {
+     name: "init",
+     class: "org.wso2.micro.gateway.core.validation.AsyncResponseValidator"
+} external;
+
+function jIsResponseValidationSampled(handle serviceName, handle resourcePath, handle reqMethod)
+                        returns boolean = @java:Method {
+     name: "isSampled",
+     class: "org.wso2.micro.gateway.core.validation.AsyncResponseValidator"
+} external;
+
+function jResponsePayloadValidateAsync(handle resourcePath, handle reqMethod, handle resCode, byte[] res,
+    handle serName, int maxSize, int maxDepth) returns boolean = @java:Method {
+     name: "validate",
+     class: "org.wso2.micro.gateway.core.validation.AsyncResponseValidator"
+} external;
@@ -15,6 +15,8 @@
 // under the License.
 import ballerina/stringutils;
 
+// Revoked tokens are kept in the native revoked token store. This map only holds the revoked tokens added
+// directly by custom persistent revoked token retrieval implementations.
 map<string> revokedTokenMap = {};
 
 public function getRevokedTokenMap() returns map<string> {
@@ -29,16 +31,20 @@ public function addToRevokedTokenMap(map<string> revokedTokens) returns (boolean
         if (jwtComponents.length() == 3) {
             tokenKey = jwtComponents[2];
         }
-        revokedTokenMap[tokenKey] = <@untainted>revokedTokenValue;
+        addRevokedToken(<@untainted>tokenKey, <@untainted>revokedTokenValue);
     }
     return true;
 }
 
 public function retrieveFromRevokedTokenMap(string token) returns (boolean | ()) {
-    foreach var [revokedTokenKey, revokedTokenValue] in revokedTokenMap.entries() {
-        if (token == revokedTokenKey) {
-            return true;
-        }
-    }
-    return false;
+    return isTokenRevoked(token) || revokedTokenMap.hasKey(token);
+}
+
+# Checks whether a JWT is revoked either by its jti or by its signature.
+#
+# + jti - jti claim of the JWT
+# + signature - Signature of the JWT
+# + return - `true` if the JWT is revoked
+public function isJwtRevokedInTokenMap(string jti, string signature) returns boolean {
+    return isJwtRevoked(jti, signature) || revokedTokenMap.hasKey(jti) || revokedTokenMap.hasKey(signature);
 }
@@ -66,9 +66,8 @@ service messageServ = service {
                         if (condition is APICondition && evaluatedConditions is string) {
                             string resourceKey = condition.resourceKey;
                             string conditionKey = condition.name;
-                            ConditionDto[] conditions = extractConditionDto(evaluatedConditions);
                             printDebug(KEY_THROTTLE_EVENT_LISTENER, "Adding to conditiondata map.");
-                            putThrottledConditions(conditions, resourceKey, conditionKey);
+                            putThrottledConditions(evaluatedConditions, resourceKey, conditionKey);
                         }
                     } else {
                         printDebug(KEY_THROTTLE_EVENT_LISTENER, "Removing from throttledata map.");
@@ -255,6 +254,7 @@ function removeKeyTemplate(string template, int timestamp) returns KeyTemplate |
         if (keyTemplateMap.get(template).timestamp >= timestamp) {
             return ();
         }
+        removeCompiledKeyTemplate(template);
         return keyTemplateMap.remove(template);
     }
 }
@@ -266,4 +266,5 @@ function addKeyTemplate(string template, int timestamp) {
     };
 
     keyTemplateMap[template] = kt;
+    addCompiledKeyTemplate(template);
 }
@@ -29,8 +29,10 @@ boolean isGrpcAnalyticsEnabled = false;
 string endpointURL = "";
 int gRPCReconnectTime = 3000;
 
+boolean isAnalyticsAggregationEnabled = false;
+
 function populateThrottleAnalyticsDTO(http:FilterContext context) returns (ThrottleAnalyticsEventDTO | error) {
-    boolean isSecured = <boolean>context.attributes[IS_SECURED];
+    GatewayRequestContext requestContext = getGatewayRequestContext();
     ThrottleAnalyticsEventDTO eventDto = {};
 
     time:Time time = time:currentTime();
@@ -38,20 +40,16 @@ function populateThrottleAnalyticsDTO(http:FilterContext context) returns (Throt
 
     map<json> metaInfo = {};
     eventDto.userTenantDomain = getTenantDomain(context);
-    if (context.attributes[API_METHOD_PROPERTY] is string) {
-        eventDto.apiMethod = <string>context.attributes[API_METHOD_PROPERTY];
-    } 
+    eventDto.apiMethod = requestContext.apiMethod;
     eventDto.apiName = getApiName(context);
     eventDto.apiContext = getContext(context);
     eventDto.throttledTime = currentTimeMills;
-    eventDto.throttledOutReason = <string>context.attributes[THROTTLE_OUT_REASON];
+    eventDto.throttledOutReason = requestContext.throttleOutReason;
     eventDto.apiCreatorTenantDomain = getTenantDomain(context);
     eventDto.gatewayType = GATEWAY_TYPE;
-    eventDto.hostname = retrieveHostname(DATACENTER_ID, <string>context.attributes[
-    HOSTNAME_PROPERTY]);
-    if (isSecured) {
-        AuthenticationContext authContext = <AuthenticationContext>runtime:getInvocationContext()
-        .attributes[AUTHENTICATION_CONTEXT];
+    eventDto.hostname = retrieveHostname(DATACENTER_ID, requestContext.hostname);
+    if (requestContext.isSecured) {
+        AuthenticationContext authContext = <AuthenticationContext>requestContext.authenticationContext;
         metaInfo["keyType"] = authContext.keyType;
         eventDto.userName = authContext.username;
         eventDto.applicationName = authContext.applicationName;
@@ -84,19 +82,19 @@ function populateThrottleAnalyticsDTO(http:FilterContext context) returns (Throt
         eventDto.apiResourceTemplate = httpResourceConfig.path;
     }
 
-    metaInfo["correlationID"] = <string>context.attributes[MESSAGE_ID];
+    metaInfo["correlationID"] = requestContext.messageId;
     eventDto.metaClientType = metaInfo.toString();
     runtime:InvocationContext invocationContext = runtime:getInvocationContext();
         if (invocationContext.attributes.hasKey(ADDITIONAL_ANALYTICS_PROPS) &&
         invocationContext.attributes[ADDITIONAL_ANALYTICS_PROPS] is string) {
         eventDto.properties = <string>invocationContext.attributes[ADDITIONAL_ANALYTICS_PROPS];
     }
-    printDebug(KEY_ANALYTICS_FILTER, "Throttle Event DTO : " + eventDto.toString());
+    printDebugFormat(KEY_ANALYTICS_FILTER, "Throttle Event DTO : {}", eventDto);
     return eventDto;
 }
 
 function populateFaultAnalyticsDTO(http:FilterContext context, string err) returns (FaultDTO | error) {
-    boolean isSecured = <boolean>context.attributes[IS_SECURED];
+    GatewayRequestContext requestContext = getGatewayRequestContext();
     FaultDTO eventDto = {};
     time:Time time = time:currentTime();
     int currentTimeMills = time.time;
@@ -111,17 +109,17 @@ function populateFaultAnalyticsDTO(http:FilterContext context, string err) retur
         eventDto.resourcePath = resource_Path;
         eventDto.apiResourceTemplate = httpResourceConfig.path;
     }
-    eventDto.method = <string>context.attributes[API_METHOD_PROPERTY];
+    eventDto.method = requestContext.apiMethod;
     eventDto.errorCode = <int>runtime:getInvocationContext().attributes[ERROR_RESPONSE_CODE];
     eventDto.errorMessage = err;
     eventDto.faultTime = currentTimeMills;
     eventDto.apiCreatorTenantDomain = getTenantDomain(context);
-    eventDto.hostName = retrieveHostname(DATACENTER_ID, <string>context.attributes[HOSTNAME_PROPERTY]);
-    eventDto.protocol = <string>context.attributes[PROTOCOL_PROPERTY];
+    eventDto.hostName = retrieveHostname(DATACENTER_ID, requestContext.hostname);
+    eventDto.protocol = requestContext.protocol;
 
     runtime:InvocationContext invocationContext = runtime:getInvocationContext();
-    if (isSecured && invocationContext.attributes.hasKey(AUTHENTICATION_CONTEXT)) {
-        AuthenticationContext authContext = <AuthenticationContext>invocationContext.attributes[AUTHENTICATION_CONTEXT];
+    AuthenticationContext? authContext = requestContext.authenticationContext;
+    if (requestContext.isSecured && authContext is AuthenticationContext) {
         metaInfo["keyType"] = authContext.keyType;
         eventDto.consumerKey = authContext.consumerKey;
         eventDto.userName = authContext.username;
@@ -152,7 +150,7 @@ function populateFaultAnalyticsDTO(http:FilterContext context, string err) retur
             eventDto.apiCreator = UNKNOWN_VALUE;
         }
     }
-    metaInfo["correlationID"] = <string>context.attributes[MESSAGE_ID];
+    metaInfo["correlationID"] = requestContext.messageId;
     eventDto.metaClientType = metaInfo.toString();
     if (invocationContext.attributes.hasKey(ADDITIONAL_ANALYTICS_PROPS) &&
         invocationContext.attributes[ADDITIONAL_ANALYTICS_PROPS] is string) {
@@ -175,7 +173,7 @@ function getAnalyticsEnableConfig() {
         uploadingUrl = <string>getConfigValue(FILE_UPLOAD_ANALYTICS,UPLOADING_EP, DEFAULT_UPLOADING_EP);
         configsRead = true;
     }
-    printDebug(KEY_ANALYTICS_FILTER, "File upload analytics uploading URL : "+ uploadingUrl);
+    printDebugFormat(KEY_ANALYTICS_FILTER, "File upload analytics uploading URL : {}", uploadingUrl);
     printDebug(KEY_UTILS, "Analytics configuration values read"); 
 }
 
@@ -184,12 +182,15 @@ function initializegRPCAnalytics() {
     isGrpcAnalyticsEnabled = <boolean>getConfigBooleanValue(GRPC_ANALYTICS, GRPC_ANALYTICS_ENABLE, DEFAULT_ANALYTICS_ENABLED);
     endpointURL = <string>getConfigValue(GRPC_ANALYTICS, GRPC_ENDPOINT_URL, DEFAULT_GRPC_ENDPOINT_URL);
     gRPCReconnectTime = <int>getConfigIntValue(GRPC_ANALYTICS, GRPC_RETRY_TIME_MILLISECONDS, DEFAULT_GRPC_RECONNECT_TIME_IN_MILLES);
-    printDebug(KEY_GRPC_ANALYTICS, "gRPC endpoint URL : " + endpointURL);
-    printDebug(KEY_GRPC_ANALYTICS, "gRPC keyStore file : " + <string>getConfigValue(LISTENER_CONF_INSTANCE_ID, KEY_STORE_PATH, DEFAULT_KEY_STORE_PATH));
-    printDebug(KEY_GRPC_ANALYTICS, "gRPC trustStore file : " + <string>getConfigValue(LISTENER_CONF_INSTANCE_ID, TRUST_STORE_PATH, DEFAULT_TRUST_STORE_PATH));
-    printDebug(KEY_GRPC_ANALYTICS, "gRPC retry time  : " + gRPCReconnectTime.toString());
+    printDebugFormat(KEY_GRPC_ANALYTICS, "gRPC endpoint URL : {}", endpointURL);
+    printDebugFormat(KEY_GRPC_ANALYTICS, "gRPC keyStore file : {}",
+            <string>getConfigValue(LISTENER_CONF_INSTANCE_ID, KEY_STORE_PATH, DEFAULT_KEY_STORE_PATH));
+    printDebugFormat(KEY_GRPC_ANALYTICS, "gRPC trustStore file : {}",
+            <string>getConfigValue(LISTENER_CONF_INSTANCE_ID, TRUST_STORE_PATH, DEFAULT_TRUST_STORE_PATH));
+    printDebugFormat(KEY_GRPC_ANALYTICS, "gRPC retry time : {}", gRPCReconnectTime);
 
     if (isGrpcAnalyticsEnabled) {
+        initGRPCAnalyticsPublisher();
         initGRPCService();
     }
 }
@@ -199,6 +200,15 @@ function initializeAnalytics() {
         getAnalyticsEnableConfig();
         if (isAnalyticsEnabled) {
             printDebug(KEY_ANALYTICS_FILTER, "Analytics is enabled");
+            initAnalyticsFileAppender(retrieveConfig(API_USAGE_PATH, API_USAGE_DIR) + PATH_SEPERATOR +
+                TEMP_API_USAGE_FILE, getConfigValue(FILE_UPLOAD_ANALYTICS, EVENT_FILE_FORMAT,
+                DEFAULT_EVENT_FILE_FORMAT), isEventFileCompressedOnWrite(), getConfigIntValue(FILE_UPLOAD_ANALYTICS,
+                EVENT_FILE_COMPRESSION_LEVEL, DEFAULT_EVENT_FILE_COMPRESSION_LEVEL),
+                getConfigIntValue(FILE_UPLOAD_ANALYTICS, EVENT_WRITER_RING_SIZE,
+                DEFAULT_EVENT_WRITER_RING_SIZE), getConfigIntValue(FILE_UPLOAD_ANALYTICS, EVENT_WRITER_FLUSH_SIZE,
+                DEFAULT_EVENT_WRITER_FLUSH_SIZE), getConfigIntValue(FILE_UPLOAD_ANALYTICS,
+                EVENT_WRITER_FLUSH_INTERVAL, DEFAULT_EVENT_WRITER_FLUSH_INTERVAL_IN_MILLIS),
+                getConfigIntValue(FILE_UPLOAD_ANALYTICS, EVENT_FILE_MAX_SIZE, DEFAULT_EVENT_FILE_MAX_SIZE));
             future<()> uploadTask = start timerTask();            // file uploading task
             future<()> rotateTask = start rotatingTask();        // file rotating task
         } else {
@@ -207,6 +217,23 @@ function initializeAnalytics() {
     }
 }
 
+function initializeAnalyticsAggregation() {
+    // the gRPC analytics stream has no aggregate message, so only the file upload analytics publish aggregates
+    if (isAnalyticsEnabled) {
+        isAnalyticsAggregationEnabled = <boolean>getConfigBooleanValue(ANALYTICS_AGGREGATION, AGGREGATION_ENABLE,
+            DEFAULT_AGGREGATION_ENABLED);
+        if (isAnalyticsAggregationEnabled) {
+            printDebug(KEY_ANALYTICS_FILTER, "Analytics aggregation is enabled");
+            aggregateEmittingTask();
+        }
+    }
+}
+
+function isEventFileCompressedOnWrite() returns boolean {
+    return <boolean>getConfigBooleanValue(FILE_UPLOAD_ANALYTICS, EVENT_FILE_COMPRESS_ON_WRITE,
+        DEFAULT_EVENT_FILE_COMPRESS_ON_WRITE);
+}
+
 public function retrieveHostname(string key, string defaultHost) returns string {
     return config:getAsString(key, defaultHost);
 }
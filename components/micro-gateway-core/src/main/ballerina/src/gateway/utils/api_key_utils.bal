@@ -47,10 +47,10 @@ public function generateAPIKey(http:Request req) returns string | error {
         jwt:JwtPayload jwtPayload = {};
         //get authenticated user
         runtime:InvocationContext invocationContext = runtime:getInvocationContext();
-        AuthenticationContext authContext = <AuthenticationContext>invocationContext.attributes[AUTHENTICATION_CONTEXT];
+        AuthenticationContext authContext = <AuthenticationContext>getGatewayRequestContext().authenticationContext;
         string username = authContext.username;
 
-        printDebug(API_KEY_UTIL, "API Key claims sub : " + username);
+        printDebugFormat(API_KEY_UTIL, "API Key claims sub : {}", username);
         jwtPayload.sub = username;
         jwtPayload.iss = getConfigValue(API_KEY_ISSUER_TOKEN_CONFIG, ISSUER, DEFAULT_API_KEY_ISSUER);
         jwtPayload.jti = system:uuid();
@@ -85,7 +85,7 @@ public function getExpiryTime(http:Request req) returns @tainted (int) {
     var payload = req.getJsonPayload();
     int expiryTime =
         getConfigIntValue(API_KEY_ISSUER_TOKEN_CONFIG, API_KEY_VALIDITY_TIME, DEFAULT_API_KEY_VALIDITY_TIME);
-    printDebug(API_KEY_UTIL, "Validity Period in config: " + expiryTime.toString());
+    printDebugFormat(API_KEY_UTIL, "Validity Period in config: {}", expiryTime);
 
     if (payload is json) {
         map<json> payloadMap = <map<json>>payload;
@@ -112,7 +112,7 @@ public function validateAPIKey(string apiKeyToken) returns boolean {
     runtime:InvocationContext invocationContext = runtime:getInvocationContext();
     runtime:AuthenticationContext? authContext = invocationContext?.authenticationContext;
     if (authContext is runtime:AuthenticationContext) {
-        printDebug(API_KEY_UTIL, "Set authContext scheme to " + AUTH_SCHEME_API_KEY);
+        printDebugFormat(API_KEY_UTIL, "Set authContext scheme to {}", AUTH_SCHEME_API_KEY);
         authContext.scheme = AUTH_SCHEME_API_KEY;
     }
     //decode jwt
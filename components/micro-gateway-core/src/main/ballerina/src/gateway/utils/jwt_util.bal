@@ -45,7 +45,7 @@ public function isAllowedKey(string token, jwt:JwtPayload payload, boolean isVal
     };
 
     string|string[]? audiencePayload = payload?.aud;
-    printDebug(JWT_UTIL,"Audience value retrieved : " + audiencePayload.toString());
+    printDebugFormat(JWT_UTIL, "Audience value retrieved : {}", audiencePayload);
     string consumerKey = "";
     if (customClaims is map<json> && customClaims.hasKey(appKeyClaim)) {
         consumerKey = customClaims.get(appKeyClaim).toString();
@@ -54,7 +54,7 @@ public function isAllowedKey(string token, jwt:JwtPayload payload, boolean isVal
     } else if (audiencePayload is string[] && audiencePayload.length() > 0 ) {
         consumerKey = audiencePayload[0];
     }
-    printDebug(JWT_UTIL,"Consumer key resolved : " + consumerKey);
+    printDebugFormat(JWT_UTIL, "Consumer key resolved : {}", consumerKey);
 
     //set key type
     if (customClaims is map<json> && customClaims.hasKey(KEY_TYPE)) {
@@ -75,16 +75,16 @@ public function isAllowedKey(string token, jwt:JwtPayload payload, boolean isVal
     }
 
     // TODO: substore: if possible print authenticationContext object as a json
-    printDebug(JWT_UTIL, "username : " + authenticationContext.username + ", keytype : "
-        + authenticationContext.keyType + ", consumer key : " + authenticationContext.consumerKey
-        + ", application ID : " + authenticationContext.applicationId + ", application name : "
-        + authenticationContext.applicationName + ", application tier : " + authenticationContext.applicationTier
-        + ", application owner : " + authenticationContext.subscriber + ", application tier : "
-        + authenticationContext.tier + ", apiTier : " + authenticationContext.apiTier
-        + ", apiPublisher : " + authenticationContext.apiPublisher + ", subscriberTenantDomain : "
-        + authenticationContext.subscriberTenantDomain);
+    printDebugFormat(JWT_UTIL, "username : {}, keytype : {}, consumer key : {}, application ID : {}, "
+            + "application name : {}, application tier : {}, application owner : {}, application tier : {}, "
+            + "apiTier : {}, apiPublisher : {}, subscriberTenantDomain : {}",
+            authenticationContext.username, authenticationContext.keyType, authenticationContext.consumerKey,
+            authenticationContext.applicationId, authenticationContext.applicationName,
+            authenticationContext.applicationTier, authenticationContext.subscriber, authenticationContext.tier,
+            authenticationContext.apiTier, authenticationContext.apiPublisher,
+            authenticationContext.subscriberTenantDomain);
 
-    invocationContext.attributes[AUTHENTICATION_CONTEXT] = authenticationContext;
+    setAuthenticationContext(authenticationContext);
     return isAllowed;
 }
 
@@ -161,8 +161,8 @@ public function handleSubscribedAPIs(string apiKeyToken, jwt:JwtPayload payload,
                 // Successfully validated the API. Then set authenticated to true.
                 authenticationContext.authenticated = true;
                 if (isDebugEnabled) { 
-                    printDebug(JWT_UTIL, "Found a matching allowed api with name:" + subscription.name.toString()
-                        + " version:" + subscription.'version.toString());
+                    printDebugFormat(JWT_UTIL, "Found a matching allowed api with name:{} version:{}",
+                            subscription.name, subscription.'version);
                 }
 
                 //set throttling attribs if present
@@ -176,16 +176,17 @@ public function handleSubscribedAPIs(string apiKeyToken, jwt:JwtPayload payload,
                     authenticationContext.subscriberTenantDomain = subscription.subscriberTenantDomain.toString();
                 }
                 if (isDebugEnabled) { 
-                    printDebug(JWT_UTIL, "Set username : " + authenticationContext.username + ", keytype : " 
-                    + authenticationContext.keyType + ", consumer key : " + authenticationContext.consumerKey 
-                    + ", application ID : " + authenticationContext.applicationId + ", application name : " 
-                    + authenticationContext.applicationName + ", application tier : " + authenticationContext.applicationTier 
-                    + ", application owner : " + authenticationContext.subscriber + ", application tier : " 
-                    + authenticationContext.tier + ", apiTier : " + authenticationContext.apiTier 
-                    + ", apiPublisher : " + authenticationContext.apiPublisher + ", subscriberTenantDomain : " 
-                    + authenticationContext.subscriberTenantDomain);
+                    printDebugFormat(JWT_UTIL, "Set username : {}, keytype : {}, consumer key : {}, "
+                            + "application ID : {}, application name : {}, application tier : {}, "
+                            + "application owner : {}, application tier : {}, apiTier : {}, apiPublisher : {}, "
+                            + "subscriberTenantDomain : {}",
+                            authenticationContext.username, authenticationContext.keyType,
+                            authenticationContext.consumerKey, authenticationContext.applicationId,
+                            authenticationContext.applicationName, authenticationContext.applicationTier,
+                            authenticationContext.subscriber, authenticationContext.tier, authenticationContext.apiTier,
+                            authenticationContext.apiPublisher, authenticationContext.subscriberTenantDomain);
                 }
-                invocationContext.attributes[AUTHENTICATION_CONTEXT] = authenticationContext;
+                setAuthenticationContext(authenticationContext);
                 return true;
             }
             index += 1;
@@ -193,16 +194,16 @@ public function handleSubscribedAPIs(string apiKeyToken, jwt:JwtPayload payload,
     }
     printDebug(JWT_UTIL, "matching API is not found as subscribed API");
     if (isDebugEnabled) { 
-        printDebug(JWT_UTIL, "Set username : " + authenticationContext.username + ", keytype : " 
-        + authenticationContext.keyType + ", consumer key : " + authenticationContext.consumerKey 
-        + ", application ID : " + authenticationContext.applicationId + ", application name : " 
-        + authenticationContext.applicationName + ", application tier : " + authenticationContext.applicationTier 
-        + ", application owner : " + authenticationContext.subscriber + ", application tier : " 
-        + authenticationContext.tier + ", apiTier : " + authenticationContext.apiTier 
-        + ", apiPublisher : " + authenticationContext.apiPublisher + ", subscriberTenantDomain : " 
-        + authenticationContext.subscriberTenantDomain);
+        printDebugFormat(JWT_UTIL, "Set username : {}, keytype : {}, consumer key : {}, application ID : {}, "
+                + "application name : {}, application tier : {}, application owner : {}, application tier : {}, "
+                + "apiTier : {}, apiPublisher : {}, subscriberTenantDomain : {}",
+                authenticationContext.username, authenticationContext.keyType, authenticationContext.consumerKey,
+                authenticationContext.applicationId, authenticationContext.applicationName,
+                authenticationContext.applicationTier, authenticationContext.subscriber, authenticationContext.tier,
+                authenticationContext.apiTier, authenticationContext.apiPublisher,
+                authenticationContext.subscriberTenantDomain);
     }
-    invocationContext.attributes[AUTHENTICATION_CONTEXT] = authenticationContext;
+    setAuthenticationContext(authenticationContext);
     return isAllowed;
 }
 
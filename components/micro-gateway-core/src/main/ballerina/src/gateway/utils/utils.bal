@@ -76,8 +76,8 @@ public function getKeyValidationRequestObject(runtime:InvocationContext context,
     runtime:InvocationContext invocationContext = runtime:getInvocationContext();
     string serviceName = invocationContext.attributes[http:SERVICE_NAME].toString();
     string resourceName = invocationContext.attributes[http:RESOURCE_NAME].toString();
-    printDebug(KEY_UTILS, "Service Name : " + serviceName);
-    printDebug(KEY_UTILS, "Resource Name : " + resourceName);
+    printDebugFormat(KEY_UTILS, "Service Name : {}", serviceName);
+    printDebugFormat(KEY_UTILS, "Resource Name : {}", resourceName);
     http:HttpServiceConfig httpServiceConfig = <http:HttpServiceConfig>serviceAnnotationMap[serviceName];
     http:HttpResourceConfig? httpResourceConfig = resourceAnnotationMap[resourceName];
     if (httpResourceConfig is http:HttpResourceConfig) {
@@ -110,9 +110,8 @@ public function getKeyValidationRequestObject(runtime:InvocationContext context,
     apiKeyValidationRequest.keyManagers = "all";
 
     apiKeyValidationRequest.accessToken = accessToken;
-    printDebug(KEY_UTILS, "Created request meta-data object with context: " + apiContext
-    + ", resource: " + apiKeyValidationRequest.matchingResource
-    + ", verb: " + apiKeyValidationRequest.httpVerb);
+    printDebugFormat(KEY_UTILS, "Created request meta-data object with context: {}, resource: {}, verb: {}",
+        apiContext, apiKeyValidationRequest.matchingResource, apiKeyValidationRequest.httpVerb);
     return apiKeyValidationRequest;
 
 }
@@ -436,7 +435,7 @@ public function getAuthHeaderFromFilterContext(http:FilterContext context) retur
 function checkAndRemoveAuthHeaders(http:Request request, string authHeaderName) {
     if (getConfigBooleanValue(AUTH_CONF_INSTANCE_ID, REMOVE_AUTH_HEADER_FROM_OUT_MESSAGE, DEFAULT_REMOVE_AUTH_HEADER_FROM_OUT_MESSAGE)) {
         request.removeHeader(authHeaderName);
-        printDebug(KEY_PRE_AUTHN_FILTER, "Removed header : " + authHeaderName + " from the request");
+        printDebugFormat(KEY_PRE_AUTHN_FILTER, "Removed header : {} from the request", authHeaderName);
     }
 }
 
@@ -464,10 +463,6 @@ public function rotateFile(string filePath) returns string | error {
     //the data loss.
     string eventFilePath = filePath.substring(0, filePathLength - 4) ;
     int rotatingTimeStamp = getCurrentTime();
-    var renameFileResult = file:rename(filePath, eventFilePath);
-    if (renameFileResult is error) {
-        printError(KEY_UTILS, "Failed to rename file", renameFileResult);
-    }
     //Until the compression happens, the file will have the name <fileNameWithoutExtension> with '.tmp' extension.
     //After the compression is completed successfully, the file will be renamed to <zipName>. Only the files
     //with .zip extension will be uploaded. Hence the partially compressed files will not be uploaded to the analytics
@@ -476,7 +471,24 @@ public function rotateFile(string filePath) returns string | error {
         uuid;
     string tempZipName = fileNameWithoutExtension + TMP_EXTENSION;
     string zipName = fileNameWithoutExtension + ZIP_EXTENSION;
-    var compressResult = compress(eventFilePath, tempZipName);
+    if (isEventFileCompressedOnWrite()) {
+        //The event file is already compressed, hence renaming it finishes the compressed file.
+        var renameResult = renameAnalyticsEventFile(filePath, tempZipName);
+        if (renameResult is error) {
+            printError(KEY_UTILS, "Failed to rename file", renameResult);
+            return renameResult;
+        }
+        var renameZipResult = file:rename(tempZipName, zipName);
+        if (renameZipResult is error) {
+            printError(KEY_UTILS, "Failed to rename file", renameZipResult);
+        }
+        return zipName;
+    }
+    var renameFileResult = renameAnalyticsEventFile(filePath, eventFilePath);
+    if (renameFileResult is error) {
+        printError(KEY_UTILS, "Failed to rename file", renameFileResult);
+    }
+    var compressResult = compressAnalyticsEventFile(eventFilePath, tempZipName);
     if (compressResult is error) {
         printError(KEY_UTILS, "Failed to compress the file", compressResult);
         return compressResult;
@@ -552,6 +564,18 @@ public function printDebug(string key, string message) {
     }
 }
 
+# Add a debug log with provided key (class) and message ID, where the message is built from a format only if debug
+# logs are enabled. Use this instead of concatenating the message in the request path, since `{}` placeholders are
+# replaced with the arguments after the level is checked.
+# + key - The name of the bal file from which the log is printed.
+# + format - The message format with a `{}` placeholder for each argument.
+# + args - The values to be substituted for the placeholders.
+public function printDebugFormat(string key, string format, any... args) {
+    if (isDebugEnabled) {
+        printDebug(key, formatLogMessage(format, args));
+    }
+}
+
 # Add a warn log with provided key (class) and message ID.
 # + key - The name of the bal file from which the log is printed.
 # + message - The message to be logged.
@@ -582,9 +606,56 @@ public function setLatency(int starting, http:FilterContext context, string late
             return;
     }
     int ending = getCurrentTime();
-    context.attributes[latencyType] = ending - starting;
     int latency = ending - starting;
-    printDebug(KEY_THROTTLE_FILTER, latencyType + " latency: " + latency.toString() + "ms");
+    GatewayRequestContext requestContext = getGatewayRequestContext();
+    if (latencyType == SECURITY_LATENCY_AUTHN) {
+        requestContext.securityLatencyAuthn = latency;
+    } else if (latencyType == SECURITY_LATENCY_AUTHZ) {
+        requestContext.securityLatencyAuthz = latency;
+    } else if (latencyType == SECURITY_LATENCY_AUTHZ_RESPONSE) {
+        requestContext.securityLatencyAuthzResponse = latency;
+    } else if (latencyType == SECURITY_LATENCY_SUBS) {
+        requestContext.securityLatencySubs = latency;
+    } else if (latencyType == SECURITY_LATENCY_VALIDATION) {
+        requestContext.securityLatencyValidation = latency;
+    } else if (latencyType == THROTTLE_LATENCY) {
+        requestContext.throttleLatency = latency;
+    } else {
+        context.attributes[latencyType] = latency;
+    }
+    // checked here, as the latencies are set several times for each request
+    if (isDebugEnabled) {
+        printDebugFormat(KEY_THROTTLE_FILTER, "{} latency: {}ms", latencyType, latency);
+    }
+}
+
+# Creates the gateway context of the current request. This is done once per request by the first filter.
+#
+# + return - gateway context of the request
+public function createGatewayRequestContext() returns GatewayRequestContext {
+    GatewayRequestContext requestContext = {};
+    runtime:getInvocationContext().attributes[GATEWAY_REQUEST_CONTEXT] = requestContext;
+    return requestContext;
+}
+
+# Returns the gateway context of the current request, which is created if the first filter has not created it.
+#
+# + return - gateway context of the request
+public function getGatewayRequestContext() returns GatewayRequestContext {
+    any requestContext = runtime:getInvocationContext().attributes[GATEWAY_REQUEST_CONTEXT];
+    if (requestContext is GatewayRequestContext) {
+        return requestContext;
+    }
+    return createGatewayRequestContext();
+}
+
+# Sets the authentication context of the current request. It is also set to the `AUTHENTICATION_CONTEXT` attribute of
+# the invocation context, which is read by the extension filters.
+#
+# + authenticationContext - authentication context of the request
+public function setAuthenticationContext(AuthenticationContext authenticationContext) {
+    getGatewayRequestContext().authenticationContext = authenticationContext;
+    runtime:getInvocationContext().attributes[AUTHENTICATION_CONTEXT] = authenticationContext;
 }
 
 # Check MESSAGE_ID in context and set if it is not.
@@ -637,19 +708,19 @@ public function setHostHeaderToFilterContext(http:Request request,@tainted http:
     if (!isAnalyticsEnabled && !isGrpcAnalyticsEnabled) {
         return;
     }
-    if (context.attributes[HOSTNAME_PROPERTY] == ()) {
-        printDebug(KEY_AUTHN_FILTER, "Setting hostname to filter context");
+    GatewayRequestContext requestContext = getGatewayRequestContext();
+    if (requestContext.hostname == "") {
+        printDebug(KEY_AUTHN_FILTER, "Setting hostname to the gateway request context");
         if (request.hasHeader(HOST_HEADER_NAME)) {
-            context.attributes[HOSTNAME_PROPERTY] = request.getHeader(HOST_HEADER_NAME);
-
+            requestContext.hostname = request.getHeader(HOST_HEADER_NAME);
         } else {
-            context.attributes[HOSTNAME_PROPERTY] = "localhost";
+            requestContext.hostname = "localhost";
         }
-        printDebug(KEY_UTILS, "Hostname attribute of the filter context is set to : " +
-        <string>context.attributes[HOSTNAME_PROPERTY]);
+        printDebugFormat(KEY_UTILS, "Hostname of the gateway request context is set to : {}",
+            requestContext.hostname);
     } else {
-        printDebug(KEY_UTILS, "Hostname attribute of the filter context is already set to : " +
-        <string>context.attributes[HOSTNAME_PROPERTY]);
+        printDebugFormat(KEY_UTILS, "Hostname of the gateway request context is already set to : {}",
+            requestContext.hostname);
     }
 }
 
@@ -690,7 +761,7 @@ function isServiceResourceSecured(http:ResourceAuth? resourceAuth) returns boole
 }
 
 public function getAuthProviders(string serviceName, string resourceName) returns string[] {
-    printDebug(KEY_UTILS, "Service name provided to retrieve auth configuration  : " + serviceName);
+    printDebugFormat(KEY_UTILS, "Service name provided to retrieve auth configuration  : {}", serviceName);
     string[] authProviders = [];
     ResourceConfiguration? resourceConfig = resourceConfigAnnotationMap[resourceName];
     if (resourceConfig is ResourceConfiguration) {
@@ -717,7 +788,7 @@ public function getSecurityForService(string serviceName, string security) retur
 }
 
 public function getAPIKeysforResource(string serviceName, string resourceName) returns json[] {
-    printDebug(KEY_UTILS, "Service name provided to retrieve apikey configuration  : " + serviceName);
+    printDebugFormat(KEY_UTILS, "Service name provided to retrieve apikey configuration  : {}", serviceName);
     json[] apiKeys = [];
     ResourceConfiguration? resourceConfig = resourceConfigAnnotationMap[resourceName];
     if (resourceConfig is ResourceConfiguration) {
@@ -789,6 +860,23 @@ public function prepareError(string message, error? err = ()) returns auth:Error
     return authError;
 }
 
+# Checks whether a credential validation failed because the credential is invalid. Errors of the auth and jwt modules
+# which are not caused by an error of another module, e.g. a truststore which cannot be read or an endpoint which is
+# unavailable, are not caused by the environment and hence the credential would be rejected again.
+#
+# + err - The `error` returned by the validation.
+# + return - Returns `true` if the credential was rejected.
+function isCredentialRejection(error err) returns boolean {
+    error? current = err;
+    while (current is error) {
+        if (current.reason() != auth:AUTH_ERROR && current.reason() != jwt:JWT_ERROR) {
+            return false;
+        }
+        current = current.detail()?.cause;
+    }
+    return true;
+}
+
 # Logs, prepares, and returns the `AuthenticationError`.
 #
 # + message -The error message.
@@ -15,11 +15,19 @@
 // under the License.
 
 import ballerina/http;
+import ballerina/lang.'int;
+import ballerina/stringutils;
 
 boolean enableRequestValidation = getConfigBooleanValue(VALIDATION_CONFIG_INSTANCE_ID, REQUEST_VALIDATION_ENABLED,
     DEFAULT_REQUEST_VALIDATION_ENABLED);
 boolean enableResponseValidation = getConfigBooleanValue(VALIDATION_CONFIG_INSTANCE_ID, RESPONSE_VALIDATION_ENABLED,
     DEFAULT_RESPONSE_VALIDATION_ENABLED);  
+int validationMaxPayloadSize = getConfigIntValue(VALIDATION_CONFIG_INSTANCE_ID, VALIDATION_MAX_PAYLOAD_SIZE,
+    DEFAULT_VALIDATION_MAX_PAYLOAD_SIZE);
+int validationMaxPayloadDepth = getConfigIntValue(VALIDATION_CONFIG_INSTANCE_ID, VALIDATION_MAX_PAYLOAD_DEPTH,
+    DEFAULT_VALIDATION_MAX_PAYLOAD_DEPTH);
+boolean isAsyncResponseValidation = stringutils:equalsIgnoreCase(getConfigValue(VALIDATION_CONFIG_INSTANCE_ID,
+    RESPONSE_VALIDATION_MODE, DEFAULT_RESPONSE_VALIDATION_MODE), RESPONSE_VALIDATION_MODE_ASYNC);
 
 function getRequestPathFromFilterContext(http:FilterContext filterContext) returns string {
     any path = filterContext.attributes[REQUEST_PATH];
@@ -56,3 +64,32 @@ function setReqPathAndMethodToFilterContext(http:Request request, http:FilterCon
         filterContext.attributes[REQUEST_PATH] = requestPath;
     }
 } 
+
+# Checks the declared content length of a payload against the maximum payload size of the validation, so that
+# oversized payloads are rejected before they are read.
+#
+# + contentLength - value of the content length header, if present
+# + return - error description if the payload exceeds the maximum size
+function getPayloadSizeLimitError(string? contentLength) returns string? {
+    if (contentLength is () || validationMaxPayloadSize <= 0) {
+        return ();
+    }
+    int|error payloadSize = 'int:fromString(contentLength);
+    if (payloadSize is int && payloadSize > validationMaxPayloadSize) {
+        return "Payload size of " + payloadSize.toString() + " bytes exceeds the maximum of " +
+            validationMaxPayloadSize.toString() + " bytes.";
+    }
+    return ();
+}
+
+# Starts the workers validating a sample of the responses, if the responses are validated asynchronously.
+public function initResponseValidation() {
+    if (!enableResponseValidation || !isAsyncResponseValidation) {
+        return;
+    }
+    initAsyncResponseValidation(getConfigIntValue(VALIDATION_CONFIG_INSTANCE_ID, RESPONSE_VALIDATION_WORKERS,
+        DEFAULT_RESPONSE_VALIDATION_WORKERS), getConfigIntValue(VALIDATION_CONFIG_INSTANCE_ID,
+        RESPONSE_VALIDATION_QUEUE_SIZE, DEFAULT_RESPONSE_VALIDATION_QUEUE_SIZE),
+        getConfigFloatValue(VALIDATION_CONFIG_INSTANCE_ID, RESPONSE_VALIDATION_SAMPLE_RATE,
+        DEFAULT_RESPONSE_VALIDATION_SAMPLE_RATE));
+}
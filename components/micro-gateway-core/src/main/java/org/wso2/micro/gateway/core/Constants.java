@@ -67,6 +67,7 @@ public class Constants {
     public static final String JSONPATH_SCHEMAS = "$..components.schemas.";
     public static final String JSON_SCHEMA = ".content.application/json.schema";
     public static final String VALIDATED_STATUS = "validated";
+    public static final String RESPONSE_VALIDATION_SAMPLE_RATE = "x-wso2-response-validation-sample-rate";
     public static final String RUNTIME_HOME_PATH = "mgw-runtime.home";
     public static final String BEGIN_CERTIFICATE_STRING = "-----BEGIN CERTIFICATE-----\n";
     public static final String END_CERTIFICATE_STRING = "-----END CERTIFICATE-----";
@@ -74,4 +75,7 @@ public class Constants {
     public static final String DOT = ".";
     public static final String UNDER_SCORE = "_";
     public static final String JSON_EXTENSION = ".json";
+    public static final String THROTTLE_UPDATE_MODE_INLINE = "inline";
+    public static final String THROTTLE_UPDATE_MODE_RING = "ring";
+    public static final String THROTTLE_UPDATE_MODE_EXECUTOR = "executor";
 }
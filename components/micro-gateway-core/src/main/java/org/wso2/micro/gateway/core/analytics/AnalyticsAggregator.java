@@ -0,0 +1,312 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.analytics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONObject;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Rolls up the analytics events of the gateway into aggregates per time bucket, API, resource, application and
+ * status.
+ * <p>
+ * Each aggregate counts the requests, faults and throttled requests of its key and keeps a {@link LatencySketch} of
+ * the response times, which the consumers can merge across the buckets and the gateways. Once a time bucket has
+ * ended its aggregates are emitted as JSON records, one per key, by {@link #poll(long)}. Events arriving after their
+ * bucket was emitted are emitted as a separate aggregate of the same bucket, which is merged the same way. The number
+ * of aggregates of the open buckets is bounded, after which the events are recorded without their resource and
+ * application.
+ */
+public class AnalyticsAggregator implements AnalyticsAggregatorMBean {
+
+    private static final Logger log = LogManager.getLogger(AnalyticsAggregator.class);
+    private static final String OBJECT_NAME = "org.wso2.micro.gateway:type=AnalyticsAggregator";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.95, 0.99};
+    private static final String[] QUANTILE_NAMES = {"p50", "p90", "p95", "p99"};
+
+    static final long EVENT_RESPONSE = 0;
+    static final long EVENT_FAULT = 1;
+    static final long EVENT_THROTTLE = 2;
+
+    private static volatile AnalyticsAggregator aggregator;
+
+    private final long intervalMillis;
+    private final int maxAggregates;
+    private final Map<AggregateKey, Aggregate> aggregates = new ConcurrentHashMap<>();
+    // Guarded by this, aggregates of the ended buckets waiting to be emitted.
+    private final Deque<Aggregate> closed = new ArrayDeque<>();
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder emitted = new LongAdder();
+    private final LongAdder overflow = new LongAdder();
+
+    AnalyticsAggregator(long intervalMillis, int maxAggregates) {
+        this.intervalMillis = Math.max(1, intervalMillis);
+        this.maxAggregates = Math.max(1, maxAggregates);
+    }
+
+    /**
+     * Starts the aggregator. Subsequent invocations have no effect.
+     *
+     * @param intervalMillis length of the time buckets in milliseconds
+     * @param maxAggregates  maximum number of aggregates of the buckets which are not emitted yet
+     */
+    public static synchronized void init(long intervalMillis, long maxAggregates) {
+        if (aggregator != null) {
+            return;
+        }
+        AnalyticsAggregator analyticsAggregator = new AnalyticsAggregator(intervalMillis, (int) maxAggregates);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(analyticsAggregator,
+                    new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            log.error("Error while registering the analytics aggregator statistics", e);
+        }
+        aggregator = analyticsAggregator;
+    }
+
+    /**
+     * Record an analytics event into the aggregate of its time bucket and key.
+     *
+     * @param apiName          name of the API
+     * @param apiVersion       version of the API
+     * @param apiContext       context of the API
+     * @param resourceTemplate resource template of the API
+     * @param method           HTTP method
+     * @param applicationId    id of the application
+     * @param applicationName  name of the application
+     * @param status           response code of a response, or the error code of a fault
+     * @param eventType        0 for a response, 1 for a fault and 2 for a throttled request
+     * @param responseTime     response time in milliseconds, used for the responses
+     * @param responseSize     response size in bytes, used for the responses
+     * @param timestamp        time of the event in milliseconds
+     */
+    public static void record(String apiName, String apiVersion, String apiContext, String resourceTemplate,
+                              String method, String applicationId, String applicationName, long status,
+                              long eventType, long responseTime, long responseSize, long timestamp) {
+        AnalyticsAggregator analyticsAggregator = aggregator;
+        if (analyticsAggregator != null) {
+            analyticsAggregator.add(new AggregateKey(analyticsAggregator.getBucket(timestamp), apiName, apiVersion,
+                    apiContext, resourceTemplate, method, applicationId, applicationName, status), eventType,
+                    responseTime, responseSize);
+        }
+    }
+
+    /**
+     * Takes the next aggregate of the time buckets which ended before the given time.
+     *
+     * @param now current time in milliseconds
+     * @return the aggregate as a JSON string, or null if there is no aggregate to be emitted
+     */
+    public static Object poll(long now) {
+        AnalyticsAggregator analyticsAggregator = aggregator;
+        return analyticsAggregator == null ? null : analyticsAggregator.nextAggregate(now);
+    }
+
+    void add(AggregateKey key, long eventType, long responseTime, long responseSize) {
+        recorded.increment();
+        AggregateKey aggregateKey = key;
+        if (aggregates.size() >= maxAggregates && !aggregates.containsKey(key)) {
+            overflow.increment();
+            aggregateKey = key.withoutDetails();
+        }
+        // An aggregate closed after it was looked up is replaced by a new one of the same bucket.
+        Aggregate aggregate;
+        do {
+            aggregate = aggregates.computeIfAbsent(aggregateKey, Aggregate::new);
+        } while (!aggregate.add(eventType, responseTime, responseSize));
+    }
+
+    synchronized String nextAggregate(long now) {
+        if (closed.isEmpty()) {
+            Iterator<Aggregate> iterator = aggregates.values().iterator();
+            while (iterator.hasNext()) {
+                Aggregate aggregate = iterator.next();
+                if (aggregate.key.bucket + intervalMillis <= now) {
+                    iterator.remove();
+                    aggregate.close();
+                    closed.addLast(aggregate);
+                }
+            }
+        }
+        Aggregate aggregate = closed.pollFirst();
+        if (aggregate == null) {
+            return null;
+        }
+        emitted.increment();
+        return aggregate.toJson(intervalMillis).toString();
+    }
+
+    long getBucket(long timestamp) {
+        return timestamp - Math.floorMod(timestamp, intervalMillis);
+    }
+
+    @Override
+    public long getRecordedCount() {
+        return recorded.sum();
+    }
+
+    @Override
+    public long getEmittedCount() {
+        return emitted.sum();
+    }
+
+    @Override
+    public long getOverflowCount() {
+        return overflow.sum();
+    }
+
+    @Override
+    public long getOpenAggregates() {
+        return aggregates.size();
+    }
+
+    /**
+     * Time bucket and dimensions of an aggregate.
+     */
+    static class AggregateKey {
+
+        private final long bucket;
+        private final String apiName;
+        private final String apiVersion;
+        private final String apiContext;
+        private final String resourceTemplate;
+        private final String method;
+        private final String applicationId;
+        private final String applicationName;
+        private final long status;
+        private final int hash;
+
+        AggregateKey(long bucket, String apiName, String apiVersion, String apiContext, String resourceTemplate,
+                     String method, String applicationId, String applicationName, long status) {
+            this.bucket = bucket;
+            this.apiName = apiName;
+            this.apiVersion = apiVersion;
+            this.apiContext = apiContext;
+            this.resourceTemplate = resourceTemplate;
+            this.method = method;
+            this.applicationId = applicationId;
+            this.applicationName = applicationName;
+            this.status = status;
+            this.hash = Objects.hash(bucket, apiName, apiVersion, apiContext, resourceTemplate, method,
+                    applicationId, applicationName, status);
+        }
+
+        AggregateKey withoutDetails() {
+            return new AggregateKey(bucket, apiName, apiVersion, apiContext, "", "", "", "", status);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof AggregateKey)) {
+                return false;
+            }
+            AggregateKey other = (AggregateKey) o;
+            return bucket == other.bucket && status == other.status && Objects.equals(apiName, other.apiName)
+                    && Objects.equals(apiVersion, other.apiVersion) && Objects.equals(apiContext, other.apiContext)
+                    && Objects.equals(resourceTemplate, other.resourceTemplate)
+                    && Objects.equals(method, other.method) && Objects.equals(applicationId, other.applicationId)
+                    && Objects.equals(applicationName, other.applicationName);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Counters and latency sketch of a single key, guarded by the aggregate itself.
+     */
+    private static class Aggregate {
+
+        private final AggregateKey key;
+        private final LatencySketch responseTimes = new LatencySketch();
+        private long requestCount;
+        private long faultCount;
+        private long throttledCount;
+        private long responseSize;
+        private boolean isClosed;
+
+        Aggregate(AggregateKey key) {
+            this.key = key;
+        }
+
+        synchronized boolean add(long eventType, long responseTime, long size) {
+            if (isClosed) {
+                return false;
+            }
+            if (eventType == EVENT_FAULT) {
+                faultCount++;
+            } else if (eventType == EVENT_THROTTLE) {
+                throttledCount++;
+            } else {
+                requestCount++;
+                responseSize += size;
+                responseTimes.add(responseTime);
+            }
+            return true;
+        }
+
+        synchronized void close() {
+            isClosed = true;
+        }
+
+        synchronized JSONObject toJson(long intervalMillis) {
+            JSONObject json = new JSONObject();
+            json.put("timestamp", key.bucket);
+            json.put("intervalInMillis", intervalMillis);
+            json.put("apiName", key.apiName);
+            json.put("apiVersion", key.apiVersion);
+            json.put("apiContext", key.apiContext);
+            json.put("apiResourceTemplate", key.resourceTemplate);
+            json.put("apiMethod", key.method);
+            json.put("applicationId", key.applicationId);
+            json.put("applicationName", key.applicationName);
+            json.put("status", key.status);
+            json.put("requestCount", requestCount);
+            json.put("faultCount", faultCount);
+            json.put("throttledCount", throttledCount);
+            json.put("responseSize", responseSize);
+            JSONObject latency = new JSONObject();
+            latency.put("count", responseTimes.getCount());
+            latency.put("sum", responseTimes.getSum());
+            latency.put("min", responseTimes.getMin());
+            latency.put("max", responseTimes.getMax());
+            for (int i = 0; i < QUANTILES.length; i++) {
+                latency.put(QUANTILE_NAMES[i], responseTimes.getValueAtQuantile(QUANTILES[i]));
+            }
+            latency.put("sketch", responseTimes.toJson());
+            json.put("responseTime", latency);
+            return json;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.analytics;
+
+/**
+ * Management interface exposing the counters of the analytics aggregator.
+ */
+public interface AnalyticsAggregatorMBean {
+
+    /**
+     * Returns the number of analytics events recorded into the aggregates.
+     */
+    long getRecordedCount();
+
+    /**
+     * Returns the number of aggregate records emitted.
+     */
+    long getEmittedCount();
+
+    /**
+     * Returns the number of analytics events recorded without their resource and application, as the maximum number
+     * of aggregates was reached.
+     */
+    long getOverflowCount();
+
+    /**
+     * Returns the number of aggregates of the time buckets which are not emitted yet.
+     */
+    long getOpenAggregates();
+}
@@ -0,0 +1,59 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.analytics;
+
+/**
+ * File upload analytics event, as written to the event file.
+ */
+public class AnalyticsEvent {
+
+    private final String streamId;
+    private final long timestamp;
+    private final String metaData;
+    private final String correlationData;
+    private final String payloadData;
+
+    public AnalyticsEvent(String streamId, long timestamp, String metaData, String correlationData,
+                          String payloadData) {
+        this.streamId = streamId;
+        this.timestamp = timestamp;
+        this.metaData = metaData;
+        this.correlationData = correlationData;
+        this.payloadData = payloadData;
+    }
+
+    public String getStreamId() {
+        return streamId;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getMetaData() {
+        return metaData;
+    }
+
+    public String getCorrelationData() {
+        return correlationData;
+    }
+
+    public String getPayloadData() {
+        return payloadData;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.analytics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Encodes the analytics events in the formats of the event file.
+ * <p>
+ * The text format is the delimited format read by the analytics server, with one event per line. The binary format
+ * starts with {@link #BINARY_HEADER}, followed by the events each prefixed with its length as a varint. An event is
+ * the stream id, the timestamp as a big endian long, the meta data, the correlation data and the payload data,
+ * where each string is its varint length followed by its UTF-8 bytes.
+ */
+class AnalyticsEventCodec {
+
+    static final String FORMAT_TEXT = "text";
+    static final String FORMAT_BINARY = "binary";
+    static final byte[] BINARY_HEADER = {'M', 'G', 'W', 'E', 1};
+
+    static final String KVT = "-KS-";
+    static final String EVS = "-ES-";
+    private static final String TEXT_CORRELATION_DATA = "null";
+
+    private AnalyticsEventCodec() {
+    }
+
+    static void encodeText(AnalyticsEvent event, ByteSink sink) {
+        String line = "streamId" + KVT + event.getStreamId() + EVS + "timestamp" + KVT + event.getTimestamp() + EVS
+                + "metadata" + KVT + event.getMetaData() + EVS + "correlationData" + KVT + TEXT_CORRELATION_DATA
+                + EVS + "payLoadData" + KVT + event.getPayloadData() + "\n";
+        sink.write(line.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static void encodeBinary(AnalyticsEvent event, ByteSink sink) {
+        byte[] streamId = toBytes(event.getStreamId());
+        byte[] metaData = toBytes(event.getMetaData());
+        byte[] correlationData = toBytes(event.getCorrelationData());
+        byte[] payloadData = toBytes(event.getPayloadData());
+        int length = Long.BYTES + lengthOf(streamId) + lengthOf(metaData) + lengthOf(correlationData)
+                + lengthOf(payloadData);
+        sink.writeVarInt(length);
+        sink.writeBytes(streamId);
+        sink.writeLong(event.getTimestamp());
+        sink.writeBytes(metaData);
+        sink.writeBytes(correlationData);
+        sink.writeBytes(payloadData);
+    }
+
+    private static byte[] toBytes(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int lengthOf(byte[] bytes) {
+        return varIntSize(bytes.length) + bytes.length;
+    }
+
+    static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Growable byte buffer the events are encoded into.
+     */
+    static class ByteSink {
+
+        private byte[] bytes;
+        private int size = 0;
+
+        ByteSink(int capacity) {
+            bytes = new byte[Math.max(16, capacity)];
+        }
+
+        void write(byte[] value) {
+            ensureCapacity(value.length);
+            System.arraycopy(value, 0, bytes, size, value.length);
+            size += value.length;
+        }
+
+        void writeBytes(byte[] value) {
+            writeVarInt(value.length);
+            write(value);
+        }
+
+        void writeVarInt(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensureCapacity(Long.BYTES);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        byte[] array() {
+            return bytes;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void reset(int maxCapacity) {
+            size = 0;
+            if (bytes.length > maxCapacity) {
+                bytes = new byte[maxCapacity];
+            }
+        }
+
+        private void ensureCapacity(int length) {
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.analytics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the analytics events of an event file written in the text or the binary format.
+ */
+public class AnalyticsEventReader {
+
+    private static final int TEXT_FIELD_COUNT = 5;
+
+    private AnalyticsEventReader() {
+    }
+
+    /**
+     * Read the events of an event file. The format is detected from the content of the file.
+     *
+     * @param filePath path of the event file
+     * @return events of the file
+     * @throws IOException if the file cannot be read or is not a valid event file
+     */
+    public static List<AnalyticsEvent> read(Path filePath) throws IOException {
+        return read(Files.readAllBytes(filePath));
+    }
+
+    /**
+     * Read the events of the content of an event file. The format is detected from the content.
+     *
+     * @param content content of the event file
+     * @return events of the file
+     * @throws IOException if the content is not a valid event file
+     */
+    public static List<AnalyticsEvent> read(byte[] content) throws IOException {
+        if (isBinary(content)) {
+            return readBinary(ByteBuffer.wrap(content, AnalyticsEventCodec.BINARY_HEADER.length,
+                    content.length - AnalyticsEventCodec.BINARY_HEADER.length));
+        }
+        return readText(new String(content, StandardCharsets.UTF_8));
+    }
+
+    static boolean isBinary(byte[] content) {
+        byte[] header = AnalyticsEventCodec.BINARY_HEADER;
+        if (content.length < header.length) {
+            return false;
+        }
+        for (int i = 0; i < header.length; i++) {
+            if (content[i] != header[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<AnalyticsEvent> readBinary(ByteBuffer buffer) throws IOException {
+        List<AnalyticsEvent> events = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            int length = readVarInt(buffer);
+            if (length > buffer.remaining()) {
+                throw new IOException("Truncated analytics event at position " + buffer.position());
+            }
+            ByteBuffer record = buffer.slice();
+            record.limit(length);
+            buffer.position(buffer.position() + length);
+            String streamId = readString(record);
+            if (record.remaining() < Long.BYTES) {
+                throw new IOException("Truncated analytics event of stream " + streamId);
+            }
+            long timestamp = record.getLong();
+            events.add(new AnalyticsEvent(streamId, timestamp, readString(record), readString(record),
+                    readString(record)));
+        }
+        return events;
+    }
+
+    private static List<AnalyticsEvent> readText(String content) throws IOException {
+        List<AnalyticsEvent> events = new ArrayList<>();
+        for (String line : content.split("\n")) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] fields = line.split(AnalyticsEventCodec.EVS, TEXT_FIELD_COUNT);
+            if (fields.length != TEXT_FIELD_COUNT) {
+                throw new IOException("Invalid analytics event : " + line);
+            }
+            String[] values = new String[TEXT_FIELD_COUNT];
+            for (int i = 0; i < TEXT_FIELD_COUNT; i++) {
+                int separator = fields[i].indexOf(AnalyticsEventCodec.KVT);
+                if (separator < 0) {
+                    throw new IOException("Invalid analytics event field : " + fields[i]);
+                }
+                values[i] = fields[i].substring(separator + AnalyticsEventCodec.KVT.length());
+            }
+            long timestamp;
+            try {
+                timestamp = Long.parseLong(values[1]);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid analytics event timestamp : " + values[1], e);
+            }
+            events.add(new AnalyticsEvent(values[0], timestamp, values[2], values[3], values[4]));
+        }
+        return events;
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        int length = readVarInt(buffer);
+        if (length > buffer.remaining()) {
+            throw new IOException("Truncated analytics event field");
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static int readVarInt(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                throw new IOException("Truncated analytics event length");
+            }
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Invalid analytics event length");
+    }
+}
@@ -0,0 +1,619 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.analytics;
+
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.LifecycleAware;
+import com.lmax.disruptor.LiteTimeoutBlockingWaitStrategy;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.TimeoutHandler;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.micro.gateway.core.compression.Compress;
+import org.wso2.micro.gateway.core.utils.ErrorUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Appends the file upload analytics events to the event file.
+ * <p>
+ * Request strands publish the events to a bounded multi producer ring and return immediately. A single writer
+ * thread drains the ring and encodes the buffered events, which are written to the event file with one channel write
+ * when they reach the flush size, or when the flush interval has elapsed since the last write. The file channel is
+ * kept open between the writes and is closed when the file is rotated, so the next write creates a new event file.
+ * Once the event file reaches its maximum size, which happens when it is not rotated as the upload backlog is full,
+ * the events are dropped until the file is rotated.
+ * <p>
+ * A new event file is written in the configured format. An existing event file, left over from a previous run, keeps
+ * the format it was created with until it is rotated.
+ * <p>
+ * With streaming compression the event file is written as a ZIP stream holding a single entry, which is sync flushed
+ * with every write and finished when the file is rotated, hence the rotated file is uploaded without another pass
+ * over the events. As a ZIP stream cannot be appended to, an event file left over from a previous run is copied into
+ * the new stream, recovering the events written before an unfinished stream was cut off.
+ */
+public class AnalyticsFileAppender implements AnalyticsFileAppenderMBean {
+
+    private static final Logger log = LogManager.getLogger(AnalyticsFileAppender.class);
+    private static final String OBJECT_NAME = "org.wso2.micro.gateway:type=AnalyticsFileAppender";
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+    // Approximate encoding overhead of an event over the length of its fields.
+    private static final int EVENT_OVERHEAD = 96;
+    private static final int COPY_BUFFER_SIZE = 65536;
+    private static final byte[] ZIP_HEADER = {'P', 'K', 3, 4};
+    private static final String TMP_EXTENSION = ".tmp";
+    private static final String RECOVERY_EXTENSION = ".recover";
+
+    private static volatile AnalyticsFileAppender appender;
+
+    private final Path filePath;
+    private final boolean binary;
+    private final boolean compressed;
+    private final int compressionLevel;
+    private final long maxFileSize;
+    private final Disruptor<EventSlot> disruptor;
+    private final RingBuffer<EventSlot> ringBuffer;
+    private final ReentrantLock fileLock = new ReentrantLock();
+    // Released once the writer has written the pending events and closed the event file on shutdown.
+    private final CountDownLatch writerStopped = new CountDownLatch(1);
+    private final LongAdder written = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder rotations = new LongAdder();
+    private final LongAdder rotationNanos = new LongAdder();
+    private final LongAdder compressionNanos = new LongAdder();
+    private volatile long lastRotationNanos = 0;
+    // Guarded by fileLock.
+    private FileChannel channel;
+    // Guarded by fileLock, ZIP stream over the channel when the event file is compressed.
+    private ZipOutputStream zipStream;
+    // Guarded by fileLock, format of the event file the channel is open for.
+    private boolean channelBinary;
+    // Guarded by fileLock, true once the events are dropped as the event file reached its maximum size.
+    private boolean fileFull;
+
+    AnalyticsFileAppender(Path filePath, boolean binary, boolean compressed, int compressionLevel,
+                          int ringSize, int flushSize, long flushInterval, long maxFileSize) {
+        this.filePath = filePath;
+        this.binary = binary;
+        this.compressed = compressed;
+        this.compressionLevel = compressionLevel;
+        this.maxFileSize = maxFileSize;
+        disruptor = new Disruptor<>(EventSlot::new, toPowerOfTwo(ringSize), runnable -> {
+            Thread thread = new Thread(runnable, "AnalyticsFileWriter");
+            thread.setDaemon(true);
+            return thread;
+        }, ProducerType.MULTI, new LiteTimeoutBlockingWaitStrategy(flushInterval, TimeUnit.MILLISECONDS));
+        disruptor.handleEventsWith(new Writer(flushSize, flushInterval));
+        ringBuffer = disruptor.start();
+    }
+
+    /**
+     * Starts the appender writing to the given event file. Subsequent invocations have no effect.
+     *
+     * @param filePath         path of the event file
+     * @param format           format of new event files, either text or binary
+     * @param compressed       true if the event file is compressed while it is written
+     * @param compressionLevel deflate level of the compressed event file, from 0 to 9
+     * @param ringSize         maximum number of events waiting to be written
+     * @param flushSize        buffered bytes after which the events are written
+     * @param flushInterval    maximum time in milliseconds an event is buffered before it is written
+     * @param maxFileSize      size in bytes of the event file after which the events are dropped until the file is
+     *                         rotated, or 0 for no limit
+     */
+    public static synchronized void init(String filePath, String format, boolean compressed, long compressionLevel,
+                                         long ringSize, long flushSize, long flushInterval, long maxFileSize) {
+        if (appender != null) {
+            return;
+        }
+        boolean binary = AnalyticsEventCodec.FORMAT_BINARY.equalsIgnoreCase(format);
+        if (!binary && !AnalyticsEventCodec.FORMAT_TEXT.equalsIgnoreCase(format)) {
+            log.warn("Unsupported analytics event file format : " + format + ". Using the "
+                    + AnalyticsEventCodec.FORMAT_TEXT + " format.");
+        }
+        int level = (int) compressionLevel;
+        if (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            log.warn("Invalid analytics event file compression level : " + compressionLevel
+                    + ". Using the default compression level.");
+            level = Deflater.DEFAULT_COMPRESSION;
+        }
+        AnalyticsFileAppender fileAppender = new AnalyticsFileAppender(Paths.get(filePath), binary, compressed,
+                level, (int) ringSize, (int) flushSize, Math.max(1, flushInterval), maxFileSize);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(fileAppender, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            log.error("Error while registering the analytics file appender statistics", e);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(fileAppender::shutdown, "AnalyticsFileWriterShutdown"));
+        appender = fileAppender;
+        if (log.isDebugEnabled()) {
+            log.debug("Started the analytics file appender for " + filePath + " with a ring of "
+                    + fileAppender.ringBuffer.getBufferSize() + " events, writing the "
+                    + (binary ? AnalyticsEventCodec.FORMAT_BINARY : AnalyticsEventCodec.FORMAT_TEXT) + " format"
+                    + (compressed ? " with streaming compression" : ""));
+        }
+    }
+
+    /**
+     * Publish an event to be written to the event file.
+     *
+     * @param streamId        stream id of the event
+     * @param timestamp       timestamp of the event
+     * @param metaData        meta data of the event
+     * @param correlationData correlation data of the event
+     * @param payloadData     payload data of the event
+     * @return false if the event is rejected as the ring is full
+     */
+    public static boolean append(String streamId, long timestamp, String metaData, String correlationData,
+                                 String payloadData) {
+        AnalyticsFileAppender fileAppender = appender;
+        if (fileAppender == null) {
+            log.error("Analytics file appender is not initialized");
+            return false;
+        }
+        return fileAppender.publish(new AnalyticsEvent(streamId, timestamp, metaData, correlationData, payloadData));
+    }
+
+    /**
+     * Rename the event file to the given path. The file is not written to while it is renamed and the next write
+     * creates a new event file. With streaming compression the ZIP stream of the event file is finished before it is
+     * renamed, hence the renamed file is the compressed event file.
+     *
+     * @param sourcePath path of the event file
+     * @param targetPath new path of the event file
+     * @return null if the file is renamed
+     */
+    public static Object renameEventFile(String sourcePath, String targetPath) {
+        AnalyticsFileAppender fileAppender = appender;
+        try {
+            if (fileAppender != null) {
+                fileAppender.rename(Paths.get(sourcePath), Paths.get(targetPath));
+            } else {
+                Files.move(Paths.get(sourcePath), Paths.get(targetPath), StandardCopyOption.REPLACE_EXISTING);
+            }
+            return null;
+        } catch (IOException e) {
+            throw ErrorUtils.getBallerinaError("Error occurred while renaming the analytics event file", e);
+        }
+    }
+
+    /**
+     * Compress a renamed event file, which is not compressed while it is written.
+     *
+     * @param sourcePath path of the renamed event file
+     * @param targetPath path of the compressed file
+     * @return null if the file is compressed
+     * @throws Exception if the file could not be compressed
+     */
+    public static Object compressEventFile(String sourcePath, String targetPath) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return Compress.compress(sourcePath, targetPath);
+        } finally {
+            AnalyticsFileAppender fileAppender = appender;
+            if (fileAppender != null) {
+                fileAppender.compressionNanos.add(System.nanoTime() - start);
+            }
+        }
+    }
+
+    @Override
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    @Override
+    public long getOverflowCount() {
+        return overflows.sum();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public long getQueueDepth() {
+        return ringBuffer.getBufferSize() - ringBuffer.remainingCapacity();
+    }
+
+    @Override
+    public long getRotationCount() {
+        return rotations.sum();
+    }
+
+    @Override
+    public long getRotationTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(rotationNanos.sum());
+    }
+
+    @Override
+    public long getLastRotationTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastRotationNanos);
+    }
+
+    @Override
+    public long getCompressionTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(compressionNanos.sum());
+    }
+
+    boolean publish(AnalyticsEvent event) {
+        long sequence;
+        try {
+            sequence = ringBuffer.tryNext();
+        } catch (InsufficientCapacityException e) {
+            overflows.increment();
+            return false;
+        }
+        try {
+            ringBuffer.get(sequence).event = event;
+        } finally {
+            ringBuffer.publish(sequence);
+        }
+        return true;
+    }
+
+    void rename(Path sourcePath, Path targetPath) throws IOException {
+        fileLock.lock();
+        long start = System.nanoTime();
+        try {
+            if (compressed && channel == null && sourcePath.equals(filePath) && Files.exists(filePath)) {
+                // The file is left over from a previous run, hence it is copied into a finished ZIP stream.
+                openChannel();
+            }
+            closeChannel();
+            Files.move(sourcePath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            fileLock.unlock();
+        }
+        // A failed move throws above, hence only the completed rotations are counted.
+        long elapsed = System.nanoTime() - start;
+        rotations.increment();
+        rotationNanos.add(elapsed);
+        lastRotationNanos = elapsed;
+    }
+
+    private void write(List<AnalyticsEvent> events, AnalyticsEventCodec.ByteSink sink) {
+        int eventCount = events.size();
+        fileLock.lock();
+        try {
+            if (channel == null) {
+                openChannel();
+            }
+            if (maxFileSize > 0 && channel.size() >= maxFileSize) {
+                dropped.add(eventCount);
+                if (!fileFull) {
+                    fileFull = true;
+                    log.warn("Analytics event file " + filePath + " reached the maximum size of " + maxFileSize
+                            + " bytes. Events are dropped until the file is rotated.");
+                }
+                return;
+            }
+            for (AnalyticsEvent event : events) {
+                if (channelBinary) {
+                    AnalyticsEventCodec.encodeBinary(event, sink);
+                } else {
+                    AnalyticsEventCodec.encodeText(event, sink);
+                }
+            }
+            if (zipStream != null) {
+                long start = System.nanoTime();
+                zipStream.write(sink.array(), 0, sink.size());
+                zipStream.flush();
+                compressionNanos.add(System.nanoTime() - start);
+            } else {
+                ByteBuffer buffer = ByteBuffer.wrap(sink.array(), 0, sink.size());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            written.add(eventCount);
+        } catch (IOException e) {
+            dropped.add(eventCount);
+            log.error("Error while writing " + eventCount + " analytics events to " + filePath, e);
+            closeChannel();
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    private void openChannel() throws IOException {
+        Path parent = filePath.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        boolean leftOver = Files.exists(filePath) && Files.size(filePath) > 0;
+        if (leftOver && !compressed && !startsWith(filePath, ZIP_HEADER)) {
+            channel = FileChannel.open(filePath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            channelBinary = startsWith(filePath, AnalyticsEventCodec.BINARY_HEADER);
+            warnFormatMismatch();
+            return;
+        }
+        Path recoveryPath = null;
+        if (leftOver) {
+            recoveryPath = filePath.resolveSibling(filePath.getFileName() + RECOVERY_EXTENSION);
+            Files.move(filePath, recoveryPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        channel = FileChannel.open(filePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        OutputStream outputStream = Channels.newOutputStream(channel);
+        if (compressed) {
+            zipStream = new SyncFlushZipOutputStream(new BufferedOutputStream(outputStream, COPY_BUFFER_SIZE));
+            zipStream.setLevel(compressionLevel);
+            zipStream.putNextEntry(new ZipEntry(getEntryName()));
+            outputStream = zipStream;
+        }
+        if (recoveryPath != null && recover(recoveryPath, outputStream)) {
+            warnFormatMismatch();
+        } else {
+            channelBinary = binary;
+            if (binary) {
+                outputStream.write(AnalyticsEventCodec.BINARY_HEADER);
+            }
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * Copies the events of an event file left over from a previous run, decompressing them if the file is a ZIP
+     * stream, and deletes the file.
+     *
+     * @return false if the file does not contain any events
+     */
+    private boolean recover(Path recoveryPath, OutputStream outputStream) throws IOException {
+        byte[] header = new byte[AnalyticsEventCodec.BINARY_HEADER.length];
+        long copied = 0;
+        try (InputStream fileStream = new BufferedInputStream(Files.newInputStream(recoveryPath),
+                COPY_BUFFER_SIZE)) {
+            InputStream inputStream = fileStream;
+            if (startsWith(fileStream, ZIP_HEADER)) {
+                ZipInputStream zipInputStream = new ZipInputStream(fileStream);
+                if (zipInputStream.getNextEntry() == null) {
+                    Files.delete(recoveryPath);
+                    return false;
+                }
+                inputStream = zipInputStream;
+            }
+            // The events are read without buffering, so no event read before the end of an unfinished stream is lost.
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            int length;
+            try {
+                while ((length = inputStream.read(buffer)) > 0) {
+                    if (copied < header.length) {
+                        System.arraycopy(buffer, 0, header, (int) copied, (int) Math.min(length,
+                                header.length - copied));
+                    }
+                    outputStream.write(buffer, 0, length);
+                    copied += length;
+                }
+            } catch (EOFException | ZipException e) {
+                log.warn("Recovered " + copied + " bytes of the unfinished analytics event file " + filePath);
+            }
+        }
+        Files.delete(recoveryPath);
+        channelBinary = AnalyticsEventReader.isBinary(header);
+        return copied > 0;
+    }
+
+    private void warnFormatMismatch() {
+        if (channelBinary != binary) {
+            log.warn("Analytics event file " + filePath + " is written in the "
+                    + (channelBinary ? AnalyticsEventCodec.FORMAT_BINARY : AnalyticsEventCodec.FORMAT_TEXT)
+                    + " format until it is rotated");
+        }
+    }
+
+    private String getEntryName() {
+        String fileName = String.valueOf(filePath.getFileName());
+        return fileName.endsWith(TMP_EXTENSION) ? fileName.substring(0, fileName.length() - TMP_EXTENSION.length())
+                : fileName;
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            if (zipStream != null) {
+                long start = System.nanoTime();
+                zipStream.close();
+                compressionNanos.add(System.nanoTime() - start);
+            }
+            channel.close();
+        } catch (IOException e) {
+            log.error("Error while closing the analytics event file " + filePath, e);
+        }
+        zipStream = null;
+        channel = null;
+        fileFull = false;
+    }
+
+    void shutdown() {
+        try {
+            disruptor.shutdown(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            // The writer is halted asynchronously, hence its last write is awaited before the shutdown completes.
+            if (writerStopped.await(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                return;
+            }
+        } catch (TimeoutException e) {
+            // The events left in the ring are reported below.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.warn("Analytics events were not written within " + SHUTDOWN_TIMEOUT_SECONDS + " seconds of the "
+                + "shutdown");
+    }
+
+    private static boolean startsWith(Path path, byte[] prefix) throws IOException {
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(path), prefix.length)) {
+            return startsWith(inputStream, prefix);
+        }
+    }
+
+    private static boolean startsWith(InputStream inputStream, byte[] prefix) throws IOException {
+        inputStream.mark(prefix.length);
+        try {
+            for (byte b : prefix) {
+                if (inputStream.read() != (b & 0xFF)) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            inputStream.reset();
+        }
+    }
+
+    private static int toPowerOfTwo(int size) {
+        if (size <= 1) {
+            return 1;
+        }
+        return Integer.highestOneBit(size - 1) << 1;
+    }
+
+    private static int sizeOf(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    /**
+     * ZIP stream which flushes the pending compressed data of the entry on every flush, so the events written so far
+     * can be recovered if the stream is never finished.
+     */
+    private static class SyncFlushZipOutputStream extends ZipOutputStream {
+
+        SyncFlushZipOutputStream(OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!def.finished()) {
+                int length;
+                while ((length = def.deflate(buf, 0, buf.length, Deflater.SYNC_FLUSH)) > 0) {
+                    out.write(buf, 0, length);
+                }
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Ring slot holding an event.
+     */
+    private static class EventSlot {
+
+        private AnalyticsEvent event;
+    }
+
+    /**
+     * Drains the ring into the pending events and writes them to the event file by size or time.
+     */
+    private class Writer implements EventHandler<EventSlot>, TimeoutHandler, LifecycleAware {
+
+        private final int flushSize;
+        private final long flushInterval;
+        private final List<AnalyticsEvent> events = new ArrayList<>();
+        private final AnalyticsEventCodec.ByteSink sink;
+        private int length = 0;
+        private long lastWrite = System.currentTimeMillis();
+
+        Writer(int flushSize, long flushInterval) {
+            this.flushSize = Math.max(1, flushSize);
+            this.flushInterval = flushInterval;
+            this.sink = new AnalyticsEventCodec.ByteSink(this.flushSize);
+        }
+
+        @Override
+        public void onEvent(EventSlot slot, long sequence, boolean endOfBatch) {
+            AnalyticsEvent event = slot.event;
+            slot.event = null;
+            events.add(event);
+            length += EVENT_OVERHEAD + sizeOf(event.getStreamId()) + sizeOf(event.getMetaData())
+                    + sizeOf(event.getCorrelationData()) + sizeOf(event.getPayloadData());
+            if (length >= flushSize || (endOfBatch && System.currentTimeMillis() - lastWrite >= flushInterval)) {
+                flush();
+            }
+        }
+
+        @Override
+        public void onTimeout(long sequence) {
+            flush();
+        }
+
+        @Override
+        public void onStart() {
+        }
+
+        @Override
+        public void onShutdown() {
+            try {
+                flush();
+                fileLock.lock();
+                try {
+                    closeChannel();
+                } finally {
+                    fileLock.unlock();
+                }
+            } finally {
+                writerStopped.countDown();
+            }
+        }
+
+        private void flush() {
+            if (!events.isEmpty()) {
+                write(events, sink);
+                events.clear();
+            }
+            sink.reset(flushSize);
+            length = 0;
+            lastWrite = System.currentTimeMillis();
+        }
+    }
+}
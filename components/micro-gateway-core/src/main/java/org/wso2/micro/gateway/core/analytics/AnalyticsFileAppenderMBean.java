@@ -0,0 +1,65 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.analytics;
+
+/**
+ * Management interface exposing the counters of the analytics event file appender.
+ */
+public interface AnalyticsFileAppenderMBean {
+
+    /**
+     * Returns the number of events written to the event file.
+     */
+    long getWrittenCount();
+
+    /**
+     * Returns the number of events rejected as the ring of the appender was full.
+     */
+    long getOverflowCount();
+
+    /**
+     * Returns the number of accepted events which could not be written to the event file, including the events
+     * dropped as the event file reached its maximum size.
+     */
+    long getDroppedCount();
+
+    /**
+     * Returns the number of events waiting in the ring of the appender.
+     */
+    long getQueueDepth();
+
+    /**
+     * Returns the number of times the event file was rotated. Failed rotations are not counted.
+     */
+    long getRotationCount();
+
+    /**
+     * Returns the total time in milliseconds the event file was not written to during the counted rotations.
+     */
+    long getRotationTimeMillis();
+
+    /**
+     * Returns the time in milliseconds taken by the last rotation of the event file.
+     */
+    long getLastRotationTimeMillis();
+
+    /**
+     * Returns the total time in milliseconds spent compressing the event files.
+     */
+    long getCompressionTimeMillis();
+}
@@ -0,0 +1,396 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.analytics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.ballerinalang.jvm.values.MapValue;
+import org.wso2.micro.gateway.core.mutualssl.LoadKeyStore;
+import org.wso2.micro.gateway.core.utils.ErrorUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManagerFactory;
+
+/**
+ * Uploads the rotated analytics event files to the analytics server.
+ * <p>
+ * Each upload streams the event file as a multipart request with chunked transfer encoding, hence the file is never
+ * loaded into the memory. Up to the configured number of files are uploaded in parallel. A failed upload is retried
+ * with an exponential backoff and is left on the disk for the next upload task once the retries are exhausted. The
+ * rotated files waiting on the disk form the backlog, which stops the event file from being rotated when it is full.
+ * The event file then grows up to its maximum size, after which the events are dropped by the appender.
+ */
+public class AnalyticsFileUploader implements AnalyticsFileUploaderMBean {
+
+    private static final Logger log = LogManager.getLogger(AnalyticsFileUploader.class);
+    private static final String OBJECT_NAME = "org.wso2.micro.gateway:type=AnalyticsFileUploader";
+    private static final String ZIP_PATTERN = "*.zip";
+    private static final String PLACEHOLDER_PREFIX = "${";
+    private static final String PKCS12_EXTENSION = ".p12";
+    private static final String CRLF = "\r\n";
+    private static final int CHUNK_SIZE = 65536;
+    private static final int TIMEOUT_MILLIS = 60000;
+    private static final int STATUS_CREATED = 201;
+    private static final int MAX_BACKOFF_SHIFT = 30;
+
+    private static volatile AnalyticsFileUploader uploader;
+
+    private final Path directory;
+    private final URL endpoint;
+    private final String authorization;
+    private final SSLSocketFactory socketFactory;
+    private final boolean verifyHostname;
+    private final Proxy proxy;
+    private final String proxyAuthorization;
+    private final int maxRetries;
+    private final long retryInterval;
+    private final long maxRetryInterval;
+    private final int maxBacklogFiles;
+    private final ScheduledThreadPoolExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final LongAdder uploaded = new LongAdder();
+    private final LongAdder failedAttempts = new LongAdder();
+    private final LongAdder backpressure = new LongAdder();
+
+    AnalyticsFileUploader(Path directory, URL endpoint, String authorization, SSLSocketFactory socketFactory,
+                          boolean verifyHostname, Proxy proxy, String proxyAuthorization, int uploadThreads,
+                          int maxRetries, long retryInterval, long maxRetryInterval, int maxBacklogFiles) {
+        this.directory = directory;
+        this.endpoint = endpoint;
+        this.authorization = authorization;
+        this.socketFactory = socketFactory;
+        this.verifyHostname = verifyHostname;
+        this.proxy = proxy;
+        this.proxyAuthorization = proxyAuthorization;
+        this.maxRetries = Math.max(0, maxRetries);
+        this.retryInterval = Math.max(1, retryInterval);
+        this.maxRetryInterval = Math.max(this.retryInterval, maxRetryInterval);
+        this.maxBacklogFiles = maxBacklogFiles;
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ScheduledThreadPoolExecutor(Math.max(1, uploadThreads), runnable -> {
+            Thread thread = new Thread(runnable, "AnalyticsFileUploader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts the uploader for the rotated event files of the given directory. Subsequent invocations have no effect.
+     *
+     * @param config uploader configuration, containing the directory, endpoint, credentials, trust store, proxy,
+     *               parallelism, retry and backlog settings
+     * @return null if the uploader is initialized
+     */
+    public static synchronized Object init(MapValue config) {
+        if (uploader != null) {
+            return null;
+        }
+        try {
+            String trustStorePath = config.getStringValue("trustStorePath");
+            SSLSocketFactory socketFactory = null;
+            URL endpoint = new URL(config.getStringValue("endpoint"));
+            if ("https".equalsIgnoreCase(endpoint.getProtocol())) {
+                socketFactory = createSocketFactory(trustStorePath, config.getStringValue("trustStorePassword"));
+            }
+            Proxy proxy = null;
+            String proxyAuthorization = null;
+            String proxyHost = config.getStringValue("proxyHost");
+            if (proxyHost != null && !proxyHost.isEmpty()) {
+                proxy = new Proxy(Proxy.Type.HTTP, new InetSocketAddress(proxyHost,
+                        (int) config.getIntValue("proxyPort")));
+                String proxyUsername = config.getStringValue("proxyUsername");
+                if (proxyUsername != null && !proxyUsername.isEmpty()) {
+                    proxyAuthorization = basicAuthorization(proxyUsername, config.getStringValue("proxyPassword"));
+                }
+            }
+            AnalyticsFileUploader fileUploader = new AnalyticsFileUploader(
+                    Paths.get(config.getStringValue("directory")), endpoint,
+                    basicAuthorization(config.getStringValue("username"), config.getStringValue("password")),
+                    socketFactory, config.getBooleanValue("verifyHostname"), proxy, proxyAuthorization,
+                    (int) config.getIntValue("uploadThreads"), (int) config.getIntValue("maxRetries"),
+                    config.getIntValue("retryIntervalInMillis"), config.getIntValue("maxRetryIntervalInMillis"),
+                    (int) config.getIntValue("maxBacklogFiles"));
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(fileUploader, new ObjectName(OBJECT_NAME));
+            } catch (JMException e) {
+                log.error("Error while registering the analytics file uploader statistics", e);
+            }
+            uploader = fileUploader;
+            return null;
+        } catch (IOException | GeneralSecurityException e) {
+            throw ErrorUtils.getBallerinaError("Error occurred while initializing the analytics file uploader", e);
+        }
+    }
+
+    /**
+     * Submit the rotated event files, which are not being uploaded yet, to be uploaded.
+     *
+     * @return number of event files submitted
+     */
+    public static long uploadFiles() {
+        AnalyticsFileUploader fileUploader = uploader;
+        if (fileUploader == null) {
+            log.error("Analytics file uploader is not initialized");
+            return 0;
+        }
+        return fileUploader.submitPendingFiles();
+    }
+
+    /**
+     * Check whether the backlog of rotated event files waiting to be uploaded is full, in which case the event file
+     * should not be rotated.
+     *
+     * @return true if the backlog is full
+     */
+    public static boolean isBacklogFull() {
+        AnalyticsFileUploader fileUploader = uploader;
+        return fileUploader != null && fileUploader.checkBacklogFull();
+    }
+
+    @Override
+    public long getUploadedCount() {
+        return uploaded.sum();
+    }
+
+    @Override
+    public long getFailedAttemptCount() {
+        return failedAttempts.sum();
+    }
+
+    @Override
+    public long getInFlightCount() {
+        return inFlight.size();
+    }
+
+    @Override
+    public long getBacklogFiles() {
+        return listBacklog().size();
+    }
+
+    @Override
+    public long getBacklogBytes() {
+        long size = 0;
+        for (Path file : listBacklog()) {
+            try {
+                size += Files.size(file);
+            } catch (IOException e) {
+                // The file is uploaded and deleted while the backlog is measured.
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public long getBackpressureCount() {
+        return backpressure.sum();
+    }
+
+    int submitPendingFiles() {
+        int submitted = 0;
+        for (Path file : listBacklog()) {
+            if (inFlight.add(String.valueOf(file.getFileName()))) {
+                executor.execute(() -> upload(file, 0));
+                submitted++;
+            }
+        }
+        return submitted;
+    }
+
+    boolean checkBacklogFull() {
+        if (maxBacklogFiles <= 0 || listBacklog().size() < maxBacklogFiles) {
+            return false;
+        }
+        backpressure.increment();
+        return true;
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void upload(Path file, int attempt) {
+        String fileName = String.valueOf(file.getFileName());
+        boolean retryScheduled = false;
+        try {
+            try {
+                int statusCode = send(file, fileName);
+                if (statusCode == STATUS_CREATED) {
+                    Files.deleteIfExists(file);
+                    uploaded.increment();
+                    log.info("Successfully uploaded the file: " + fileName);
+                    return;
+                }
+                log.error("Error occurred while uploading the file " + fileName + ". Upload request returned with "
+                        + "status code : " + statusCode);
+            } catch (NoSuchFileException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.error("Error occurred while uploading the file " + fileName, e);
+            }
+            failedAttempts.increment();
+            if (attempt < maxRetries && !executor.isShutdown()) {
+                long delay = getBackoff(attempt);
+                if (log.isDebugEnabled()) {
+                    log.debug("Retrying the upload of " + fileName + " in " + delay + " ms");
+                }
+                executor.schedule(() -> upload(file, attempt + 1), delay, TimeUnit.MILLISECONDS);
+                retryScheduled = true;
+            }
+        } finally {
+            // Unless it is retried, the file is released, and if it is not uploaded it is left on the disk to be
+            // uploaded by a subsequent upload task.
+            if (!retryScheduled) {
+                inFlight.remove(fileName);
+            }
+        }
+    }
+
+    private int send(Path file, String fileName) throws IOException {
+        long fileSize = Files.size(file);
+        HttpURLConnection connection = (HttpURLConnection) (proxy == null ? endpoint.openConnection()
+                : endpoint.openConnection(proxy));
+        if (connection instanceof HttpsURLConnection) {
+            HttpsURLConnection httpsConnection = (HttpsURLConnection) connection;
+            httpsConnection.setSSLSocketFactory(socketFactory);
+            if (!verifyHostname) {
+                httpsConnection.setHostnameVerifier((hostname, session) -> true);
+            }
+        }
+        String boundary = UUID.randomUUID().toString();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setChunkedStreamingMode(CHUNK_SIZE);
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        connection.setRequestProperty("Authorization", authorization);
+        connection.setRequestProperty("FileName", fileName);
+        connection.setRequestProperty("Accept", "application/json");
+        connection.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
+        if (proxyAuthorization != null) {
+            connection.setRequestProperty("Proxy-Authorization", proxyAuthorization);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("File being uploaded : " + file + " of " + fileSize + " bytes");
+        }
+        String partHeader = "--" + boundary + CRLF
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + fileName + "\"" + CRLF
+                + "Content-Type: application/octet-stream" + CRLF + CRLF;
+        try (OutputStream outputStream = connection.getOutputStream()) {
+            outputStream.write(partHeader.getBytes(StandardCharsets.UTF_8));
+            Files.copy(file, outputStream);
+            outputStream.write((CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.UTF_8));
+        }
+        int statusCode = connection.getResponseCode();
+        // The response is read completely, so the connection can be reused by the subsequent uploads.
+        try (InputStream inputStream = statusCode < HttpURLConnection.HTTP_BAD_REQUEST ? connection.getInputStream()
+                : connection.getErrorStream()) {
+            if (inputStream != null) {
+                byte[] buffer = new byte[CHUNK_SIZE];
+                int length;
+                StringBuilder response = log.isDebugEnabled() ? new StringBuilder() : null;
+                while ((length = inputStream.read(buffer)) > 0) {
+                    if (response != null) {
+                        response.append(new String(buffer, 0, length, StandardCharsets.UTF_8));
+                    }
+                }
+                if (response != null) {
+                    log.debug("File upload response : " + response);
+                }
+            }
+        }
+        return statusCode;
+    }
+
+    private long getBackoff(int attempt) {
+        long backoff = Math.min(maxRetryInterval, retryInterval << Math.min(attempt, MAX_BACKOFF_SHIFT));
+        // Half of the backoff is randomized, so the retries of the parallel uploads do not arrive together.
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    private List<Path> listBacklog() {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, ZIP_PATTERN)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        } catch (NoSuchFileException | NotDirectoryException e) {
+            return Collections.emptyList();
+        } catch (IOException e) {
+            log.error("Error while listing the analytics event files of " + directory, e);
+        }
+        // The rotated file names contain the rotation time, hence the older files are uploaded first.
+        Collections.sort(files);
+        return files;
+    }
+
+    private static String basicAuthorization(String username, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((username + ":" + password)
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static SSLSocketFactory createSocketFactory(String trustStorePath, String trustStorePassword)
+            throws IOException, GeneralSecurityException {
+        if (trustStorePath.contains(PLACEHOLDER_PREFIX)) {
+            trustStorePath = LoadKeyStore.getKeyStorePath(trustStorePath);
+        }
+        KeyStore trustStore = KeyStore.getInstance(trustStorePath.endsWith(PKCS12_EXTENSION) ? "PKCS12"
+                : KeyStore.getDefaultType());
+        try (InputStream inputStream = Files.newInputStream(Paths.get(trustStorePath))) {
+            trustStore.load(inputStream, trustStorePassword.toCharArray());
+        }
+        TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(
+                TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(trustStore);
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, trustManagerFactory.getTrustManagers(), null);
+        return sslContext.getSocketFactory();
+    }
+}
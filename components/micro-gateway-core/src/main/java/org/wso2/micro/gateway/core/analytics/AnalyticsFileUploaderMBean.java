@@ -0,0 +1,54 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.analytics;
+
+/**
+ * Management interface exposing the counters of the analytics event file uploader.
+ */
+public interface AnalyticsFileUploaderMBean {
+
+    /**
+     * Returns the number of event files uploaded to the analytics server.
+     */
+    long getUploadedCount();
+
+    /**
+     * Returns the number of failed upload attempts, including the attempts which were retried.
+     */
+    long getFailedAttemptCount();
+
+    /**
+     * Returns the number of event files being uploaded or waiting for a retry.
+     */
+    long getInFlightCount();
+
+    /**
+     * Returns the number of rotated event files waiting on the disk to be uploaded.
+     */
+    long getBacklogFiles();
+
+    /**
+     * Returns the total size in bytes of the rotated event files waiting on the disk to be uploaded.
+     */
+    long getBacklogBytes();
+
+    /**
+     * Returns the number of times the event file was not rotated as the backlog was full.
+     */
+    long getBackpressureCount();
+}
@@ -0,0 +1,468 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.analytics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Buffers the gRPC analytics messages until they are published to the analytics server.
+ * <p>
+ * Messages are kept in a bounded memory queue. When the queue is full, as the stream is not available or the messages
+ * are not published fast enough, the messages are serialized to a bounded disk buffer made of append only segment
+ * files, which survives a restart of the gateway. The messages are taken from the memory queue first and then from
+ * the disk buffer, hence the messages of the two buffers are not published in their arrival order. A single
+ * publisher at a time drains the buffer in batches, which is guarded by {@link #tryStartFlush()}.
+ * <p>
+ * A message of the disk buffer which is not valid UTF-8 is dropped. A segment which fails to be read is read again
+ * from the first message not yet read, and after repeated failures it is quarantined by renaming it with the
+ * {@value #QUARANTINE_EXTENSION} extension, so it is neither read again nor replayed after a restart.
+ * <p>
+ * When the disk buffer cannot be opened, the buffer keeps the messages in the memory queue only, and the messages
+ * which do not fit the queue are dropped and counted.
+ */
+public class GrpcAnalyticsBuffer implements GrpcAnalyticsBufferMBean {
+
+    private static final Logger log = LogManager.getLogger(GrpcAnalyticsBuffer.class);
+    private static final String OBJECT_NAME = "org.wso2.micro.gateway:type=GrpcAnalyticsBuffer";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_EXTENSION = ".log";
+    private static final String QUARANTINE_EXTENSION = ".corrupt";
+    private static final long SEGMENT_SIZE = 4L * 1024 * 1024;
+    private static final int MAX_READ_FAILURES = 3;
+    // Messages spilled before the buffer is started, which are counted with the dropped messages of the buffer.
+    private static final LongAdder droppedUninitialized = new LongAdder();
+
+    static final long QUEUED = 0;
+    static final long BATCH_READY = 1;
+    static final long FULL = 2;
+
+    private static volatile GrpcAnalyticsBuffer buffer;
+
+    private final LinkedBlockingDeque<Object> memoryQueue;
+    private final int batchSize;
+    private final Path directory;
+    private final long maxDiskBytes;
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder quarantined = new LongAdder();
+    // Guarded by this, disk segments in the order they are written.
+    private final Deque<Path> segments = new ArrayDeque<>();
+    // Guarded by this, bytes of the message being read from the disk buffer.
+    private final ByteArrayOutputStream readerLine = new ByteArrayOutputStream();
+    private volatile long diskBytes = 0;
+    private long nextSegment = 0;
+    private BufferedWriter writer;
+    private long writerBytes = 0;
+    private InputStream reader;
+    // Bytes of the first segment read by the reader, from where the segment is read again after a read failure.
+    private long readerOffset = 0;
+    // Consecutive read failures of the first segment, which is quarantined when they reach MAX_READ_FAILURES.
+    private int readFailures = 0;
+
+    GrpcAnalyticsBuffer(Path directory, int memoryQueueSize, long maxDiskBytes, int batchSize) throws IOException {
+        this.memoryQueue = new LinkedBlockingDeque<>(Math.max(1, memoryQueueSize));
+        this.batchSize = Math.max(1, batchSize);
+        this.directory = directory;
+        this.maxDiskBytes = maxDiskBytes;
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_EXTENSION)) {
+            // Segments left over from a previous run are replayed in the order they were written.
+            List<Path> existing = new ArrayList<>();
+            for (Path segment : stream) {
+                existing.add(segment);
+            }
+            existing.sort(null);
+            for (Path segment : existing) {
+                segments.addLast(segment);
+                diskBytes += Files.size(segment);
+                nextSegment = Math.max(nextSegment, getSegmentNumber(segment) + 1);
+            }
+        }
+        if (!segments.isEmpty()) {
+            log.info("Replaying " + diskBytes + " bytes of gRPC analytics messages buffered in " + directory);
+        }
+    }
+
+    /**
+     * Creates a buffer without a disk buffer, which drops the messages that do not fit the memory queue.
+     */
+    private GrpcAnalyticsBuffer(int memoryQueueSize, int batchSize) {
+        this.memoryQueue = new LinkedBlockingDeque<>(Math.max(1, memoryQueueSize));
+        this.batchSize = Math.max(1, batchSize);
+        this.directory = null;
+        this.maxDiskBytes = 0;
+    }
+
+    /**
+     * Starts the buffer. Subsequent invocations have no effect.
+     *
+     * @param directory       directory of the disk buffer
+     * @param memoryQueueSize maximum number of messages in the memory queue
+     * @param maxDiskBytes    maximum size in bytes of the disk buffer
+     * @param batchSize       number of messages after which a batch is published without waiting for the linger time
+     */
+    public static synchronized void init(String directory, long memoryQueueSize, long maxDiskBytes, long batchSize) {
+        if (buffer != null) {
+            return;
+        }
+        GrpcAnalyticsBuffer analyticsBuffer = create(Paths.get(directory), (int) memoryQueueSize, maxDiskBytes,
+                (int) batchSize);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(analyticsBuffer, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            log.error("Error while registering the gRPC analytics buffer statistics", e);
+        }
+        buffer = analyticsBuffer;
+    }
+
+    /**
+     * Creates a buffer, which keeps the messages in the memory queue only if the disk buffer cannot be opened, so the
+     * messages are still published.
+     */
+    static GrpcAnalyticsBuffer create(Path directory, int memoryQueueSize, long maxDiskBytes, int batchSize) {
+        try {
+            return new GrpcAnalyticsBuffer(directory, memoryQueueSize, maxDiskBytes, batchSize);
+        } catch (IOException e) {
+            log.error("Error while initializing the gRPC analytics disk buffer in " + directory + ". Messages which "
+                    + "do not fit the memory queue are dropped.", e);
+            return new GrpcAnalyticsBuffer(memoryQueueSize, batchSize);
+        }
+    }
+
+    /**
+     * Add a message to the memory queue.
+     *
+     * @param message analytics stream message
+     * @return 0 if the message is queued, 1 if a batch of messages is ready to be published and no publisher is
+     * running, or 2 if the memory queue is full and the message should be spilled to the disk
+     */
+    public static long offer(Object message) {
+        GrpcAnalyticsBuffer analyticsBuffer = buffer;
+        if (analyticsBuffer == null) {
+            return FULL;
+        }
+        return analyticsBuffer.offerMessage(message);
+    }
+
+    /**
+     * Return a message, which could not be published, to the head of the memory queue.
+     *
+     * @param message analytics stream message
+     * @return false if the memory queue is full and the message should be spilled to the disk
+     */
+    public static boolean returnMessage(Object message) {
+        GrpcAnalyticsBuffer analyticsBuffer = buffer;
+        if (analyticsBuffer == null || !analyticsBuffer.memoryQueue.offerFirst(message)) {
+            return false;
+        }
+        analyticsBuffer.published.decrement();
+        return true;
+    }
+
+    /**
+     * Write a serialized message to the disk buffer.
+     *
+     * @param message serialized analytics stream message
+     */
+    public static void spill(String message) {
+        GrpcAnalyticsBuffer analyticsBuffer = buffer;
+        if (analyticsBuffer == null) {
+            droppedUninitialized.increment();
+            return;
+        }
+        analyticsBuffer.spillMessage(message);
+    }
+
+    /**
+     * Take the next message to be published.
+     *
+     * @return a message of the memory queue, a serialized message of the disk buffer, or null if the buffer is empty
+     */
+    public static Object poll() {
+        GrpcAnalyticsBuffer analyticsBuffer = buffer;
+        if (analyticsBuffer == null) {
+            return null;
+        }
+        return analyticsBuffer.pollMessage();
+    }
+
+    /**
+     * Acquire the right to publish the buffered messages, which is held by a single publisher at a time.
+     *
+     * @return false if another publisher is publishing the messages
+     */
+    public static boolean tryStartFlush() {
+        GrpcAnalyticsBuffer analyticsBuffer = buffer;
+        return analyticsBuffer != null && analyticsBuffer.flushing.compareAndSet(false, true);
+    }
+
+    /**
+     * Release the right to publish the buffered messages.
+     *
+     * @param batchCount number of batches published
+     */
+    public static void endFlush(long batchCount) {
+        GrpcAnalyticsBuffer analyticsBuffer = buffer;
+        if (analyticsBuffer != null) {
+            analyticsBuffer.batches.add(batchCount);
+            analyticsBuffer.flushing.set(false);
+        }
+    }
+
+    @Override
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    @Override
+    public long getSpilledCount() {
+        return spilled.sum();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return dropped.sum() + droppedUninitialized.sum();
+    }
+
+    @Override
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    @Override
+    public long getQuarantinedSegmentCount() {
+        return quarantined.sum();
+    }
+
+    @Override
+    public long getMemoryBacklog() {
+        return memoryQueue.size();
+    }
+
+    @Override
+    public long getDiskBacklogBytes() {
+        return diskBytes;
+    }
+
+    long offerMessage(Object message) {
+        if (!memoryQueue.offerLast(message)) {
+            return FULL;
+        }
+        return memoryQueue.size() >= batchSize && !flushing.get() ? BATCH_READY : QUEUED;
+    }
+
+    synchronized void spillMessage(String message) {
+        byte[] bytes = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        if (maxDiskBytes <= 0 || diskBytes + bytes.length > maxDiskBytes) {
+            dropped.increment();
+            return;
+        }
+        try {
+            if (writer == null || writerBytes >= SEGMENT_SIZE) {
+                closeWriter();
+                Path segment = directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, nextSegment++,
+                        SEGMENT_EXTENSION));
+                writer = Files.newBufferedWriter(segment, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                segments.addLast(segment);
+            }
+            writer.write(message);
+            writer.write('\n');
+            writer.flush();
+            writerBytes += bytes.length;
+            diskBytes += bytes.length;
+            spilled.increment();
+        } catch (IOException e) {
+            dropped.increment();
+            log.error("Error while writing a gRPC analytics message to the disk buffer", e);
+            closeWriter();
+        }
+    }
+
+    Object pollMessage() {
+        Object message = memoryQueue.pollFirst();
+        if (message == null && diskBytes > 0) {
+            message = pollDisk();
+        }
+        if (message != null) {
+            published.increment();
+        }
+        return message;
+    }
+
+    private synchronized String pollDisk() {
+        while (!segments.isEmpty()) {
+            Path segment = segments.peekFirst();
+            String line;
+            try {
+                if (reader == null) {
+                    if (writer != null && segments.size() == 1) {
+                        // The segment being written is closed first, so a partially written line is never read.
+                        closeWriter();
+                    }
+                    reader = openSegment(segment, readerOffset);
+                }
+                line = readLine();
+            } catch (CharacterCodingException e) {
+                dropped.increment();
+                log.error("Dropped an invalid message of the gRPC analytics disk buffer segment " + segment, e);
+                continue;
+            } catch (IOException e) {
+                closeReader();
+                if (++readFailures < MAX_READ_FAILURES) {
+                    log.error("Error while reading the gRPC analytics disk buffer segment " + segment
+                            + " from byte " + readerOffset, e);
+                    return null;
+                }
+                log.error("Error while reading the gRPC analytics disk buffer segment " + segment + " from byte "
+                        + readerOffset + ". The segment is quarantined after " + readFailures + " failures.", e);
+                removeSegment(segment, true);
+                continue;
+            }
+            if (line != null) {
+                readFailures = 0;
+                return line;
+            }
+            closeReader();
+            removeSegment(segment, false);
+        }
+        return null;
+    }
+
+    private static InputStream openSegment(Path segment, long offset) throws IOException {
+        SeekableByteChannel channel = Files.newByteChannel(segment, StandardOpenOption.READ);
+        try {
+            channel.position(offset);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new BufferedInputStream(Channels.newInputStream(channel));
+    }
+
+    /**
+     * Reads the next message of the first segment. The line is decoded only once it is read in full, so the read
+     * offset always points at the start of a message.
+     *
+     * @return the message, or null at the end of the segment
+     * @throws CharacterCodingException if the message is not valid UTF-8, after the message is read
+     */
+    private String readLine() throws IOException {
+        readerLine.reset();
+        int next;
+        while ((next = reader.read()) != -1 && next != '\n') {
+            readerLine.write(next);
+        }
+        if (next == -1 && readerLine.size() == 0) {
+            return null;
+        }
+        readerOffset += readerLine.size() + (next == -1 ? 0 : 1);
+        return StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(readerLine.toByteArray()))
+                .toString();
+    }
+
+    /**
+     * Removes the first segment, which is deleted once it is read, or renamed when it cannot be read.
+     */
+    private void removeSegment(Path segment, boolean quarantine) {
+        segments.pollFirst();
+        long size = readerOffset;
+        readerOffset = 0;
+        readFailures = 0;
+        try {
+            size = Files.size(segment);
+            if (quarantine) {
+                Files.move(segment, segment.resolveSibling(segment.getFileName() + QUARANTINE_EXTENSION),
+                        StandardCopyOption.REPLACE_EXISTING);
+                quarantined.increment();
+            } else {
+                Files.delete(segment);
+            }
+        } catch (IOException e) {
+            log.error("Error while removing the gRPC analytics disk buffer segment " + segment, e);
+        }
+        diskBytes = Math.max(0, diskBytes - size);
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.error("Error while closing the gRPC analytics disk buffer segment", e);
+        }
+        writer = null;
+        writerBytes = 0;
+    }
+
+    private void closeReader() {
+        if (reader == null) {
+            return;
+        }
+        try {
+            reader.close();
+        } catch (IOException e) {
+            log.error("Error while closing the gRPC analytics disk buffer segment", e);
+        }
+        reader = null;
+    }
+
+    private static long getSegmentNumber(Path segment) {
+        String fileName = String.valueOf(segment.getFileName());
+        try {
+            return Long.parseLong(fileName.substring(SEGMENT_PREFIX.length(),
+                    fileName.length() - SEGMENT_EXTENSION.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
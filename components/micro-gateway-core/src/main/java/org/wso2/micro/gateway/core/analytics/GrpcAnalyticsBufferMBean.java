@@ -0,0 +1,60 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.analytics;
+
+/**
+ * Management interface exposing the counters of the gRPC analytics buffer.
+ */
+public interface GrpcAnalyticsBufferMBean {
+
+    /**
+     * Returns the number of messages taken from the buffer to be published, excluding the returned messages.
+     */
+    long getPublishedCount();
+
+    /**
+     * Returns the number of messages written to the disk as the memory queue was full.
+     */
+    long getSpilledCount();
+
+    /**
+     * Returns the number of messages dropped as both the memory queue and the disk buffer were full, as the memory
+     * queue was full and the disk buffer could not be opened, or as the buffer was not started yet.
+     */
+    long getDroppedCount();
+
+    /**
+     * Returns the number of batches published.
+     */
+    long getBatchCount();
+
+    /**
+     * Returns the number of disk buffer segments quarantined as they repeatedly failed to be read.
+     */
+    long getQuarantinedSegmentCount();
+
+    /**
+     * Returns the number of messages waiting in the memory queue.
+     */
+    long getMemoryBacklog();
+
+    /**
+     * Returns the size in bytes of the messages waiting in the disk buffer.
+     */
+    long getDiskBacklogBytes();
+}
@@ -0,0 +1,192 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.analytics;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Mergeable histogram sketch of latencies with a bounded relative error.
+ * <p>
+ * A positive value v is counted in the bucket i = ceil(log(v) / log(gamma)), where gamma = (1 + a) / (1 - a) for the
+ * relative accuracy a. Any value of a bucket is within the relative accuracy of the value reported for its quantile,
+ * hence sketches recorded with the same accuracy are merged by adding the counts of their buckets, which gives the
+ * same sketch as recording all the values into a single one. The buckets are kept in a dense array covering the range
+ * of the recorded buckets, which stays small for the latencies of a single API resource. The sketch is not thread
+ * safe.
+ */
+class LatencySketch {
+
+    static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+    private static final int INITIAL_CAPACITY = 32;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private long[] counts;
+    private int offset;
+    private int minIndex = Integer.MAX_VALUE;
+    private int maxIndex = Integer.MIN_VALUE;
+    private long zeroCount;
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    LatencySketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    LatencySketch(double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1 : " + relativeAccuracy);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    /**
+     * Record a latency. Negative values are counted as zero.
+     *
+     * @param value latency in milliseconds
+     */
+    void add(long value) {
+        long latency = Math.max(0, value);
+        count++;
+        sum += latency;
+        min = Math.min(min, latency);
+        max = Math.max(max, latency);
+        if (latency == 0) {
+            zeroCount++;
+        } else {
+            addToBucket(index(latency), 1);
+        }
+    }
+
+    /**
+     * Add the values recorded by another sketch of the same relative accuracy.
+     *
+     * @param other sketch to be merged into this sketch
+     */
+    void merge(LatencySketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Sketches of different relative accuracies cannot be merged");
+        }
+        if (other.count == 0) {
+            return;
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        zeroCount += other.zeroCount;
+        for (int index = other.minIndex; index <= other.maxIndex; index++) {
+            long bucketCount = other.counts[index - other.offset];
+            if (bucketCount > 0) {
+                addToBucket(index, bucketCount);
+            }
+        }
+    }
+
+    /**
+     * Returns the value at the quantile, within the relative accuracy of the sketch.
+     *
+     * @param quantile quantile between 0 and 1
+     * @return value at the quantile, or 0 if the sketch is empty
+     */
+    long getValueAtQuantile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * count);
+        if (rank <= zeroCount) {
+            return 0;
+        }
+        long seen = zeroCount;
+        for (int index = minIndex; index <= maxIndex; index++) {
+            seen += counts[index - offset];
+            if (seen >= rank) {
+                // The middle of the bucket, in the relative sense, is within the accuracy of every value in it.
+                long value = Math.round(2 * Math.pow(gamma, index) / (gamma + 1));
+                return Math.max(min, Math.min(max, value));
+            }
+        }
+        return max;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    long getSum() {
+        return sum;
+    }
+
+    long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    long getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    /**
+     * Returns the buckets of the sketch, which can be merged by the consumers of the analytics aggregates. The counts
+     * are those of the consecutive buckets starting from the offset.
+     */
+    JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        json.put("relativeAccuracy", relativeAccuracy);
+        json.put("zeroCount", zeroCount);
+        JSONArray bucketCounts = new JSONArray();
+        if (minIndex <= maxIndex) {
+            json.put("offset", minIndex);
+            for (int index = minIndex; index <= maxIndex; index++) {
+                bucketCounts.put(counts[index - offset]);
+            }
+        } else {
+            json.put("offset", 0);
+        }
+        json.put("counts", bucketCounts);
+        return json;
+    }
+
+    private int index(long value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    private void addToBucket(int index, long bucketCount) {
+        if (counts == null) {
+            counts = new long[INITIAL_CAPACITY];
+            offset = index - INITIAL_CAPACITY / 2;
+        } else if (index < offset || index >= offset + counts.length) {
+            int newMin = Math.min(index, minIndex);
+            int newMax = Math.max(index, maxIndex);
+            int length = Math.max(counts.length * 2, newMax - newMin + 1);
+            long[] newCounts = new long[length];
+            int newOffset = newMin - (length - (newMax - newMin + 1)) / 2;
+            System.arraycopy(counts, minIndex - offset, newCounts, minIndex - newOffset, maxIndex - minIndex + 1);
+            counts = newCounts;
+            offset = newOffset;
+        }
+        counts[index - offset] += bucketCount;
+        minIndex = Math.min(minIndex, index);
+        maxIndex = Math.max(maxIndex, index);
+    }
+}
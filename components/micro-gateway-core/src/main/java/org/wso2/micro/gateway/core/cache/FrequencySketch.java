@@ -0,0 +1,91 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.cache;
+
+/**
+ * Count-Min sketch with 4 bit counters, estimating how often the keys of a cache were used recently. The counters are
+ * halved once the number of increments reaches ten times the width of the sketch, hence old popularity fades away.
+ * This class is not thread safe.
+ */
+class FrequencySketch {
+
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+            0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int expectedEntries) {
+        int width = Integer.highestOneBit(Math.max(16, Math.min(expectedEntries, 1 << 24)) - 1) << 1;
+        table = new long[width];
+        tableMask = width - 1;
+        sampleSize = 10 * width;
+    }
+
+    /**
+     * Returns the estimated number of recent uses of the key, up to 15.
+     */
+    int frequency(long hash) {
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long spread = spread(hash, i);
+            int shift = ((int) spread & 15) << 2;
+            int count = (int) ((table[index(spread)] >>> shift) & 15);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records a use of the key.
+     */
+    void increment(long hash) {
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long spread = spread(hash, i);
+            int index = index(spread);
+            int shift = ((int) spread & 15) << 2;
+            if (((table[index] >>> shift) & 15) < MAX_COUNT) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+
+    private int index(long spread) {
+        return (int) (spread >>> 32) & tableMask;
+    }
+
+    private static long spread(long hash, int i) {
+        long spread = (hash + SEEDS[i]) * SEEDS[i];
+        return spread ^ (spread >>> 29);
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.cache;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Rotating Bloom filter of the digests of recently rejected credentials, shared by the authentication handlers.
+ * <p>
+ * A credential which failed validation is added to the current generation of the filter, and a credential found in
+ * either generation is rejected without being validated again. Once the rotation period elapses, or the current
+ * generation holds the expected number of credentials, the older generation is discarded. Hence a rejected credential
+ * is remembered for one to two rotation periods, and the false positive rate stays bounded however many distinct
+ * credentials are rejected. Each generation is sized for half of the configured false positive rate, as a lookup
+ * checks both of them.
+ */
+public class RejectedCredentialFilter implements RejectedCredentialFilterMBean {
+
+    private static final Logger log = LogManager.getLogger(RejectedCredentialFilter.class);
+    private static final String OBJECT_NAME = "org.wso2.micro.gateway:type=RejectedCredentialFilter";
+    private static final int MAX_WORDS = Integer.MAX_VALUE / Long.SIZE;
+
+    private static volatile RejectedCredentialFilter filter;
+
+    private final int expectedInsertions;
+    private final double falsePositiveRate;
+    private final long rotationPeriodMillis;
+    private final int words;
+    private final long bitCount;
+    private final int hashCount;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder insertions = new LongAdder();
+    private final LongAdder rotations = new LongAdder();
+    private volatile Generation current;
+    private volatile Generation previous;
+    private volatile long rotateAt;
+
+    RejectedCredentialFilter(int expectedInsertions, double falsePositiveRate, long rotationPeriodMillis, long now) {
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rotationPeriodMillis = rotationPeriodMillis;
+        double ln2 = Math.log(2);
+        double bits = -expectedInsertions * Math.log(falsePositiveRate / 2) / (ln2 * ln2);
+        this.words = (int) Math.max(1, Math.min(MAX_WORDS, Math.ceil(bits / Long.SIZE)));
+        this.bitCount = (long) words * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * ln2));
+        this.current = new Generation(words);
+        this.previous = new Generation(words);
+        this.rotateAt = now + rotationPeriodMillis;
+    }
+
+    /**
+     * Creates the filter. Subsequent invocations have no effect.
+     *
+     * @param expectedInsertions   number of rejected credentials a generation of the filter is sized for
+     * @param falsePositiveRate    probability of rejecting a credential which was not added to the filter
+     * @param rotationPeriodMillis time in milliseconds after which the older generation of the filter is discarded
+     */
+    public static synchronized void init(long expectedInsertions, double falsePositiveRate,
+                                         long rotationPeriodMillis) {
+        if (filter != null) {
+            return;
+        }
+        if (expectedInsertions <= 0 || expectedInsertions > Integer.MAX_VALUE || falsePositiveRate <= 0
+                || falsePositiveRate >= 1 || rotationPeriodMillis <= 0) {
+            log.error("Invalid rejected credential filter configuration. Expected insertions : " + expectedInsertions
+                    + ", false positive rate : " + falsePositiveRate + ", rotation period : " + rotationPeriodMillis
+                    + ". Rejected credentials will not be filtered.");
+            return;
+        }
+        RejectedCredentialFilter rejectedCredentialFilter = new RejectedCredentialFilter((int) expectedInsertions,
+                falsePositiveRate, rotationPeriodMillis, System.currentTimeMillis());
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(rejectedCredentialFilter,
+                    new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            log.error("Error while registering the statistics of the rejected credential filter", e);
+        }
+        filter = rejectedCredentialFilter;
+    }
+
+    /**
+     * Checks whether the credential was rejected recently. A credential which was not rejected is reported as
+     * rejected with the configured false positive rate.
+     *
+     * @param credential credential, prefixed by the issuer if it is only rejected by a particular issuer
+     * @return true if the credential was rejected recently, false otherwise or if the filter is not initialized
+     */
+    public static boolean isRejected(String credential) {
+        RejectedCredentialFilter rejectedCredentialFilter = filter;
+        return rejectedCredentialFilter != null
+                && rejectedCredentialFilter.mightContain(credential, System.currentTimeMillis());
+    }
+
+    /**
+     * Adds a credential which failed validation to the filter.
+     *
+     * @param credential credential, prefixed by the issuer if it is only rejected by a particular issuer
+     */
+    public static void addRejected(String credential) {
+        RejectedCredentialFilter rejectedCredentialFilter = filter;
+        if (rejectedCredentialFilter != null) {
+            rejectedCredentialFilter.add(credential, System.currentTimeMillis());
+        }
+    }
+
+    boolean mightContain(String credential, long now) {
+        rotateIfDue(now);
+        lookups.increment();
+        TokenCache.Digest digest = TokenCache.Digest.of(credential);
+        if (current.mightContain(digest, bitCount, hashCount) || previous.mightContain(digest, bitCount, hashCount)) {
+            rejections.increment();
+            return true;
+        }
+        return false;
+    }
+
+    void add(String credential, long now) {
+        rotateIfDue(now);
+        insertions.increment();
+        Generation generation = current;
+        if (generation.put(TokenCache.Digest.of(credential), bitCount, hashCount)
+                && generation.insertions.incrementAndGet() >= expectedInsertions) {
+            rotate(generation, now);
+        }
+    }
+
+    private void rotateIfDue(long now) {
+        if (now >= rotateAt) {
+            rotate(null, now);
+        }
+    }
+
+    /**
+     * Discards the older generation, if the current generation is full or the rotation period elapsed.
+     */
+    private synchronized void rotate(Generation full, long now) {
+        if (full != null ? full != current : now < rotateAt) {
+            // Already rotated by another thread.
+            return;
+        }
+        // Both generations are stale if nothing was looked up for more than a rotation period.
+        boolean idle = full == null && now >= rotateAt + rotationPeriodMillis;
+        previous = idle ? new Generation(words) : current;
+        current = new Generation(words);
+        rotateAt = now + rotationPeriodMillis;
+        rotations.increment();
+        if (log.isDebugEnabled()) {
+            log.debug("Rotated the rejected credential filter as the "
+                    + (full != null ? "current generation is full" : "rotation period elapsed"));
+        }
+    }
+
+    @Override
+    public long getLookupCount() {
+        return lookups.sum();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejections.sum();
+    }
+
+    @Override
+    public long getInsertionCount() {
+        return insertions.sum();
+    }
+
+    @Override
+    public long getRotationCount() {
+        return rotations.sum();
+    }
+
+    @Override
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    @Override
+    public double getEstimatedFalsePositiveRate() {
+        double currentRate = Math.pow((double) current.bitsSet() / bitCount, hashCount);
+        double previousRate = Math.pow((double) previous.bitsSet() / bitCount, hashCount);
+        return 1 - (1 - currentRate) * (1 - previousRate);
+    }
+
+    @Override
+    public long getSizeInBytes() {
+        return 2L * words * Long.BYTES;
+    }
+
+    /**
+     * Bits of a generation of the filter, with the number of credentials added to it.
+     */
+    private static final class Generation {
+
+        private final AtomicLongArray bits;
+        private final AtomicInteger insertions = new AtomicInteger();
+
+        Generation(int words) {
+            this.bits = new AtomicLongArray(words);
+        }
+
+        boolean mightContain(TokenCache.Digest digest, long bitCount, int hashCount) {
+            long hash = digest.first;
+            for (int i = 0; i < hashCount; i++) {
+                hash += digest.second;
+                long index = (hash & Long.MAX_VALUE) % bitCount;
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Sets the bits of the digest.
+         *
+         * @return true if any of the bits was not set before, i.e. the digest was not in the generation
+         */
+        boolean put(TokenCache.Digest digest, long bitCount, int hashCount) {
+            boolean changed = false;
+            long hash = digest.first;
+            for (int i = 0; i < hashCount; i++) {
+                hash += digest.second;
+                long index = (hash & Long.MAX_VALUE) % bitCount;
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long value;
+                while (((value = bits.get(word)) & mask) == 0) {
+                    if (bits.compareAndSet(word, value, value | mask)) {
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+            return changed;
+        }
+
+        long bitsSet() {
+            long count = 0;
+            for (int i = 0; i < bits.length(); i++) {
+                count += Long.bitCount(bits.get(i));
+            }
+            return count;
+        }
+    }
+}
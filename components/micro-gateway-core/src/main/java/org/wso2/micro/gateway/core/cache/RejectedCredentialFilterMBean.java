@@ -0,0 +1,59 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.cache;
+
+/**
+ * Management interface exposing the statistics of the rejected credential filter.
+ */
+public interface RejectedCredentialFilterMBean {
+
+    /**
+     * Returns the number of credentials looked up in the filter.
+     */
+    long getLookupCount();
+
+    /**
+     * Returns the number of credentials rejected by the filter without being validated.
+     */
+    long getRejectedCount();
+
+    /**
+     * Returns the number of rejected credentials added to the filter.
+     */
+    long getInsertionCount();
+
+    /**
+     * Returns the number of times the oldest generation of the filter was discarded.
+     */
+    long getRotationCount();
+
+    /**
+     * Returns the configured false positive rate of the filter.
+     */
+    double getFalsePositiveRate();
+
+    /**
+     * Returns the false positive rate estimated from the bits currently set in the filter.
+     */
+    double getEstimatedFalsePositiveRate();
+
+    /**
+     * Returns the heap used by the bits of the filter in bytes.
+     */
+    long getSizeInBytes();
+}
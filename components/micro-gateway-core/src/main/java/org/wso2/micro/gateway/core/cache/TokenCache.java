@@ -0,0 +1,488 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.cache;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Cache of values keyed by tokens, which are often a few kilobytes long.
+ * <p>
+ * Entries are keyed by the SHA-256 digest of the token instead of the token itself, and the cache is bounded by the
+ * estimated heap used by its entries instead of their count. Eviction follows W-TinyLFU: new entries are added to a
+ * small LRU window, and an entry leaving the window is only admitted to the main SLRU space if a frequency sketch
+ * estimates it to be used more often than the entry it would evict. Hence a burst of tokens which are used once does
+ * not flush the tokens which are used all the time. The cache is split into segments guarded by their own locks.
+ */
+public class TokenCache implements TokenCacheMBean {
+
+    private static final Logger log = LogManager.getLogger(TokenCache.class);
+    private static final String OBJECT_NAME_PREFIX = "org.wso2.micro.gateway:type=TokenCache,name=";
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final int SEGMENT_COUNT = 16;
+    // Estimated heap used by an entry besides its value, i.e. the node, the digest and the hash map entry.
+    static final long ENTRY_OVERHEAD = 160;
+    private static final long STRING_OVERHEAD = 40;
+    private static final long VALUE_OVERHEAD = 64;
+    private static final double WINDOW_RATIO = 0.01;
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private static final Map<String, TokenCache> caches = new ConcurrentHashMap<>();
+    private static final ThreadLocal<MessageDigest> messageDigests = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Digest algorithm " + DIGEST_ALGORITHM + " is not available", e);
+        }
+    });
+
+    private final Segment[] segments;
+    private final long maxSizeInBytes;
+    private final long maxAgeMillis;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    TokenCache(long maxSizeInBytes, long maxAgeMillis, int segmentCount) {
+        this.maxSizeInBytes = maxSizeInBytes;
+        this.maxAgeMillis = maxAgeMillis;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(this, maxSizeInBytes / segmentCount);
+        }
+    }
+
+    /**
+     * Creates the cache of the given name. Subsequent invocations for the same name have no effect.
+     *
+     * @param name           name of the cache
+     * @param maxSizeInBytes maximum estimated heap used by the entries in bytes
+     * @param maxAgeMillis   time in milliseconds after which an entry expires
+     */
+    public static synchronized void init(String name, long maxSizeInBytes, long maxAgeMillis) {
+        if (caches.containsKey(name)) {
+            return;
+        }
+        TokenCache cache = new TokenCache(maxSizeInBytes, maxAgeMillis, SEGMENT_COUNT);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(cache, new ObjectName(OBJECT_NAME_PREFIX + name));
+        } catch (JMException e) {
+            log.error("Error while registering the statistics of the token cache " + name, e);
+        }
+        caches.put(name, cache);
+    }
+
+    /**
+     * Returns the live value of the key.
+     *
+     * @param name name of the cache
+     * @param key  token, or a key containing the token
+     * @return the cached value, or null if there is no live entry for the key
+     */
+    public static Object get(String name, String key) {
+        TokenCache cache = caches.get(name);
+        return cache == null ? null : cache.get(key, System.currentTimeMillis());
+    }
+
+    /**
+     * Adds or replaces the value of the key.
+     *
+     * @param name  name of the cache
+     * @param key   token, or a key containing the token
+     * @param value value to be cached
+     */
+    public static void put(String name, String key, Object value) {
+        TokenCache cache = caches.get(name);
+        if (cache != null) {
+            cache.put(key, value, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Removes the value of the key.
+     *
+     * @param name name of the cache
+     * @param key  token, or a key containing the token
+     */
+    public static void invalidate(String name, String key) {
+        TokenCache cache = caches.get(name);
+        if (cache != null) {
+            cache.invalidate(key);
+        }
+    }
+
+    Object get(String key, long now) {
+        Digest digest = Digest.of(key);
+        Object value = segmentOf(digest).get(digest, now);
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    void put(String key, Object value, long now) {
+        if (value == null) {
+            invalidate(key);
+            return;
+        }
+        Digest digest = Digest.of(key);
+        segmentOf(digest).put(digest, value, ENTRY_OVERHEAD + weigh(value), now + maxAgeMillis);
+    }
+
+    void invalidate(String key) {
+        Digest digest = Digest.of(key);
+        segmentOf(digest).invalidate(digest);
+    }
+
+    private Segment segmentOf(Digest digest) {
+        return segments[(int) (digest.second >>> 32) & (segments.length - 1)];
+    }
+
+    /**
+     * Estimates the heap used by a value. Values other than strings and primitives are estimated from the length of
+     * their string representation, which is only done when they are added.
+     */
+    static long weigh(Object value) {
+        if (value instanceof String) {
+            return STRING_OVERHEAD + 2L * ((String) value).length();
+        }
+        if (value instanceof Boolean || value instanceof Number) {
+            return 16;
+        }
+        return VALUE_OVERHEAD + 2L * String.valueOf(value).length();
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum();
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejections.sum();
+    }
+
+    @Override
+    public long getEntryCount() {
+        long count = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                count += segment.nodes.size();
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long getSizeInBytes() {
+        long size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.window.bytes + segment.probation.bytes + segment.protectedQueue.bytes;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public long getMaxSizeInBytes() {
+        return maxSizeInBytes;
+    }
+
+    /**
+     * SHA-256 digest of a key.
+     */
+    static final class Digest {
+
+        final long first;
+        final long second;
+        final long third;
+        final long fourth;
+
+        private Digest(long first, long second, long third, long fourth) {
+            this.first = first;
+            this.second = second;
+            this.third = third;
+            this.fourth = fourth;
+        }
+
+        static Digest of(String key) {
+            ByteBuffer hash = ByteBuffer.wrap(messageDigests.get().digest(key.getBytes(StandardCharsets.UTF_8)));
+            return new Digest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Digest)) {
+                return false;
+            }
+            Digest digest = (Digest) o;
+            return first == digest.first && second == digest.second && third == digest.third
+                    && fourth == digest.fourth;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (first ^ (first >>> 32));
+        }
+    }
+
+    /**
+     * Cache entry, linked into the access ordered queue it belongs to.
+     */
+    private static final class Node {
+
+        private final Digest key;
+        private Object value;
+        private long weight;
+        private long expiresAt;
+        private AccessQueue queue;
+        private Node previous;
+        private Node next;
+
+        Node(Digest key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Doubly linked queue of entries from the least to the most recently used, with the total weight of its entries.
+     */
+    private static final class AccessQueue {
+
+        private final Node head = new Node(null);
+        private long bytes;
+
+        AccessQueue() {
+            head.previous = head;
+            head.next = head;
+        }
+
+        Node first() {
+            return head.next == head ? null : head.next;
+        }
+
+        void addLast(Node node) {
+            node.queue = this;
+            node.previous = head.previous;
+            node.next = head;
+            head.previous.next = node;
+            head.previous = node;
+            bytes += node.weight;
+        }
+
+        void remove(Node node) {
+            node.previous.next = node.next;
+            node.next.previous = node.previous;
+            node.previous = null;
+            node.next = null;
+            node.queue = null;
+            bytes -= node.weight;
+        }
+
+        void moveToLast(Node node) {
+            remove(node);
+            addLast(node);
+        }
+    }
+
+    /**
+     * Part of the cache guarded by its own lock, with its own window, main space and frequency sketch.
+     */
+    private static final class Segment {
+
+        private final TokenCache cache;
+        private final Map<Digest, Node> nodes = new HashMap<>();
+        private final FrequencySketch sketch;
+        private final AccessQueue window = new AccessQueue();
+        private final AccessQueue probation = new AccessQueue();
+        private final AccessQueue protectedQueue = new AccessQueue();
+        private final long maxWindowBytes;
+        private final long maxMainBytes;
+        private final long maxProtectedBytes;
+
+        Segment(TokenCache cache, long maxBytes) {
+            this.cache = cache;
+            this.maxWindowBytes = Math.max(1, (long) (maxBytes * WINDOW_RATIO));
+            this.maxMainBytes = maxBytes - maxWindowBytes;
+            this.maxProtectedBytes = (long) (maxMainBytes * PROTECTED_RATIO);
+            // sized for the largest number of entries the segment can hold, i.e. entries of the smallest weight
+            this.sketch = new FrequencySketch((int) Math.min(Integer.MAX_VALUE, maxBytes / (ENTRY_OVERHEAD + 16)));
+        }
+
+        synchronized Object get(Digest key, long now) {
+            sketch.increment(key.first);
+            Node node = nodes.get(key);
+            if (node == null) {
+                return null;
+            }
+            if (node.expiresAt <= now) {
+                remove(node);
+                return null;
+            }
+            onAccess(node);
+            return node.value;
+        }
+
+        synchronized void put(Digest key, Object value, long weight, long expiresAt) {
+            sketch.increment(key.first);
+            Node node = nodes.get(key);
+            if (node != null) {
+                AccessQueue queue = node.queue;
+                queue.bytes += weight - node.weight;
+                node.weight = weight;
+                node.value = value;
+                node.expiresAt = expiresAt;
+                onAccess(node);
+                if (queue != window) {
+                    // An entry which grew in the main space is not admitted again, hence the main space is bounded
+                    // here.
+                    evictMain(node);
+                }
+            } else {
+                node = new Node(key);
+                node.value = value;
+                node.weight = weight;
+                node.expiresAt = expiresAt;
+                nodes.put(key, node);
+                window.addLast(node);
+            }
+            evict();
+        }
+
+        synchronized void invalidate(Digest key) {
+            Node node = nodes.get(key);
+            if (node != null) {
+                remove(node);
+            }
+        }
+
+        private void onAccess(Node node) {
+            if (node.queue == probation) {
+                // An entry used again while on probation is promoted, which may demote the least recently used
+                // protected entries.
+                probation.remove(node);
+                protectedQueue.addLast(node);
+            } else {
+                node.queue.moveToLast(node);
+            }
+            while (protectedQueue.bytes > maxProtectedBytes) {
+                Node demoted = protectedQueue.first();
+                protectedQueue.remove(demoted);
+                probation.addLast(demoted);
+            }
+        }
+
+        private void evictMain(Node updated) {
+            if (updated.weight > maxMainBytes) {
+                remove(updated);
+                cache.evictions.increment();
+                return;
+            }
+            while (probation.bytes + protectedQueue.bytes > maxMainBytes) {
+                // The updated entry is the most recently used one, hence it is only the first entry on probation
+                // if there is no other entry on probation.
+                Node victim = probation.first();
+                if (victim == null || victim == updated) {
+                    victim = protectedQueue.first();
+                }
+                if (victim == null) {
+                    break;
+                }
+                remove(victim);
+                cache.evictions.increment();
+            }
+        }
+
+        private void evict() {
+            while (window.bytes > maxWindowBytes) {
+                Node candidate = window.first();
+                window.remove(candidate);
+                admit(candidate);
+            }
+        }
+
+        private void admit(Node candidate) {
+            int candidateFrequency = sketch.frequency(candidate.key.first);
+            while (probation.bytes + protectedQueue.bytes + candidate.weight > maxMainBytes) {
+                Node victim = probation.first();
+                if (victim == null) {
+                    victim = protectedQueue.first();
+                }
+                if (victim == null) {
+                    break;
+                }
+                if (candidateFrequency <= sketch.frequency(victim.key.first)) {
+                    // The candidate is not used more often than the entry it would replace.
+                    nodes.remove(candidate.key);
+                    cache.rejections.increment();
+                    cache.evictions.increment();
+                    return;
+                }
+                remove(victim);
+                cache.evictions.increment();
+            }
+            if (candidate.weight > maxMainBytes) {
+                nodes.remove(candidate.key);
+                cache.evictions.increment();
+                return;
+            }
+            probation.addLast(candidate);
+        }
+
+        private void remove(Node node) {
+            node.queue.remove(node);
+            nodes.remove(node.key);
+        }
+    }
+}
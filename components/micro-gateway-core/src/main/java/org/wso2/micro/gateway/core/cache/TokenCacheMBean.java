@@ -0,0 +1,64 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.cache;
+
+/**
+ * Management interface exposing the statistics of a token cache.
+ */
+public interface TokenCacheMBean {
+
+    /**
+     * Returns the number of lookups which found a live entry.
+     */
+    long getHitCount();
+
+    /**
+     * Returns the number of lookups which did not find a live entry.
+     */
+    long getMissCount();
+
+    /**
+     * Returns the ratio of the lookups which found a live entry.
+     */
+    double getHitRatio();
+
+    /**
+     * Returns the number of entries evicted to keep the cache within its size, including the rejected entries.
+     */
+    long getEvictionCount();
+
+    /**
+     * Returns the number of new entries which were not admitted, as they are used less often than the entries they
+     * would have replaced.
+     */
+    long getRejectedCount();
+
+    /**
+     * Returns the number of entries in the cache.
+     */
+    long getEntryCount();
+
+    /**
+     * Returns the estimated heap used by the entries in bytes.
+     */
+    long getSizeInBytes();
+
+    /**
+     * Returns the maximum estimated heap used by the entries in bytes.
+     */
+    long getMaxSizeInBytes();
+}
@@ -0,0 +1,80 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.keyvalidation;
+
+/**
+ * Decides when a cached key validation result, which is still being used, is validated again ahead of its expiry.
+ * <p>
+ * An entry is due for a refresh once it is older than the refresh ahead factor of the maximum age of the cache, and
+ * until it expires. The refresh is made by a single request, which joins the key validation {@link SingleFlightGroup}
+ * and records the time of the attempt in the entry. A refresh which fails keeps the cached entry, which is refreshed
+ * again once the retry interval, a fraction of the refresh window, has elapsed since the attempt. Hence a key manager
+ * which is not available is called a few times before the entry expires, instead of by every request using it.
+ */
+public class RefreshAheadPolicy {
+
+    // Number of refresh attempts which fit the refresh window of an entry.
+    static final int ATTEMPTS = 4;
+
+    private RefreshAheadPolicy() {
+    }
+
+    /**
+     * Checks whether a cached entry is due for a refresh.
+     *
+     * @param cachedTime   time in milliseconds the entry was cached
+     * @param refreshTime  time in milliseconds of the last refresh attempt of the entry, or zero if it was not
+     *                     refreshed
+     * @param maxAgeMillis maximum age of the entries of the cache in milliseconds
+     * @param factor       fraction of the maximum age after which the entry is refreshed, zero to disable the refresh
+     * @return true if the entry should be validated again
+     */
+    public static boolean isDue(long cachedTime, long refreshTime, long maxAgeMillis, double factor) {
+        return isDue(cachedTime, refreshTime, maxAgeMillis, factor, System.currentTimeMillis());
+    }
+
+    static boolean isDue(long cachedTime, long refreshTime, long maxAgeMillis, double factor, long now) {
+        long refreshAfter = getRefreshAfter(maxAgeMillis, factor);
+        if (refreshAfter <= 0) {
+            return false;
+        }
+        long age = now - cachedTime;
+        if (age < refreshAfter || age >= maxAgeMillis) {
+            // Expired entries are validated again by the request missing the cache.
+            return false;
+        }
+        return refreshTime <= 0 || now - refreshTime >= getRetryInterval(maxAgeMillis, refreshAfter);
+    }
+
+    /**
+     * @return the age in milliseconds after which an entry is refreshed, or zero if the refresh is disabled
+     */
+    static long getRefreshAfter(long maxAgeMillis, double factor) {
+        if (maxAgeMillis <= 0 || !(factor > 0 && factor < 1)) {
+            return 0;
+        }
+        return (long) (maxAgeMillis * factor);
+    }
+
+    /**
+     * @return the minimum time in milliseconds between two refresh attempts of an entry
+     */
+    static long getRetryInterval(long maxAgeMillis, long refreshAfter) {
+        return Math.max(1, (maxAgeMillis - refreshAfter) / ATTEMPTS);
+    }
+}
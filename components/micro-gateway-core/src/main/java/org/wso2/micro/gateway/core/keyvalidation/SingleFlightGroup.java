@@ -0,0 +1,356 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.keyvalidation;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.ballerinalang.jvm.scheduling.Scheduler;
+import org.ballerinalang.jvm.scheduling.Strand;
+import org.ballerinalang.jvm.values.connector.NonBlockingCallback;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Coalesces the concurrent remote calls made for the same key, such as the key validation calls of a token.
+ * <p>
+ * The first request which joins a key becomes the leader and makes the remote call, while the requests joining the
+ * same key until the leader completes wait for its result instead of calling the remote service again. The result, or
+ * the error, of the leader is shared with all the waiting requests. A waiting request gives up after the timeout of
+ * the group, so that a stuck remote call does not hold the requests of a key for longer than their own call would.
+ * <p>
+ * A waiting request does not hold a scheduler thread. Its strand yields until the leader completes or the timeout
+ * elapses, and is then resumed with the shared result, hence any number of requests can wait for a key.
+ */
+public class SingleFlightGroup implements SingleFlightGroupMBean {
+
+    private static final Logger log = LogManager.getLogger(SingleFlightGroup.class);
+    private static final String OBJECT_NAME_PREFIX = "org.wso2.micro.gateway:type=SingleFlightGroup,name=";
+    private static final long DEFAULT_TIMEOUT_MILLIS = 30000;
+
+    private static final Map<String, SingleFlightGroup> groups = new ConcurrentHashMap<>();
+    private static final ScheduledThreadPoolExecutor timeoutExecutor = new ScheduledThreadPoolExecutor(1,
+            runnable -> {
+                Thread thread = new Thread(runnable, "SingleFlightTimeout");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        // The timeouts of the requests resumed by their leader are removed, instead of being kept until they elapse.
+        timeoutExecutor.setRemoveOnCancelPolicy(true);
+    }
+
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    SingleFlightGroup(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Creates the group of the given name. Subsequent invocations for the same name have no effect.
+     *
+     * @param name          name of the group
+     * @param timeoutMillis maximum time in milliseconds a request waits for the leader
+     */
+    public static synchronized void init(String name, long timeoutMillis) {
+        if (groups.containsKey(name)) {
+            return;
+        }
+        SingleFlightGroup group = new SingleFlightGroup(timeoutMillis);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(group, new ObjectName(OBJECT_NAME_PREFIX + name));
+        } catch (JMException e) {
+            log.error("Error while registering the statistics of the single flight group " + name, e);
+        }
+        groups.put(name, group);
+    }
+
+    /**
+     * Joins the in-flight call of the key, or starts a new one led by the caller.
+     *
+     * @param name name of the group
+     * @param key  key of the remote call
+     * @return the flight, where the caller is the leader if {@link #isLeader(Object)} returns true
+     */
+    public static Object join(String name, String key) {
+        SingleFlightGroup group = groups.get(name);
+        if (group == null) {
+            init(name, DEFAULT_TIMEOUT_MILLIS);
+            group = groups.get(name);
+        }
+        return group.join(key);
+    }
+
+    /**
+     * Checks whether the caller of {@link #join(String, String)} has to make the remote call.
+     *
+     * @param flight flight returned when joining
+     * @return true if the caller is the leader of the flight
+     */
+    public static boolean isLeader(Object flight) {
+        return ((Flight) flight).leader;
+    }
+
+    /**
+     * Waits until the leader of the flight completes. Unless the leader has already completed, the strand of the
+     * caller yields, releasing its thread, and is resumed with the result.
+     *
+     * @param flight flight returned when joining
+     * @return the result or the error of the leader, or null if the timeout elapsed
+     */
+    public static Object await(Object flight) {
+        Flight joined = (Flight) flight;
+        Outcome outcome = joined.call.getOutcome();
+        if (outcome != null) {
+            return joined.share(outcome);
+        }
+        Strand strand = Scheduler.getStrand();
+        NonBlockingCallback callback = new NonBlockingCallback(strand);
+        joined.await(result -> {
+            strand.setReturnValues(result);
+            callback.notifySuccess();
+        });
+        return null;
+    }
+
+    /**
+     * Completes the flight led by the caller and shares the result with the waiting requests.
+     *
+     * @param flight flight returned when joining
+     * @param result result of the remote call
+     */
+    public static void complete(Object flight, Object result) {
+        ((Flight) flight).complete(result, false);
+    }
+
+    /**
+     * Completes the flight led by the caller with the error of the remote call, which is shared with the waiting
+     * requests.
+     *
+     * @param flight flight returned when joining
+     * @param error  error of the remote call
+     */
+    public static void fail(Object flight, Object error) {
+        ((Flight) flight).complete(error, true);
+    }
+
+    Flight join(String key) {
+        Flight flight = new Flight(this, key, true, new Call());
+        Flight existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            return new Flight(this, key, false, existing.call);
+        }
+        leaders.increment();
+        return flight;
+    }
+
+    @Override
+    public long getLeaderCount() {
+        return leaders.sum();
+    }
+
+    @Override
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    @Override
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return failures.sum();
+    }
+
+    @Override
+    public long getInFlightCount() {
+        return flights.size();
+    }
+
+    /**
+     * Remote call of a key, as seen by either the leader or one of the waiting requests.
+     */
+    static class Flight {
+
+        private final SingleFlightGroup group;
+        private final String key;
+        private final boolean leader;
+        private final Call call;
+
+        Flight(SingleFlightGroup group, String key, boolean leader, Call call) {
+            this.group = group;
+            this.key = key;
+            this.leader = leader;
+            this.call = call;
+        }
+
+        /**
+         * Registers the callback receiving the result of the leader, or null if the timeout elapses first. The caller
+         * is not blocked, and the callback is invoked by the thread which completes the flight or by the timeout
+         * thread.
+         *
+         * @param resumer callback receiving the result
+         */
+        void await(Consumer<Object> resumer) {
+            if (leader) {
+                throw new IllegalStateException("The leader of a flight cannot wait for its own result");
+            }
+            Waiter waiter = new Waiter(this, resumer);
+            if (group.timeoutMillis > 0) {
+                waiter.timeout = timeoutExecutor.schedule(() -> waiter.resume(null), group.timeoutMillis,
+                        TimeUnit.MILLISECONDS);
+            }
+            Outcome outcome = call.addWaiter(waiter);
+            if (outcome != null) {
+                waiter.resume(outcome);
+            }
+        }
+
+        void complete(Object value, boolean failed) {
+            if (!leader) {
+                throw new IllegalStateException("Only the leader of a flight can complete it");
+            }
+            // The flight is removed first, hence the requests which arrive afterwards start a new call and see the
+            // caches updated by the leader.
+            group.flights.remove(key, this);
+            if (failed) {
+                group.failures.increment();
+            }
+            Outcome outcome = new Outcome(value, failed);
+            for (Waiter waiter : call.complete(outcome)) {
+                waiter.resume(outcome);
+            }
+        }
+
+        /**
+         * Counts the outcome received by a waiting request and returns the value shared with it.
+         */
+        private Object share(Outcome outcome) {
+            if (outcome == null) {
+                group.timeouts.increment();
+                return null;
+            }
+            if (outcome.failed) {
+                group.failures.increment();
+            } else {
+                group.coalesced.increment();
+            }
+            return outcome.value;
+        }
+    }
+
+    /**
+     * State of a remote call, shared by its leader and the waiting requests.
+     */
+    private static class Call {
+
+        // Guarded by this.
+        private Outcome outcome;
+        // Guarded by this, requests waiting for the outcome, which is null once the call is completed.
+        private List<Waiter> waiters = new ArrayList<>();
+
+        synchronized Outcome getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * @return the outcome if the call is already completed, in which case the waiter is not added
+         */
+        synchronized Outcome addWaiter(Waiter waiter) {
+            if (outcome == null) {
+                waiters.add(waiter);
+            }
+            return outcome;
+        }
+
+        /**
+         * @return the requests waiting for the outcome
+         */
+        synchronized List<Waiter> complete(Outcome outcome) {
+            List<Waiter> waiting = waiters;
+            this.outcome = outcome;
+            waiters = null;
+            return waiting;
+        }
+    }
+
+    /**
+     * Request waiting for a remote call, which is resumed once by either the leader or its timeout.
+     */
+    private static class Waiter {
+
+        private final Flight flight;
+        private final Consumer<Object> resumer;
+        private final AtomicBoolean resumed = new AtomicBoolean();
+        private volatile ScheduledFuture<?> timeout;
+
+        Waiter(Flight flight, Consumer<Object> resumer) {
+            this.flight = flight;
+            this.resumer = resumer;
+        }
+
+        void resume(Outcome outcome) {
+            if (!resumed.compareAndSet(false, true)) {
+                return;
+            }
+            ScheduledFuture<?> scheduledTimeout = timeout;
+            if (outcome != null && scheduledTimeout != null) {
+                scheduledTimeout.cancel(false);
+            }
+            Object value = flight.share(outcome);
+            try {
+                resumer.accept(value);
+            } catch (RuntimeException e) {
+                log.error("Error while resuming a request waiting for a single flight", e);
+            }
+        }
+    }
+
+    /**
+     * Result or error of a remote call.
+     */
+    private static class Outcome {
+
+        private final Object value;
+        private final boolean failed;
+
+        Outcome(Object value, boolean failed) {
+            this.value = value;
+            this.failed = failed;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.keyvalidation;
+
+/**
+ * Management interface exposing the counters of a single flight group.
+ */
+public interface SingleFlightGroupMBean {
+
+    /**
+     * Returns the number of requests which made the remote call on behalf of the concurrent requests of the same key.
+     */
+    long getLeaderCount();
+
+    /**
+     * Returns the number of requests which received the result of the remote call made by the leader.
+     */
+    long getCoalescedCount();
+
+    /**
+     * Returns the number of requests which stopped waiting for the leader as the timeout elapsed.
+     */
+    long getTimeoutCount();
+
+    /**
+     * Returns the number of remote calls which failed, including the requests which received the failure.
+     */
+    long getFailedCount();
+
+    /**
+     * Returns the number of remote calls in progress.
+     */
+    long getInFlightCount();
+}
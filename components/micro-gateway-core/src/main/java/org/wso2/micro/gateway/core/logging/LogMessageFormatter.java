@@ -0,0 +1,67 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.logging;
+
+import org.ballerinalang.jvm.StringUtils;
+import org.ballerinalang.jvm.values.ArrayValue;
+
+import java.util.function.IntFunction;
+
+/**
+ * Builds the debug log messages of the gateway from a format and its arguments. The gateway only calls this once it
+ * knows the debug level is enabled, hence the arguments passed from the request path are converted to strings only
+ * when the message is actually logged.
+ */
+public class LogMessageFormatter {
+
+    private static final String PLACEHOLDER = "{}";
+
+    private LogMessageFormatter() {
+    }
+
+    /**
+     * Replace each {} placeholder of the format with the string value of the next argument. Placeholders without a
+     * matching argument are kept as they are and extra arguments are ignored.
+     *
+     * @param format message format
+     * @param args   ballerina values to be substituted for the placeholders
+     * @return formatted message
+     */
+    public static String format(String format, ArrayValue args) {
+        if (args == null) {
+            return format;
+        }
+        return format(format, args.size(), args::get);
+    }
+
+    static String format(String format, int argCount, IntFunction<Object> args) {
+        if (argCount == 0) {
+            return format;
+        }
+        StringBuilder message = new StringBuilder(format.length() + 16 * argCount);
+        int start = 0;
+        int argIndex = 0;
+        int placeholder = format.indexOf(PLACEHOLDER);
+        while (placeholder >= 0 && argIndex < argCount) {
+            message.append(format, start, placeholder);
+            message.append(StringUtils.getStringValue(args.apply(argIndex++)));
+            start = placeholder + PLACEHOLDER.length();
+            placeholder = format.indexOf(PLACEHOLDER, start);
+        }
+        return message.append(format, start, format.length()).toString();
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.revocation;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Store of the revoked tokens received through the token revocation JMS topic and the persistent revoked token
+ * retrieval tasks.
+ * <p>
+ * Tokens are keyed by a 128 bit digest of the jti, the JWT signature or the opaque token, so lookups are a single
+ * hash map access regardless of the number of revoked tokens. Each entry is removed once the revoked token has
+ * expired, since an expired token is rejected by the validation anyway. An optional bloom filter in front of the map
+ * answers the common case of a token which is not revoked without touching the map.
+ */
+public class RevokedTokenStore {
+
+    private static final Logger log = LogManager.getLogger(RevokedTokenStore.class);
+    private static final long NO_EXPIRY = Long.MAX_VALUE;
+    private static final long EPOCH_MILLIS_THRESHOLD = 1_000_000_000_000L;
+    private static final long EPOCH_SECONDS_THRESHOLD = 1_000_000_000L;
+    private static final long MILLIS_PER_SECOND = 1000;
+    // Entries are kept for a while after the token has expired, to cover the clock skew allowed during validation.
+    private static final long EXPIRY_GRACE_PERIOD = TimeUnit.MINUTES.toMillis(5);
+    private static final long PURGE_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    private static final double BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY = 0.01;
+    private static final int DEFAULT_BLOOM_FILTER_CAPACITY = 10000;
+    private static final Funnel<TokenDigest> DIGEST_FUNNEL = (digest, into) -> into.putLong(digest.high)
+            .putLong(digest.low);
+    private static final ThreadLocal<MessageDigest> messageDigest = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 message digest is not available", e);
+        }
+    });
+
+    private static final Map<TokenDigest, Long> revokedTokens = new ConcurrentHashMap<>();
+    private static boolean bloomFilterEnabled = true;
+    private static int bloomFilterCapacity = DEFAULT_BLOOM_FILTER_CAPACITY;
+    private static volatile BloomFilter<TokenDigest> bloomFilter = createBloomFilter(DEFAULT_BLOOM_FILTER_CAPACITY);
+    private static ScheduledExecutorService purgeExecutor;
+
+    private RevokedTokenStore() {
+    }
+
+    /**
+     * Configure the bloom filter in front of the revoked token map.
+     *
+     * @param enabled             true if the bloom filter should be used
+     * @param expectedRevocations number of revoked tokens the bloom filter is initially sized for
+     */
+    public static synchronized void init(boolean enabled, long expectedRevocations) {
+        bloomFilterEnabled = enabled;
+        bloomFilterCapacity = (int) Math.max(DEFAULT_BLOOM_FILTER_CAPACITY, Math.min(Integer.MAX_VALUE,
+                expectedRevocations));
+        rebuildBloomFilter();
+    }
+
+    /**
+     * Add a revoked token to the store.
+     *
+     * @param token      jti, JWT signature or the opaque token which is revoked
+     * @param expiryTime expiry time of the token, either in milliseconds or seconds since the epoch
+     */
+    public static synchronized void addRevokedToken(String token, String expiryTime) {
+        TokenDigest digest = digest(token);
+        revokedTokens.put(digest, toExpiryTime(expiryTime));
+        if (bloomFilterEnabled) {
+            if (revokedTokens.size() > bloomFilterCapacity) {
+                bloomFilterCapacity = bloomFilterCapacity * 2;
+                rebuildBloomFilter();
+            } else {
+                bloomFilter.put(digest);
+            }
+        }
+        if (purgeExecutor == null) {
+            purgeExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r);
+                t.setName("Revoked Token Cleanup Task");
+                t.setDaemon(true);
+                return t;
+            });
+            purgeExecutor.scheduleAtFixedRate(RevokedTokenStore::purgeExpiredTokens, PURGE_INTERVAL,
+                    PURGE_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Check whether the token is revoked.
+     *
+     * @param token jti, JWT signature or the opaque token
+     * @return true if the token is revoked and the revocation has not expired
+     */
+    public static boolean isRevoked(String token) {
+        if (revokedTokens.isEmpty()) {
+            return false;
+        }
+        TokenDigest digest = digest(token);
+        if (bloomFilterEnabled && !bloomFilter.mightContain(digest)) {
+            return false;
+        }
+        Long expiryTime = revokedTokens.get(digest);
+        return expiryTime != null && expiryTime > System.currentTimeMillis();
+    }
+
+    /**
+     * Check whether a JWT is revoked either by its jti or by its signature.
+     *
+     * @param jti       jti claim of the JWT
+     * @param signature signature of the JWT
+     * @return true if the JWT is revoked
+     */
+    public static boolean isJwtRevoked(String jti, String signature) {
+        return isRevoked(jti) || isRevoked(signature);
+    }
+
+    public static int getRevokedTokenCount() {
+        return revokedTokens.size();
+    }
+
+    static synchronized void purgeExpiredTokens() {
+        long currentTime = System.currentTimeMillis();
+        int sizeBefore = revokedTokens.size();
+        revokedTokens.values().removeIf(expiryTime -> expiryTime <= currentTime);
+        int removed = sizeBefore - revokedTokens.size();
+        if (removed > 0) {
+            if (log.isDebugEnabled()) {
+                log.debug("Removed " + removed + " expired revoked tokens. Remaining revoked tokens : "
+                        + revokedTokens.size());
+            }
+            // Bloom filters do not support removals, hence the filter is rebuilt from the remaining tokens.
+            rebuildBloomFilter();
+        }
+    }
+
+    private static void rebuildBloomFilter() {
+        if (!bloomFilterEnabled) {
+            return;
+        }
+        BloomFilter<TokenDigest> newBloomFilter = createBloomFilter(bloomFilterCapacity);
+        for (TokenDigest digest : revokedTokens.keySet()) {
+            newBloomFilter.put(digest);
+        }
+        bloomFilter = newBloomFilter;
+    }
+
+    private static BloomFilter<TokenDigest> createBloomFilter(int capacity) {
+        return BloomFilter.create(DIGEST_FUNNEL, capacity, BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY);
+    }
+
+    private static long toExpiryTime(String expiryTime) {
+        long expiry;
+        try {
+            expiry = Long.parseLong(expiryTime.trim());
+        } catch (NumberFormatException | NullPointerException e) {
+            log.warn("Invalid expiry time : " + expiryTime + " received for a revoked token. The revoked token is "
+                    + "kept without an expiry.");
+            return NO_EXPIRY;
+        }
+        if (expiry >= EPOCH_MILLIS_THRESHOLD) {
+            return expiry + EXPIRY_GRACE_PERIOD;
+        } else if (expiry >= EPOCH_SECONDS_THRESHOLD) {
+            return expiry * MILLIS_PER_SECOND + EXPIRY_GRACE_PERIOD;
+        }
+        // Relative or unknown expiry values are not trusted to expire the revocation.
+        return NO_EXPIRY;
+    }
+
+    private static TokenDigest digest(String token) {
+        MessageDigest md = messageDigest.get();
+        byte[] hash = md.digest(token.getBytes(StandardCharsets.UTF_8));
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < 8; i++) {
+            high = (high << 8) | (hash[i] & 0xFF);
+            low = (low << 8) | (hash[i + 8] & 0xFF);
+        }
+        return new TokenDigest(high, low);
+    }
+
+    /**
+     * First 128 bits of the SHA-256 digest of a revoked token.
+     */
+    private static final class TokenDigest {
+
+        private final long high;
+        private final long low;
+
+        TokenDigest(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TokenDigest)) {
+                return false;
+            }
+            TokenDigest that = (TokenDigest) o;
+            return high == that.high && low == that.low;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (low ^ (low >>> 32));
+        }
+    }
+}
@@ -20,28 +20,30 @@ import org.ballerinalang.jvm.values.MapValue;
 
 /**
  * This class is responsible for executing data processing logic. This class implements runnable interface and
- * need to execute using thread pool executor.
+ * is executed either on the request thread, by a local throttle update ring or by the thread pool executor. The
+ * instances are reused across requests in the first two cases.
  */
 public class DataProcessAgent implements Runnable {
 
     private ThrottleCounter throttleCounter;
-    private String apiKey;
-    private String appKey;
+    private final RequestThrottleKeys throttleKeys = new RequestThrottleKeys();
     private boolean stopOnQuota;
-    private String subscriptionKey;
     private long appTierCount;
     private long appTierUnitTime;
     private String appTierTimeUnit;
+    private String appTierAlgorithm;
     private long apiTierCount;
     private long apiTierUnitTime;
     private String apiTierTimeUnit;
+    private String apiTierAlgorithm;
     private long subscriptionTierCount;
     private long subscriptionTierUnitTime;
     private String subscriptionTierTimeUnit;
-    private String resourceKey;
+    private String subscriptionTierAlgorithm;
     private long resourceTierCount;
     private long resourceTierUnitTime;
     private String resourceTierTimeUnit;
+    private String resourceTierAlgorithm;
     private long timestamp;
 
 
@@ -54,31 +56,38 @@ public class DataProcessAgent implements Runnable {
      */
     public void setDataReference(MapValue throttleData) {
 
-        this.appKey = throttleData.getStringValue("appKey");
+        throttleKeys.setEvent(throttleData);
         this.appTierCount = throttleData.getIntValue("appTierCount");
         this.appTierUnitTime = throttleData.getIntValue("appTierUnitTime");
         this.appTierTimeUnit = throttleData.getStringValue("appTierTimeUnit");
-        this.apiKey = throttleData.getStringValue("apiKey");
+        this.appTierAlgorithm = throttleData.getStringValue("appTierAlgorithm");
         this.apiTierCount = throttleData.getIntValue("apiTierCount");
         this.apiTierUnitTime = throttleData.getIntValue("apiTierUnitTime");
         this.apiTierTimeUnit = throttleData.getStringValue("apiTierTimeUnit");
-        this.subscriptionKey = throttleData.getStringValue("subscriptionKey");
+        this.apiTierAlgorithm = throttleData.getStringValue("apiTierAlgorithm");
         this.subscriptionTierCount = throttleData.getIntValue("subscriptionTierCount");
         this.subscriptionTierUnitTime = throttleData.getIntValue("subscriptionTierUnitTime");
         this.subscriptionTierTimeUnit = throttleData.getStringValue("subscriptionTierTimeUnit");
-        this.resourceKey = throttleData.getStringValue("resourceKey");
+        this.subscriptionTierAlgorithm = throttleData.getStringValue("subscriptionTierAlgorithm");
         this.resourceTierCount = throttleData.getIntValue("resourceTierCount");
         this.resourceTierUnitTime = throttleData.getIntValue("resourceTierUnitTime");
         this.resourceTierTimeUnit = throttleData.getStringValue("resourceTierTimeUnit");
+        this.resourceTierAlgorithm = throttleData.getStringValue("resourceTierAlgorithm");
         this.stopOnQuota = throttleData.getBooleanValue("stopOnQuota");
-        this.timestamp = System.currentTimeMillis();
+        this.timestamp = ThrottleCounter.currentTimeMillis();
     }
 
     public void run() {
-        throttleCounter.updateCounters(apiKey, appKey, stopOnQuota, subscriptionKey, appTierCount, appTierUnitTime,
-                appTierTimeUnit, apiTierCount, apiTierUnitTime, apiTierTimeUnit, subscriptionTierCount,
-                subscriptionTierUnitTime, subscriptionTierTimeUnit, resourceKey, resourceTierCount,
-                resourceTierUnitTime, resourceTierTimeUnit, timestamp);
+        throttleCounter.updateCounters(throttleKeys.getApiKey(), throttleKeys.getAppKey(), stopOnQuota,
+                throttleKeys.getSubscriptionKey(), appTierCount, appTierUnitTime, appTierTimeUnit, appTierAlgorithm,
+                apiTierCount, apiTierUnitTime, apiTierTimeUnit, apiTierAlgorithm, subscriptionTierCount,
+                subscriptionTierUnitTime, subscriptionTierTimeUnit, subscriptionTierAlgorithm,
+                throttleKeys.getResourceKey(), resourceTierCount, resourceTierUnitTime, resourceTierTimeUnit,
+                resourceTierAlgorithm, timestamp);
+    }
+
+    long getTimestamp() {
+        return timestamp;
     }
 
     private ThrottleCounter getDataPublisher() {
@@ -0,0 +1,68 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.throttle;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed window counter. Requests are counted within windows aligned to the unit time of the policy, and the
+ * counter is reset when a new window starts.
+ */
+class FixedWindowCounterEngine implements ThrottleCounterEngine {
+
+    @Override
+    public void init(ThrottleData throttleData, long timestamp) {
+        throttleData.setWindowStartTime(getWindowStartTime(timestamp, throttleData.getUnitTime()));
+    }
+
+    @Override
+    public void increment(ThrottleData throttleData, long timestamp) {
+        long unitTime = throttleData.getUnitTime();
+        ThrottleData.CounterWindow window = throttleData.getCounterWindow();
+        while (timestamp >= window.getStartTime() + unitTime) {
+            // the window and its count are replaced together, hence concurrent increments of the new window are
+            // never reset
+            ThrottleData.CounterWindow newWindow = new ThrottleData.CounterWindow(
+                    getWindowStartTime(timestamp, unitTime), new AtomicLong(), null);
+            if (throttleData.compareAndSetCounterWindow(window, newWindow)) {
+                window = newWindow;
+                break;
+            }
+            window = throttleData.getCounterWindow();
+        }
+        long count = window.getCount().incrementAndGet();
+        throttleData.setThrottled(throttleData.getLimit() > 0 && count >= throttleData.getLimit());
+    }
+
+    @Override
+    public boolean isThrottled(ThrottleData throttleData, long currentTime) {
+        ThrottleData.CounterWindow window = throttleData.getCounterWindow();
+        if (currentTime >= window.getStartTime() + throttleData.getUnitTime()) {
+            return false;
+        }
+        return throttleData.getLimit() > 0 && window.getCount().get() >= throttleData.getLimit();
+    }
+
+    @Override
+    public long getExpiryTime(ThrottleData throttleData) {
+        return throttleData.getWindowStartTime() + throttleData.getUnitTime();
+    }
+
+    static long getWindowStartTime(long timestamp, long unitTime) {
+        return unitTime > 0 ? timestamp - (timestamp % unitTime) : timestamp;
+    }
+}
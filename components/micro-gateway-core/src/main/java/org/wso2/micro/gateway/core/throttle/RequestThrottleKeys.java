@@ -0,0 +1,79 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.throttle;
+
+import org.ballerinalang.jvm.values.MapValue;
+
+/**
+ * API, resource, subscription and application level throttle keys of a request, built from the parts of the local
+ * throttle event. The keys are the same as the throttle keys built by the throttle filter, i.e.
+ * <ul>
+ * <li>API: apiContext:apiVersion</li>
+ * <li>resource: apiContext/apiVersion + matching resource:http method, or the API key if the event has no http method
+ * as the API level policy is applied to the resource</li>
+ * <li>subscription: appId:apiContext:apiVersion</li>
+ * <li>application: appId:userId</li>
+ * </ul>
+ */
+final class RequestThrottleKeys {
+
+    private final ThrottleKey apiKey = new ThrottleKey();
+    private final ThrottleKey resourceKey = new ThrottleKey();
+    private final ThrottleKey subscriptionKey = new ThrottleKey();
+    private final ThrottleKey appKey = new ThrottleKey();
+
+    /**
+     * Sets the keys of the request of the throttle event.
+     *
+     * @param throttleEvent local throttle event of the request
+     * @return this instance
+     */
+    RequestThrottleKeys setEvent(MapValue throttleEvent) {
+        String apiContext = throttleEvent.getStringValue("apiContext");
+        String apiVersion = throttleEvent.getStringValue("apiVersion");
+        String appId = throttleEvent.getStringValue("appId");
+        String httpMethod = throttleEvent.getStringValue("httpMethod");
+        apiKey.clear().append(apiContext).append(':', apiVersion);
+        resourceKey.clear().append(apiContext);
+        if (httpMethod.isEmpty()) {
+            resourceKey.append(':', apiVersion);
+        } else {
+            resourceKey.append('/', apiVersion).append(throttleEvent.getStringValue("resourcePath"))
+                    .append(':', httpMethod);
+        }
+        subscriptionKey.clear().append(appId).append(':', apiContext).append(':', apiVersion);
+        appKey.clear().append(appId).append(':', throttleEvent.getStringValue("userId"));
+        return this;
+    }
+
+    ThrottleKey getApiKey() {
+        return apiKey;
+    }
+
+    ThrottleKey getResourceKey() {
+        return resourceKey;
+    }
+
+    ThrottleKey getSubscriptionKey() {
+        return subscriptionKey;
+    }
+
+    ThrottleKey getAppKey() {
+        return appKey;
+    }
+}
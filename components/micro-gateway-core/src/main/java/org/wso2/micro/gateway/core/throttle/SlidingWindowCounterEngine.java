@@ -0,0 +1,79 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.throttle;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sliding window counter. Keeps the counts of the current and the previous fixed windows and estimates the number
+ * of requests in the rolling window by weighting the previous count with its overlap. This removes the boundary
+ * burst of the fixed window using constant memory per throttle key.
+ */
+class SlidingWindowCounterEngine implements ThrottleCounterEngine {
+
+    @Override
+    public void init(ThrottleData throttleData, long timestamp) {
+        throttleData.setWindowStartTime(
+                FixedWindowCounterEngine.getWindowStartTime(timestamp, throttleData.getUnitTime()));
+    }
+
+    @Override
+    public void increment(ThrottleData throttleData, long timestamp) {
+        long unitTime = throttleData.getUnitTime();
+        ThrottleData.CounterWindow window = throttleData.getCounterWindow();
+        while (timestamp >= window.getStartTime() + unitTime) {
+            long newWindowStartTime = FixedWindowCounterEngine.getWindowStartTime(timestamp, unitTime);
+            // the current window becomes the previous one only if the two windows are adjacent
+            ThrottleData.CounterWindow newWindow = new ThrottleData.CounterWindow(newWindowStartTime, new AtomicLong(),
+                    newWindowStartTime - window.getStartTime() == unitTime ? window.getCount() : null);
+            if (throttleData.compareAndSetCounterWindow(window, newWindow)) {
+                window = newWindow;
+                break;
+            }
+            window = throttleData.getCounterWindow();
+        }
+        window.getCount().incrementAndGet();
+        throttleData.setThrottled(isThrottled(throttleData, timestamp));
+    }
+
+    @Override
+    public boolean isThrottled(ThrottleData throttleData, long currentTime) {
+        long limit = throttleData.getLimit();
+        long unitTime = throttleData.getUnitTime();
+        if (limit <= 0 || unitTime <= 0) {
+            return false;
+        }
+        ThrottleData.CounterWindow window = throttleData.getCounterWindow();
+        long elapsed = currentTime - window.getStartTime();
+        double estimatedCount;
+        if (elapsed >= 2 * unitTime) {
+            return false;
+        } else if (elapsed >= unitTime) {
+            // no request has moved the window yet, hence the current count is the previous window of now
+            estimatedCount = window.getCount().get() * (double) (2 * unitTime - elapsed) / unitTime;
+        } else {
+            estimatedCount = window.getPreviousCount() * (double) (unitTime - elapsed) / unitTime
+                    + window.getCount().get();
+        }
+        return estimatedCount >= limit;
+    }
+
+    @Override
+    public long getExpiryTime(ThrottleData throttleData) {
+        return throttleData.getWindowStartTime() + 2 * throttleData.getUnitTime();
+    }
+}
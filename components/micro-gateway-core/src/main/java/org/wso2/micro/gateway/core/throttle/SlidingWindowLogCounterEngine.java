@@ -0,0 +1,93 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.throttle;
+
+/**
+ * Sliding window log. The timestamps of the last {@code limit} requests are kept in a ring, and a request is
+ * throttled if the oldest of those requests is still within the unit time. This gives an exact rolling window,
+ * at the cost of one slot per allowed request.
+ * <p>
+ * The count and the slot of a request are updated together under the lock of the log of the throttle key, so a
+ * reader never sees a count whose slot is not written yet, and concurrent requests never write the same slot.
+ */
+class SlidingWindowLogCounterEngine implements ThrottleCounterEngine {
+
+    /**
+     * Maximum number of requests kept in the log of a single throttle key. Policies with a larger limit are
+     * counted with the sliding window counter instead.
+     */
+    static final long MAX_LOG_SIZE = 10000;
+
+    @Override
+    public void init(ThrottleData throttleData, long timestamp) {
+        throttleData.setWindowStartTime(timestamp);
+        if (throttleData.getLimit() > 0) {
+            throttleData.setRequestLog(new long[(int) throttleData.getLimit()]);
+        }
+    }
+
+    @Override
+    public void increment(ThrottleData throttleData, long timestamp) {
+        long[] requestLog = throttleData.getRequestLog();
+        if (requestLog == null) {
+            throttleData.getCount().incrementAndGet();
+            return;
+        }
+        synchronized (requestLog) {
+            long index = throttleData.getCount().getAndIncrement();
+            requestLog[(int) (index % requestLog.length)] = timestamp;
+            throttleData.setThrottled(isThrottled(throttleData, requestLog, timestamp));
+        }
+    }
+
+    @Override
+    public boolean isThrottled(ThrottleData throttleData, long currentTime) {
+        long[] requestLog = throttleData.getRequestLog();
+        if (requestLog == null) {
+            return false;
+        }
+        synchronized (requestLog) {
+            return isThrottled(throttleData, requestLog, currentTime);
+        }
+    }
+
+    private static boolean isThrottled(ThrottleData throttleData, long[] requestLog, long currentTime) {
+        long count = throttleData.getCount().get();
+        if (count < requestLog.length) {
+            return false;
+        }
+        // the slot of the next request holds the oldest of the last 'limit' requests
+        long oldestTimestamp = requestLog[(int) (count % requestLog.length)];
+        return oldestTimestamp > currentTime - throttleData.getUnitTime();
+    }
+
+    @Override
+    public long getExpiryTime(ThrottleData throttleData) {
+        long[] requestLog = throttleData.getRequestLog();
+        if (requestLog == null) {
+            return throttleData.getWindowStartTime() + throttleData.getUnitTime();
+        }
+        synchronized (requestLog) {
+            long count = throttleData.getCount().get();
+            if (count == 0) {
+                return throttleData.getWindowStartTime() + throttleData.getUnitTime();
+            }
+            long latestTimestamp = requestLog[(int) ((count - 1) % requestLog.length)];
+            return latestTimestamp + throttleData.getUnitTime();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.throttle;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Enum to hold the counting algorithms supported by the local throttling engine.
+ */
+public enum ThrottleAlgorithm {
+
+    FIXED_WINDOW("fixedWindow", new FixedWindowCounterEngine()),
+    SLIDING_WINDOW_LOG("slidingWindowLog", new SlidingWindowLogCounterEngine()),
+    SLIDING_WINDOW_COUNTER("slidingWindowCounter", new SlidingWindowCounterEngine()),
+    TOKEN_BUCKET("tokenBucket", new TokenBucketCounterEngine());
+
+    private static final Logger log = LogManager.getLogger(ThrottleAlgorithm.class);
+
+    private final String name;
+    private final ThrottleCounterEngine engine;
+
+    ThrottleAlgorithm(String name, ThrottleCounterEngine engine) {
+        this.name = name;
+        this.engine = engine;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ThrottleCounterEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Resolve the algorithm for the name defined in the throttle policy. Fixed window is used if the policy does not
+     * define an algorithm or if the defined algorithm is not supported.
+     *
+     * @param name algorithm name defined in the policy
+     * @return matching throttle algorithm
+     */
+    public static ThrottleAlgorithm fromString(String name) {
+        if (name == null || name.isEmpty()) {
+            return FIXED_WINDOW;
+        }
+        for (ThrottleAlgorithm algorithm : values()) {
+            if (algorithm.name.equalsIgnoreCase(name)) {
+                return algorithm;
+            }
+        }
+        log.warn("Unsupported throttle algorithm '" + name + "'. Falling back to " + FIXED_WINDOW.name);
+        return FIXED_WINDOW;
+    }
+}
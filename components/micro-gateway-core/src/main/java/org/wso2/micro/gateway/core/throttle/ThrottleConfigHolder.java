@@ -16,13 +16,17 @@
 
 package org.wso2.micro.gateway.core.throttle;
 
+import org.wso2.micro.gateway.core.Constants;
+
 /**
  * Static holder single pattern implementation to hold the configurations related local throttle processing.
  */
 public class ThrottleConfigHolder {
 
     private int processThreadPoolCoreSize = 200, processThreadPoolMaximumSize = 1000,
-            processThreadPoolKeepAliveTime = 200, throttleFrequency = 3600;
+            processThreadPoolKeepAliveTime = 200, updateRingCount = 4,
+            updateRingBufferSize = 4096;
+    private String updateMode = Constants.THROTTLE_UPDATE_MODE_INLINE;
 
     private static class InnerConfigHolder {
         private static final ThrottleConfigHolder instance = new ThrottleConfigHolder();
@@ -36,11 +40,16 @@ public class ThrottleConfigHolder {
     }
 
     public void setData(int processThreadPoolCoreSize,
-            int processThreadPoolMaximumSize, int processThreadPoolKeepAliveTime, int throttleFrequency) {
+            int processThreadPoolMaximumSize, int processThreadPoolKeepAliveTime) {
         this.processThreadPoolCoreSize = processThreadPoolCoreSize;
         this.processThreadPoolMaximumSize = processThreadPoolMaximumSize;
         this.processThreadPoolKeepAliveTime = processThreadPoolKeepAliveTime;
-        this.throttleFrequency = throttleFrequency;
+    }
+
+    public void setUpdateData(String updateMode, int updateRingCount, int updateRingBufferSize) {
+        this.updateMode = updateMode;
+        this.updateRingCount = updateRingCount;
+        this.updateRingBufferSize = updateRingBufferSize;
     }
 
     public int getProcessThreadPoolCoreSize() {
@@ -55,7 +64,15 @@ public class ThrottleConfigHolder {
         return processThreadPoolKeepAliveTime;
     }
 
-    public int getThrottleFrequency() {
-        return throttleFrequency;
+    public String getUpdateMode() {
+        return updateMode;
+    }
+
+    public int getUpdateRingCount() {
+        return updateRingCount;
+    }
+
+    public int getUpdateRingBufferSize() {
+        return updateRingBufferSize;
     }
 }
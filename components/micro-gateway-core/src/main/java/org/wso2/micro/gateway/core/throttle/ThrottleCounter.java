@@ -19,8 +19,7 @@ package org.wso2.micro.gateway.core.throttle;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.Clock;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -29,69 +28,140 @@ import java.util.concurrent.TimeUnit;
 public class ThrottleCounter {
     private static final Logger log = LogManager.getLogger(ThrottleCounter.class);
 
-    private static final Map<String, ThrottleData> apiLevelCounter = new ConcurrentHashMap<>();
-    private static final Map<String, ThrottleData> resourceLevelCounter = new ConcurrentHashMap<>();
-    private static final Map<String, ThrottleData> applicationLevelCounter = new ConcurrentHashMap<>();
-    private static final Map<String, ThrottleData> subscriptionLevelCounter = new ConcurrentHashMap<>();
+    /**
+     * Throttle decisions returned by {@link #getThrottleDecision}. The quota exceeded flag is combined with the
+     * decision when the subscription quota is exceeded but the subscription policy allows requests to continue.
+     */
+    public static final int NOT_THROTTLED = 0;
+    public static final int API_LEVEL_THROTTLED = 1;
+    public static final int RESOURCE_LEVEL_THROTTLED = 2;
+    public static final int SUBSCRIPTION_LEVEL_THROTTLED = 3;
+    public static final int APP_LEVEL_THROTTLED = 4;
+    public static final int SUBSCRIPTION_QUOTA_EXCEEDED_FLAG = 8;
+
+    private static final ThrottleKeyRegistry apiLevelCounter = new ThrottleKeyRegistry();
+    private static final ThrottleKeyRegistry resourceLevelCounter = new ThrottleKeyRegistry();
+    private static final ThrottleKeyRegistry applicationLevelCounter = new ThrottleKeyRegistry();
+    private static final ThrottleKeyRegistry subscriptionLevelCounter = new ThrottleKeyRegistry();
+    // time source of the throttle decisions and the counter updates, which is replaced by the tests
+    private static volatile Clock clock = Clock.systemUTC();
+    // key used to look up the throttle keys which are given as strings
+    private static final ThreadLocal<ThrottleKey> lookupKey = ThreadLocal.withInitial(ThrottleKey::new);
+
+    /**
+     * @return current time in milliseconds, according to the clock of the throttle counters
+     */
+    static long currentTimeMillis() {
+        return clock.millis();
+    }
+
+    static void setClock(Clock throttleClock) {
+        clock = throttleClock;
+    }
 
-    public void updateCounters(String apiKey, String appKey, boolean stopOnQuota, String subscriptionKey,
-            long appTierCount, long appTierUnitTime, String appTierTimeUnit, long apiTierCount, long apiTierUnitTime,
-            String apiTierTimeUnit, long subscriptionTierCount, long subscriptionTierUnitTime,
-            String subscriptionTierTimeUnit, String resourceKey, long resourceTierCount, long resourceTierUnitTime,
-            String resourceTierTimeUnit, long timestamp) {
+    public void updateCounters(ThrottleKey apiKey, ThrottleKey appKey, boolean stopOnQuota,
+            ThrottleKey subscriptionKey, long appTierCount, long appTierUnitTime, String appTierTimeUnit,
+            String appTierAlgorithm, long apiTierCount, long apiTierUnitTime, String apiTierTimeUnit,
+            String apiTierAlgorithm, long subscriptionTierCount, long subscriptionTierUnitTime,
+            String subscriptionTierTimeUnit, String subscriptionTierAlgorithm, ThrottleKey resourceKey,
+            long resourceTierCount, long resourceTierUnitTime, String resourceTierTimeUnit,
+            String resourceTierAlgorithm, long timestamp) {
         updateMapCounters(apiLevelCounter, apiKey, stopOnQuota, apiTierCount, apiTierUnitTime, apiTierTimeUnit,
-                timestamp, ThrottleData.ThrottleType.API);
+                apiTierAlgorithm, timestamp, ThrottleData.ThrottleType.API);
         updateMapCounters(resourceLevelCounter, resourceKey, stopOnQuota, resourceTierCount, resourceTierUnitTime,
-                resourceTierTimeUnit, timestamp, ThrottleData.ThrottleType.RESOURCE);
+                resourceTierTimeUnit, resourceTierAlgorithm, timestamp, ThrottleData.ThrottleType.RESOURCE);
         updateMapCounters(applicationLevelCounter, appKey, stopOnQuota, appTierCount, appTierUnitTime, appTierTimeUnit,
-                timestamp, ThrottleData.ThrottleType.APP);
+                appTierAlgorithm, timestamp, ThrottleData.ThrottleType.APP);
         updateMapCounters(subscriptionLevelCounter, subscriptionKey, stopOnQuota, subscriptionTierCount,
-                subscriptionTierUnitTime, subscriptionTierTimeUnit, timestamp, ThrottleData.ThrottleType.SUBSCRIPTION);
+                subscriptionTierUnitTime, subscriptionTierTimeUnit, subscriptionTierAlgorithm, timestamp,
+                ThrottleData.ThrottleType.SUBSCRIPTION);
     }
 
-    private void updateMapCounters(Map<String, ThrottleData> counterMap, String throttleKey, boolean stopOnQuota,
-            long limit, long unitTime, String timeUnit, long timestamp, ThrottleData.ThrottleType throttleType) {
-        ThrottleData existingThrottleData = counterMap.computeIfPresent(throttleKey, (key, throttleData) -> {
-            if (limit > 0 && throttleData.getCount().incrementAndGet() >= limit) {
-                throttleData.setThrottled(true);
-            } else {
-                throttleData.setThrottled(false);
-            }
-            if (timestamp > throttleData.getWindowStartTime() + throttleData.getUnitTime()) {
-                throttleData.getCount().set(1);
-                long startTime = timestamp - (timestamp % getTimeInMilliSeconds(1, timeUnit));
-                throttleData.setWindowStartTime(startTime);
-                throttleData.setThrottled(false);
-            }
-            if (log.isDebugEnabled()) {
-                log.debug("Throttle count for the key '" + throttleKey + "' is " + throttleData.getCount());
+    private void updateMapCounters(ThrottleKeyRegistry counterRegistry, ThrottleKey throttleKey, boolean stopOnQuota,
+            long limit, long unitTime, String timeUnit, String algorithm, long timestamp,
+            ThrottleData.ThrottleType throttleType) {
+        if (limit <= 0) {
+            // unlimited policies never throttle, hence no counter is kept for them
+            return;
+        }
+        ThrottleData throttleData;
+        while (true) {
+            int keyId = counterRegistry.register(throttleKey);
+            throttleData = counterRegistry.getThrottleData(keyId);
+            if (throttleData != null && throttleKey.matches(throttleData.getThrottleKey())) {
+                break;
             }
-            return throttleData;
-        });
-        if (existingThrottleData == null) {
-            counterMap.computeIfAbsent(throttleKey, key -> {
-                ThrottleData throttleData = new ThrottleData();
-                long startTime = timestamp - (timestamp % getTimeInMilliSeconds(1, timeUnit));
-                throttleData.setWindowStartTime(startTime);
-                throttleData.setStopOnQuota(stopOnQuota);
-                throttleData.setUnitTime(getTimeInMilliSeconds(unitTime, timeUnit));
-                throttleData.setThrottleType(throttleType);
-                throttleData.getCount().set(0);
-                throttleData.setThrottleKey(key);
+            // the slot is either empty or still holds the counter of a key which previously had the same id
+            ThrottleData newThrottleData = createThrottleData(throttleKey.toString(), stopOnQuota, limit,
+                    getTimeInMilliSeconds(unitTime, timeUnit), algorithm, timestamp, throttleType);
+            newThrottleData.setKeyId(keyId);
+            throttleData = counterRegistry.putIfAbsent(newThrottleData);
+            if (throttleData == newThrottleData) {
+                // only the thread which inserted the throttle data registers it for clean up
                 ThrottleDataReceiver.getThrottleDataCleanUpTask().addThrottleData(throttleData);
                 if (log.isDebugEnabled()) {
-                    log.debug("Throttle key inserted " + throttleKey);
+                    log.debug("Throttle key inserted " + throttleData.getThrottleKey());
                 }
-                return throttleData;
-            });
-            //There can be scenarios where the two threads stops at computeIfAbsent and one thread adds it to the map
-            //and the second thread will go without incrementing the count. This additional computation is done to avoid
-            // that scenario
-            counterMap.computeIfPresent(throttleKey, (key, throttleData) -> {
-                throttleData.getCount().incrementAndGet();
-                return throttleData;
-            });
+                break;
+            } else if (throttleData != null) {
+                break;
+            }
+            // the key was released after it was registered, hence it is registered again
+        }
+        throttleData.getAlgorithm().getEngine().increment(throttleData, timestamp);
+        if (log.isDebugEnabled()) {
+            log.debug("Throttle count for the key '" + throttleData.getThrottleKey() + "' is "
+                    + throttleData.getCount());
+        }
+    }
+
+    private static ThrottleData createThrottleData(String throttleKey, boolean stopOnQuota, long limit,
+            long unitTime, String algorithmName, long timestamp, ThrottleData.ThrottleType throttleType) {
+        ThrottleAlgorithm algorithm = ThrottleAlgorithm.fromString(algorithmName);
+        if (algorithm == ThrottleAlgorithm.SLIDING_WINDOW_LOG && limit > SlidingWindowLogCounterEngine.MAX_LOG_SIZE) {
+            if (log.isDebugEnabled()) {
+                log.debug("Request limit of the throttle key '" + throttleKey + "' is too large to keep a request "
+                        + "log. Using the sliding window counter instead.");
+            }
+            algorithm = ThrottleAlgorithm.SLIDING_WINDOW_COUNTER;
         }
+        ThrottleData throttleData = new ThrottleData();
+        throttleData.setStopOnQuota(stopOnQuota);
+        throttleData.setLimit(limit);
+        throttleData.setUnitTime(unitTime);
+        throttleData.setAlgorithm(algorithm);
+        throttleData.setThrottleType(throttleType);
+        throttleData.setThrottleKey(throttleKey);
+        algorithm.getEngine().init(throttleData, timestamp);
+        return throttleData;
+    }
+
+    /**
+     * Evaluate the API, resource, subscription and application level throttle counters of a request in that order.
+     *
+     * @param stopOnQuota whether the subscription policy rejects requests once its quota is exceeded
+     * @return throttle decision of the request
+     */
+    static int getThrottleDecision(ThrottleKey apiKey, ThrottleKey resourceKey, ThrottleKey subscriptionKey,
+            boolean stopOnQuota, ThrottleKey appKey) {
+        long currentTime = currentTimeMillis();
+        if (isRequestThrottled(apiLevelCounter, apiKey, currentTime)) {
+            return API_LEVEL_THROTTLED;
+        }
+        if (isRequestThrottled(resourceLevelCounter, resourceKey, currentTime)) {
+            return RESOURCE_LEVEL_THROTTLED;
+        }
+        int decision = NOT_THROTTLED;
+        if (isRequestThrottled(subscriptionLevelCounter, subscriptionKey, currentTime)) {
+            if (stopOnQuota) {
+                return SUBSCRIPTION_LEVEL_THROTTLED;
+            }
+            decision = SUBSCRIPTION_QUOTA_EXCEEDED_FLAG;
+        }
+        if (isRequestThrottled(applicationLevelCounter, appKey, currentTime)) {
+            return decision | APP_LEVEL_THROTTLED;
+        }
+        return decision;
     }
 
     static boolean isResourceThrottled(String resourceKey) {
@@ -110,40 +180,41 @@ public class ThrottleCounter {
         return isRequestThrottled(apiLevelCounter, apiKey);
     }
 
-    static void removeFromResourceCounterMap(String key) {
-        resourceLevelCounter.remove(key);
+    /**
+     * Remove the throttle data from the counters and release the id of its throttle key.
+     */
+    static void removeThrottleData(ThrottleData throttleData) {
+        getCounterRegistry(throttleData.getThrottleType()).remove(throttleData);
     }
 
-    static void removeFromApplicationCounterMap(String key) {
-        applicationLevelCounter.remove(key);
-    }
-
-    static void removeFromApiCounterMap(String key) {
-        apiLevelCounter.remove(key);
+    private static ThrottleKeyRegistry getCounterRegistry(ThrottleData.ThrottleType throttleType) {
+        switch (throttleType) {
+            case APP:
+                return applicationLevelCounter;
+            case RESOURCE:
+                return resourceLevelCounter;
+            case SUBSCRIPTION:
+                return subscriptionLevelCounter;
+            default:
+                return apiLevelCounter;
+        }
     }
 
-    static void removeFromSubscriptionCounterMap(String key) {
-        subscriptionLevelCounter.remove(key);
+    private static boolean isRequestThrottled(ThrottleKeyRegistry counterRegistry, String throttleKey) {
+        return isRequestThrottled(counterRegistry, lookupKey.get().clear().append(throttleKey), currentTimeMillis());
     }
 
-    private static boolean isRequestThrottled(Map<String, ThrottleData> counterMap, String throttleKey) {
-        if (counterMap.containsKey(throttleKey)) {
-            long currentTime = System.currentTimeMillis();
-            ThrottleData throttleData = counterMap.get(throttleKey);
-            if (currentTime > throttleData.getWindowStartTime() + throttleData.getUnitTime()) {
-                counterMap.computeIfPresent(throttleKey, (key, throttleData1) -> {
-                    throttleData1.setThrottled(false);
-                    return throttleData1;
-                });
-                if (log.isDebugEnabled()) {
-                    log.debug("Throttle window has expired. CurrentTime : " + currentTime + "\n Window start time : "
-                            + throttleData.getWindowStartTime() + "\n Unit time : " + throttleData.getUnitTime());
-                }
-                return false;
-            }
-            return throttleData.isThrottled();
+    private static boolean isRequestThrottled(ThrottleKeyRegistry counterRegistry, ThrottleKey throttleKey,
+            long currentTime) {
+        int keyId = counterRegistry.getId(throttleKey);
+        if (keyId < 0) {
+            return false;
+        }
+        ThrottleData throttleData = counterRegistry.getThrottleData(keyId);
+        if (throttleData == null || !throttleKey.matches(throttleData.getThrottleKey())) {
+            return false;
         }
-        return false;
+        return throttleData.isThrottled(currentTime);
     }
 
     private long getTimeInMilliSeconds(long unitTime, String timeUnit) {
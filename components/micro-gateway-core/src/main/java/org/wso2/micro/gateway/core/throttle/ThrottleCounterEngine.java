@@ -0,0 +1,58 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.throttle;
+
+/**
+ * Counting strategy used to maintain the local throttle state of a single {@link ThrottleData} instance.
+ * Implementations must be thread safe and should not acquire locks, since the counters are updated concurrently
+ * for every request passing through the gateway.
+ */
+public interface ThrottleCounterEngine {
+
+    /**
+     * Initialize the algorithm specific state of a newly created throttle data instance.
+     *
+     * @param throttleData throttle data with the limit and the unit time already populated
+     * @param timestamp    time of the first request in milliseconds
+     */
+    void init(ThrottleData throttleData, long timestamp);
+
+    /**
+     * Record a request against the throttle data instance.
+     *
+     * @param throttleData throttle data of the throttle key
+     * @param timestamp    time of the request in milliseconds
+     */
+    void increment(ThrottleData throttleData, long timestamp);
+
+    /**
+     * Check whether a request arriving at the given time should be throttled.
+     *
+     * @param throttleData throttle data of the throttle key
+     * @param currentTime  current time in milliseconds
+     * @return true if the quota of the throttle key has been exhausted
+     */
+    boolean isThrottled(ThrottleData throttleData, long currentTime);
+
+    /**
+     * Provide the time after which the throttle data no longer affects any throttle decision and can be removed.
+     *
+     * @param throttleData throttle data of the throttle key
+     * @return expiry time in milliseconds
+     */
+    long getExpiryTime(ThrottleData throttleData);
+}
@@ -17,6 +17,7 @@
 package org.wso2.micro.gateway.core.throttle;
 
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Class to hold throttle counter data against a specific key.
@@ -30,21 +31,43 @@ public class ThrottleData {
         APP, SUBSCRIPTION, RESOURCE, API
     }
 
-    private long windowStartTime = 0;
+    // start time and count of the current window, replaced as a whole when a new window starts
+    private final AtomicReference<CounterWindow> counterWindow =
+            new AtomicReference<>(new CounterWindow(0, new AtomicLong(), null));
     private long unitTime;
-    private AtomicLong count = new AtomicLong();
+    private long limit;
+    // timestamps of the most recent requests, maintained by the sliding window log algorithm under the lock of the log
+    private long[] requestLog;
+    // theoretical arrival time of the next request in nanoseconds, maintained by the token bucket algorithm
+    private final AtomicLong theoreticalArrivalTime = new AtomicLong();
+    private ThrottleAlgorithm algorithm = ThrottleAlgorithm.FIXED_WINDOW;
     private long remainingQuota;
     private boolean stopOnQuota = true;
     private boolean throttled = false;
     private String throttleKey;
+    // id of the throttle key in the key registry of the throttle level
+    private int keyId;
     private ThrottleType throttleType;
+    // remaining rotations of the cleanup timing wheel before the throttle data is checked for expiry
+    private long remainingRounds;
 
     public long getWindowStartTime() {
-        return windowStartTime;
+        return counterWindow.get().getStartTime();
     }
 
+    /**
+     * Starts a new window at the given time, with a zero count.
+     */
     public void setWindowStartTime(long windowStartTime) {
-        this.windowStartTime = windowStartTime;
+        this.counterWindow.set(new CounterWindow(windowStartTime, new AtomicLong(), null));
+    }
+
+    CounterWindow getCounterWindow() {
+        return counterWindow.get();
+    }
+
+    boolean compareAndSetCounterWindow(CounterWindow expectedWindow, CounterWindow window) {
+        return counterWindow.compareAndSet(expectedWindow, window);
     }
 
     public long getUnitTime() {
@@ -55,12 +78,43 @@ public class ThrottleData {
         this.unitTime = unitTime;
     }
 
+    public long getLimit() {
+        return limit;
+    }
+
+    public void setLimit(long limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Returns the count of the current window.
+     */
     public AtomicLong getCount() {
-        return count;
+        return counterWindow.get().getCount();
     }
 
     public void setCount(AtomicLong count) {
-        this.count = count;
+        this.counterWindow.set(new CounterWindow(getWindowStartTime(), count, null));
+    }
+
+    long[] getRequestLog() {
+        return requestLog;
+    }
+
+    void setRequestLog(long[] requestLog) {
+        this.requestLog = requestLog;
+    }
+
+    AtomicLong getTheoreticalArrivalTime() {
+        return theoreticalArrivalTime;
+    }
+
+    public ThrottleAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(ThrottleAlgorithm algorithm) {
+        this.algorithm = algorithm;
     }
 
     public long getRemainingQuota() {
@@ -95,32 +149,73 @@ public class ThrottleData {
         this.throttleType = throttleType;
     }
 
+    public String getThrottleKey() {
+        return throttleKey;
+    }
+
     public void setThrottleKey(String throttleKey) {
         this.throttleKey = throttleKey;
     }
 
+    int getKeyId() {
+        return keyId;
+    }
+
+    void setKeyId(int keyId) {
+        this.keyId = keyId;
+    }
+
+    long getRemainingRounds() {
+        return remainingRounds;
+    }
+
+    void setRemainingRounds(long remainingRounds) {
+        this.remainingRounds = remainingRounds;
+    }
+
+    public boolean isThrottled(long currentTime) {
+        return algorithm.getEngine().isThrottled(this, currentTime);
+    }
+
+    public long getExpiryTime() {
+        return algorithm.getEngine().getExpiryTime(this);
+    }
+
     public boolean cleanThrottleData(long timeStamp) {
-        if (this.windowStartTime + this.unitTime < timeStamp) {
-            switch (getThrottleType()) {
-                case APP: {
-                    ThrottleCounter.removeFromApplicationCounterMap(this.throttleKey);
-                    break;
-                }
-                case API: {
-                    ThrottleCounter.removeFromApiCounterMap(this.throttleKey);
-                    break;
-                }
-                case RESOURCE: {
-                    ThrottleCounter.removeFromResourceCounterMap(this.throttleKey);
-                    break;
-                }
-                case SUBSCRIPTION: {
-                    ThrottleCounter.removeFromSubscriptionCounterMap(this.throttleKey);
-                    break;
-                }
-            }
+        if (getExpiryTime() < timeStamp) {
+            ThrottleCounter.removeThrottleData(this);
             return true;
         }
         return false;
     }
+
+    /**
+     * Start time and request count of a window. A new window is published with a single compare and set, hence the
+     * start time and the count never change separately and no increment of the new window is lost.
+     */
+    static final class CounterWindow {
+
+        private final long startTime;
+        private final AtomicLong count;
+        // count of the preceding window, which may still be incremented by requests of that window
+        private final AtomicLong previousCount;
+
+        CounterWindow(long startTime, AtomicLong count, AtomicLong previousCount) {
+            this.startTime = startTime;
+            this.count = count;
+            this.previousCount = previousCount;
+        }
+
+        long getStartTime() {
+            return startTime;
+        }
+
+        AtomicLong getCount() {
+            return count;
+        }
+
+        long getPreviousCount() {
+            return previousCount == null ? 0 : previousCount.get();
+        }
+    }
 }
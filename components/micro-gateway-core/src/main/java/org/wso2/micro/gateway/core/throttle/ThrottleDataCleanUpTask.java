@@ -19,55 +19,146 @@ package org.wso2.micro.gateway.core.throttle;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This task is responsible for cleanup ThrottleData objects which has expired.
- *
+ * <p>
+ * Throttle data is kept in a hashed timing wheel. Each tick the task only visits the throttle data of the current
+ * slot, and removes it from the throttle counters once its window has ended. Throttle data whose expiry time has
+ * moved since it was scheduled, is scheduled again for the new expiry time. Request threads hand over new throttle
+ * data through a concurrent queue which is drained into the wheel by the cleanup thread.
  */
 public class ThrottleDataCleanUpTask {
 
     private static final Logger log = LogManager.getLogger(ThrottleDataCleanUpTask.class);
-    private List<ThrottleData> throttleDataList = new ArrayList<>();
+    private static final long TICK_DURATION = 1000;
+    private static final int WHEEL_SIZE = 512;
+
+    private final Queue<ThrottleData> pendingThrottleData = new ConcurrentLinkedQueue<>();
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<ThrottleData>[] wheel = new ArrayDeque[WHEEL_SIZE];
+    private final AtomicLong liveKeyCount = new AtomicLong();
+    private final long startTime;
+    private long tick = 0;
+    private long expiredKeyCount = 0;
+    private long lastRateTime;
+    private volatile double expiredKeysPerSecond = 0;
 
     public ThrottleDataCleanUpTask() {
+        this(true);
+    }
+
+    /**
+     * @param scheduled whether the wheel is advanced by a scheduled thread. Otherwise each tick is run by calling
+     *                  {@link #cleanUp()}
+     */
+    ThrottleDataCleanUpTask(boolean scheduled) {
+
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+        startTime = ThrottleCounter.currentTimeMillis();
+        lastRateTime = startTime;
+        if (!scheduled) {
+            return;
+        }
 
         ScheduledExecutorService executor = Executors.newScheduledThreadPool(1, new ThreadFactory() {
 
             public Thread newThread(Runnable r) {
                 Thread t = new Thread(r);
                 t.setName("Throttle Cleanup Task");
+                t.setDaemon(true);
                 return t;
             }
         });
 
-        int throttleFrequency = ThrottleConfigHolder.getInstance().getThrottleFrequency();
-
         if (log.isDebugEnabled()) {
-            log.debug("Throttling Cleanup Task Frequency set to " + throttleFrequency);
+            log.debug("Throttling Cleanup Task tick duration set to " + TICK_DURATION + "ms");
         }
 
-        executor.scheduleAtFixedRate(new CleanupTask(), throttleFrequency, throttleFrequency, TimeUnit.SECONDS);
+        executor.scheduleAtFixedRate(new CleanupTask(), TICK_DURATION, TICK_DURATION, TimeUnit.MILLISECONDS);
 
     }
 
     /**
-     * Add the throttle data instances to be cleaned into the cleanup array list, which is iterated by the cleanup task
-     * which runs periodically.
+     * Add the throttle data instances to be cleaned once they expire. This can be called concurrently, and the throttle
+     * data is placed in the timing wheel by the cleanup task.
      */
     public void addThrottleData(ThrottleData throttleData) {
-        throttleDataList.add(throttleData);
+        liveKeyCount.incrementAndGet();
+        pendingThrottleData.offer(throttleData);
+    }
+
+    /**
+     * @return number of throttle keys which are currently held in the throttle counters
+     */
+    public long getLiveKeyCount() {
+        return liveKeyCount.get();
+    }
+
+    /**
+     * @return rate at which throttle keys were removed from the throttle counters during the last tick
+     */
+    public double getExpiredKeysPerSecond() {
+        return expiredKeysPerSecond;
+    }
+
+    private void schedule(ThrottleData throttleData, long currentTick) {
+        long expiryTick = (throttleData.getExpiryTime() - startTime + TICK_DURATION - 1) / TICK_DURATION;
+        // throttle data which has already expired is processed in the next tick
+        long ticks = Math.max(expiryTick - currentTick, 1);
+        throttleData.setRemainingRounds((ticks - 1) / WHEEL_SIZE);
+        wheel[(int) ((currentTick + ticks) % WHEEL_SIZE)].add(throttleData);
+    }
+
+    /**
+     * Advance the wheel by one tick, removing the expired throttle data of the current slot from the throttle
+     * counters.
+     */
+    void cleanUp() {
+        long currentTimeStamp = ThrottleCounter.currentTimeMillis();
+        long currentTick = ++tick;
+        ThrottleData pending;
+        while ((pending = pendingThrottleData.poll()) != null) {
+            schedule(pending, currentTick - 1);
+        }
+        ArrayDeque<ThrottleData> slot = wheel[(int) (currentTick % WHEEL_SIZE)];
+        // throttle data put back into the same slot is added after the entries visited in this tick
+        for (int i = slot.size(); i > 0; i--) {
+            ThrottleData throttleData = slot.poll();
+            if (throttleData.getRemainingRounds() > 0) {
+                throttleData.setRemainingRounds(throttleData.getRemainingRounds() - 1);
+                slot.add(throttleData);
+            } else if (throttleData.cleanThrottleData(currentTimeStamp)) {
+                liveKeyCount.decrementAndGet();
+                expiredKeyCount++;
+            } else {
+                schedule(throttleData, currentTick);
+            }
+        }
+        if (currentTimeStamp > lastRateTime) {
+            expiredKeysPerSecond = expiredKeyCount * 1000.0 / (currentTimeStamp - lastRateTime);
+            expiredKeyCount = 0;
+            lastRateTime = currentTimeStamp;
+        }
     }
 
     private class CleanupTask implements Runnable {
         public void run() {
-            long currentTimeStamp = System.currentTimeMillis();
-            throttleDataList.removeIf(throttleData -> throttleData.cleanThrottleData(currentTimeStamp));
+            try {
+                cleanUp();
+            } catch (Exception e) {
+                log.error("Error while cleaning up expired throttle data", e);
+            }
         }
     }
 
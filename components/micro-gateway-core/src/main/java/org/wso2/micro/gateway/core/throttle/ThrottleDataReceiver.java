@@ -19,15 +19,18 @@ package org.wso2.micro.gateway.core.throttle;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.ballerinalang.jvm.values.MapValue;
+import org.wso2.micro.gateway.core.Constants;
 
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Throttle data receiver class accepts all the request events and submit the throttle data to a thread pool to
- * calculate throttle counters against each unique throttle key.
+ * Throttle data receiver class accepts all the request events and updates the throttle counters against each unique
+ * throttle key. Depending on the configured update mode, the counters are updated on the request thread, through
+ * bounded update rings or by a thread pool.
  */
 public class ThrottleDataReceiver {
     private static ThrottleDataCleanUpTask throttleDataCleanUpTask;
@@ -40,44 +43,156 @@ public class ThrottleDataReceiver {
 
     private static volatile ThrottleCounter throttleCounter = null;
 
-    private static ExecutorService executor;
+    private static ThreadPoolExecutor executor;
+    private static volatile ThrottleUpdateRing updateRing;
+    private static final AtomicBoolean updateRingShutdownHookAdded = new AtomicBoolean();
+    private static final ThreadLocal<DataProcessAgent> inlineAgent = ThreadLocal.withInitial(DataProcessAgent::new);
+    private static final AtomicLong ringOverflowCount = new AtomicLong();
+    private static final ThreadLocal<RequestThrottleKeys> requestThrottleKeys =
+            ThreadLocal.withInitial(RequestThrottleKeys::new);
 
     /**
-     * This method will initialize throttle data counters. Inside this we will start executor and initialize data
-     * counter which we used to maintain throttle count against each unique keys.
+     * This method will initialize throttle data counters. Inside this we will start the update executor or rings
+     * and initialize data counter which we used to maintain throttle count against each unique keys.
+     *
+     * @param updateMode           one of inline, ring or executor
+     * @param updateRingCount      number of update rings used in the ring mode
+     * @param updateRingBufferSize number of events each update ring can hold before updates fall back to inline
      */
     public static void initThrottleDataReceiver(int processThreadPoolCoreSize, int processThreadPoolMaximumSize,
-            int processThreadPoolKeepAliveTime, int throttleFrequency) {
-        ThrottleConfigHolder.getInstance()
-                .setData(processThreadPoolCoreSize, processThreadPoolMaximumSize, processThreadPoolKeepAliveTime,
-                        throttleFrequency);
+            int processThreadPoolKeepAliveTime, String updateMode, int updateRingCount,
+            int updateRingBufferSize) {
+        ThrottleConfigHolder throttleConfigHolder = ThrottleConfigHolder.getInstance();
+        throttleConfigHolder.setData(processThreadPoolCoreSize, processThreadPoolMaximumSize,
+                processThreadPoolKeepAliveTime);
+        throttleConfigHolder.setUpdateData(updateMode, updateRingCount, updateRingBufferSize);
         initThrottleExecutors();
         throttleDataCleanUpTask = new ThrottleDataCleanUpTask();
     }
 
     private static void initThrottleExecutors() {
         ThrottleConfigHolder throttleConfigHolder = ThrottleConfigHolder.getInstance();
-        executor = new ThreadPoolExecutor(throttleConfigHolder.getProcessThreadPoolCoreSize(),
-                throttleConfigHolder.getProcessThreadPoolMaximumSize(),
-                throttleConfigHolder.getProcessThreadPoolKeepAliveTime(), TimeUnit.SECONDS,
-                new LinkedBlockingDeque<Runnable>() {
-                });
         throttleCounter = new ThrottleCounter();
+        shutdownUpdateRing();
+        String updateMode = throttleConfigHolder.getUpdateMode();
+        if (Constants.THROTTLE_UPDATE_MODE_EXECUTOR.equalsIgnoreCase(updateMode)) {
+            executor = new ThreadPoolExecutor(throttleConfigHolder.getProcessThreadPoolCoreSize(),
+                    throttleConfigHolder.getProcessThreadPoolMaximumSize(),
+                    throttleConfigHolder.getProcessThreadPoolKeepAliveTime(), TimeUnit.SECONDS,
+                    new LinkedBlockingDeque<Runnable>() {
+                    });
+        } else if (Constants.THROTTLE_UPDATE_MODE_RING.equalsIgnoreCase(updateMode)) {
+            updateRing = new ThrottleUpdateRing(Math.max(1, throttleConfigHolder.getUpdateRingCount()),
+                    throttleConfigHolder.getUpdateRingBufferSize());
+            if (updateRingShutdownHookAdded.compareAndSet(false, true)) {
+                Runtime.getRuntime().addShutdownHook(new Thread(ThrottleDataReceiver::shutdownUpdateRing,
+                        "LocalThrottleUpdaterShutdown"));
+            }
+        } else if (!Constants.THROTTLE_UPDATE_MODE_INLINE.equalsIgnoreCase(updateMode)) {
+            log.warn("Unsupported local throttle update mode '" + updateMode + "'. Falling back to "
+                    + Constants.THROTTLE_UPDATE_MODE_INLINE);
+        }
     }
 
     /**
-     * This method used to pass throttle data and let it run within separate thread.
+     * Stops the updater threads of the current update rings once the events already published are applied. Called
+     * when the receiver is initialized again and on JVM shutdown.
+     */
+    private static void shutdownUpdateRing() {
+        ThrottleUpdateRing ring = updateRing;
+        if (ring != null) {
+            updateRing = null;
+            ring.shutdown();
+        }
+    }
+
+    /**
+     * This method used to pass throttle data to the throttle counters. If the update ring of the calling thread is
+     * full, the counters are updated on the calling thread instead of waiting for the ring.
      */
     public static void processNonThrottledEvent(MapValue throttleEvent) {
         try {
-            DataProcessAgent agent = new DataProcessAgent();
+            ThrottleUpdateRing ring = updateRing;
+            if (ring != null) {
+                if (ring.tryPublish(throttleEvent)) {
+                    return;
+                }
+                ringOverflowCount.incrementAndGet();
+            } else if (executor != null) {
+                DataProcessAgent agent = new DataProcessAgent();
+                agent.setDataReference(throttleEvent);
+                executor.execute(agent);
+                return;
+            }
+            DataProcessAgent agent = inlineAgent.get();
             agent.setDataReference(throttleEvent);
-            executor.execute(agent);
+            agent.run();
         } catch (Exception e) {
             log.error("Error while processing throttling event", e);
         }
     }
 
+    /**
+     * Check all the throttle levels of the request and update the throttle counters if the request is allowed. This
+     * replaces separate calls for each throttle level followed by {@link #processNonThrottledEvent}.
+     *
+     * @param throttleEvent throttle event of the request
+     * @return throttle decision as defined in {@link ThrottleCounter}
+     */
+    public static long checkAndUpdateThrottleCounters(MapValue throttleEvent) {
+        RequestThrottleKeys throttleKeys = requestThrottleKeys.get().setEvent(throttleEvent);
+        int decision = ThrottleCounter.getThrottleDecision(throttleKeys.getApiKey(), throttleKeys.getResourceKey(),
+                throttleKeys.getSubscriptionKey(), throttleEvent.getBooleanValue("stopOnQuota"),
+                throttleKeys.getAppKey());
+        if ((decision & ~ThrottleCounter.SUBSCRIPTION_QUOTA_EXCEEDED_FLAG) == ThrottleCounter.NOT_THROTTLED) {
+            processNonThrottledEvent(throttleEvent);
+        }
+        return decision;
+    }
+
+    /**
+     * @return number of throttle events which are waiting to be applied to the throttle counters
+     */
+    public static long getUpdateQueueDepth() {
+        if (updateRing != null) {
+            return updateRing.getQueueDepth();
+        } else if (executor != null) {
+            return executor.getQueue().size();
+        }
+        return 0;
+    }
+
+    /**
+     * @return time in milliseconds between the arrival of a request and the update of its throttle counters
+     */
+    public static long getUpdateLag() {
+        if (updateRing != null) {
+            return updateRing.getLastUpdateLag();
+        }
+        return 0;
+    }
+
+    /**
+     * @return number of throttle keys which currently have local throttle counters
+     */
+    public static long getLiveThrottleKeyCount() {
+        return throttleDataCleanUpTask == null ? 0 : throttleDataCleanUpTask.getLiveKeyCount();
+    }
+
+    /**
+     * @return number of throttle keys expired per second
+     */
+    public static double getExpiredThrottleKeysPerSecond() {
+        return throttleDataCleanUpTask == null ? 0 : throttleDataCleanUpTask.getExpiredKeysPerSecond();
+    }
+
+    /**
+     * @return number of throttle events applied on the request thread because the update ring was full
+     */
+    public static long getRingOverflowCount() {
+        return ringOverflowCount.get();
+    }
+
     public static boolean isResourceThrottled(String resourceKey) {
         return ThrottleCounter.isResourceThrottled(resourceKey);
     }
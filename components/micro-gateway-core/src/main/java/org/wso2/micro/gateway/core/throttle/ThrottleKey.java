@@ -0,0 +1,116 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.throttle;
+
+/**
+ * Throttle key made of parts of a request, such as the application id and the API context, which is looked up in a
+ * {@link ThrottleKeyRegistry} without concatenating the parts. The hash code of the key is the hash code of the
+ * concatenated key string, hence a key registered from its parts is found by its string and vice versa.
+ * <p>
+ * Instances are mutable and reused for the requests of a thread. The key string is only built when a key is
+ * registered for the first time.
+ */
+final class ThrottleKey {
+
+    static final char NO_SEPARATOR = 0;
+    private static final int MAX_PARTS = 4;
+
+    private final String[] parts = new String[MAX_PARTS];
+    private final char[] separators = new char[MAX_PARTS];
+    private int partCount;
+    private int length;
+    private int hash;
+
+    /**
+     * Removes all the parts of the key.
+     *
+     * @return this key
+     */
+    ThrottleKey clear() {
+        partCount = 0;
+        length = 0;
+        hash = 0;
+        return this;
+    }
+
+    ThrottleKey append(String part) {
+        return append(NO_SEPARATOR, part);
+    }
+
+    /**
+     * Appends a part to the key.
+     *
+     * @param separator character added before the part, or {@link #NO_SEPARATOR}
+     * @param part      part of the key
+     * @return this key
+     */
+    ThrottleKey append(char separator, String part) {
+        if (separator != NO_SEPARATOR) {
+            hash = 31 * hash + separator;
+            length++;
+        }
+        for (int i = 0; i < part.length(); i++) {
+            hash = 31 * hash + part.charAt(i);
+        }
+        length += part.length();
+        separators[partCount] = separator;
+        parts[partCount++] = part;
+        return this;
+    }
+
+    /**
+     * @return hash code of the concatenated key
+     */
+    int hash() {
+        return hash;
+    }
+
+    /**
+     * @param key key string
+     * @return true if the key string is the concatenation of the parts of this key
+     */
+    boolean matches(String key) {
+        if (key.length() != length) {
+            return false;
+        }
+        int offset = 0;
+        for (int i = 0; i < partCount; i++) {
+            if (separators[i] != NO_SEPARATOR && key.charAt(offset++) != separators[i]) {
+                return false;
+            }
+            String part = parts[i];
+            if (!key.regionMatches(offset, part, 0, part.length())) {
+                return false;
+            }
+            offset += part.length();
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder key = new StringBuilder(length);
+        for (int i = 0; i < partCount; i++) {
+            if (separators[i] != NO_SEPARATOR) {
+                key.append(separators[i]);
+            }
+            key.append(parts[i]);
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.throttle;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Registry which interns the throttle keys of a throttle level and assigns each of them a compact int id. The local
+ * throttle counters are kept in slots indexed by that id.
+ * <p>
+ * Keys are held in an open addressing table of parallel key and id arrays, so a registered key costs two array
+ * slots instead of a map entry. Keys are looked up by their parts with a {@link ThrottleKey}, hence a request does
+ * not need to build the key string. Lookups are lock free. Registering and releasing keys, and setting and removing
+ * their throttle data are synchronized, as they only happen when a throttle key is seen for the first time or when its
+ * counter expires. Ids of released keys are reused. Throttle data is only set while its key is registered with the id
+ * of the slot, hence a thread which registered a key before it was released never sets the slot of another key.
+ */
+class ThrottleKeyRegistry {
+
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int INITIAL_CAPACITY = 1024;
+    // marks a released key. Slots are not reused until the table is rebuilt, so that a concurrent lookup which read
+    // the previous key of a slot never sees the id of another key.
+    private static final Object RELEASED = new Object();
+
+    private volatile KeyTable keyTable = new KeyTable(INITIAL_CAPACITY);
+    private volatile AtomicReferenceArray<ThrottleData>[] throttleDataChunks = newChunks(0);
+    private int[] freeIds = new int[16];
+    private int freeIdCount = 0;
+    private int nextId = 0;
+    private int size = 0;
+    private int usedSlots = 0;
+
+    int getId(String key) {
+        return getId(new ThrottleKey().append(key));
+    }
+
+    /**
+     * @param key throttle key
+     * @return id of the throttle key or -1 if the key is not registered
+     */
+    int getId(ThrottleKey key) {
+        KeyTable table = keyTable;
+        for (int i = spread(key.hash()) & table.mask; ; i = (i + 1) & table.mask) {
+            Object registeredKey = table.keys.get(i);
+            if (registeredKey == null) {
+                return -1;
+            }
+            if (registeredKey != RELEASED && key.matches((String) registeredKey)) {
+                return table.ids[i];
+            }
+        }
+    }
+
+    int register(String key) {
+        return register(new ThrottleKey().append(key));
+    }
+
+    /**
+     * Register the throttle key if it is not registered yet.
+     *
+     * @param key throttle key
+     * @return id of the throttle key
+     */
+    int register(ThrottleKey key) {
+        int id = getId(key);
+        if (id >= 0) {
+            return id;
+        }
+        synchronized (this) {
+            id = getId(key);
+            if (id >= 0) {
+                return id;
+            }
+            if ((usedSlots + 1) * 4 > keyTable.keys.length() * 3) {
+                rebuild();
+            }
+            id = freeIdCount > 0 ? freeIds[--freeIdCount] : nextId++;
+            ensureChunk(id);
+            insert(keyTable, key.toString(), id);
+            usedSlots++;
+            size++;
+            return id;
+        }
+    }
+
+    /**
+     * Release the id of the throttle key, if the key is still registered against the given id.
+     *
+     * @param key throttle key
+     * @param id  id the key was registered with
+     */
+    synchronized void release(String key, int id) {
+        KeyTable table = keyTable;
+        for (int i = spread(key.hashCode()) & table.mask; ; i = (i + 1) & table.mask) {
+            Object registeredKey = table.keys.get(i);
+            if (registeredKey == null) {
+                return;
+            }
+            if (registeredKey != RELEASED && registeredKey.equals(key)) {
+                if (table.ids[i] == id) {
+                    table.keys.set(i, RELEASED);
+                    if (freeIdCount == freeIds.length) {
+                        int[] newFreeIds = new int[freeIds.length * 2];
+                        System.arraycopy(freeIds, 0, newFreeIds, 0, freeIdCount);
+                        freeIds = newFreeIds;
+                    }
+                    freeIds[freeIdCount++] = id;
+                    size--;
+                }
+                return;
+            }
+        }
+    }
+
+    ThrottleData getThrottleData(int id) {
+        return throttleDataChunks[id >>> CHUNK_SHIFT].get(id & (CHUNK_SIZE - 1));
+    }
+
+    /**
+     * Set the throttle data of its key, unless the key is no longer registered with the id of the throttle data or
+     * the slot already holds the throttle data of the key.
+     *
+     * @param throttleData throttle data with the key and the id it was registered with
+     * @return throttle data in the slot of the key, or null if the key is no longer registered with the id
+     */
+    synchronized ThrottleData putIfAbsent(ThrottleData throttleData) {
+        int id = throttleData.getKeyId();
+        if (getId(throttleData.getThrottleKey()) != id) {
+            return null;
+        }
+        ThrottleData current = getThrottleData(id);
+        if (current != null && current.getThrottleKey().equals(throttleData.getThrottleKey())) {
+            return current;
+        }
+        // the slot is either empty or holds stale data, which was set before the previous key of the id was released
+        throttleDataChunks[id >>> CHUNK_SHIFT].set(id & (CHUNK_SIZE - 1), throttleData);
+        return throttleData;
+    }
+
+    /**
+     * Remove the throttle data from its slot and release the id of its key.
+     *
+     * @param throttleData throttle data to be removed
+     * @return false if the slot no longer holds the throttle data
+     */
+    synchronized boolean remove(ThrottleData throttleData) {
+        int id = throttleData.getKeyId();
+        if (getThrottleData(id) != throttleData) {
+            return false;
+        }
+        throttleDataChunks[id >>> CHUNK_SHIFT].set(id & (CHUNK_SIZE - 1), null);
+        release(throttleData.getThrottleKey(), id);
+        return true;
+    }
+
+    /**
+     * @return number of registered throttle keys
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    private void ensureChunk(int id) {
+        int chunk = id >>> CHUNK_SHIFT;
+        AtomicReferenceArray<ThrottleData>[] chunks = throttleDataChunks;
+        if (chunk < chunks.length) {
+            return;
+        }
+        AtomicReferenceArray<ThrottleData>[] newChunks = newChunks(Math.max(chunks.length * 2, chunk + 1));
+        System.arraycopy(chunks, 0, newChunks, 0, chunks.length);
+        for (int i = chunks.length; i < newChunks.length; i++) {
+            newChunks[i] = new AtomicReferenceArray<>(CHUNK_SIZE);
+        }
+        throttleDataChunks = newChunks;
+    }
+
+    private void rebuild() {
+        KeyTable table = keyTable;
+        int capacity = table.keys.length();
+        if ((size + 1) * 2 > capacity) {
+            capacity *= 2;
+        }
+        KeyTable newTable = new KeyTable(capacity);
+        for (int i = 0; i < table.keys.length(); i++) {
+            Object key = table.keys.get(i);
+            if (key != null && key != RELEASED) {
+                insert(newTable, (String) key, table.ids[i]);
+            }
+        }
+        usedSlots = size;
+        keyTable = newTable;
+    }
+
+    private static void insert(KeyTable table, String key, int id) {
+        int i = spread(key.hashCode()) & table.mask;
+        while (table.keys.get(i) != null) {
+            i = (i + 1) & table.mask;
+        }
+        // the id is written before the key is published, hence a reader which sees the key also sees the id
+        table.ids[i] = id;
+        table.keys.set(i, key);
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x9E3779B9;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AtomicReferenceArray<ThrottleData>[] newChunks(int length) {
+        return new AtomicReferenceArray[length];
+    }
+
+    /**
+     * Open addressing table of throttle keys and their ids.
+     */
+    private static class KeyTable {
+        // registered key strings, or RELEASED
+        private final AtomicReferenceArray<Object> keys;
+        private final int[] ids;
+        private final int mask;
+
+        KeyTable(int capacity) {
+            keys = new AtomicReferenceArray<>(capacity);
+            ids = new int[capacity];
+            mask = capacity - 1;
+        }
+    }
+}
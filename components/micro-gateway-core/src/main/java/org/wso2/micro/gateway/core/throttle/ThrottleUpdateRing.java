@@ -0,0 +1,151 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.throttle;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.ballerinalang.jvm.values.MapValue;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded ring buffers used to hand over local throttle counter updates to updater threads. The ring slots are
+ * preallocated {@link DataProcessAgent} instances, hence publishing an event does not allocate. Callers are spread
+ * across the rings by thread, so that request threads do not contend on a single ring.
+ */
+class ThrottleUpdateRing {
+
+    private static final Logger log = LogManager.getLogger(ThrottleUpdateRing.class);
+
+    private final Disruptor<DataProcessAgent>[] disruptors;
+    private final RingBuffer<DataProcessAgent>[] ringBuffers;
+    private volatile long lastUpdateLag = 0;
+
+    @SuppressWarnings("unchecked")
+    ThrottleUpdateRing(int ringCount, int ringBufferSize) {
+        int bufferSize = toPowerOfTwo(ringBufferSize);
+        disruptors = new Disruptor[ringCount];
+        ringBuffers = new RingBuffer[ringCount];
+        ThreadFactory threadFactory = new UpdaterThreadFactory();
+        for (int i = 0; i < ringCount; i++) {
+            disruptors[i] = new Disruptor<>(DataProcessAgent::new, bufferSize, threadFactory, ProducerType.MULTI,
+                    new BlockingWaitStrategy());
+            disruptors[i].handleEventsWith(new UpdateHandler());
+            ringBuffers[i] = disruptors[i].start();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Started " + ringCount + " local throttle update rings of size " + bufferSize);
+        }
+    }
+
+    /**
+     * Publish the throttle event to the ring of the calling thread.
+     *
+     * @param throttleEvent throttle event of the request
+     * @return false if the ring is full and the event was not published
+     */
+    boolean tryPublish(MapValue throttleEvent) {
+        RingBuffer<DataProcessAgent> ringBuffer = ringBuffers[(int) (Thread.currentThread().getId()
+                % ringBuffers.length)];
+        long sequence;
+        try {
+            sequence = ringBuffer.tryNext();
+        } catch (InsufficientCapacityException e) {
+            return false;
+        }
+        try {
+            ringBuffer.get(sequence).setDataReference(throttleEvent);
+        } finally {
+            ringBuffer.publish(sequence);
+        }
+        return true;
+    }
+
+    /**
+     * @return number of throttle events waiting in all the rings
+     */
+    long getQueueDepth() {
+        long queueDepth = 0;
+        for (RingBuffer<DataProcessAgent> ringBuffer : ringBuffers) {
+            queueDepth += ringBuffer.getBufferSize() - ringBuffer.remainingCapacity();
+        }
+        return queueDepth;
+    }
+
+    /**
+     * @return time in milliseconds between the arrival and the counter update of the last processed event
+     */
+    long getLastUpdateLag() {
+        return lastUpdateLag;
+    }
+
+    /**
+     * Stop the updater threads once the events already published to the rings are processed.
+     */
+    void shutdown() {
+        for (Disruptor<DataProcessAgent> disruptor : disruptors) {
+            disruptor.shutdown();
+        }
+    }
+
+    private static int toPowerOfTwo(int size) {
+        if (size <= 1) {
+            return 1;
+        }
+        return Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * Applies the throttle events of a ring to the throttle counters.
+     */
+    private class UpdateHandler implements EventHandler<DataProcessAgent> {
+
+        @Override
+        public void onEvent(DataProcessAgent agent, long sequence, boolean endOfBatch) {
+            try {
+                agent.run();
+            } catch (Exception e) {
+                log.error("Error while processing throttling event", e);
+            }
+            if (endOfBatch) {
+                lastUpdateLag = ThrottleCounter.currentTimeMillis() - agent.getTimestamp();
+            }
+        }
+    }
+
+    /**
+     * Creates daemon threads for the ring consumers.
+     */
+    private static class UpdaterThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "LocalThrottleUpdater-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.throttle;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket with a capacity of {@code limit} tokens which refills at {@code limit / unitTime}. The bucket is
+ * tracked as a theoretical arrival time (generic cell rate algorithm), so that a request consumes a token with a
+ * single compare and set on one long value.
+ */
+class TokenBucketCounterEngine implements ThrottleCounterEngine {
+
+    @Override
+    public void init(ThrottleData throttleData, long timestamp) {
+        throttleData.setWindowStartTime(timestamp);
+        throttleData.getTheoreticalArrivalTime().set(TimeUnit.MILLISECONDS.toNanos(timestamp));
+    }
+
+    @Override
+    public void increment(ThrottleData throttleData, long timestamp) {
+        throttleData.getCount().incrementAndGet();
+        long emissionInterval = getEmissionInterval(throttleData);
+        if (emissionInterval <= 0) {
+            return;
+        }
+        long now = TimeUnit.MILLISECONDS.toNanos(timestamp);
+        AtomicLong theoreticalArrivalTime = throttleData.getTheoreticalArrivalTime();
+        long current;
+        do {
+            current = theoreticalArrivalTime.get();
+        } while (!theoreticalArrivalTime.compareAndSet(current, Math.max(current, now) + emissionInterval));
+        throttleData.setThrottled(isThrottled(throttleData, timestamp));
+    }
+
+    @Override
+    public boolean isThrottled(ThrottleData throttleData, long currentTime) {
+        long emissionInterval = getEmissionInterval(throttleData);
+        if (emissionInterval <= 0) {
+            return false;
+        }
+        long now = TimeUnit.MILLISECONDS.toNanos(currentTime);
+        long burstTolerance = TimeUnit.MILLISECONDS.toNanos(throttleData.getUnitTime()) - emissionInterval;
+        // a token is available once the theoretical arrival time is within the burst tolerance
+        return throttleData.getTheoreticalArrivalTime().get() - now > burstTolerance;
+    }
+
+    @Override
+    public long getExpiryTime(ThrottleData throttleData) {
+        // the bucket is full again once the theoretical arrival time has passed
+        return TimeUnit.NANOSECONDS.toMillis(throttleData.getTheoreticalArrivalTime().get());
+    }
+
+    private static long getEmissionInterval(ThrottleData throttleData) {
+        if (throttleData.getLimit() <= 0) {
+            return 0;
+        }
+        return TimeUnit.MILLISECONDS.toNanos(throttleData.getUnitTime()) / throttleData.getLimit();
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.throttle.global;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Condition group of a throttle key compiled into a predicate tree. A group matches a request if any of its
+ * conditions match, and a condition matches if all of its IP, header, query parameter and JWT claim predicates match.
+ * Patterns and IP numbers are compiled once when the group is received from the traffic manager.
+ */
+class CompiledConditionGroup {
+
+    private static final Logger log = LogManager.getLogger(CompiledConditionGroup.class);
+
+    private static final String IP_SPECIFIC = "ipspecific";
+    private static final String IP_RANGE = "iprange";
+    private static final String HEADER = "header";
+    private static final String QUERY_PARAM = "queryparametertype";
+    private static final String JWT_CLAIMS = "jwtclaims";
+    private static final String SPECIFIC_IP = "specificIp";
+    private static final String STARTING_IP = "startingIp";
+    private static final String ENDING_IP = "endingIp";
+    private static final String VALUES = "values";
+    private static final String INVERT = "invert";
+
+    private final Condition[] conditions;
+
+    CompiledConditionGroup(JsonNode conditionsJson) {
+        List<Condition> conditionList = new ArrayList<>();
+        for (JsonNode conditionJson : conditionsJson) {
+            conditionList.add(new Condition(conditionJson));
+        }
+        this.conditions = conditionList.toArray(new Condition[0]);
+    }
+
+    boolean isThrottled(ConditionContext context, boolean headerConditionsEnabled, boolean queryConditionsEnabled,
+                        boolean jwtConditionsEnabled) {
+        for (Condition condition : conditions) {
+            if (condition.matches(context, headerConditionsEnabled, queryConditionsEnabled, jwtConditionsEnabled)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Predicate evaluated against the request attributes.
+     */
+    private interface ConditionPredicate {
+
+        boolean test(ConditionContext context);
+    }
+
+    /**
+     * A single condition of the group, evaluated as the conjunction of its predicates.
+     */
+    private static class Condition {
+
+        private ConditionPredicate ipPredicate;
+        private ConditionPredicate headerPredicate;
+        private ConditionPredicate queryPredicate;
+        private ConditionPredicate claimPredicate;
+
+        Condition(JsonNode json) {
+            JsonNode ipSpecific = json.get(IP_SPECIFIC);
+            JsonNode ipRange = json.get(IP_RANGE);
+            if (ipSpecific != null && !ipSpecific.isNull()) {
+                BigInteger ip = toBigInteger(ipSpecific.path(SPECIFIC_IP).asText());
+                boolean invert = ipSpecific.path(INVERT).asBoolean();
+                ipPredicate = context -> invert != context.getClientIpNumber().equals(ip);
+            } else if (ipRange != null && !ipRange.isNull()) {
+                BigInteger startingIp = toBigInteger(ipRange.path(STARTING_IP).asText());
+                BigInteger endingIp = toBigInteger(ipRange.path(ENDING_IP).asText());
+                boolean invert = ipRange.path(INVERT).asBoolean();
+                ipPredicate = context -> {
+                    BigInteger ip = context.getClientIpNumber();
+                    return invert != (ip.compareTo(startingIp) > 0 && ip.compareTo(endingIp) < 0);
+                };
+            }
+            headerPredicate = compileAttributeConditions(json.get(HEADER), ConditionContext::getHeader);
+            queryPredicate = compileAttributeConditions(json.get(QUERY_PARAM), ConditionContext::getQueryParam);
+            claimPredicate = compileClaimConditions(json.get(JWT_CLAIMS));
+        }
+
+        boolean matches(ConditionContext context, boolean headerConditionsEnabled, boolean queryConditionsEnabled,
+                        boolean jwtConditionsEnabled) {
+            return (ipPredicate == null || ipPredicate.test(context))
+                    && (!headerConditionsEnabled || headerPredicate == null || headerPredicate.test(context))
+                    && (!queryConditionsEnabled || queryPredicate == null || queryPredicate.test(context))
+                    && (!jwtConditionsEnabled || claimPredicate == null || claimPredicate.test(context));
+        }
+    }
+
+    /**
+     * Reads a single attribute of the request.
+     */
+    private interface AttributeReader {
+
+        String read(ConditionContext context, String name);
+    }
+
+    private static ConditionPredicate compileAttributeConditions(JsonNode json, AttributeReader reader) {
+        if (json == null || json.isNull()) {
+            return null;
+        }
+        String[] names = getNames(json);
+        Pattern[] patterns = getPatterns(json, names);
+        boolean invert = json.path(INVERT).asBoolean();
+        return context -> {
+            for (int i = 0; i < names.length; i++) {
+                String value = reader.read(context, names[i]);
+                if (value == null || !find(patterns[i], value)) {
+                    return invert;
+                }
+            }
+            return !invert;
+        };
+    }
+
+    private static ConditionPredicate compileClaimConditions(JsonNode json) {
+        if (json == null || json.isNull()) {
+            return null;
+        }
+        String[] names = getNames(json);
+        Pattern[] patterns = getPatterns(json, names);
+        boolean invert = json.path(INVERT).asBoolean();
+        return context -> {
+            Map<String, Object> claims = context.getClaims();
+            if (claims == null) {
+                return invert;
+            }
+            for (int i = 0; i < names.length; i++) {
+                if (!claims.containsKey(names[i])
+                        || !find(patterns[i], ConditionContext.claimToString(claims.get(names[i])))) {
+                    return invert;
+                }
+            }
+            return !invert;
+        };
+    }
+
+    private static String[] getNames(JsonNode json) {
+        List<String> names = new ArrayList<>();
+        Iterator<String> fieldNames = json.path(VALUES).fieldNames();
+        while (fieldNames.hasNext()) {
+            names.add(fieldNames.next());
+        }
+        return names.toArray(new String[0]);
+    }
+
+    private static Pattern[] getPatterns(JsonNode json, String[] names) {
+        Pattern[] patterns = new Pattern[names.length];
+        JsonNode values = json.path(VALUES);
+        for (int i = 0; i < names.length; i++) {
+            String regex = values.path(names[i]).asText();
+            try {
+                patterns[i] = Pattern.compile(regex);
+            } catch (PatternSyntaxException e) {
+                // An invalid pattern never matches, similar to a condition attribute which is not present.
+                log.error("Invalid throttle condition pattern : " + regex + " for : " + names[i], e);
+            }
+        }
+        return patterns;
+    }
+
+    private static boolean find(Pattern pattern, String value) {
+        return pattern != null && pattern.matcher(value).find();
+    }
+
+    private static BigInteger toBigInteger(String number) {
+        try {
+            return new BigInteger(number);
+        } catch (NumberFormatException e) {
+            log.error("Invalid IP number in the throttle condition : " + number, e);
+            return BigInteger.valueOf(-1);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.throttle.global;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Custom throttle policy key template, split once into literal segments and variable slots, so that the throttle key
+ * of a request can be built without matching the template against each variable.
+ */
+class CompiledKeyTemplate {
+
+    static final int RESOURCE_KEY = 0;
+    static final int USER_ID = 1;
+    static final int API_CONTEXT = 2;
+    static final int API_VERSION = 3;
+    static final int APP_TENANT = 4;
+    static final int API_TENANT = 5;
+    static final int APP_ID = 6;
+    static final int CLIENT_IP = 7;
+
+    private static final String[] VARIABLES = {"$resourceKey", "$userId", "$apiContext", "$apiVersion",
+            "$appTenant", "$apiTenant", "$appId", "$clientIp"};
+
+    private final String template;
+    // literal segments are held as strings and variable slots as the variable index
+    private final Object[] segments;
+
+    CompiledKeyTemplate(String template) {
+        this.template = template;
+        List<Object> parts = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < template.length()) {
+            int variable = template.charAt(i) == '$' ? matchVariable(template, i) : -1;
+            if (variable < 0) {
+                literal.append(template.charAt(i++));
+                continue;
+            }
+            if (literal.length() > 0) {
+                parts.add(literal.toString());
+                literal.setLength(0);
+            }
+            parts.add(variable);
+            i += VARIABLES[variable].length();
+        }
+        if (literal.length() > 0) {
+            parts.add(literal.toString());
+        }
+        segments = parts.toArray();
+    }
+
+    String getTemplate() {
+        return template;
+    }
+
+    /**
+     * Append the throttle key of the request to the given builder.
+     *
+     * @param builder builder to append the key to
+     * @param values  values of the template variables indexed by the variable slots. A null value keeps the
+     *                variable name in the key.
+     */
+    void format(StringBuilder builder, String[] values) {
+        for (Object segment : segments) {
+            if (segment instanceof Integer) {
+                int variable = (Integer) segment;
+                String value = values[variable];
+                builder.append(value != null ? value : VARIABLES[variable]);
+            } else {
+                builder.append((String) segment);
+            }
+        }
+    }
+
+    private static int matchVariable(String template, int index) {
+        for (int i = 0; i < VARIABLES.length; i++) {
+            if (template.startsWith(VARIABLES[i], index)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
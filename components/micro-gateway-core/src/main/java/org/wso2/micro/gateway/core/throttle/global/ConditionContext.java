@@ -0,0 +1,147 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.throttle.global;
+
+import com.nimbusds.jwt.JWTParser;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.micro.gateway.interceptor.Request;
+
+import java.math.BigInteger;
+import java.text.ParseException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Request attributes referenced by the throttle conditions. Attributes are read from the request only when a
+ * condition refers to them and are kept for the rest of the evaluation.
+ */
+class ConditionContext {
+
+    private static final Logger log = LogManager.getLogger(ConditionContext.class);
+    private static final long MILLIS_PER_SECOND = 1000;
+
+    // Last decoded backend JWT of the thread, so the API and resource level checks of a request decode it once.
+    private static final ThreadLocal<DecodedClaims> lastDecodedClaims = new ThreadLocal<>();
+
+    private final String clientIp;
+    private final Request request;
+    private final String jwtHeaderName;
+    private BigInteger clientIpNumber;
+    private Map<String, Object> claims;
+
+    ConditionContext(String clientIp, Request request, String jwtHeaderName) {
+        this.clientIp = clientIp;
+        this.request = request;
+        this.jwtHeaderName = jwtHeaderName;
+    }
+
+    BigInteger getClientIpNumber() {
+        if (clientIpNumber == null) {
+            clientIpNumber = new BigInteger(ThrottleUtils.ipToBigInteger(clientIp));
+        }
+        return clientIpNumber;
+    }
+
+    /**
+     * Returns the value of the header, or null if the header is not present or empty.
+     */
+    String getHeader(String name) {
+        if (!request.hasHeader(name)) {
+            return null;
+        }
+        String value = request.getHeader(name);
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Returns the first value of the query parameter, or null if the parameter is not present or empty.
+     */
+    String getQueryParam(String name) {
+        String value = request.getQueryParamValue(name);
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Returns the claims of the backend JWT, or null if the JWT is not present or cannot be decoded.
+     */
+    Map<String, Object> getClaims() {
+        if (claims != null) {
+            return claims.isEmpty() ? null : claims;
+        }
+        claims = Collections.emptyMap();
+        if (!request.hasHeader(jwtHeaderName)) {
+            return null;
+        }
+        String token = request.getHeader(jwtHeaderName);
+        DecodedClaims decoded = lastDecodedClaims.get();
+        if (decoded != null && decoded.token.equals(token)) {
+            claims = decoded.claims;
+        } else {
+            try {
+                claims = JWTParser.parse(token).getJWTClaimsSet().getClaims();
+                lastDecodedClaims.set(new DecodedClaims(token, claims));
+            } catch (ParseException e) {
+                log.error("Error while decoding jwt for current request", e);
+            }
+        }
+        return claims.isEmpty() ? null : claims;
+    }
+
+    /**
+     * Converts a claim to the string representation used when matching the claim conditions, which is the string
+     * value the claim had in the decoded ballerina JWT payload. Date claims are represented in seconds, list claims
+     * as their values separated by spaces and object claims as space separated name=value pairs.
+     */
+    static String claimToString(Object claim) {
+        if (claim == null) {
+            return "";
+        }
+        if (claim instanceof Date) {
+            return String.valueOf(((Date) claim).getTime() / MILLIS_PER_SECOND);
+        }
+        if (claim instanceof Collection) {
+            StringJoiner joiner = new StringJoiner(" ");
+            for (Object value : (Collection<?>) claim) {
+                joiner.add(claimToString(value));
+            }
+            return joiner.toString();
+        }
+        if (claim instanceof Map) {
+            StringJoiner joiner = new StringJoiner(" ");
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) claim).entrySet()) {
+                joiner.add(entry.getKey() + "=" + claimToString(entry.getValue()));
+            }
+            return joiner.toString();
+        }
+        return String.valueOf(claim);
+    }
+
+    private static class DecodedClaims {
+
+        private final String token;
+        private final Map<String, Object> claims;
+
+        DecodedClaims(String token, Map<String, Object> claims) {
+            this.token = token;
+            this.claims = claims;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.throttle.global;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the IP and IP range blocking conditions received from the traffic manager.
+ * <p>
+ * Addresses are kept as unsigned 128 bit numbers split into two longs, so IPv4 and IPv6 addresses share the same
+ * number space used by {@link ThrottleUtils#ipToBigInteger(String)}. For each tenant the non inverted conditions are
+ * merged into a sorted array of disjoint intervals which is binary searched, while the inverted conditions are reduced
+ * to the single interval every client IP must fall into. Each change rebuilds the index and publishes it with a
+ * volatile write, hence lookups never observe a partially applied update.
+ */
+public class IpBlockConditionIndex {
+
+    private static final Logger log = LogManager.getLogger(IpBlockConditionIndex.class);
+    private static final String TYPE_IP = "IP";
+    private static final String TYPE_IP_RANGE = "IPRANGE";
+    private static final int IPV4_LENGTH = 4;
+    private static final int IPV4_OCTET_MAX = 255;
+
+    private static final Map<Long, Condition> conditions = new LinkedHashMap<>();
+    private static volatile Map<String, TenantIndex> index = Collections.emptyMap();
+
+    private IpBlockConditionIndex() {
+    }
+
+    /**
+     * Add or replace a blocking condition and rebuild the index.
+     *
+     * @param id           id of the blocking condition
+     * @param tenantDomain tenant domain the condition applies to
+     * @param type         condition type, either IP or IPRANGE
+     * @param fixedIp      blocked IP of an IP condition
+     * @param startingIp   first IP of an IP range condition
+     * @param endingIp     last IP of an IP range condition
+     * @param invert       true if the condition blocks the IPs which do not match
+     */
+    public static synchronized void addCondition(long id, String tenantDomain, String type, String fixedIp,
+                                                 String startingIp, String endingIp, boolean invert) {
+        long[] start;
+        long[] end;
+        if (TYPE_IP.equalsIgnoreCase(type)) {
+            start = toNumber(fixedIp);
+            end = start;
+        } else if (TYPE_IP_RANGE.equalsIgnoreCase(type)) {
+            // IP range conditions exclude both the starting and the ending IP.
+            start = increment(toNumber(startingIp));
+            end = decrement(toNumber(endingIp));
+        } else {
+            log.warn("Unsupported IP blocking condition type : " + type);
+            return;
+        }
+        conditions.put(id, new Condition(tenantDomain, start, end, invert));
+        rebuild();
+    }
+
+    /**
+     * Remove a blocking condition and rebuild the index.
+     *
+     * @param id id of the blocking condition
+     */
+    public static synchronized void removeCondition(long id) {
+        if (conditions.remove(id) != null) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Check whether the client IP is blocked by any of the IP blocking conditions of the tenant.
+     *
+     * @param clientIp     client IP address
+     * @param tenantDomain tenant domain of the API
+     * @return true if the client IP is blocked
+     */
+    public static boolean isBlocked(String clientIp, String tenantDomain) {
+        TenantIndex tenantIndex = index.get(tenantDomain);
+        if (tenantIndex == null) {
+            return false;
+        }
+        long[] ip = toNumber(clientIp);
+        boolean blocked = tenantIndex.isBlocked(ip[0], ip[1]);
+        if (blocked && log.isDebugEnabled()) {
+            log.debug("Client IP : " + clientIp + " is blocked by an IP blocking condition of tenant : "
+                    + tenantDomain);
+        }
+        return blocked;
+    }
+
+    private static void rebuild() {
+        Map<String, List<Condition>> byTenant = new HashMap<>();
+        for (Condition condition : conditions.values()) {
+            byTenant.computeIfAbsent(condition.tenantDomain, k -> new ArrayList<>()).add(condition);
+        }
+        Map<String, TenantIndex> newIndex = new HashMap<>();
+        for (Map.Entry<String, List<Condition>> entry : byTenant.entrySet()) {
+            newIndex.put(entry.getKey(), new TenantIndex(entry.getValue()));
+        }
+        index = newIndex;
+    }
+
+    /**
+     * Converts an IP address to an unsigned 128 bit number. Unknown hosts resolve to zero, similar to
+     * {@link ThrottleUtils#ipToBigInteger(String)}.
+     */
+    static long[] toNumber(String ipAddress) {
+        long[] number = new long[2];
+        if (ipAddress == null || ipAddress.isEmpty()) {
+            return number;
+        }
+        if (ipAddress.indexOf(':') < 0) {
+            long ipv4 = parseIpv4(ipAddress);
+            if (ipv4 >= 0) {
+                number[1] = ipv4;
+                return number;
+            }
+        }
+        try {
+            byte[] bytes = InetAddress.getByName(ipAddress).getAddress();
+            int offset = Math.max(0, bytes.length - 16);
+            for (int i = offset; i < bytes.length; i++) {
+                int position = bytes.length - 1 - i;
+                int word = position < 8 ? 1 : 0;
+                number[word] |= (bytes[i] & 0xFFL) << ((position % 8) * 8);
+            }
+        } catch (UnknownHostException e) {
+            log.error("Error while parsing host IP " + ipAddress, e);
+        }
+        return number;
+    }
+
+    private static long parseIpv4(String ip) {
+        long value = 0;
+        int octets = 0;
+        int octet = -1;
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > IPV4_OCTET_MAX) {
+                    return -1;
+                }
+            } else if (c == '.' && octet >= 0) {
+                value = (value << 8) | octet;
+                octets++;
+                octet = -1;
+            } else {
+                return -1;
+            }
+        }
+        if (octet < 0 || octets != IPV4_LENGTH - 1) {
+            return -1;
+        }
+        return (value << 8) | octet;
+    }
+
+    private static long[] increment(long[] number) {
+        long lo = number[1] + 1;
+        long hi = lo == 0 ? number[0] + 1 : number[0];
+        if (lo == 0 && hi == 0) {
+            return null;
+        }
+        return new long[]{hi, lo};
+    }
+
+    private static long[] decrement(long[] number) {
+        if (number[0] == 0 && number[1] == 0) {
+            return null;
+        }
+        long hi = number[1] == 0 ? number[0] - 1 : number[0];
+        return new long[]{hi, number[1] - 1};
+    }
+
+    private static int compare(long hi1, long lo1, long hi2, long lo2) {
+        int result = Long.compareUnsigned(hi1, hi2);
+        return result != 0 ? result : Long.compareUnsigned(lo1, lo2);
+    }
+
+    private static boolean isEmpty(long[] start, long[] end) {
+        return start == null || end == null || compare(start[0], start[1], end[0], end[1]) > 0;
+    }
+
+    /**
+     * Blocking condition with an inclusive IP interval. A null bound denotes an empty interval.
+     */
+    private static class Condition {
+
+        private final String tenantDomain;
+        private final long[] start;
+        private final long[] end;
+        private final boolean invert;
+
+        Condition(String tenantDomain, long[] start, long[] end, boolean invert) {
+            this.tenantDomain = tenantDomain;
+            this.start = start;
+            this.end = end;
+            this.invert = invert;
+        }
+    }
+
+    /**
+     * Immutable lookup structure built for the blocking conditions of a single tenant.
+     */
+    private static class TenantIndex {
+
+        private final long[] startHi;
+        private final long[] startLo;
+        private final long[] endHi;
+        private final long[] endLo;
+        private final boolean hasInverted;
+        private final long[] allowedStart;
+        private final long[] allowedEnd;
+
+        TenantIndex(List<Condition> tenantConditions) {
+            List<long[][]> intervals = new ArrayList<>();
+            boolean inverted = false;
+            long[] lower = new long[]{0, 0};
+            long[] upper = new long[]{-1L, -1L};
+            boolean allowedEmpty = false;
+            for (Condition condition : tenantConditions) {
+                if (condition.invert) {
+                    // The client is blocked unless it falls into every inverted interval, i.e. their intersection.
+                    inverted = true;
+                    if (isEmpty(condition.start, condition.end)) {
+                        allowedEmpty = true;
+                        continue;
+                    }
+                    if (compare(condition.start[0], condition.start[1], lower[0], lower[1]) > 0) {
+                        lower = condition.start;
+                    }
+                    if (compare(condition.end[0], condition.end[1], upper[0], upper[1]) < 0) {
+                        upper = condition.end;
+                    }
+                } else if (!isEmpty(condition.start, condition.end)) {
+                    intervals.add(new long[][]{condition.start, condition.end});
+                }
+            }
+            intervals.sort((a, b) -> compare(a[0][0], a[0][1], b[0][0], b[0][1]));
+            List<long[][]> merged = new ArrayList<>();
+            for (long[][] interval : intervals) {
+                long[][] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+                if (last != null && compare(interval[0][0], interval[0][1], last[1][0], last[1][1]) <= 0) {
+                    if (compare(interval[1][0], interval[1][1], last[1][0], last[1][1]) > 0) {
+                        last[1] = interval[1];
+                    }
+                } else {
+                    merged.add(new long[][]{interval[0], interval[1]});
+                }
+            }
+            int size = merged.size();
+            startHi = new long[size];
+            startLo = new long[size];
+            endHi = new long[size];
+            endLo = new long[size];
+            for (int i = 0; i < size; i++) {
+                long[][] interval = merged.get(i);
+                startHi[i] = interval[0][0];
+                startLo[i] = interval[0][1];
+                endHi[i] = interval[1][0];
+                endLo[i] = interval[1][1];
+            }
+            hasInverted = inverted;
+            if (allowedEmpty || isEmpty(lower, upper)) {
+                allowedStart = null;
+                allowedEnd = null;
+            } else {
+                allowedStart = lower;
+                allowedEnd = upper;
+            }
+        }
+
+        boolean isBlocked(long hi, long lo) {
+            if (hasInverted && (allowedStart == null
+                    || compare(hi, lo, allowedStart[0], allowedStart[1]) < 0
+                    || compare(hi, lo, allowedEnd[0], allowedEnd[1]) > 0)) {
+                return true;
+            }
+            int low = 0;
+            int high = startHi.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (compare(startHi[mid], startLo[mid], hi, lo) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return high >= 0 && compare(hi, lo, endHi[high], endLo[high]) <= 0;
+        }
+    }
+}
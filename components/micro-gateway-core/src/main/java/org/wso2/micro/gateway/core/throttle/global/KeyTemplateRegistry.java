@@ -0,0 +1,125 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.throttle.global;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the custom throttle policy key templates received from the traffic manager, compiled once when they are
+ * added, along with the custom throttle keys which are currently throttled. The throttle keys of all the templates
+ * are evaluated for a request with a single call.
+ */
+public class KeyTemplateRegistry {
+
+    private static final Logger log = LogManager.getLogger(KeyTemplateRegistry.class);
+    private static final CompiledKeyTemplate[] EMPTY = new CompiledKeyTemplate[0];
+
+    private static volatile CompiledKeyTemplate[] keyTemplates = EMPTY;
+    private static final Map<String, Long> throttledKeys = new ConcurrentHashMap<>();
+    private static final int PURGE_INTERVAL = 1024;
+    private static final AtomicInteger putCount = new AtomicInteger();
+    private static final ThreadLocal<StringBuilder> keyBuilder = ThreadLocal.withInitial(StringBuilder::new);
+
+    private KeyTemplateRegistry() {
+    }
+
+    public static synchronized void addKeyTemplate(String template) {
+        for (CompiledKeyTemplate keyTemplate : keyTemplates) {
+            if (keyTemplate.getTemplate().equals(template)) {
+                return;
+            }
+        }
+        CompiledKeyTemplate[] newKeyTemplates = new CompiledKeyTemplate[keyTemplates.length + 1];
+        System.arraycopy(keyTemplates, 0, newKeyTemplates, 0, keyTemplates.length);
+        newKeyTemplates[keyTemplates.length] = new CompiledKeyTemplate(template);
+        keyTemplates = newKeyTemplates;
+        if (log.isDebugEnabled()) {
+            log.debug("Key template added : " + template);
+        }
+    }
+
+    public static synchronized void removeKeyTemplate(String template) {
+        for (int i = 0; i < keyTemplates.length; i++) {
+            if (keyTemplates[i].getTemplate().equals(template)) {
+                CompiledKeyTemplate[] newKeyTemplates = new CompiledKeyTemplate[keyTemplates.length - 1];
+                System.arraycopy(keyTemplates, 0, newKeyTemplates, 0, i);
+                System.arraycopy(keyTemplates, i + 1, newKeyTemplates, i, keyTemplates.length - i - 1);
+                keyTemplates = newKeyTemplates;
+                if (log.isDebugEnabled()) {
+                    log.debug("Key template removed : " + template);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Mark a throttle key as throttled until the given time. Keys which do not belong to a key template are never
+     * looked up, hence expired keys are purged periodically as new keys are added.
+     */
+    public static void putThrottledKey(String throttleKey, long resetTimestamp) {
+        throttledKeys.put(throttleKey, resetTimestamp);
+        if (putCount.incrementAndGet() % PURGE_INTERVAL == 0) {
+            long currentTime = System.currentTimeMillis();
+            throttledKeys.values().removeIf(timestamp -> timestamp < currentTime);
+        }
+    }
+
+    public static void removeThrottledKey(String throttleKey) {
+        throttledKeys.remove(throttleKey);
+    }
+
+    /**
+     * Build the throttle keys of the request for all the key templates and find a key which is throttled.
+     *
+     * @return throttled key or an empty string if none of the keys are throttled
+     */
+    public static String getThrottledKey(String resourceKey, String userId, String apiContext, String apiVersion,
+            String appTenant, String apiTenant, String appId, String clientIp) {
+        CompiledKeyTemplate[] templates = keyTemplates;
+        if (templates.length == 0 || throttledKeys.isEmpty()) {
+            return "";
+        }
+        String[] values = new String[] {resourceKey, userId, apiContext, apiVersion, appTenant, apiTenant, appId,
+                clientIp};
+        StringBuilder builder = keyBuilder.get();
+        long currentTime = System.currentTimeMillis();
+        for (CompiledKeyTemplate template : templates) {
+            builder.setLength(0);
+            template.format(builder, values);
+            String throttleKey = builder.toString();
+            Long resetTimestamp = throttledKeys.get(throttleKey);
+            if (resetTimestamp == null) {
+                continue;
+            }
+            if (resetTimestamp < currentTime) {
+                throttledKeys.remove(throttleKey, resetTimestamp);
+                continue;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Custom policy throttle key is throttled : " + throttleKey);
+            }
+            return throttleKey;
+        }
+        return "";
+    }
+}
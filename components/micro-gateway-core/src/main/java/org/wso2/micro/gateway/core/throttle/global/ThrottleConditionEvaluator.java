@@ -0,0 +1,145 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.throttle.global;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.ballerinalang.jvm.values.ObjectValue;
+import org.wso2.micro.gateway.interceptor.Request;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Evaluates the conditional throttle decisions received from the traffic manager. The evaluated conditions of each
+ * throttled key are compiled once when the throttle event is received, and requests are matched against the compiled
+ * condition groups without building the full set of request attributes.
+ */
+public class ThrottleConditionEvaluator {
+
+    private static final Logger log = LogManager.getLogger(ThrottleConditionEvaluator.class);
+    private static final String DEFAULT_CONDITION = "default";
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Condition groups are replaced as a whole, so readers always see a consistent, insertion ordered snapshot.
+    private static final Map<String, Map<String, CompiledConditionGroup>> conditionGroups = new ConcurrentHashMap<>();
+
+    private ThrottleConditionEvaluator() {
+    }
+
+    /**
+     * Compile and add the evaluated conditions of a condition group. Existing groups are not replaced.
+     *
+     * @param resourceKey      API or resource throttle key
+     * @param conditionKey     name of the condition group
+     * @param base64Conditions base64 url encoded json array of conditions
+     */
+    public static synchronized void putConditions(String resourceKey, String conditionKey, String base64Conditions) {
+        Map<String, CompiledConditionGroup> groups = conditionGroups.getOrDefault(resourceKey,
+                Collections.emptyMap());
+        if (groups.containsKey(conditionKey)) {
+            return;
+        }
+        CompiledConditionGroup group;
+        try {
+            JsonNode conditions = objectMapper.readTree(Base64.getUrlDecoder().decode(base64Conditions));
+            if (conditions == null || !conditions.isArray()) {
+                log.error("Couldn't build a valid json from the throttle conditions of : " + resourceKey);
+                return;
+            }
+            group = new CompiledConditionGroup(conditions);
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Couldn't decode throttle conditions of : " + resourceKey, e);
+            return;
+        }
+        Map<String, CompiledConditionGroup> newGroups = new LinkedHashMap<>(groups);
+        newGroups.put(conditionKey, group);
+        conditionGroups.put(resourceKey, Collections.unmodifiableMap(newGroups));
+    }
+
+    /**
+     * Remove a condition group of the throttle key.
+     *
+     * @param resourceKey  API or resource throttle key
+     * @param conditionKey name of the condition group
+     */
+    public static synchronized void removeConditions(String resourceKey, String conditionKey) {
+        Map<String, CompiledConditionGroup> groups = conditionGroups.get(resourceKey);
+        if (groups == null || !groups.containsKey(conditionKey)) {
+            return;
+        }
+        if (groups.size() == 1) {
+            conditionGroups.remove(resourceKey);
+            return;
+        }
+        Map<String, CompiledConditionGroup> newGroups = new LinkedHashMap<>(groups);
+        newGroups.remove(conditionKey);
+        conditionGroups.put(resourceKey, Collections.unmodifiableMap(newGroups));
+    }
+
+    /**
+     * Remove all the condition groups of the throttle key.
+     *
+     * @param resourceKey API or resource throttle key
+     */
+    public static synchronized void removeAllConditions(String resourceKey) {
+        conditionGroups.remove(resourceKey);
+    }
+
+    /**
+     * Find the condition group which throttles the request. The named condition groups are checked first. If none
+     * of them match, the default group applies to the requests which are not matched by its conditions.
+     *
+     * @param resourceKey             API or resource throttle key
+     * @param clientIp                client IP of the request
+     * @param requestObj              ballerina http:Request object
+     * @param headerConditionsEnabled true if header conditions are enabled
+     * @param queryConditionsEnabled  true if query parameter conditions are enabled
+     * @param jwtConditionsEnabled    true if JWT claim conditions are enabled
+     * @param jwtHeaderName           name of the header carrying the backend JWT
+     * @return name of the condition group which throttles the request, or an empty string if there is none
+     */
+    public static String getThrottledCondition(String resourceKey, String clientIp, ObjectValue requestObj,
+                                               boolean headerConditionsEnabled, boolean queryConditionsEnabled,
+                                               boolean jwtConditionsEnabled, String jwtHeaderName) {
+        Map<String, CompiledConditionGroup> groups = conditionGroups.get(resourceKey);
+        if (groups == null) {
+            return "";
+        }
+        ConditionContext context = new ConditionContext(clientIp, new Request(requestObj), jwtHeaderName);
+        CompiledConditionGroup defaultGroup = null;
+        for (Map.Entry<String, CompiledConditionGroup> entry : groups.entrySet()) {
+            if (DEFAULT_CONDITION.equals(entry.getKey())) {
+                defaultGroup = entry.getValue();
+            } else if (entry.getValue().isThrottled(context, headerConditionsEnabled, queryConditionsEnabled,
+                    jwtConditionsEnabled)) {
+                return entry.getKey();
+            }
+        }
+        if (defaultGroup != null && !defaultGroup.isThrottled(context, headerConditionsEnabled,
+                queryConditionsEnabled, jwtConditionsEnabled)) {
+            return DEFAULT_CONDITION;
+        }
+        return "";
+    }
+}
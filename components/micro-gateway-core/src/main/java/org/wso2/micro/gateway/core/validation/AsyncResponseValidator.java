@@ -0,0 +1,174 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.validation;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.ballerinalang.jvm.values.ArrayValue;
+import org.wso2.micro.gateway.core.Constants;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Validates a sample of the responses against the API definition off the response path.
+ * <p>
+ * Sampled responses are validated by a bounded pool of workers. When the queue of the pool is full the response is
+ * not validated, so a slow validation never delays the responses. Responses which do not match the API definition
+ * are logged and counted in {@link ResponseValidationStats} instead of failing the call.
+ */
+public class AsyncResponseValidator {
+    private static final Logger logger = LogManager.getLogger(AsyncResponseValidator.class);
+
+    private static final ResponseValidationStats stats = new ResponseValidationStats();
+    private static volatile ThreadPoolExecutor executor;
+    private static volatile double defaultSampleRate = 1;
+
+    private AsyncResponseValidator() {
+    }
+
+    /**
+     * Starts the validation workers. Subsequent invocations have no effect.
+     *
+     * @param workerCount number of validation workers
+     * @param queueSize   maximum number of responses waiting to be validated
+     * @param sampleRate  fraction of the responses to be validated, unless the API definition defines one
+     */
+    public static synchronized void init(long workerCount, long queueSize, double sampleRate) {
+        if (executor != null) {
+            return;
+        }
+        defaultSampleRate = sampleRate;
+        int workers = (int) Math.max(1, workerCount);
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>((int) Math.max(1, queueSize)), runnable -> {
+                    Thread thread = new Thread(runnable, "response-validation-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(ResponseValidationStats.OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(stats, name);
+            }
+        } catch (JMException e) {
+            logger.error("Error while registering the response validation statistics", e);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Started " + workers + " response validation workers with sample rate " + sampleRate);
+        }
+    }
+
+    /**
+     * Decide whether a response of a resource is sampled for validation.
+     *
+     * @param serviceName  qualified service name of the API
+     * @param resourcePath request resource path
+     * @param reqMethod    request method
+     * @return true if the response should be validated
+     */
+    public static boolean isSampled(String serviceName, String resourcePath, String reqMethod) {
+        Double sampleRate = SchemaRegistry.getResponseSampleRate(serviceName, resourcePath, reqMethod);
+        double rate = sampleRate != null ? sampleRate : defaultSampleRate;
+        if (rate >= 1) {
+            return true;
+        }
+        return isSampled(rate, ThreadLocalRandom.current().nextDouble());
+    }
+
+    static boolean isSampled(double rate, double random) {
+        return rate >= 1 || (rate > 0 && random < rate);
+    }
+
+    /**
+     * Queue a response to be validated by the validation workers.
+     *
+     * @param resourcePath request resource path
+     * @param reqMethod    request method
+     * @param responseCode response message code
+     * @param response     response payload bytes
+     * @param serviceName  qualified service name of the API
+     * @param maxSize      maximum payload size in bytes
+     * @param maxDepth     maximum nesting depth of the payload
+     * @return true if the response is queued, false if it is dropped
+     */
+    public static boolean validate(String resourcePath, String reqMethod, String responseCode, ArrayValue response,
+                                   String serviceName, long maxSize, long maxDepth) {
+        if (executor == null) {
+            logger.warn("Asynchronous response validation is not initialized");
+            return false;
+        }
+        byte[] payload = response.getBytes();
+        if (submit(() -> validate(resourcePath, reqMethod, responseCode, payload, serviceName, maxSize, maxDepth))) {
+            return true;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Response validation queue is full. Dropped the response of " + reqMethod + " "
+                    + resourcePath + " of " + serviceName);
+        }
+        return false;
+    }
+
+    /**
+     * Queue a validation to the workers, counting it as dropped if the queue is full.
+     *
+     * @return false if the validation is dropped
+     */
+    static boolean submit(Runnable validation) {
+        try {
+            executor.execute(validation);
+            return true;
+        } catch (RejectedExecutionException e) {
+            stats.incrementDropped();
+            return false;
+        }
+    }
+
+    static ResponseValidationStats getStats() {
+        return stats;
+    }
+
+    static void validate(String resourcePath, String reqMethod, String responseCode, byte[] payload,
+                                 String serviceName, long maxSize, long maxDepth) {
+        try {
+            String result = Validate.validateResponse(resourcePath, reqMethod, responseCode, payload, serviceName,
+                    maxSize, maxDepth);
+            if (Constants.VALIDATED_STATUS.equals(result)) {
+                stats.incrementValidated();
+            } else {
+                stats.incrementMismatches();
+                logger.warn("Response of " + reqMethod.toUpperCase() + " " + resourcePath + " of " + serviceName
+                        + " with status " + responseCode + " does not match the API definition : " + result);
+            }
+        } catch (RuntimeException e) {
+            stats.incrementErrors();
+            logger.error("Error while validating the response of " + reqMethod.toUpperCase() + " " + resourcePath
+                    + " of " + serviceName, e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.validation;
+
+import org.everit.json.schema.Schema;
+
+/**
+ * Compiled schema of a request or response payload held by the {@link SchemaRegistry}.
+ */
+class CompiledSchema {
+
+    /**
+     * Resources which do not define a schema for the payload.
+     */
+    static final CompiledSchema NO_SCHEMA = new CompiledSchema(null);
+
+    /**
+     * Schemas which could not be loaded from the extracted schema content.
+     */
+    static final CompiledSchema NULL_SCHEMA = new CompiledSchema(null);
+
+    private final Schema schema;
+    private final RuntimeException failure;
+
+    CompiledSchema(Schema schema) {
+        this(schema, null);
+    }
+
+    private CompiledSchema(Schema schema, RuntimeException failure) {
+        this.schema = schema;
+        this.failure = failure;
+    }
+
+    static CompiledSchema failed(RuntimeException failure) {
+        return new CompiledSchema(null, failure);
+    }
+
+    /**
+     * Returns the compiled schema, rethrowing the error occurred while extracting it.
+     *
+     * @return compiled schema, null if the payload is not validated against a schema
+     */
+    Schema getSchema() {
+        if (failure != null) {
+            throw failure;
+        }
+        return schema;
+    }
+
+    boolean hasSchema() {
+        return this != NO_SCHEMA;
+    }
+}
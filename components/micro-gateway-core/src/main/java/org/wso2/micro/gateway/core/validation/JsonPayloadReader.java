@@ -0,0 +1,133 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.validation;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Reads a JSON payload into the object model validated by the compiled schemas.
+ * <p>
+ * The payload bytes are read once with a streaming parser, without creating an intermediate string. The size limit
+ * is checked before the parsing starts and the depth limit while the tokens are read, so oversized payloads are
+ * rejected without being materialized.
+ */
+class JsonPayloadReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private JsonPayloadReader() {
+    }
+
+    /**
+     * Reads a JSON payload.
+     *
+     * @param payload  payload bytes
+     * @param maxSize  maximum payload size in bytes, zero or negative for no limit
+     * @param maxDepth maximum nesting depth of objects and arrays, zero or negative for no limit
+     * @return {@link JSONObject}, {@link JSONArray} or the primitive value of the payload
+     * @throws IOException           if the payload is not valid JSON
+     * @throws PayloadLimitException if the payload exceeds the size or depth limit
+     */
+    static Object read(byte[] payload, long maxSize, long maxDepth) throws IOException, PayloadLimitException {
+        if (maxSize > 0 && payload.length > maxSize) {
+            throw new PayloadLimitException("Payload size of " + payload.length + " bytes exceeds the maximum of "
+                    + maxSize + " bytes.");
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(payload)) {
+            Deque<Object> containers = new ArrayDeque<>();
+            Object root = null;
+            boolean hasRoot = false;
+            String fieldName = null;
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                Object value;
+                switch (token) {
+                    case FIELD_NAME:
+                        fieldName = parser.getCurrentName();
+                        continue;
+                    case END_OBJECT:
+                    case END_ARRAY:
+                        containers.pop();
+                        continue;
+                    case START_OBJECT:
+                        value = new JSONObject();
+                        break;
+                    case START_ARRAY:
+                        value = new JSONArray();
+                        break;
+                    case VALUE_STRING:
+                        value = parser.getText();
+                        break;
+                    case VALUE_NUMBER_INT:
+                        value = parser.getNumberValue();
+                        break;
+                    case VALUE_NUMBER_FLOAT:
+                        double doubleValue = parser.getDoubleValue();
+                        value = Double.isInfinite(doubleValue) ? parser.getDecimalValue() : (Object) doubleValue;
+                        break;
+                    case VALUE_TRUE:
+                        value = Boolean.TRUE;
+                        break;
+                    case VALUE_FALSE:
+                        value = Boolean.FALSE;
+                        break;
+                    case VALUE_NULL:
+                        value = JSONObject.NULL;
+                        break;
+                    default:
+                        throw new JsonParseException(parser, "Unexpected token " + token);
+                }
+                Object parent = containers.peek();
+                if (parent instanceof JSONObject) {
+                    JSONObject object = (JSONObject) parent;
+                    if (object.has(fieldName)) {
+                        throw new JsonParseException(parser, "Duplicate key \"" + fieldName + "\"");
+                    }
+                    object.put(fieldName, value);
+                } else if (parent instanceof JSONArray) {
+                    ((JSONArray) parent).put(value);
+                } else if (hasRoot) {
+                    throw new JsonParseException(parser, "Unexpected content after the JSON value");
+                } else {
+                    root = value;
+                    hasRoot = true;
+                }
+                if (value instanceof JSONObject || value instanceof JSONArray) {
+                    containers.push(value);
+                    if (maxDepth > 0 && containers.size() > maxDepth) {
+                        throw new PayloadLimitException("Payload nesting depth exceeds the maximum of " + maxDepth
+                                + ".");
+                    }
+                }
+            }
+            if (!hasRoot) {
+                throw new JsonParseException(parser, "No content to validate");
+            }
+            return root;
+        }
+    }
+}
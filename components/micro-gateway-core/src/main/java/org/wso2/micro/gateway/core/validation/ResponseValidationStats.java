@@ -0,0 +1,71 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.validation;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the asynchronous response validation, registered as the {@value #OBJECT_NAME} MBean. When the
+ * observability metrics are enabled, the JMX exporter configured in conf/Prometheus/config.yml publishes them as
+ * mgw_response_validation_responses_total.
+ */
+public class ResponseValidationStats implements ResponseValidationStatsMBean {
+
+    static final String OBJECT_NAME = "org.wso2.micro.gateway:type=ResponseValidation";
+
+    private final LongAdder validated = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    void incrementValidated() {
+        validated.increment();
+    }
+
+    void incrementMismatches() {
+        mismatches.increment();
+    }
+
+    void incrementDropped() {
+        dropped.increment();
+    }
+
+    void incrementErrors() {
+        errors.increment();
+    }
+
+    @Override
+    public long getValidatedCount() {
+        return validated.sum();
+    }
+
+    @Override
+    public long getMismatchCount() {
+        return mismatches.sum();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errors.sum();
+    }
+}
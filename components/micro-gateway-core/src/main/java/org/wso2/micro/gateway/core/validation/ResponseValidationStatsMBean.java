@@ -0,0 +1,44 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.validation;
+
+/**
+ * Management interface exposing the counters of the asynchronous response validation.
+ */
+public interface ResponseValidationStatsMBean {
+
+    /**
+     * Returns the number of sampled responses which matched the API definition.
+     */
+    long getValidatedCount();
+
+    /**
+     * Returns the number of sampled responses which did not match the API definition.
+     */
+    long getMismatchCount();
+
+    /**
+     * Returns the number of sampled responses dropped as the validation queue was full.
+     */
+    long getDroppedCount();
+
+    /**
+     * Returns the number of sampled responses which could not be validated due to an error.
+     */
+    long getErrorCount();
+}
@@ -0,0 +1,418 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.validation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import com.google.common.collect.Lists;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.micro.gateway.core.Constants;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracts the request and response schemas of the resources from the open API definition of an API.
+ * <p>
+ * The definition is parsed once per extractor. Extraction replaces the $ref references of the nodes taken from the
+ * parsed definition, hence an extractor must not be used by multiple threads at the same time.
+ */
+class SchemaExtractor {
+    private static final Logger logger = LogManager.getLogger(SchemaExtractor.class);
+    private final JsonNode rootNode;
+    private final DocumentContext swaggerObject;
+
+    SchemaExtractor(String swagger) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        rootNode = objectMapper.readTree(swagger.getBytes());
+        swaggerObject = JsonPath.parse(swagger);
+    }
+
+    JsonNode getRootNode() {
+        return rootNode;
+    }
+
+    String extractSchemaFromRequest(String resourcePath, String requestMethod) {
+        String schema;
+        String value = swaggerObject.read(Constants.JSON_PATH +
+                Constants.OPEN_API).toString();
+        if (value != null && !value.equals(Constants.EMPTY_ARRAY)) {
+            //refer schema
+            StringBuilder jsonPath = new StringBuilder();
+            jsonPath.append(Constants.PATHS)
+                    .append(resourcePath).append(Constants.JSONPATH_SEPARATE)
+                    .append(requestMethod.toLowerCase())
+                    .append(Constants.BODY_CONTENT);
+            schema = swaggerObject.read(jsonPath.toString()).toString();
+            if (schema == null || Constants.EMPTY_ARRAY.equals(schema)) {
+                // refer request bodies
+                StringBuilder requestBodyPath = new StringBuilder();
+                requestBodyPath.append(Constants.PATHS).append(resourcePath).
+                        append(Constants.JSONPATH_SEPARATE).
+                        append(requestMethod.toLowerCase()).append(Constants.REQUEST_BODY);
+                schema = swaggerObject.read(requestBodyPath.toString()).toString();
+            }
+        } else {
+            StringBuilder schemaPath = new StringBuilder();
+            schemaPath.append(Constants.PATHS).append(resourcePath).
+                    append(Constants.JSONPATH_SEPARATE)
+                    .append(requestMethod.toLowerCase()).append(Constants.PARAM_SCHEMA);
+            schema = swaggerObject.read(schemaPath.toString()).toString();
+        }
+        return extractReference(schema);
+    }
+
+    /**
+     * Extract the reference.
+     *
+     * @param schemaNode Schema node to be extracted
+     * @return extracted schema
+     */
+    private String extractReference(String schemaNode) {
+        String schemaContent = null;
+        String[] val = schemaNode.split("" + Constants.HASH);
+        String path = val[1].replaceAll("\"|}|]|\\\\", "");
+        String searchLastIndex = null;
+        if (StringUtils.isNotEmpty(path)) {
+            int index = path.lastIndexOf(Constants.FORWARD_SLASH);
+            searchLastIndex = path.substring(index + 1);
+        }
+
+        String nodeVal = path.replaceAll("" + Constants.FORWARD_SLASH, ".");
+        String name = null;
+        Object object = swaggerObject.read(Constants.JSON_PATH + nodeVal);
+        String value;
+        ObjectMapper mapper = new ObjectMapper();
+
+        JsonNode jsonSchema = mapper.convertValue(object, JsonNode.class);
+        if (jsonSchema.get(0) != null) {
+            value = jsonSchema.get(0).toString();
+        } else {
+            value = jsonSchema.toString();
+        }
+        if (value.contains(Constants.SCHEMA_REFERENCE) &&
+                !nodeVal.contains(Constants.DEFINITIONS)) {
+            if (nodeVal.contains(Constants.REQUESTBODIES)) {
+                StringBuilder extractRefPath = new StringBuilder();
+                extractRefPath.append(Constants.JSON_PATH).append(Constants.REQUESTBODY_SCHEMA).
+                        append(searchLastIndex).append(Constants.JSON_SCHEMA);
+                String res = swaggerObject.read(extractRefPath.toString()).toString();
+                if (res.contains(Constants.ITEMS)) {
+                    StringBuilder requestSchemaPath = new StringBuilder();
+                    requestSchemaPath.append(Constants.JSON_PATH).
+                            append(Constants.REQUESTBODY_SCHEMA).append(
+                            searchLastIndex).append(Constants.JSON_SCHEMA).
+                            append(Constants.JSONPATH_SEPARATE).append(Constants.ITEMS).
+                            append(Constants.JSONPATH_SEPARATE).append(Constants.SCHEMA_REFERENCE);
+                    name = swaggerObject.read(requestSchemaPath.toString()).toString();
+                    extractReference(name);
+                } else {
+                    StringBuilder jsonSchemaRef = new StringBuilder();
+                    jsonSchemaRef.append(Constants.JSON_PATH).append(
+                            Constants.REQUESTBODY_SCHEMA).append(searchLastIndex).append(
+                            Constants.CONTENT).append(Constants.JSON_CONTENT);
+                    name = swaggerObject.read(jsonSchemaRef.toString()).toString();
+                    if (name.contains(Constants.COMPONENT_SCHEMA)) {
+                        Object componentSchema = swaggerObject.read(
+                                Constants.JSONPATH_SCHEMAS + searchLastIndex);
+                        mapper = new ObjectMapper();
+                        JsonNode jsonNode = mapper.convertValue(componentSchema, JsonNode.class);
+                        generateSchema(jsonNode);
+                        if (jsonNode.get(0) != null) {
+                            name = jsonNode.get(0).toString();
+                        } else {
+                            name = jsonNode.toString();
+                        }
+                        schemaContent = name;
+                    } else {
+                        extractReference(name);
+                    }
+                }
+            } else if (nodeVal.contains(Constants.SCHEMA)) {
+                Object componentSchema = swaggerObject.read(
+                        Constants.JSONPATH_SCHEMAS + searchLastIndex);
+                mapper = new ObjectMapper();
+                JsonNode jsonNode = mapper.convertValue(componentSchema, JsonNode.class);
+                generateSchema(jsonNode);
+                if (jsonNode.get(0) != null) {
+                    name = jsonNode.get(0).toString();
+                } else {
+                    name = jsonNode.toString();
+                }
+                schemaContent = name;
+            }
+        } else if (nodeVal.contains(Constants.DEFINITIONS)) {
+            StringBuilder requestSchemaPath = new StringBuilder();
+            requestSchemaPath.append(Constants.JSON_PATH).
+                    append(Constants.DEFINITIONS).append(Constants.JSONPATH_SEPARATE
+            ).append(searchLastIndex);
+            Object nameObj = swaggerObject.read(requestSchemaPath.toString());
+            mapper = new ObjectMapper();
+            JsonNode jsonNode = mapper.convertValue(nameObj, JsonNode.class);
+            generateSchema(jsonNode);
+            if (jsonNode.get(0) != null) {
+                name = jsonNode.get(0).toString();
+            } else {
+                name = jsonNode.toString();
+            }
+            schemaContent = name;
+        } else {
+            schemaContent = value;
+            return schemaContent;
+        }
+        return schemaContent;
+    }
+
+    /**
+     * Replace $ref references with relevant schemas and recreate the swagger definition.
+     *
+     * @param parent Swagger definition parent Node
+     */
+    private void generateSchema(JsonNode parent) {
+        JsonNode schemaProperty;
+        Iterator<Map.Entry<String, JsonNode>> schemaNode;
+        if (parent.get(0) != null) {
+            schemaNode = parent.get(0).fields();
+        } else {
+            schemaNode = parent.fields();
+        }
+        while (schemaNode.hasNext()) {
+            Map.Entry<String, JsonNode> entry = schemaNode.next();
+            if (entry.getValue().has(Constants.SCHEMA_REFERENCE)) {
+                JsonNode refNode = entry.getValue();
+                Iterator<Map.Entry<String, JsonNode>> refItems = refNode.fields();
+                while (refItems.hasNext()) {
+                    Map.Entry<String, JsonNode> entryRef = refItems.next();
+                    if (entryRef.getKey().equals(Constants.SCHEMA_REFERENCE)) {
+                        JsonNode schemaObject = extractSchemaObject(entryRef.getValue());
+                        if (schemaObject != null) {
+                            entry.setValue(schemaObject);
+                        }
+                    }
+                }
+            }
+            schemaProperty = entry.getValue();
+            if (JsonNodeType.OBJECT == schemaProperty.getNodeType()) {
+                generateSchema(schemaProperty);
+            }
+            if (JsonNodeType.ARRAY == schemaProperty.getNodeType()) {
+                generateArraySchemas(entry);
+            }
+        }
+    }
+
+    /**
+     * Extract the schema Object.
+     *
+     * @param refNode JSON node to be extracted
+     * @return Extracted schema
+     */
+    private JsonNode extractSchemaObject(JsonNode refNode) {
+        String[] val = refNode.toString().split("" + Constants.HASH);
+        String path = val[1].replace("\\{^\"|\"}", Constants.EMPTY).replace
+                ("\"", Constants.EMPTY).replace("}", Constants.EMPTY)
+                .replaceAll(Constants.BACKWARD_SLASH, Constants.EMPTY);
+        return rootNode.at(path);
+    }
+
+    /**
+     * Replace $ref array elements.
+     *
+     * @param entry Array reference to be replaced from actual value.
+     */
+    private void generateArraySchemas(Map.Entry<String, JsonNode> entry) {
+        JsonNode entryRef;
+        JsonNode ref;
+        JsonNode schemaProperty;
+        if (entry.getValue() != null) {
+            schemaProperty = entry.getValue();
+            if (schemaProperty == null) {
+                return;
+            }
+            Iterator<JsonNode> arrayElements = schemaProperty.elements();
+            List<JsonNode> nodeList = Lists.newArrayList(arrayElements);
+            for (int i = 0; i < nodeList.size(); i++) {
+                entryRef = nodeList.get(i);
+                if (entryRef.has(Constants.SCHEMA_REFERENCE)) {
+                    ref = extractSchemaObject(entryRef);
+                    nodeList.remove(i);
+                    nodeList.add(ref);
+                }
+            }
+            ObjectMapper mapper = new ObjectMapper();
+            ArrayNode array = mapper.valueToTree(nodeList);
+            entry.setValue(array);
+        }
+    }
+
+    /**
+     * Extract the response schema from swagger according to the response code.
+     *
+     * @return response schema
+     */
+    String extractResponse(String reqPath, String reqMethod, String responseCode) {
+        Object resourceSchema;
+        Object resource;
+        Object content = null;
+        Object schemaCon = null;
+        ObjectMapper mapper = new ObjectMapper();
+        String name;
+        Object schema;
+        String value;
+
+        StringBuilder responseSchemaPath = new StringBuilder();
+        responseSchemaPath.append(Constants.PATHS).append(reqPath).
+                append(Constants.JSONPATH_SEPARATE).append(reqMethod.toLowerCase()).
+                append(Constants.JSON_RESPONSES).append(responseCode);
+        resource = swaggerObject.read(responseSchemaPath.toString());
+        if (resource != null) {
+            responseSchemaPath.append(Constants.CONTENT);
+            content = swaggerObject.read(responseSchemaPath.toString());
+        }
+        if (content != null) {
+            responseSchemaPath.append(Constants.JSON_CONTENT);
+            schemaCon = swaggerObject.read(responseSchemaPath.toString());
+        }
+        if (schemaCon != null) {
+            if (!schemaCon.toString().equals(Constants.EMPTY_ARRAY)) {
+                return extractReference(schemaCon.toString());
+            } else {
+                StringBuilder pathBuilder = new StringBuilder();
+                pathBuilder.append(Constants.PATHS).append(reqPath).
+                        append(Constants.JSONPATH_SEPARATE).append(reqMethod.toLowerCase()).
+                        append(Constants.JSON_RESPONSES).
+                        append(responseCode).append(Constants.JSON_SCHEMA);
+
+                schema = swaggerObject.read(pathBuilder.toString()).toString();
+                JsonNode jsonNode = mapper.convertValue(schema, JsonNode.class);
+                if (jsonNode.get(0) != null) {
+                    value = jsonNode.get(0).toString();
+                } else {
+                    value = jsonNode.toString();
+                }
+                if (value.contains(Constants.ITEMS)) {
+                    StringBuilder requestSchemaPath = new StringBuilder();
+                    requestSchemaPath.append(Constants.PATHS).append(reqPath).
+                            append(Constants.JSONPATH_SEPARATE).append(reqMethod.toLowerCase()).
+                            append(Constants.JSON_RESPONSES).append(responseCode).
+                            append(Constants.JSON_SCHEMA).append(
+                            Constants.JSONPATH_SEPARATE).append(Constants.ITEMS);
+                    name = swaggerObject.read(requestSchemaPath.toString()).toString();
+                    if (name.contains(Constants.SCHEMA_REFERENCE)) {
+                        requestSchemaPath.append(Constants.JSONPATH_SEPARATE).
+                                append(Constants.SCHEMA_REFERENCE);
+                        return extractReference(name);
+                    }
+                    return value;
+                }
+            }
+        }
+        StringBuilder resPath = new StringBuilder();
+        resPath.append(Constants.PATHS).append(reqPath).append(
+                Constants.JSONPATH_SEPARATE).append(reqMethod.toLowerCase()).
+                append(Constants.JSON_RESPONSES).append(responseCode).append
+                (Constants.SCHEMA);
+        resource = swaggerObject.read(resPath.toString());
+        JsonNode json = mapper.convertValue(resource, JsonNode.class);
+        if (json.get(0) != null && !Constants.EMPTY_ARRAY.equals(json.get(0))) {
+            value = json.get(0).toString();
+        } else {
+            value = json.toString();
+        }
+        if (value != null && !Constants.EMPTY_ARRAY.equals(value)) {
+            if (value.contains(Constants.SCHEMA_REFERENCE)) {
+                byte[] bytes = value.getBytes();
+                try {
+                    JsonNode node = mapper.readTree(bytes);
+                    Iterator<JsonNode> schemaNode = node.findParent(
+                            Constants.SCHEMA_REFERENCE).elements();
+                    JsonNode nodeNext = schemaNode.next();
+                    if (nodeNext != null) {
+                        return extractReference(nodeNext.toString());
+                    }
+                } catch (IOException e) {
+                    logger.error("Error occurred while converting bytes from json node");
+                }
+            } else {
+                return value;
+            }
+        } else {
+            StringBuilder responseDefaultPath = new StringBuilder();
+            responseDefaultPath.append(Constants.PATHS).append(reqPath).
+                    append(Constants.JSONPATH_SEPARATE).append(reqMethod.toLowerCase()).
+                    append(Constants.JSON_RESPONSES).append(Constants.DEFAULT);
+            resourceSchema = swaggerObject.read(responseDefaultPath.toString());
+            JsonNode jnode = mapper.convertValue(resourceSchema, JsonNode.class);
+            if (jnode.get(0) != null && !Constants.EMPTY_ARRAY.equals(jnode)) {
+                value = jnode.get(0).toString();
+            } else {
+                value = jnode.toString();
+            }
+            if (resourceSchema != null) {
+                if (value.contains(Constants.SCHEMA_REFERENCE)) {
+                    byte[] bytes = value.getBytes();
+                    try {
+                        JsonNode node = mapper.readTree(bytes);
+                        if (node != null) {
+                            Iterator<JsonNode> schemaNode = node.findParent(
+                                    Constants.SCHEMA_REFERENCE).elements();
+                            return extractRef(schemaNode);
+                        }
+                    } catch (IOException e) {
+                        logger.error("Error occurred while reading the schema.", e);
+                    }
+                } else {
+                    return value;
+                }
+            } else {
+                return value;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Get Schema path from $ref.
+     *
+     * @param schemaNode Swagger schema content
+     * @return $ref path
+     */
+    private String extractRef(Iterator<JsonNode> schemaNode) {
+        while (schemaNode.hasNext()) {
+            String nodeVal = schemaNode.next().toString();
+            String[] val = nodeVal.split("" + Constants.HASH);
+            if (val.length > 0) {
+                String path = val[1].replaceAll("^\"|\"$", Constants.EMPTY);
+                if (StringUtils.isNotEmpty(path)) {
+                    int c = path.lastIndexOf(Constants.FORWARD_SLASH);
+                    return path.substring(c + 1);
+                }
+            }
+            return null;
+        }
+        return null;
+    }
+}
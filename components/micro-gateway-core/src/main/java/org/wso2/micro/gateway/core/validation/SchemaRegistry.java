@@ -0,0 +1,172 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.validation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.everit.json.schema.Schema;
+import org.everit.json.schema.loader.SchemaLoader;
+import org.json.JSONObject;
+import org.wso2.micro.gateway.core.Constants;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the compiled request and response schemas of the APIs exposed by the gateway.
+ * <p>
+ * Schemas of all the resources in an open API definition are extracted and compiled when the definition is loaded.
+ * Schemas of response codes which are not listed in the definition are resolved on their first use and kept as
+ * well, so validating a payload only takes a map lookup followed by the validation against the compiled schema.
+ */
+public class SchemaRegistry {
+    private static final Logger logger = LogManager.getLogger(SchemaRegistry.class);
+    private static final String KEY_SEPARATOR = ":";
+    private static final String RESPONSES = "responses";
+    private static final String[] HTTP_METHODS = {"get", "put", "post", "delete", "options", "head", "patch",
+            "trace"};
+
+    private static final Map<String, SchemaExtractor> extractors = new ConcurrentHashMap<>();
+    private static final Map<String, CompiledSchema> schemas = new ConcurrentHashMap<>();
+    private static final Map<String, Double> responseSampleRates = new ConcurrentHashMap<>();
+
+    private SchemaRegistry() {
+    }
+
+    /**
+     * Extract and compile the schemas of all the resources of an open API definition.
+     *
+     * @param serviceName qualified service name of the API
+     * @param swagger     open API definition of the API
+     */
+    public static void register(String serviceName, String swagger) {
+        SchemaExtractor extractor;
+        try {
+            extractor = new SchemaExtractor(swagger);
+        } catch (IOException e) {
+            logger.error("Error occurred while reading the swagger of " + serviceName, e);
+            return;
+        }
+        extractors.put(serviceName, extractor);
+        String keyPrefix = serviceName + KEY_SEPARATOR;
+        schemas.keySet().removeIf(key -> key.startsWith(keyPrefix));
+        responseSampleRates.keySet().removeIf(key -> key.equals(serviceName) || key.startsWith(keyPrefix));
+        putResponseSampleRate(serviceName, extractor.getRootNode());
+        Iterator<Map.Entry<String, JsonNode>> paths = extractor.getRootNode().path("paths").fields();
+        while (paths.hasNext()) {
+            Map.Entry<String, JsonNode> path = paths.next();
+            for (String method : HTTP_METHODS) {
+                JsonNode operation = path.getValue().get(method);
+                if (operation == null) {
+                    continue;
+                }
+                putResponseSampleRate(operationKey(serviceName, path.getKey(), method), operation);
+                getRequestSchema(serviceName, path.getKey(), method);
+                Iterator<String> responseCodes = operation.path(RESPONSES).fieldNames();
+                while (responseCodes.hasNext()) {
+                    getResponseSchema(serviceName, path.getKey(), method, responseCodes.next());
+                }
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Compiled the request and response schemas of " + serviceName);
+        }
+    }
+
+    /**
+     * Returns the compiled schema of the request payload of a resource.
+     */
+    static CompiledSchema getRequestSchema(String serviceName, String resourcePath, String method) {
+        return schemas.computeIfAbsent(operationKey(serviceName, resourcePath, method), k -> compile(serviceName,
+                extractor -> extractor.extractSchemaFromRequest(resourcePath, method)));
+    }
+
+    /**
+     * Returns the compiled schema of the response payload of a resource for the given response code.
+     */
+    static CompiledSchema getResponseSchema(String serviceName, String resourcePath, String method,
+                                            String responseCode) {
+        String key = serviceName + KEY_SEPARATOR + method.toLowerCase() + KEY_SEPARATOR + responseCode
+                + KEY_SEPARATOR + resourcePath;
+        return schemas.computeIfAbsent(key, k -> compile(serviceName,
+                extractor -> extractor.extractResponse(resourcePath, method, responseCode)));
+    }
+
+    /**
+     * Returns the fraction of the responses of a resource to be validated when responses are validated
+     * asynchronously, as defined in the open API definition for the resource or for the API.
+     *
+     * @return sample rate, or null if the open API definition does not define one
+     */
+    static Double getResponseSampleRate(String serviceName, String resourcePath, String method) {
+        Double sampleRate = responseSampleRates.get(operationKey(serviceName, resourcePath, method));
+        return sampleRate != null ? sampleRate : responseSampleRates.get(serviceName);
+    }
+
+    private static void putResponseSampleRate(String key, JsonNode node) {
+        JsonNode sampleRate = node.get(Constants.RESPONSE_VALIDATION_SAMPLE_RATE);
+        if (sampleRate == null) {
+            return;
+        }
+        if (sampleRate.isNumber()) {
+            responseSampleRates.put(key, sampleRate.asDouble());
+        } else {
+            logger.warn("Ignoring the non numeric " + Constants.RESPONSE_VALIDATION_SAMPLE_RATE + " of " + key);
+        }
+    }
+
+    private static String operationKey(String serviceName, String resourcePath, String method) {
+        return serviceName + KEY_SEPARATOR + method.toLowerCase() + KEY_SEPARATOR + resourcePath;
+    }
+
+    private static CompiledSchema compile(String serviceName, SchemaExtraction extraction) {
+        SchemaExtractor extractor = extractors.get(serviceName);
+        if (extractor == null) {
+            return CompiledSchema.failed(new IllegalArgumentException("Open API definition of the service "
+                    + serviceName + " is not available"));
+        }
+        try {
+            String schemaString;
+            // Extraction resolves references within the parsed definition, hence it is serialized per API.
+            synchronized (extractor) {
+                schemaString = extraction.extract(extractor);
+            }
+            if (schemaString == null || Constants.EMPTY_ARRAY.equals(schemaString)) {
+                return CompiledSchema.NO_SCHEMA;
+            }
+            Schema schema = SchemaLoader.load(new JSONObject(schemaString));
+            return schema == null ? CompiledSchema.NULL_SCHEMA : new CompiledSchema(schema);
+        } catch (RuntimeException e) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Error occurred while extracting a schema of " + serviceName, e);
+            }
+            return CompiledSchema.failed(e);
+        }
+    }
+
+    /**
+     * Extraction of a single schema from the open API definition.
+     */
+    private interface SchemaExtraction {
+
+        String extract(SchemaExtractor extractor);
+    }
+}
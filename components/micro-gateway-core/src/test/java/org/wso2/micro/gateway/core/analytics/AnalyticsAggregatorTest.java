@@ -0,0 +1,145 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.analytics;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests rolling up the analytics events into aggregates with latency sketches.
+ */
+public class AnalyticsAggregatorTest {
+
+    @Test
+    public void testSketchQuantiles() {
+        LatencySketch sketch = new LatencySketch();
+        long[] values = new long[10000];
+        Random random = new Random(7);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1 + (long) Math.abs(random.nextGaussian() * 200);
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+        for (double quantile : new double[]{0.5, 0.9, 0.99}) {
+            long expected = values[(int) Math.ceil(quantile * values.length) - 1];
+            long actual = sketch.getValueAtQuantile(quantile);
+            // Rounding to whole milliseconds adds up to half a millisecond to the relative error.
+            Assert.assertTrue(quantile + " : " + actual + " != " + expected,
+                    Math.abs(actual - expected) <= expected * LatencySketch.DEFAULT_RELATIVE_ACCURACY + 0.5);
+        }
+        Assert.assertEquals(values[0], sketch.getMin());
+        Assert.assertEquals(values[values.length - 1], sketch.getMax());
+    }
+
+    @Test
+    public void testSketchMerge() {
+        LatencySketch first = new LatencySketch();
+        LatencySketch second = new LatencySketch();
+        LatencySketch all = new LatencySketch();
+        for (long value = 0; value < 5000; value++) {
+            first.add(value);
+            all.add(value);
+            second.add(value * 37 + 100000);
+            all.add(value * 37 + 100000);
+        }
+        first.merge(second);
+        Assert.assertEquals(all.toJson().toString(), first.toJson().toString());
+        Assert.assertEquals(all.getValueAtQuantile(0.95), first.getValueAtQuantile(0.95));
+        Assert.assertEquals(all.getSum(), first.getSum());
+    }
+
+    @Test
+    public void testAggregatesEmittedAfterBucket() {
+        AnalyticsAggregator aggregator = new AnalyticsAggregator(60000, 100);
+        long bucket = aggregator.getBucket(1_000_000);
+        for (int i = 1; i <= 10; i++) {
+            aggregator.add(key(aggregator, bucket + i, "app1", 200), AnalyticsAggregator.EVENT_RESPONSE, i * 10, 100);
+        }
+        aggregator.add(key(aggregator, bucket + 20, "app1", 900901), AnalyticsAggregator.EVENT_FAULT, 0, 0);
+        aggregator.add(key(aggregator, bucket + 60000, "app1", 200), AnalyticsAggregator.EVENT_RESPONSE, 5, 100);
+        Assert.assertNull(aggregator.nextAggregate(bucket + 59999));
+
+        JSONObject responses = null;
+        JSONObject faults = null;
+        String aggregate;
+        while ((aggregate = aggregator.nextAggregate(bucket + 60000)) != null) {
+            JSONObject json = new JSONObject(aggregate);
+            Assert.assertEquals(bucket, json.getLong("timestamp"));
+            if (json.getLong("status") == 200) {
+                responses = json;
+            } else {
+                faults = json;
+            }
+        }
+        Assert.assertNotNull(responses);
+        Assert.assertNotNull(faults);
+        Assert.assertEquals(10, responses.getLong("requestCount"));
+        Assert.assertEquals(1000, responses.getLong("responseSize"));
+        JSONObject responseTime = responses.getJSONObject("responseTime");
+        Assert.assertEquals(550, responseTime.getLong("sum"));
+        Assert.assertEquals(10, responseTime.getLong("min"));
+        Assert.assertEquals(100, responseTime.getLong("max"));
+        Assert.assertEquals(50, responseTime.getLong("p50"));
+        JSONArray counts = responseTime.getJSONObject("sketch").getJSONArray("counts");
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.getLong(i);
+        }
+        Assert.assertEquals(10, total);
+        Assert.assertEquals(1, faults.getLong("faultCount"));
+        Assert.assertEquals(0, faults.getLong("requestCount"));
+        Assert.assertEquals(1, aggregator.getOpenAggregates());
+        Assert.assertEquals(2, aggregator.getEmittedCount());
+    }
+
+    @Test
+    public void testMaxAggregates() {
+        AnalyticsAggregator aggregator = new AnalyticsAggregator(60000, 2);
+        aggregator.add(key(aggregator, 0, "app1", 200), AnalyticsAggregator.EVENT_RESPONSE, 1, 0);
+        aggregator.add(key(aggregator, 0, "app2", 200), AnalyticsAggregator.EVENT_RESPONSE, 1, 0);
+        aggregator.add(key(aggregator, 0, "app3", 200), AnalyticsAggregator.EVENT_RESPONSE, 1, 0);
+        aggregator.add(key(aggregator, 0, "app4", 200), AnalyticsAggregator.EVENT_THROTTLE, 0, 0);
+        aggregator.add(key(aggregator, 0, "app1", 200), AnalyticsAggregator.EVENT_RESPONSE, 1, 0);
+        Assert.assertEquals(2, aggregator.getOverflowCount());
+        Assert.assertEquals(3, aggregator.getOpenAggregates());
+
+        String aggregate;
+        boolean overflowEmitted = false;
+        while ((aggregate = aggregator.nextAggregate(60000)) != null) {
+            JSONObject json = new JSONObject(aggregate);
+            if (json.getString("applicationId").isEmpty()) {
+                overflowEmitted = true;
+                Assert.assertEquals(1, json.getLong("requestCount"));
+                Assert.assertEquals(1, json.getLong("throttledCount"));
+                Assert.assertEquals("", json.getString("apiResourceTemplate"));
+            }
+        }
+        Assert.assertTrue(overflowEmitted);
+    }
+
+    private static AnalyticsAggregator.AggregateKey key(AnalyticsAggregator aggregator, long timestamp,
+                                                        String application, long status) {
+        return new AnalyticsAggregator.AggregateKey(aggregator.getBucket(timestamp), "PizzaShack", "1.0.0",
+                "/pizzashack/1.0.0", "/menu", "GET", application, application, status);
+    }
+}
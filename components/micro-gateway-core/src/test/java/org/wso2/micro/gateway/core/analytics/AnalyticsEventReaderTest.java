@@ -0,0 +1,89 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.analytics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests reading the analytics events encoded in the text and the binary event file formats.
+ */
+public class AnalyticsEventReaderTest {
+
+    private static final List<AnalyticsEvent> EVENTS = Arrays.asList(
+            new AnalyticsEvent("org.wso2.apimgt.statistics.request:3.2.0", 1589463000123L,
+                    "{\"keyType\":\"PRODUCTION\",\"correlationID\":\"71d8ba1c-b6b5-4ac9-a6b7-1e3f4c5f5a0f\"}", null,
+                    "pizzashack-1.0.0-/menu-GET-admin-carbon.super-ünïcode"),
+            new AnalyticsEvent("org.wso2.apimgt.statistics.fault:3.2.0", 1589463000456L, "{}", null, ""),
+            new AnalyticsEvent("org.wso2.apimgt.statistics.throttle:3.2.0", 0L, "", null,
+                    new String(new char[300]).replace('\0', 'x')));
+
+    @Test
+    public void testTextFormat() throws IOException {
+        byte[] content = encode(false);
+        Assert.assertFalse(AnalyticsEventReader.isBinary(content));
+        assertEvents(AnalyticsEventReader.read(content), "null");
+    }
+
+    @Test
+    public void testBinaryFormat() throws IOException {
+        byte[] content = encode(true);
+        Assert.assertTrue(AnalyticsEventReader.isBinary(content));
+        assertEvents(AnalyticsEventReader.read(content), "");
+        Assert.assertTrue("Binary event file is not smaller than the text event file",
+                content.length < encode(false).length);
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedBinaryFormat() throws IOException {
+        byte[] content = encode(true);
+        AnalyticsEventReader.read(Arrays.copyOf(content, content.length - 1));
+    }
+
+    private static byte[] encode(boolean binary) {
+        AnalyticsEventCodec.ByteSink sink = new AnalyticsEventCodec.ByteSink(64);
+        if (binary) {
+            sink.write(AnalyticsEventCodec.BINARY_HEADER);
+        }
+        for (AnalyticsEvent event : EVENTS) {
+            if (binary) {
+                AnalyticsEventCodec.encodeBinary(event, sink);
+            } else {
+                AnalyticsEventCodec.encodeText(event, sink);
+            }
+        }
+        return Arrays.copyOf(sink.array(), sink.size());
+    }
+
+    private static void assertEvents(List<AnalyticsEvent> events, String correlationData) {
+        Assert.assertEquals(EVENTS.size(), events.size());
+        for (int i = 0; i < EVENTS.size(); i++) {
+            AnalyticsEvent expected = EVENTS.get(i);
+            AnalyticsEvent actual = events.get(i);
+            Assert.assertEquals(expected.getStreamId(), actual.getStreamId());
+            Assert.assertEquals(expected.getTimestamp(), actual.getTimestamp());
+            Assert.assertEquals(expected.getMetaData(), actual.getMetaData());
+            Assert.assertEquals(correlationData, actual.getCorrelationData());
+            Assert.assertEquals(expected.getPayloadData(), actual.getPayloadData());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.analytics;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Tests writing the analytics events to the event file by size and by time, and rotating the event file while the
+ * events are appended.
+ */
+public class AnalyticsFileAppenderTest {
+
+    private static final long TIMEOUT_MILLIS = 10000;
+    private static final long NO_FLUSH_INTERVAL = 3600000;
+
+    private Path directory;
+    private Path filePath;
+    private AnalyticsFileAppender appender;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("api-usage-data");
+        filePath = directory.resolve("api-usage-data.dat.tmp");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (appender != null) {
+            appender.shutdown();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testFlushBySize() throws Exception {
+        // each event is buffered as 113 bytes, hence the ninth event reaches the flush size
+        appender = new AnalyticsFileAppender(filePath, false, false, 0, 16, 1000, NO_FLUSH_INTERVAL, 0);
+        for (int i = 0; i < 8; i++) {
+            Assert.assertTrue(appender.publish(event(i)));
+        }
+        Thread.sleep(100);
+        Assert.assertEquals(0, appender.getWrittenCount());
+        Assert.assertFalse(Files.exists(filePath));
+        Assert.assertTrue(appender.publish(event(8)));
+        Assert.assertTrue(appender.publish(event(9)));
+        waitFor(() -> appender.getWrittenCount() == 9);
+        Assert.assertEquals(9, AnalyticsEventReader.read(filePath).size());
+        Thread.sleep(100);
+        Assert.assertEquals(9, appender.getWrittenCount());
+    }
+
+    @Test
+    public void testFlushByTime() throws Exception {
+        appender = new AnalyticsFileAppender(filePath, false, false, 0, 16, 1 << 20, 50, 0);
+        Assert.assertTrue(appender.publish(event(0)));
+        waitFor(() -> appender.getWrittenCount() == 1);
+        List<AnalyticsEvent> events = AnalyticsEventReader.read(filePath);
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals("payload-0", events.get(0).getPayloadData());
+    }
+
+    @Test
+    public void testRotationDuringConcurrentAppends() throws Exception {
+        int threadCount = 4;
+        int eventsPerThread = 2000;
+        appender = new AnalyticsFileAppender(filePath, false, false, 0, 1 << 16, 512, 10, 0);
+        AtomicInteger accepted = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int offset = t * eventsPerThread;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < eventsPerThread; i++) {
+                    if (appender.publish(event(offset + i))) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        int rotations = 0;
+        while (threads.stream().anyMatch(Thread::isAlive) || rotations == 0) {
+            // only the writer creates the event file, hence it exists until it is renamed here
+            if (Files.exists(filePath)) {
+                appender.rename(filePath, directory.resolve("api-usage-data.dat." + rotations + ".zip"));
+                rotations++;
+            }
+            Thread.sleep(1);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        appender.shutdown();
+        Assert.assertEquals(rotations, appender.getRotationCount());
+        Assert.assertEquals(accepted.get(), appender.getWrittenCount());
+        Assert.assertEquals(0, appender.getDroppedCount());
+        // every accepted event is written once, either to a rotated file or to the current event file
+        Set<String> payloads = new HashSet<>();
+        int eventCount = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                for (AnalyticsEvent event : AnalyticsEventReader.read(file)) {
+                    payloads.add(event.getPayloadData());
+                    eventCount++;
+                }
+            }
+        }
+        Assert.assertEquals(accepted.get(), eventCount);
+        Assert.assertEquals(accepted.get(), payloads.size());
+    }
+
+    @Test
+    public void testEventsAreDroppedOnceTheFileIsFull() throws Exception {
+        // every event is written on its own as about 110 bytes, hence the third one finds the file over 200 bytes
+        appender = new AnalyticsFileAppender(filePath, false, false, 0, 16, 1, NO_FLUSH_INTERVAL, 200);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(appender.publish(event(i)));
+            int expected = i + 1;
+            waitFor(() -> appender.getWrittenCount() + appender.getDroppedCount() == expected);
+        }
+        Assert.assertEquals(2, appender.getWrittenCount());
+        Assert.assertEquals(1, appender.getDroppedCount());
+        // the rotated file makes room for the events again
+        appender.rename(filePath, directory.resolve("api-usage-data.dat.0.zip"));
+        Assert.assertTrue(appender.publish(event(3)));
+        waitFor(() -> appender.getWrittenCount() == 3);
+        Assert.assertEquals(1, AnalyticsEventReader.read(filePath).size());
+    }
+
+    private static AnalyticsEvent event(int index) {
+        return new AnalyticsEvent("stream", index, "{}", null, "payload-" + index);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue("Timed out waiting for the events to be written",
+                    System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.analytics;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Tests uploading the rotated analytics event files to a local stand-in of the analytics server.
+ */
+public class AnalyticsFileUploaderTest {
+
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private Path directory;
+    private AnalyticsFileUploader uploader;
+    private final Map<String, String> received = new ConcurrentHashMap<>();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("api-usage-data");
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/upload", exchange -> {
+            int current = concurrent.incrementAndGet();
+            maxConcurrent.accumulateAndGet(current, Math::max);
+            try (InputStream inputStream = exchange.getRequestBody()) {
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                int length;
+                while ((length = inputStream.read(buffer)) > 0) {
+                    body.write(buffer, 0, length);
+                }
+                Thread.sleep(100);
+                int status = 201;
+                if (failuresLeft.getAndDecrement() > 0) {
+                    status = 503;
+                } else if ("chunked".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Transfer-Encoding"))) {
+                    received.put(exchange.getRequestHeaders().getFirst("FileName"),
+                            new String(body.toByteArray(), StandardCharsets.UTF_8));
+                } else {
+                    status = 400;
+                }
+                exchange.sendResponseHeaders(status, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+                exchange.close();
+            }
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (uploader != null) {
+            uploader.shutdown();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testParallelUpload() throws Exception {
+        uploader = createUploader(3, 0, 0);
+        for (int i = 0; i < 6; i++) {
+            createFile("api-usage-data.dat." + i + ".zip", "events " + i);
+        }
+        Assert.assertEquals(6, uploader.getBacklogFiles());
+        Assert.assertEquals(6, uploader.submitPendingFiles());
+        Assert.assertEquals(0, uploader.submitPendingFiles());
+        waitFor(() -> uploader.getUploadedCount() == 6);
+        Assert.assertEquals(0, uploader.getBacklogFiles());
+        Assert.assertEquals(0, uploader.getInFlightCount());
+        Assert.assertTrue("Files were not uploaded in parallel", maxConcurrent.get() > 1);
+        Assert.assertTrue(maxConcurrent.get() <= 3);
+        String body = received.get("api-usage-data.dat.4.zip");
+        Assert.assertTrue(body.contains("filename=\"api-usage-data.dat.4.zip\""));
+        Assert.assertTrue(body.contains("\r\n\r\nevents 4\r\n--"));
+    }
+
+    @Test
+    public void testRetryWithBackoff() throws Exception {
+        uploader = createUploader(1, 2, 0);
+        failuresLeft.set(2);
+        createFile("api-usage-data.dat.1.zip", "events");
+        uploader.submitPendingFiles();
+        waitFor(() -> uploader.getUploadedCount() == 1);
+        Assert.assertEquals(2, uploader.getFailedAttemptCount());
+        Assert.assertEquals(0, uploader.getBacklogFiles());
+    }
+
+    @Test
+    public void testRetriesExhausted() throws Exception {
+        uploader = createUploader(1, 1, 0);
+        failuresLeft.set(10);
+        createFile("api-usage-data.dat.1.zip", "events");
+        uploader.submitPendingFiles();
+        waitFor(() -> uploader.getFailedAttemptCount() == 2 && uploader.getInFlightCount() == 0);
+        Assert.assertEquals(0, uploader.getUploadedCount());
+        Assert.assertEquals(1, uploader.getBacklogFiles());
+    }
+
+    @Test
+    public void testBacklogLimit() throws Exception {
+        uploader = createUploader(1, 0, 2);
+        createFile("api-usage-data.dat.1.zip", "events");
+        createFile("api-usage-data.dat.tmp", "events");
+        Assert.assertFalse(uploader.checkBacklogFull());
+        createFile("api-usage-data.dat.2.zip", "events");
+        Assert.assertTrue(uploader.checkBacklogFull());
+        Assert.assertEquals(1, uploader.getBackpressureCount());
+        Assert.assertEquals(12, uploader.getBacklogBytes());
+    }
+
+    private AnalyticsFileUploader createUploader(int uploadThreads, int maxRetries, int maxBacklogFiles)
+            throws IOException {
+        URL endpoint = new URL("http://localhost:" + server.getAddress().getPort() + "/upload");
+        return new AnalyticsFileUploader(directory, endpoint, "Basic YWRtaW46YWRtaW4=", null, true, null, null,
+                uploadThreads, maxRetries, 10, 50, maxBacklogFiles);
+    }
+
+    private void createFile(String fileName, String content) throws IOException {
+        Files.write(directory.resolve(fileName), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue("Timed out waiting for the uploads", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.analytics;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Tests buffering the gRPC analytics messages in memory and on the disk.
+ */
+public class GrpcAnalyticsBufferTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("grpc-analytics-buffer");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testMemoryQueue() throws IOException {
+        GrpcAnalyticsBuffer buffer = new GrpcAnalyticsBuffer(directory, 3, 1024, 2);
+        Assert.assertEquals(GrpcAnalyticsBuffer.QUEUED, buffer.offerMessage("m1"));
+        Assert.assertEquals(GrpcAnalyticsBuffer.BATCH_READY, buffer.offerMessage("m2"));
+        Assert.assertEquals(GrpcAnalyticsBuffer.BATCH_READY, buffer.offerMessage("m3"));
+        Assert.assertEquals(GrpcAnalyticsBuffer.FULL, buffer.offerMessage("m4"));
+        Assert.assertEquals("m1", buffer.pollMessage());
+        Assert.assertEquals("m2", buffer.pollMessage());
+        Assert.assertEquals("m3", buffer.pollMessage());
+        Assert.assertNull(buffer.pollMessage());
+        Assert.assertEquals(3, buffer.getPublishedCount());
+    }
+
+    @Test
+    public void testSpillToDisk() throws IOException {
+        GrpcAnalyticsBuffer buffer = new GrpcAnalyticsBuffer(directory, 1, 1024, 1);
+        buffer.offerMessage("m1");
+        buffer.spillMessage("{\"messageStreamName\":\"m2\"}");
+        buffer.spillMessage("{\"messageStreamName\":\"m3\"}");
+        Assert.assertEquals(2, buffer.getSpilledCount());
+        Assert.assertTrue(buffer.getDiskBacklogBytes() > 0);
+        Assert.assertEquals("m1", buffer.pollMessage());
+        Assert.assertEquals("{\"messageStreamName\":\"m2\"}", buffer.pollMessage());
+        buffer.spillMessage("{\"messageStreamName\":\"m4\"}");
+        Assert.assertEquals("{\"messageStreamName\":\"m3\"}", buffer.pollMessage());
+        Assert.assertEquals("{\"messageStreamName\":\"m4\"}", buffer.pollMessage());
+        Assert.assertNull(buffer.pollMessage());
+        Assert.assertEquals(0, buffer.getDiskBacklogBytes());
+    }
+
+    @Test
+    public void testDiskLimit() throws IOException {
+        GrpcAnalyticsBuffer buffer = new GrpcAnalyticsBuffer(directory, 1, 10, 1);
+        buffer.spillMessage("12345678");
+        buffer.spillMessage("12345678");
+        Assert.assertEquals(1, buffer.getSpilledCount());
+        Assert.assertEquals(1, buffer.getDroppedCount());
+        Assert.assertEquals(9, buffer.getDiskBacklogBytes());
+    }
+
+    @Test
+    public void testReplayAfterRestart() throws IOException {
+        GrpcAnalyticsBuffer buffer = new GrpcAnalyticsBuffer(directory, 1, 1024, 1);
+        buffer.spillMessage("m1");
+        buffer.spillMessage("m2");
+        GrpcAnalyticsBuffer restarted = new GrpcAnalyticsBuffer(directory, 1, 1024, 1);
+        Assert.assertEquals(6, restarted.getDiskBacklogBytes());
+        Assert.assertEquals("m1", restarted.pollMessage());
+        Assert.assertEquals("m2", restarted.pollMessage());
+        Assert.assertNull(restarted.pollMessage());
+    }
+
+    @Test
+    public void testMemoryQueueWithoutDiskBuffer() throws IOException {
+        // the disk buffer cannot be created under a file
+        Path file = Files.createFile(directory.resolve("file"));
+        GrpcAnalyticsBuffer buffer = GrpcAnalyticsBuffer.create(file.resolve("buffer"), 1, 1024, 1);
+        Assert.assertEquals(GrpcAnalyticsBuffer.BATCH_READY, buffer.offerMessage("m1"));
+        Assert.assertEquals(GrpcAnalyticsBuffer.FULL, buffer.offerMessage("m2"));
+        buffer.spillMessage("{\"messageStreamName\":\"m2\"}");
+        Assert.assertEquals(0, buffer.getSpilledCount());
+        Assert.assertEquals(1, buffer.getDroppedCount());
+        Assert.assertEquals("m1", buffer.pollMessage());
+        Assert.assertNull(buffer.pollMessage());
+    }
+
+    @Test
+    public void testInvalidMessageIsDropped() throws IOException {
+        // a segment left over from a previous run, which holds an invalid UTF-8 sequence between the messages
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        content.write("m1\n".getBytes(StandardCharsets.UTF_8));
+        content.write(new byte[]{(byte) 0xff, (byte) 0xfe, '\n'});
+        content.write("m2\nm3".getBytes(StandardCharsets.UTF_8));
+        Files.write(directory.resolve("segment-0000000000000000000.log"), content.toByteArray());
+        GrpcAnalyticsBuffer buffer = new GrpcAnalyticsBuffer(directory, 1, 1024, 1);
+        Assert.assertEquals("m1", buffer.pollMessage());
+        Assert.assertEquals("m2", buffer.pollMessage());
+        // the last message of a segment cut off while it was written has no line feed
+        Assert.assertEquals("m3", buffer.pollMessage());
+        Assert.assertNull(buffer.pollMessage());
+        Assert.assertEquals(1, buffer.getDroppedCount());
+        Assert.assertEquals(0, buffer.getQuarantinedSegmentCount());
+        Assert.assertEquals(0, buffer.getDiskBacklogBytes());
+    }
+
+    @Test
+    public void testUnreadableSegmentIsQuarantined() throws IOException {
+        // a segment which fails on every read
+        Path unreadable = Files.createDirectory(directory.resolve("segment-0000000000000000000.log"));
+        Files.write(directory.resolve("segment-0000000000000000001.log"), "m1\n".getBytes(StandardCharsets.UTF_8));
+        GrpcAnalyticsBuffer buffer = new GrpcAnalyticsBuffer(directory, 1, 1024, 1);
+        Assert.assertNull(buffer.pollMessage());
+        Assert.assertNull(buffer.pollMessage());
+        Assert.assertEquals(0, buffer.getQuarantinedSegmentCount());
+        Assert.assertEquals("m1", buffer.pollMessage());
+        Assert.assertEquals(1, buffer.getQuarantinedSegmentCount());
+        Assert.assertFalse(Files.exists(unreadable));
+        Assert.assertTrue(Files.isDirectory(directory.resolve("segment-0000000000000000000.log.corrupt")));
+        Assert.assertNull(buffer.pollMessage());
+        Assert.assertEquals(0, buffer.getDiskBacklogBytes());
+        // the quarantined segment is not replayed after a restart
+        Assert.assertEquals(0, new GrpcAnalyticsBuffer(directory, 1, 1024, 1).getDiskBacklogBytes());
+    }
+}
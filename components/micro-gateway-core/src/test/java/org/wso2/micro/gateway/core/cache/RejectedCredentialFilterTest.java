@@ -0,0 +1,77 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the rotating filter of rejected credentials.
+ */
+public class RejectedCredentialFilterTest {
+
+    private static final long ROTATION_PERIOD = 60000;
+
+    @Test
+    public void testRejectedCredentialsAreFound() {
+        RejectedCredentialFilter filter = new RejectedCredentialFilter(1000, 0.01, ROTATION_PERIOD, 0);
+        for (int i = 0; i < 1000; i++) {
+            filter.add(credential(i), 0);
+        }
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(filter.mightContain(credential(i), 1));
+        }
+        Assert.assertEquals(1000, filter.getInsertionCount());
+        Assert.assertEquals(1000, filter.getRejectedCount());
+    }
+
+    @Test
+    public void testFalsePositiveRateIsBounded() {
+        RejectedCredentialFilter filter = new RejectedCredentialFilter(10000, 0.01, ROTATION_PERIOD, 0);
+        // fills the previous generation up to its capacity and the current one up to half of it
+        for (int i = 0; i < 15000; i++) {
+            filter.add(credential(i), 0);
+        }
+        Assert.assertEquals(1, filter.getRotationCount());
+        int falsePositives = 0;
+        for (int i = 15000; i < 115000; i++) {
+            if (filter.mightContain(credential(i), 0)) {
+                falsePositives++;
+            }
+        }
+        Assert.assertTrue("False positives : " + falsePositives, falsePositives < 100000 * 0.01);
+        Assert.assertTrue(filter.getEstimatedFalsePositiveRate() < 0.01);
+    }
+
+    @Test
+    public void testRejectedCredentialsExpire() {
+        RejectedCredentialFilter filter = new RejectedCredentialFilter(1000, 0.01, ROTATION_PERIOD, 0);
+        filter.add(credential(1), 0);
+        Assert.assertTrue(filter.mightContain(credential(1), ROTATION_PERIOD));
+        filter.add(credential(2), ROTATION_PERIOD);
+        Assert.assertFalse(filter.mightContain(credential(1), 2 * ROTATION_PERIOD));
+        Assert.assertTrue(filter.mightContain(credential(2), 2 * ROTATION_PERIOD));
+        // both generations are discarded if nothing happened for longer than the rotation period
+        Assert.assertFalse(filter.mightContain(credential(2), 4 * ROTATION_PERIOD));
+        Assert.assertEquals(3, filter.getRotationCount());
+    }
+
+    private static String credential(int i) {
+        return "eyJhbGciOiJSUzI1NiJ9.eyJzdWIiOiJhZG1pbiJ9." + Integer.toHexString(i * 7919) + "." + i;
+    }
+}
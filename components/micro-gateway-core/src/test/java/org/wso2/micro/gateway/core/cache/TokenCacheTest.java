@@ -0,0 +1,144 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the digest keyed, size bounded token cache.
+ */
+public class TokenCacheTest {
+
+    private static final long MAX_AGE = 60000;
+
+    @Test
+    public void testGetPutInvalidate() {
+        TokenCache cache = new TokenCache(1024 * 1024, MAX_AGE, 1);
+        String token = token(1);
+        Assert.assertNull(cache.get(token, 0));
+        cache.put(token, Boolean.TRUE, 0);
+        Assert.assertEquals(Boolean.TRUE, cache.get(token, 1));
+        Assert.assertNull(cache.get(token(2), 1));
+        cache.put(token, "replaced", 2);
+        Assert.assertEquals("replaced", cache.get(token, 3));
+        cache.invalidate(token);
+        Assert.assertNull(cache.get(token, 4));
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(3, cache.getMissCount());
+        Assert.assertEquals(0.4, cache.getHitRatio(), 0.0001);
+        Assert.assertEquals(0, cache.getEntryCount());
+        Assert.assertEquals(0, cache.getSizeInBytes());
+    }
+
+    @Test
+    public void testExpiry() {
+        TokenCache cache = new TokenCache(1024 * 1024, MAX_AGE, 1);
+        cache.put(token(1), Boolean.TRUE, 0);
+        Assert.assertEquals(Boolean.TRUE, cache.get(token(1), MAX_AGE - 1));
+        Assert.assertNull(cache.get(token(1), MAX_AGE));
+        Assert.assertEquals(0, cache.getEntryCount());
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        long maxSize = 64 * 1024;
+        TokenCache cache = new TokenCache(maxSize, MAX_AGE, 4);
+        for (int i = 0; i < 10000; i++) {
+            cache.put(token(i), String.format("generated-jwt-%06d", i), i);
+        }
+        Assert.assertTrue(cache.getSizeInBytes() <= maxSize);
+        Assert.assertTrue(cache.getEntryCount() > 0);
+        Assert.assertEquals(10000 - cache.getEntryCount(), cache.getEvictionCount());
+        // the keys are not kept, hence an entry only accounts for its value and a fixed overhead
+        Assert.assertEquals(cache.getEntryCount() * (TokenCache.ENTRY_OVERHEAD
+                + TokenCache.weigh(String.format("generated-jwt-%06d", 0))), cache.getSizeInBytes());
+    }
+
+    @Test
+    public void testEntryGrownInPlaceIsBounded() {
+        long maxSize = 16 * 1024;
+        TokenCache cache = new TokenCache(maxSize, MAX_AGE, 1);
+        int tokens = 80;
+        for (int i = 0; i < tokens; i++) {
+            cache.put(token(i), Boolean.TRUE, i);
+        }
+        // promotes the entries to the protected space
+        for (int i = 0; i < tokens; i++) {
+            Assert.assertEquals(Boolean.TRUE, cache.get(token(i), tokens + i));
+        }
+        Assert.assertEquals(tokens, cache.getEntryCount());
+        StringBuilder claims = new StringBuilder();
+        for (int i = 0; i < 4000; i++) {
+            claims.append('x');
+        }
+        cache.put(token(tokens - 1), claims.toString(), 2 * tokens);
+        Assert.assertTrue(cache.getSizeInBytes() <= maxSize);
+        Assert.assertEquals(claims.toString(), cache.get(token(tokens - 1), 2 * tokens + 1));
+        Assert.assertEquals(tokens - cache.getEntryCount(), cache.getEvictionCount());
+        Assert.assertTrue(cache.getEvictionCount() > 0);
+        // an entry which grows larger than the main space is evicted
+        claims.append(claims).append(claims).append(claims).append(claims);
+        cache.put(token(0), claims.toString(), 2 * tokens + 2);
+        Assert.assertNull(cache.get(token(0), 2 * tokens + 3));
+        Assert.assertTrue(cache.getSizeInBytes() <= maxSize);
+    }
+
+    @Test
+    public void testFrequentEntriesSurviveScan() {
+        TokenCache cache = new TokenCache(256 * 1024, MAX_AGE, 1);
+        int hotTokens = 100;
+        long now = 0;
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < hotTokens; i++) {
+                if (cache.get(token(i), now++) == null) {
+                    cache.put(token(i), Boolean.TRUE, now);
+                }
+            }
+        }
+        // a burst of tokens used only once, which is several times larger than the cache, while the hot tokens are
+        // used less often than a least recently used cache of the same size would need to keep them
+        for (int i = 0; i < 20000; i++) {
+            String token = token(hotTokens + i);
+            if (cache.get(token, now++) == null) {
+                cache.put(token, Boolean.TRUE, now);
+            }
+            if (i % 50 == 0) {
+                String hotToken = token((i / 50) % hotTokens);
+                if (cache.get(hotToken, now++) == null) {
+                    cache.put(hotToken, Boolean.TRUE, now);
+                }
+            }
+        }
+        int retained = 0;
+        for (int i = 0; i < hotTokens; i++) {
+            if (cache.get(token(i), now) != null) {
+                retained++;
+            }
+        }
+        Assert.assertEquals(hotTokens, retained);
+        Assert.assertTrue(cache.getRejectedCount() > 0);
+    }
+
+    private static String token(int i) {
+        StringBuilder token = new StringBuilder("eyJhbGciOiJSUzI1NiJ9.");
+        for (int j = 0; j < 40; j++) {
+            token.append(Integer.toHexString(i * 31 + j));
+        }
+        return token.append('.').append(i).toString();
+    }
+}
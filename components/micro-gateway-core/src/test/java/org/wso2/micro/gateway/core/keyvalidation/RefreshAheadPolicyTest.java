@@ -0,0 +1,117 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.keyvalidation;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests deciding when a cached key validation result is refreshed ahead of its expiry.
+ */
+public class RefreshAheadPolicyTest {
+
+    private static final long CACHED_TIME = 1_000_000;
+    private static final long MAX_AGE = 100_000;
+    private static final double FACTOR = 0.8;
+
+    @Test
+    public void testRefreshWindow() {
+        Assert.assertEquals(80_000, RefreshAheadPolicy.getRefreshAfter(MAX_AGE, FACTOR));
+        Assert.assertFalse(isDue(0, CACHED_TIME));
+        Assert.assertFalse(isDue(0, CACHED_TIME + 79_999));
+        Assert.assertTrue(isDue(0, CACHED_TIME + 80_000));
+        Assert.assertTrue(isDue(0, CACHED_TIME + 99_999));
+        // expired entries are validated again when the cache is missed
+        Assert.assertFalse(isDue(0, CACHED_TIME + MAX_AGE));
+    }
+
+    @Test
+    public void testRefreshDisabled() {
+        long now = CACHED_TIME + 90_000;
+        Assert.assertFalse(RefreshAheadPolicy.isDue(CACHED_TIME, 0, MAX_AGE, 0, now));
+        Assert.assertFalse(RefreshAheadPolicy.isDue(CACHED_TIME, 0, MAX_AGE, 1, now));
+        Assert.assertFalse(RefreshAheadPolicy.isDue(CACHED_TIME, 0, MAX_AGE, -0.5, now));
+        Assert.assertFalse(RefreshAheadPolicy.isDue(CACHED_TIME, 0, 0, FACTOR, now));
+    }
+
+    @Test
+    public void testRetryInterval() {
+        // the refresh window of 20 seconds fits four attempts
+        Assert.assertEquals(5_000, RefreshAheadPolicy.getRetryInterval(MAX_AGE, 80_000));
+        long refreshTime = CACHED_TIME + 81_000;
+        Assert.assertFalse(isDue(refreshTime, CACHED_TIME + 85_999));
+        Assert.assertTrue(isDue(refreshTime, CACHED_TIME + 86_000));
+        Assert.assertEquals(1, RefreshAheadPolicy.getRetryInterval(3, 2));
+    }
+
+    @Test
+    public void testFailedRefreshKeepsCachedEntry() throws Exception {
+        Map<String, Entry> cache = new ConcurrentHashMap<>();
+        Entry entry = new Entry(CACHED_TIME);
+        cache.put("token1", entry);
+        SingleFlightGroup group = new SingleFlightGroup(10000);
+        long now = CACHED_TIME + 81_000;
+
+        // the first request reading the entry in the refresh window leads the refresh
+        Assert.assertTrue(entry.isDue(now));
+        SingleFlightGroup.Flight refresh = group.join("token1");
+        Assert.assertTrue(SingleFlightGroup.isLeader(refresh));
+        entry.refreshTime = now;
+        // a request missing the cache of the same key while the refresh is in progress waits for it
+        SingleFlightGroup.Flight follower = group.join("token1");
+        CompletableFuture<Object> shared = new CompletableFuture<>();
+        follower.await(shared::complete);
+
+        Exception error = new Exception("Key manager is not reachable");
+        SingleFlightGroup.fail(refresh, error);
+        Assert.assertSame(error, shared.get(10, TimeUnit.SECONDS));
+        // the entry is kept and used by the requests until it expires, and is not refreshed again by each of them
+        Assert.assertSame(entry, cache.get("token1"));
+        Assert.assertFalse(entry.isDue(now + 1));
+        Assert.assertFalse(entry.isDue(now + 4_999));
+        // it is refreshed again after the retry interval
+        Assert.assertTrue(entry.isDue(now + 5_000));
+        Assert.assertTrue(SingleFlightGroup.isLeader(group.join("token1")));
+    }
+
+    private static boolean isDue(long refreshTime, long now) {
+        return RefreshAheadPolicy.isDue(CACHED_TIME, refreshTime, MAX_AGE, FACTOR, now);
+    }
+
+    /**
+     * Cached key validation result.
+     */
+    private static class Entry {
+
+        private final long cachedTime;
+        private long refreshTime;
+
+        Entry(long cachedTime) {
+            this.cachedTime = cachedTime;
+        }
+
+        boolean isDue(long now) {
+            return RefreshAheadPolicy.isDue(cachedTime, refreshTime, MAX_AGE, FACTOR, now);
+        }
+    }
+}
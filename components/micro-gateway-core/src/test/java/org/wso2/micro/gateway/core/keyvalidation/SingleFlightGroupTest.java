@@ -0,0 +1,145 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.keyvalidation;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests coalescing the concurrent remote calls of the same key.
+ */
+public class SingleFlightGroupTest {
+
+    @Test
+    public void testResultIsShared() throws Exception {
+        SingleFlightGroup group = new SingleFlightGroup(10000);
+        SingleFlightGroup.Flight leader = group.join("token1:/pizzashack/1.0.0");
+        Assert.assertTrue(SingleFlightGroup.isLeader(leader));
+        List<CompletableFuture<Object>> followers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            SingleFlightGroup.Flight flight = group.join("token1:/pizzashack/1.0.0");
+            Assert.assertFalse(SingleFlightGroup.isLeader(flight));
+            followers.add(await(flight));
+        }
+        Assert.assertEquals(1, group.getInFlightCount());
+        for (CompletableFuture<Object> follower : followers) {
+            Assert.assertFalse(follower.isDone());
+        }
+        SingleFlightGroup.complete(leader, "validated");
+        for (CompletableFuture<Object> follower : followers) {
+            Assert.assertEquals("validated", follower.get(10, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(1, group.getLeaderCount());
+        Assert.assertEquals(4, group.getCoalescedCount());
+        Assert.assertEquals(0, group.getInFlightCount());
+    }
+
+    @Test
+    public void testFollowersDoNotHoldThreads() throws Exception {
+        // far more followers wait than there are threads, as the strands of the scheduler do
+        int followerCount = 500;
+        SingleFlightGroup group = new SingleFlightGroup(10000);
+        SingleFlightGroup.Flight leader = group.join("token1");
+        ExecutorService scheduler = Executors.newFixedThreadPool(2);
+        List<CompletableFuture<Object>> followers = new ArrayList<>();
+        try {
+            List<Future<CompletableFuture<Object>>> joins = new ArrayList<>();
+            for (int i = 0; i < followerCount; i++) {
+                joins.add(scheduler.submit(() -> await(group.join("token1"))));
+            }
+            for (Future<CompletableFuture<Object>> join : joins) {
+                // each follower returns its thread while the leader is still in progress
+                followers.add(join.get(10, TimeUnit.SECONDS));
+            }
+            for (CompletableFuture<Object> follower : followers) {
+                Assert.assertFalse(follower.isDone());
+            }
+            // the leader completes on one of the threads the followers ran on
+            scheduler.submit(() -> SingleFlightGroup.complete(leader, "validated")).get(10, TimeUnit.SECONDS);
+        } finally {
+            scheduler.shutdownNow();
+        }
+        for (CompletableFuture<Object> follower : followers) {
+            Assert.assertEquals("validated", follower.get(10, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(1, group.getLeaderCount());
+        Assert.assertEquals(followerCount, group.getCoalescedCount());
+        Assert.assertEquals(0, group.getTimeoutCount());
+    }
+
+    @Test
+    public void testKeysAreIndependent() {
+        SingleFlightGroup group = new SingleFlightGroup(10000);
+        Assert.assertTrue(SingleFlightGroup.isLeader(group.join("token1:/pizzashack/1.0.0")));
+        Assert.assertTrue(SingleFlightGroup.isLeader(group.join("token1:/pizzashack/2.0.0")));
+        Assert.assertTrue(SingleFlightGroup.isLeader(group.join("token2:/pizzashack/1.0.0")));
+        Assert.assertEquals(3, group.getLeaderCount());
+        Assert.assertEquals(3, group.getInFlightCount());
+    }
+
+    @Test
+    public void testErrorIsShared() throws Exception {
+        SingleFlightGroup group = new SingleFlightGroup(10000);
+        SingleFlightGroup.Flight leader = group.join("token1");
+        SingleFlightGroup.Flight follower = group.join("token1");
+        CompletableFuture<Object> result = await(follower);
+        Exception error = new Exception("Key manager is not reachable");
+        SingleFlightGroup.fail(leader, error);
+        Assert.assertSame(error, result.get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(2, group.getFailedCount());
+        Assert.assertEquals(0, group.getCoalescedCount());
+    }
+
+    @Test
+    public void testCompletedFlight() throws Exception {
+        SingleFlightGroup group = new SingleFlightGroup(10000);
+        SingleFlightGroup.Flight leader = group.join("token1");
+        SingleFlightGroup.Flight follower = group.join("token1");
+        SingleFlightGroup.complete(leader, "validated");
+        // a follower which waits after the leader completed is resumed at once
+        Assert.assertEquals("validated", await(follower).getNow(null));
+        Assert.assertEquals("validated", SingleFlightGroup.await(follower));
+        Assert.assertEquals(2, group.getCoalescedCount());
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        SingleFlightGroup group = new SingleFlightGroup(50);
+        SingleFlightGroup.Flight leader = group.join("token1");
+        Assert.assertNull(await(group.join("token1")).get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(1, group.getTimeoutCount());
+        SingleFlightGroup.complete(leader, "validated");
+        Assert.assertEquals(0, group.getCoalescedCount());
+        // requests arriving after the leader completed start a new call
+        Assert.assertTrue(SingleFlightGroup.isLeader(group.join("token1")));
+        Assert.assertEquals(2, group.getLeaderCount());
+    }
+
+    private static CompletableFuture<Object> await(SingleFlightGroup.Flight flight) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        flight.await(result::complete);
+        return result;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.logging;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests building the debug log messages from a format and its arguments.
+ */
+public class LogMessageFormatterTest {
+
+    @Test
+    public void testFormat() {
+        Assert.assertEquals("throttle data key : k1", format("throttle data key : {}", "k1"));
+        Assert.assertEquals("isThrottled:true, stopOnQuota:false",
+                format("isThrottled:{}, stopOnQuota:{}", true, false));
+        Assert.assertEquals("Total time : 12ms", format("Total time : {}ms", 12L));
+        Assert.assertEquals("no placeholders", format("no placeholders"));
+        Assert.assertEquals("nil value : ", format("nil value : {}", (Object) null));
+    }
+
+    @Test
+    public void testMismatchedArguments() {
+        Assert.assertEquals("a : 1, b : {}", format("a : {}, b : {}", 1L));
+        Assert.assertEquals("a : 1", format("a : {}", 1L, 2L));
+    }
+
+    private static String format(String format, Object... args) {
+        return LogMessageFormatter.format(format, args.length, i -> args[i]);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.revocation;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests revoking tokens, expiring the revocations and concurrent revocation and lookup in the
+ * {@link RevokedTokenStore}.
+ */
+public class RevokedTokenStoreTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    @Test
+    public void testRevokedToken() {
+        String expiry = String.valueOf(System.currentTimeMillis() + MINUTE);
+        RevokedTokenStore.addRevokedToken("revokedJti", expiry);
+        Assert.assertTrue(RevokedTokenStore.isRevoked("revokedJti"));
+        Assert.assertFalse(RevokedTokenStore.isRevoked("otherJti"));
+        Assert.assertTrue(RevokedTokenStore.isJwtRevoked("otherJti", "revokedJti"));
+        Assert.assertFalse(RevokedTokenStore.isJwtRevoked("otherJti", "otherSignature"));
+    }
+
+    @Test
+    public void testExpiredRevocation() {
+        long now = System.currentTimeMillis();
+        // revocations are kept for 5 minutes after the token has expired
+        RevokedTokenStore.addRevokedToken("expiredJti", String.valueOf(now - 10 * MINUTE));
+        RevokedTokenStore.addRevokedToken("recentlyExpiredJti", String.valueOf(now - MINUTE));
+        RevokedTokenStore.addRevokedToken("expiredInSecondsJti", String.valueOf((now - 10 * MINUTE) / 1000));
+        RevokedTokenStore.addRevokedToken("validInSecondsJti", String.valueOf((now + MINUTE) / 1000));
+        Assert.assertFalse(RevokedTokenStore.isRevoked("expiredJti"));
+        Assert.assertTrue(RevokedTokenStore.isRevoked("recentlyExpiredJti"));
+        Assert.assertFalse(RevokedTokenStore.isRevoked("expiredInSecondsJti"));
+        Assert.assertTrue(RevokedTokenStore.isRevoked("validInSecondsJti"));
+    }
+
+    @Test
+    public void testRevocationWithoutExpiry() {
+        // relative and invalid expiry times never expire the revocation
+        RevokedTokenStore.addRevokedToken("relativeExpiryJti", "3600");
+        RevokedTokenStore.addRevokedToken("invalidExpiryJti", "tomorrow");
+        RevokedTokenStore.addRevokedToken("missingExpiryJti", null);
+        RevokedTokenStore.purgeExpiredTokens();
+        Assert.assertTrue(RevokedTokenStore.isRevoked("relativeExpiryJti"));
+        Assert.assertTrue(RevokedTokenStore.isRevoked("invalidExpiryJti"));
+        Assert.assertTrue(RevokedTokenStore.isRevoked("missingExpiryJti"));
+    }
+
+    @Test
+    public void testPurgeExpiredTokens() {
+        long now = System.currentTimeMillis();
+        RevokedTokenStore.addRevokedToken("purgedJti", String.valueOf(now - 10 * MINUTE));
+        RevokedTokenStore.addRevokedToken("keptJti", String.valueOf(now + MINUTE));
+        RevokedTokenStore.purgeExpiredTokens();
+        int count = RevokedTokenStore.getRevokedTokenCount();
+        // the bloom filter is rebuilt after the purge and still holds the remaining tokens
+        Assert.assertTrue(RevokedTokenStore.isRevoked("keptJti"));
+        Assert.assertFalse(RevokedTokenStore.isRevoked("purgedJti"));
+
+        RevokedTokenStore.addRevokedToken("purgedJti", String.valueOf(now - 10 * MINUTE));
+        Assert.assertEquals(count + 1, RevokedTokenStore.getRevokedTokenCount());
+        RevokedTokenStore.purgeExpiredTokens();
+        Assert.assertEquals(count, RevokedTokenStore.getRevokedTokenCount());
+    }
+
+    @Test
+    public void testBloomFilterGrowsWithRevocations() {
+        RevokedTokenStore.init(true, 100);
+        String expiry = String.valueOf(System.currentTimeMillis() + MINUTE);
+        // more revocations than the initial capacity of the bloom filter
+        for (int i = 0; i < 25000; i++) {
+            RevokedTokenStore.addRevokedToken("growingJti" + i, expiry);
+        }
+        for (int i = 0; i < 25000; i++) {
+            Assert.assertTrue(RevokedTokenStore.isRevoked("growingJti" + i));
+        }
+        Assert.assertFalse(RevokedTokenStore.isRevoked("growingJti25000"));
+    }
+
+    @Test
+    public void testConcurrentRevokeAndLookup() throws Exception {
+        int writerCount = 4;
+        int readerCount = 4;
+        int tokensPerWriter = 5000;
+        String expiry = String.valueOf(System.currentTimeMillis() + MINUTE);
+        // tokens below this index are revoked by the writers
+        AtomicInteger[] revokedUpTo = new AtomicInteger[writerCount];
+        for (int i = 0; i < writerCount; i++) {
+            revokedUpTo[i] = new AtomicInteger();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(writerCount + readerCount);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int w = 0; w < writerCount; w++) {
+            int writer = w;
+            results.add(executor.submit(() -> {
+                startLatch.await();
+                for (int i = 0; i < tokensPerWriter; i++) {
+                    RevokedTokenStore.addRevokedToken("concurrentJti-" + writer + "-" + i, expiry);
+                    revokedUpTo[writer].set(i + 1);
+                }
+                return null;
+            }));
+        }
+        for (int r = 0; r < readerCount; r++) {
+            results.add(executor.submit(() -> {
+                startLatch.await();
+                boolean done = false;
+                while (!done) {
+                    done = true;
+                    for (int writer = 0; writer < writerCount; writer++) {
+                        int revoked = revokedUpTo[writer].get();
+                        done &= revoked == tokensPerWriter;
+                        if (revoked > 0 && !RevokedTokenStore.isRevoked("concurrentJti-" + writer + "-"
+                                + (revoked - 1))) {
+                            throw new AssertionError("Revoked token was not found by a concurrent lookup");
+                        }
+                        if (RevokedTokenStore.isRevoked("concurrentJti-" + writer + "-" + tokensPerWriter)) {
+                            throw new AssertionError("Token which is not revoked was found");
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        startLatch.countDown();
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        for (int writer = 0; writer < writerCount; writer++) {
+            for (int i = 0; i < tokensPerWriter; i++) {
+                Assert.assertTrue(RevokedTokenStore.isRevoked("concurrentJti-" + writer + "-" + i));
+            }
+        }
+    }
+}
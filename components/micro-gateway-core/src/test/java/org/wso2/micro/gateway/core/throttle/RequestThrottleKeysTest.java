@@ -0,0 +1,76 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.throttle;
+
+import org.ballerinalang.jvm.values.MapValue;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests that the throttle keys built from the parts of a local throttle event are the keys built by the throttle
+ * filter.
+ */
+public class RequestThrottleKeysTest {
+
+    @Test
+    public void testResourceKeys() {
+        Map<String, String> event = new HashMap<>();
+        event.put("apiContext", "/petstore");
+        event.put("apiVersion", "1.0.0");
+        event.put("appId", "42");
+        event.put("userId", "admin");
+        event.put("resourcePath", "/pet/{petId}");
+        event.put("httpMethod", "GET");
+        RequestThrottleKeys throttleKeys = new RequestThrottleKeys().setEvent(throttleEvent(event));
+        Assert.assertEquals("/petstore:1.0.0", throttleKeys.getApiKey().toString());
+        Assert.assertEquals("/petstore/1.0.0/pet/{petId}:GET", throttleKeys.getResourceKey().toString());
+        Assert.assertEquals("42:/petstore:1.0.0", throttleKeys.getSubscriptionKey().toString());
+        Assert.assertEquals("42:admin", throttleKeys.getAppKey().toString());
+        Assert.assertTrue(throttleKeys.getSubscriptionKey().matches("42:/petstore:1.0.0"));
+        Assert.assertEquals("42:/petstore:1.0.0".hashCode(), throttleKeys.getSubscriptionKey().hash());
+    }
+
+    @Test
+    public void testApiLevelPolicyKeys() {
+        Map<String, String> event = new HashMap<>();
+        event.put("apiContext", "/petstore");
+        event.put("apiVersion", "1.0.0");
+        event.put("appId", "42");
+        event.put("userId", "admin");
+        event.put("resourcePath", "");
+        event.put("httpMethod", "");
+        RequestThrottleKeys throttleKeys = new RequestThrottleKeys().setEvent(throttleEvent(event));
+        Assert.assertEquals("/petstore:1.0.0", throttleKeys.getResourceKey().toString());
+        Assert.assertTrue(throttleKeys.getResourceKey().matches("/petstore:1.0.0"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MapValue<String, Object> throttleEvent(Map<String, String> event) {
+        return (MapValue<String, Object>) Proxy.newProxyInstance(MapValue.class.getClassLoader(),
+                new Class[]{MapValue.class}, (proxy, method, args) -> {
+                    if ("getStringValue".equals(method.getName())) {
+                        return event.get(args[0]);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
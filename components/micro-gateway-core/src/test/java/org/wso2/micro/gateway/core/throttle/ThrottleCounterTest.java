@@ -0,0 +1,151 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.throttle;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.wso2.micro.gateway.core.Constants;
+
+import java.time.Clock;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the local throttle algorithms at window boundaries, using a clock driven by the tests.
+ */
+public class ThrottleCounterTest {
+
+    private static final long MINUTE = 60000;
+    // start of a minute in the future, so that the counters never look expired to the cleanup task
+    private static final long WINDOW_START = (System.currentTimeMillis() / MINUTE + 10) * MINUTE;
+
+    private static ManualClock clock;
+    private static ThrottleCounter throttleCounter;
+
+    @BeforeClass
+    public static void init() {
+        clock = new ManualClock(WINDOW_START);
+        ThrottleCounter.setClock(clock);
+        ThrottleDataReceiver.initThrottleDataReceiver(1, 1, 1, Constants.THROTTLE_UPDATE_MODE_INLINE, 1, 16);
+        throttleCounter = ThrottleDataReceiver.getThrottleCounter();
+    }
+
+    @AfterClass
+    public static void reset() {
+        ThrottleCounter.setClock(Clock.systemUTC());
+    }
+
+    @Test
+    public void testFixedWindowIsResetAtWindowBoundary() {
+        String key = "fixedWindowKey";
+        clock.setMillis(WINDOW_START + MINUTE - 10000);
+        sendRequests(key, "fixedWindow", 5);
+        Assert.assertTrue(ThrottleCounter.isSubscriptionLevelThrottled(key));
+        clock.setMillis(WINDOW_START + MINUTE + 2000);
+        Assert.assertFalse(ThrottleCounter.isSubscriptionLevelThrottled(key));
+    }
+
+    @Test
+    public void testSlidingWindowLogAtWindowBoundary() {
+        String key = "slidingWindowLogKey";
+        // most of the quota is sent at the end of a fixed window
+        clock.setMillis(WINDOW_START + MINUTE - 10000);
+        sendRequests(key, "slidingWindowLog", 4);
+        Assert.assertFalse(ThrottleCounter.isSubscriptionLevelThrottled(key));
+        // a fixed window would have been reset by now, the sliding log still has the previous requests
+        clock.setMillis(WINDOW_START + MINUTE + 2000);
+        sendRequests(key, "slidingWindowLog", 1);
+        Assert.assertTrue(ThrottleCounter.isSubscriptionLevelThrottled(key));
+        // the requests leave the log a minute after they were sent
+        clock.setMillis(WINDOW_START + 2 * MINUTE - 9000);
+        Assert.assertFalse(ThrottleCounter.isSubscriptionLevelThrottled(key));
+    }
+
+    @Test
+    public void testSlidingWindowCounterAtWindowBoundary() {
+        String key = "slidingWindowCounterKey";
+        clock.setMillis(WINDOW_START + MINUTE - 10000);
+        sendRequests(key, "slidingWindowCounter", 4);
+        // 4 requests of the previous window weighted by 58 / 60 plus 2 requests of the current window, while a
+        // fixed window would only have counted 2
+        clock.setMillis(WINDOW_START + MINUTE + 2000);
+        sendRequests(key, "slidingWindowCounter", 2);
+        Assert.assertTrue(ThrottleCounter.isSubscriptionLevelThrottled(key));
+        // 4 requests weighted by 30 / 60 plus 2
+        clock.setMillis(WINDOW_START + MINUTE + 30000);
+        Assert.assertFalse(ThrottleCounter.isSubscriptionLevelThrottled(key));
+    }
+
+    @Test
+    public void testTokenBucketIsRefilledOverTime() {
+        String key = "tokenBucketKey";
+        clock.setMillis(WINDOW_START);
+        sendRequests(key, "tokenBucket", 5);
+        Assert.assertTrue(ThrottleCounter.isSubscriptionLevelThrottled(key));
+        // a token is added every 12 seconds for a quota of 5 requests a minute
+        clock.advance(12000);
+        Assert.assertFalse(ThrottleCounter.isSubscriptionLevelThrottled(key));
+    }
+
+    @Test
+    public void testFixedWindowResetDoesNotLoseIncrements() throws InterruptedException {
+        int threads = 8;
+        int requestsPerThread = 10000;
+        ThrottleData throttleData = new ThrottleData();
+        throttleData.setLimit(Long.MAX_VALUE);
+        throttleData.setUnitTime(MINUTE);
+        throttleData.setAlgorithm(ThrottleAlgorithm.FIXED_WINDOW);
+        FixedWindowCounterEngine engine = new FixedWindowCounterEngine();
+        engine.init(throttleData, WINDOW_START);
+        engine.increment(throttleData, WINDOW_START);
+        // every thread sends its requests in the next window, hence all of them race to reset the counter
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int j = 0; j < requestsPerThread; j++) {
+                    engine.increment(throttleData, WINDOW_START + MINUTE + j % 1000);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        Assert.assertEquals(WINDOW_START + MINUTE, throttleData.getWindowStartTime());
+        Assert.assertEquals((long) threads * requestsPerThread, throttleData.getCount().get());
+    }
+
+    private static void sendRequests(String subscriptionKey, String algorithm, int count) {
+        ThrottleKey key = new ThrottleKey().append(subscriptionKey);
+        ThrottleKey unusedKey = new ThrottleKey();
+        for (int i = 0; i < count; i++) {
+            throttleCounter.updateCounters(unusedKey, unusedKey, true, key, 0, 1, "min", "", 0, 1, "min", "", 5, 1,
+                    "min", algorithm, unusedKey, 0, 1, "min", "", clock.millis());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.throttle;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+
+/**
+ * Tests that the timing wheel of the cleanup task removes throttle data once its window has ended.
+ */
+public class ThrottleDataCleanUpTaskTest {
+
+    private static final long MINUTE = 60000;
+    // fixed windows start at multiples of their unit time, hence the start is aligned to the longest window used
+    private static final long START = (System.currentTimeMillis() / (10 * MINUTE)) * 10 * MINUTE;
+
+    private ManualClock clock;
+    private ThrottleDataCleanUpTask cleanUpTask;
+
+    @Before
+    public void init() {
+        clock = new ManualClock(START);
+        ThrottleCounter.setClock(clock);
+        cleanUpTask = new ThrottleDataCleanUpTask(false);
+    }
+
+    @After
+    public void reset() {
+        ThrottleCounter.setClock(Clock.systemUTC());
+    }
+
+    @Test
+    public void testThrottleDataIsRemovedOnceWindowEnds() {
+        RecordingThrottleData throttleData = newThrottleData(10000);
+        cleanUpTask.addThrottleData(throttleData);
+        Assert.assertEquals(1, cleanUpTask.getLiveKeyCount());
+
+        tick(10);
+        // the window ends at the 10th tick, hence the data is still in use
+        Assert.assertEquals(0, throttleData.cleanedAt);
+        Assert.assertEquals(1, cleanUpTask.getLiveKeyCount());
+        tick(1);
+        Assert.assertEquals(START + 11000, throttleData.cleanedAt);
+        Assert.assertEquals(0, cleanUpTask.getLiveKeyCount());
+    }
+
+    @Test
+    public void testThrottleDataIsRescheduledWhenWindowMoves() {
+        RecordingThrottleData throttleData = newThrottleData(10000);
+        cleanUpTask.addThrottleData(throttleData);
+
+        tick(9);
+        // a request of the next window moves the expiry time to the end of that window
+        ThrottleAlgorithm.FIXED_WINDOW.getEngine().increment(throttleData, START + 10000);
+        tick(11);
+        Assert.assertEquals(0, throttleData.cleanedAt);
+        Assert.assertEquals(1, cleanUpTask.getLiveKeyCount());
+        tick(1);
+        Assert.assertEquals(START + 21000, throttleData.cleanedAt);
+        Assert.assertEquals(0, cleanUpTask.getLiveKeyCount());
+    }
+
+    @Test
+    public void testThrottleDataExpiringAfterWheelRevolution() {
+        // 600 ticks, which is more than one revolution of the 512 slot wheel
+        RecordingThrottleData throttleData = newThrottleData(10 * MINUTE);
+        cleanUpTask.addThrottleData(throttleData);
+
+        tick(600);
+        Assert.assertEquals(0, throttleData.cleanedAt);
+        tick(1);
+        Assert.assertEquals(START + 601000, throttleData.cleanedAt);
+        Assert.assertEquals(0, cleanUpTask.getLiveKeyCount());
+    }
+
+    @Test
+    public void testOnlyDueThrottleDataIsRemoved() {
+        RecordingThrottleData shortWindow = newThrottleData(5000);
+        RecordingThrottleData longWindow = newThrottleData(MINUTE);
+        cleanUpTask.addThrottleData(shortWindow);
+        cleanUpTask.addThrottleData(longWindow);
+
+        tick(6);
+        Assert.assertEquals(START + 6000, shortWindow.cleanedAt);
+        Assert.assertEquals(0, longWindow.cleanedAt);
+        Assert.assertEquals(1, cleanUpTask.getLiveKeyCount());
+        tick(55);
+        Assert.assertEquals(START + 61000, longWindow.cleanedAt);
+        Assert.assertEquals(0, cleanUpTask.getLiveKeyCount());
+    }
+
+    private void tick(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            clock.advance(1000);
+            cleanUpTask.cleanUp();
+        }
+    }
+
+    private RecordingThrottleData newThrottleData(long unitTime) {
+        RecordingThrottleData throttleData = new RecordingThrottleData();
+        throttleData.setUnitTime(unitTime);
+        throttleData.setLimit(10);
+        throttleData.setAlgorithm(ThrottleAlgorithm.FIXED_WINDOW);
+        throttleData.setThrottleType(ThrottleData.ThrottleType.SUBSCRIPTION);
+        throttleData.setThrottleKey("key" + unitTime);
+        ThrottleAlgorithm.FIXED_WINDOW.getEngine().init(throttleData, START);
+        return throttleData;
+    }
+
+    /**
+     * Throttle data which records when it was removed, instead of removing itself from the throttle counters.
+     */
+    private static class RecordingThrottleData extends ThrottleData {
+
+        private long cleanedAt = 0;
+
+        @Override
+        public boolean cleanThrottleData(long timeStamp) {
+            Assert.assertEquals("Throttle data was cleaned more than once", 0, cleanedAt);
+            if (getExpiryTime() < timeStamp) {
+                cleanedAt = timeStamp;
+                return true;
+            }
+            return false;
+        }
+    }
+}
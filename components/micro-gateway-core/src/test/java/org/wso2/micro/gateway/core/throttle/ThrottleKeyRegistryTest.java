@@ -0,0 +1,230 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.throttle;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests registering, looking up and releasing throttle keys of the {@link ThrottleKeyRegistry}.
+ */
+public class ThrottleKeyRegistryTest {
+
+    @Test
+    public void testRegisterAndLookup() {
+        ThrottleKeyRegistry registry = new ThrottleKeyRegistry();
+        int id1 = registry.register("key1");
+        int id2 = registry.register("key2");
+        Assert.assertNotEquals(id1, id2);
+        Assert.assertEquals(id1, registry.register("key1"));
+        Assert.assertEquals(id1, registry.getId("key1"));
+        Assert.assertEquals(id2, registry.getId("key2"));
+        Assert.assertEquals(-1, registry.getId("key3"));
+        Assert.assertEquals(2, registry.size());
+    }
+
+    @Test
+    public void testProbingOfCollidingKeys() {
+        ThrottleKeyRegistry registry = new ThrottleKeyRegistry();
+        List<String> keys = collidingKeys(6);
+        Set<Integer> ids = new HashSet<>();
+        for (String key : keys) {
+            ids.add(registry.register(key));
+        }
+        Assert.assertEquals(keys.size(), ids.size());
+
+        // releasing a key in the middle of the probe sequence must not hide the keys after it
+        String releasedKey = keys.get(keys.size() / 2);
+        registry.release(releasedKey, registry.getId(releasedKey));
+        Assert.assertEquals(-1, registry.getId(releasedKey));
+        for (String key : keys) {
+            if (!key.equals(releasedKey)) {
+                Assert.assertTrue(ids.contains(registry.getId(key)));
+            }
+        }
+        Assert.assertEquals(keys.size() - 1, registry.size());
+    }
+
+    @Test
+    public void testResize() {
+        ThrottleKeyRegistry registry = new ThrottleKeyRegistry();
+        int keyCount = 5000;
+        int[] ids = new int[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            ids[i] = registry.register("key" + i);
+        }
+        Assert.assertEquals(keyCount, registry.size());
+        for (int i = 0; i < keyCount; i++) {
+            Assert.assertEquals(ids[i], registry.getId("key" + i));
+        }
+
+        // ids beyond the first chunk have a throttle data slot
+        int lastId = ids[keyCount - 1];
+        ThrottleData throttleData = throttleData("key" + (keyCount - 1), lastId);
+        Assert.assertSame(throttleData, registry.putIfAbsent(throttleData));
+        Assert.assertSame(throttleData, registry.getThrottleData(lastId));
+    }
+
+    @Test
+    public void testLookupByParts() {
+        ThrottleKeyRegistry registry = new ThrottleKeyRegistry();
+        int id = registry.register("app1:/pets:1.0.0");
+        ThrottleKey key = new ThrottleKey().append("app1").append(':', "/pets").append(':', "1.0.0");
+        Assert.assertEquals("app1:/pets:1.0.0".hashCode(), key.hash());
+        Assert.assertEquals(id, registry.getId(key));
+        Assert.assertEquals(-1, registry.getId(key.clear().append("app1").append(':', "/pets").append(':', "1.0")));
+        // keys are compared by their concatenation, not by their parts
+        Assert.assertEquals(id, registry.getId(key.clear().append("app1:").append('/', "pets").append(':', "1.0.0")));
+
+        int resourceId = registry.register(key.clear().append("/pets").append('/', "1.0.0").append("/{id}")
+                .append(':', "GET"));
+        Assert.assertEquals(resourceId, registry.getId("/pets/1.0.0/{id}:GET"));
+    }
+
+    @Test
+    public void testThrottleDataOfReleasedKeyIsNotSet() {
+        ThrottleKeyRegistry registry = new ThrottleKeyRegistry();
+        int id = registry.register("key1");
+        ThrottleData throttleData1 = throttleData("key1", id);
+        Assert.assertSame(throttleData1, registry.putIfAbsent(throttleData1));
+        // a thread registered key1 and is about to set its throttle data, when the throttle data expires and the id
+        // is reused by key2
+        ThrottleData staleThrottleData = throttleData("key1", id);
+        Assert.assertTrue(registry.remove(throttleData1));
+        Assert.assertFalse(registry.remove(throttleData1));
+        Assert.assertEquals(id, registry.register("key2"));
+        ThrottleData throttleData2 = throttleData("key2", id);
+        Assert.assertSame(throttleData2, registry.putIfAbsent(throttleData2));
+
+        Assert.assertNull(registry.putIfAbsent(staleThrottleData));
+        Assert.assertSame(throttleData2, registry.getThrottleData(id));
+        // the throttle data of a key which is already set is kept
+        Assert.assertSame(throttleData2, registry.putIfAbsent(throttleData("key2", id)));
+    }
+
+    @Test
+    public void testReleaseReusesIds() {
+        ThrottleKeyRegistry registry = new ThrottleKeyRegistry();
+        int id = registry.register("key1");
+        registry.register("key2");
+
+        // releasing with an id the key is not registered with is ignored
+        registry.release("key1", id + 1);
+        Assert.assertEquals(id, registry.getId("key1"));
+
+        registry.release("key1", id);
+        Assert.assertEquals(-1, registry.getId("key1"));
+        Assert.assertEquals(id, registry.register("key3"));
+        Assert.assertEquals(2, registry.size());
+    }
+
+    @Test
+    public void testRepeatedRegisterAndReleaseKeepsIdsCompact() {
+        ThrottleKeyRegistry registry = new ThrottleKeyRegistry();
+        // released slots are only reclaimed when the table is rebuilt
+        for (int i = 0; i < 10000; i++) {
+            String key = "key" + i;
+            int id = registry.register(key);
+            Assert.assertTrue(id < 10);
+            Assert.assertEquals(id, registry.getId(key));
+            registry.release(key, id);
+        }
+        Assert.assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void testConcurrentRegisterAndLookup() throws Exception {
+        ThrottleKeyRegistry registry = new ThrottleKeyRegistry();
+        int threadCount = 8;
+        int keyCount = 4000;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<int[]>> results = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            Random random = new Random(t);
+            results.add(executor.submit(new Callable<int[]>() {
+                @Override
+                public int[] call() throws Exception {
+                    List<Integer> order = new ArrayList<>();
+                    for (int i = 0; i < keyCount; i++) {
+                        order.add(i);
+                    }
+                    Collections.shuffle(order, random);
+                    startLatch.await();
+                    int[] ids = new int[keyCount];
+                    for (int i : order) {
+                        ids[i] = registry.register("key" + i);
+                        if (registry.getId("key" + i) != ids[i]) {
+                            throw new AssertionError("Lookup of key" + i + " did not return its id");
+                        }
+                    }
+                    return ids;
+                }
+            }));
+        }
+        startLatch.countDown();
+        int[] ids = results.get(0).get();
+        for (Future<int[]> result : results) {
+            Assert.assertArrayEquals(ids, result.get());
+        }
+        executor.shutdown();
+
+        Set<Integer> distinctIds = new HashSet<>();
+        for (int id : ids) {
+            distinctIds.add(id);
+        }
+        Assert.assertEquals(keyCount, distinctIds.size());
+        Assert.assertEquals(keyCount, registry.size());
+    }
+
+    private static ThrottleData throttleData(String key, int id) {
+        ThrottleData throttleData = new ThrottleData();
+        throttleData.setThrottleKey(key);
+        throttleData.setKeyId(id);
+        return throttleData;
+    }
+
+    /**
+     * @return 2^n distinct keys with the same hash code, as "Aa" and "BB" have the same hash code
+     */
+    private static List<String> collidingKeys(int n) {
+        List<String> keys = new ArrayList<>();
+        keys.add("");
+        for (int i = 0; i < n; i++) {
+            List<String> longerKeys = new ArrayList<>();
+            for (String key : keys) {
+                longerKeys.add(key + "Aa");
+                longerKeys.add(key + "BB");
+            }
+            keys = longerKeys;
+        }
+        return keys;
+    }
+}
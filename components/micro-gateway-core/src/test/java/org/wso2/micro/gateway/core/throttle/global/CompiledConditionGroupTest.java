@@ -0,0 +1,152 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.throttle.global;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tests matching request attributes against the compiled conditions of a {@link CompiledConditionGroup}.
+ */
+public class CompiledConditionGroupTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testClaimToString() {
+        Assert.assertEquals("admin", ConditionContext.claimToString("admin"));
+        Assert.assertEquals("42", ConditionContext.claimToString(42L));
+        Assert.assertEquals("true", ConditionContext.claimToString(true));
+        Assert.assertEquals("", ConditionContext.claimToString(null));
+        Assert.assertEquals("1600000000", ConditionContext.claimToString(new Date(1600000000000L)));
+        // lists and objects are stringified the same way as ballerina json values
+        Assert.assertEquals("admin internal/everyone",
+                ConditionContext.claimToString(Arrays.asList("admin", "internal/everyone")));
+        Map<String, Object> address = new LinkedHashMap<>();
+        address.put("country", "LK");
+        address.put("codes", Arrays.asList(10, 20));
+        Assert.assertEquals("country=LK codes=10 20", ConditionContext.claimToString(address));
+    }
+
+    @Test
+    public void testListClaimCondition() throws IOException {
+        CompiledConditionGroup group = compile("[{\"jwtclaims\":{\"values\":{\"groups\":\"^admin dev$\"},"
+                + "\"invert\":false}}]");
+        TestConditionContext context = new TestConditionContext("10.0.0.1");
+        context.claims.put("groups", Arrays.asList("admin", "dev"));
+        Assert.assertTrue(group.isThrottled(context, false, false, true));
+        context.claims.put("groups", Arrays.asList("admin"));
+        Assert.assertFalse(group.isThrottled(context, false, false, true));
+        // claim conditions are not evaluated when they are disabled
+        Assert.assertTrue(group.isThrottled(context, false, false, false));
+    }
+
+    @Test
+    public void testMissingClaim() throws IOException {
+        CompiledConditionGroup group = compile("[{\"jwtclaims\":{\"values\":{\"sub\":\"admin\"},\"invert\":false}}]");
+        TestConditionContext context = new TestConditionContext("10.0.0.1");
+        Assert.assertFalse(group.isThrottled(context, false, false, true));
+        context.claims.put("iss", "wso2");
+        Assert.assertFalse(group.isThrottled(context, false, false, true));
+        context.claims.put("sub", "admin@carbon.super");
+        Assert.assertTrue(group.isThrottled(context, false, false, true));
+
+        CompiledConditionGroup invertedGroup = compile("[{\"jwtclaims\":{\"values\":{\"sub\":\"admin\"},"
+                + "\"invert\":true}}]");
+        Assert.assertFalse(invertedGroup.isThrottled(context, false, false, true));
+        context.claims.remove("sub");
+        Assert.assertTrue(invertedGroup.isThrottled(context, false, false, true));
+    }
+
+    @Test
+    public void testHeaderAndQueryParamConditions() throws IOException {
+        CompiledConditionGroup group = compile("[{\"header\":{\"values\":{\"User-Agent\":\"curl.*\"},"
+                + "\"invert\":false},\"queryparametertype\":{\"values\":{\"type\":\"^bulk$\"},\"invert\":false}}]");
+        TestConditionContext context = new TestConditionContext("10.0.0.1");
+        context.headers.put("User-Agent", "curl/7.58.0");
+        Assert.assertFalse(group.isThrottled(context, true, true, false));
+        context.queryParams.put("type", "bulk");
+        Assert.assertTrue(group.isThrottled(context, true, true, false));
+        context.headers.put("User-Agent", "Mozilla/5.0");
+        Assert.assertFalse(group.isThrottled(context, true, true, false));
+        Assert.assertTrue(group.isThrottled(context, false, true, false));
+    }
+
+    @Test
+    public void testIpConditions() throws IOException {
+        CompiledConditionGroup group = compile("[{\"ipspecific\":{\"specificIp\":\"" + ip("10.0.0.1")
+                + "\",\"invert\":false}},{\"iprange\":{\"startingIp\":\"" + ip("192.168.0.0") + "\",\"endingIp\":\""
+                + ip("192.168.1.0") + "\",\"invert\":false}}]");
+        Assert.assertTrue(group.isThrottled(new TestConditionContext("10.0.0.1"), false, false, false));
+        Assert.assertFalse(group.isThrottled(new TestConditionContext("10.0.0.2"), false, false, false));
+        Assert.assertTrue(group.isThrottled(new TestConditionContext("192.168.0.20"), false, false, false));
+        Assert.assertFalse(group.isThrottled(new TestConditionContext("192.168.0.0"), false, false, false));
+        Assert.assertFalse(group.isThrottled(new TestConditionContext("192.168.1.0"), false, false, false));
+
+        CompiledConditionGroup invertedGroup = compile("[{\"ipspecific\":{\"specificIp\":\"" + ip("10.0.0.1")
+                + "\",\"invert\":true}}]");
+        Assert.assertFalse(invertedGroup.isThrottled(new TestConditionContext("10.0.0.1"), false, false, false));
+        Assert.assertTrue(invertedGroup.isThrottled(new TestConditionContext("10.0.0.2"), false, false, false));
+    }
+
+    static String ip(String ipAddress) {
+        return new BigInteger(ThrottleUtils.ipToBigInteger(ipAddress)).toString();
+    }
+
+    private static CompiledConditionGroup compile(String conditions) throws IOException {
+        return new CompiledConditionGroup(objectMapper.readTree(conditions));
+    }
+
+    /**
+     * Condition context which reads the request attributes from maps instead of a ballerina request.
+     */
+    private static class TestConditionContext extends ConditionContext {
+
+        private final Map<String, String> headers = new HashMap<>();
+        private final Map<String, String> queryParams = new HashMap<>();
+        private final Map<String, Object> claims = new HashMap<>();
+
+        TestConditionContext(String clientIp) {
+            super(clientIp, null, "X-JWT-Assertion");
+        }
+
+        @Override
+        String getHeader(String name) {
+            return headers.get(name);
+        }
+
+        @Override
+        String getQueryParam(String name) {
+            return queryParams.get(name);
+        }
+
+        @Override
+        Map<String, Object> getClaims() {
+            return claims.isEmpty() ? null : claims;
+        }
+    }
+}
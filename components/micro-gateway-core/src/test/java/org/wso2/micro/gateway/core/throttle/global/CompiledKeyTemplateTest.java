@@ -0,0 +1,91 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.throttle.global;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that compiled key templates build the same throttle keys as replacing each template variable in turn.
+ */
+public class CompiledKeyTemplateTest {
+
+    private static final String[] VALUES = {"/pizzashack/1.0.0/menu:GET", "admin@carbon.super", "/pizzashack",
+            "1.0.0", "carbon.super", "wso2.com", "42", "10.100.1.22"};
+
+    @Test
+    public void testKeysMatchVariableReplacement() {
+        String[] templates = {
+                "$userId",
+                "$apiContext:$apiVersion:$userId",
+                "$resourceKey:$clientIp",
+                "$appTenant-$apiTenant-$appId",
+                "prefix_$apiContext_$appId_suffix",
+                "$userId$appId$clientIp",
+                "$resourceKey:$userId:$apiContext:$apiVersion:$appTenant:$apiTenant:$appId:$clientIp",
+                "no variables",
+                "$unknown:$userId:$",
+                ""
+        };
+        for (String template : templates) {
+            Assert.assertEquals("Throttle key of the template " + template, replaceVariables(template, VALUES),
+                    format(template, VALUES));
+        }
+    }
+
+    @Test
+    public void testMissingValueKeepsVariableName() {
+        String[] values = VALUES.clone();
+        values[CompiledKeyTemplate.API_VERSION] = null;
+        Assert.assertEquals("/pizzashack:$apiVersion:admin@carbon.super",
+                format("$apiContext:$apiVersion:$userId", values));
+    }
+
+    @Test
+    public void testTemplateIsFormattedRepeatedly() {
+        CompiledKeyTemplate keyTemplate = new CompiledKeyTemplate("$appId:$clientIp");
+        StringBuilder builder = new StringBuilder();
+        keyTemplate.format(builder, VALUES);
+        Assert.assertEquals("42:10.100.1.22", builder.toString());
+        String[] values = VALUES.clone();
+        values[CompiledKeyTemplate.CLIENT_IP] = "10.100.1.23";
+        builder.setLength(0);
+        keyTemplate.format(builder, values);
+        Assert.assertEquals("42:10.100.1.23", builder.toString());
+    }
+
+    private static String format(String template, String[] values) {
+        StringBuilder builder = new StringBuilder();
+        new CompiledKeyTemplate(template).format(builder, values);
+        return builder.toString();
+    }
+
+    /**
+     * Builds the throttle key the way the throttle filter did before the templates were compiled.
+     */
+    private static String replaceVariables(String template, String[] values) {
+        String key = template.replaceAll("\\$resourceKey", values[CompiledKeyTemplate.RESOURCE_KEY]);
+        key = key.replaceAll("\\$userId", values[CompiledKeyTemplate.USER_ID]);
+        key = key.replaceAll("\\$apiContext", values[CompiledKeyTemplate.API_CONTEXT]);
+        key = key.replaceAll("\\$apiVersion", values[CompiledKeyTemplate.API_VERSION]);
+        key = key.replaceAll("\\$appTenant", values[CompiledKeyTemplate.APP_TENANT]);
+        key = key.replaceAll("\\$apiTenant", values[CompiledKeyTemplate.API_TENANT]);
+        key = key.replaceAll("\\$appId", values[CompiledKeyTemplate.APP_ID]);
+        return key.replaceAll("\\$clientIp", values[CompiledKeyTemplate.CLIENT_IP]);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.throttle.global;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests matching client IPs against the IP and IP range blocking conditions of the {@link IpBlockConditionIndex}.
+ */
+public class IpBlockConditionIndexTest {
+
+    private static final String TENANT = "carbon.super";
+    private static final String OTHER_TENANT = "wso2.com";
+
+    @After
+    public void cleanUp() {
+        for (long id = 1; id <= 5; id++) {
+            IpBlockConditionIndex.removeCondition(id);
+        }
+    }
+
+    @Test
+    public void testFixedIp() {
+        IpBlockConditionIndex.addCondition(1, TENANT, "IP", "192.168.1.10", null, null, false);
+        Assert.assertTrue(IpBlockConditionIndex.isBlocked("192.168.1.10", TENANT));
+        Assert.assertFalse(IpBlockConditionIndex.isBlocked("192.168.1.9", TENANT));
+        Assert.assertFalse(IpBlockConditionIndex.isBlocked("192.168.1.11", TENANT));
+        Assert.assertFalse(IpBlockConditionIndex.isBlocked("192.168.1.10", OTHER_TENANT));
+    }
+
+    @Test
+    public void testIpRangeOfCidrBlock() {
+        // the bounds of a range are not blocked, hence 10.0.0.0/24 is the range between 9.255.255.255 and 10.0.1.0
+        IpBlockConditionIndex.addCondition(1, TENANT, "IPRANGE", null, "9.255.255.255", "10.0.1.0", false);
+        Assert.assertFalse(IpBlockConditionIndex.isBlocked("9.255.255.255", TENANT));
+        Assert.assertTrue(IpBlockConditionIndex.isBlocked("10.0.0.0", TENANT));
+        Assert.assertTrue(IpBlockConditionIndex.isBlocked("10.0.0.128", TENANT));
+        Assert.assertTrue(IpBlockConditionIndex.isBlocked("10.0.0.255", TENANT));
+        Assert.assertFalse(IpBlockConditionIndex.isBlocked("10.0.1.0", TENANT));
+        Assert.assertFalse(IpBlockConditionIndex.isBlocked("172.16.0.1", TENANT));
+    }
+
+    @Test
+    public void testIpRangeMatchesThrottleUtils() {
+        String startingIp = "10.1.2.3";
+        String endingIp = "10.1.130.7";
+        IpBlockConditionIndex.addCondition(1, TENANT, "IPRANGE", null, startingIp, endingIp, false);
+        String start = ThrottleUtils.ipToBigInteger(startingIp);
+        String end = ThrottleUtils.ipToBigInteger(endingIp);
+        Random random = new Random(7);
+        for (int i = 0; i < 10000; i++) {
+            String ip = "10.1." + random.nextInt(256) + "." + random.nextInt(256);
+            Assert.assertEquals("Blocking of " + ip, ThrottleUtils.isIpWithinRange(ip, start, end),
+                    IpBlockConditionIndex.isBlocked(ip, TENANT));
+        }
+    }
+
+    @Test
+    public void testIpv6() {
+        IpBlockConditionIndex.addCondition(1, TENANT, "IP", "2001:db8::1", null, null, false);
+        IpBlockConditionIndex.addCondition(2, TENANT, "IPRANGE", null, "2001:db8:1::", "2001:db8:2::", false);
+        Assert.assertTrue(IpBlockConditionIndex.isBlocked("2001:db8::1", TENANT));
+        Assert.assertTrue(IpBlockConditionIndex.isBlocked("2001:0db8:0000:0000:0000:0000:0000:0001", TENANT));
+        Assert.assertFalse(IpBlockConditionIndex.isBlocked("2001:db8::2", TENANT));
+        Assert.assertFalse(IpBlockConditionIndex.isBlocked("2001:db8:1::", TENANT));
+        Assert.assertTrue(IpBlockConditionIndex.isBlocked("2001:db8:1::1", TENANT));
+        Assert.assertTrue(IpBlockConditionIndex.isBlocked("2001:db8:1:ffff:ffff:ffff:ffff:ffff", TENANT));
+        Assert.assertFalse(IpBlockConditionIndex.isBlocked("2001:db8:2::", TENANT));
+        // IPv4 addresses are below every IPv6 address of the range
+        Assert.assertFalse(IpBlockConditionIndex.isBlocked("10.0.0.1", TENANT));
+    }
+
+    @Test
+    public void testOverlappingRanges() {
+        IpBlockConditionIndex.addCondition(1, TENANT, "IPRANGE", null, "10.0.0.0", "10.0.0.100", false);
+        IpBlockConditionIndex.addCondition(2, TENANT, "IPRANGE", null, "10.0.0.50", "10.0.0.200", false);
+        IpBlockConditionIndex.addCondition(3, TENANT, "IP", "10.0.0.150", null, null, false);
+        Assert.assertTrue(IpBlockConditionIndex.isBlocked("10.0.0.1", TENANT));
+        Assert.assertTrue(IpBlockConditionIndex.isBlocked("10.0.0.100", TENANT));
+        Assert.assertTrue(IpBlockConditionIndex.isBlocked("10.0.0.199", TENANT));
+        Assert.assertFalse(IpBlockConditionIndex.isBlocked("10.0.0.200", TENANT));
+
+        IpBlockConditionIndex.removeCondition(2);
+        Assert.assertTrue(IpBlockConditionIndex.isBlocked("10.0.0.99", TENANT));
+        Assert.assertFalse(IpBlockConditionIndex.isBlocked("10.0.0.100", TENANT));
+        Assert.assertTrue(IpBlockConditionIndex.isBlocked("10.0.0.150", TENANT));
+        Assert.assertFalse(IpBlockConditionIndex.isBlocked("10.0.0.151", TENANT));
+    }
+
+    @Test
+    public void testInvertedConditions() {
+        IpBlockConditionIndex.addCondition(1, TENANT, "IP", "192.168.1.10", null, null, true);
+        Assert.assertFalse(IpBlockConditionIndex.isBlocked("192.168.1.10", TENANT));
+        Assert.assertTrue(IpBlockConditionIndex.isBlocked("192.168.1.11", TENANT));
+
+        // a client has to match every inverted condition
+        IpBlockConditionIndex.addCondition(2, TENANT, "IPRANGE", null, "192.168.0.0", "192.168.2.0", true);
+        Assert.assertFalse(IpBlockConditionIndex.isBlocked("192.168.1.10", TENANT));
+        IpBlockConditionIndex.addCondition(3, TENANT, "IPRANGE", null, "10.0.0.0", "10.0.1.0", true);
+        Assert.assertTrue(IpBlockConditionIndex.isBlocked("192.168.1.10", TENANT));
+        Assert.assertTrue(IpBlockConditionIndex.isBlocked("10.0.0.5", TENANT));
+        Assert.assertFalse(IpBlockConditionIndex.isBlocked("192.168.1.10", OTHER_TENANT));
+    }
+
+    @Test
+    public void testAddReplaceAndRemoveCondition() {
+        IpBlockConditionIndex.addCondition(1, TENANT, "IP", "192.168.1.10", null, null, false);
+        IpBlockConditionIndex.addCondition(2, OTHER_TENANT, "IP", "192.168.1.10", null, null, false);
+        Assert.assertTrue(IpBlockConditionIndex.isBlocked("192.168.1.10", TENANT));
+
+        // a condition received again with the same id replaces the previous one
+        IpBlockConditionIndex.addCondition(1, TENANT, "IP", "192.168.1.20", null, null, false);
+        Assert.assertFalse(IpBlockConditionIndex.isBlocked("192.168.1.10", TENANT));
+        Assert.assertTrue(IpBlockConditionIndex.isBlocked("192.168.1.20", TENANT));
+
+        IpBlockConditionIndex.removeCondition(1);
+        Assert.assertFalse(IpBlockConditionIndex.isBlocked("192.168.1.20", TENANT));
+        Assert.assertTrue(IpBlockConditionIndex.isBlocked("192.168.1.10", OTHER_TENANT));
+
+        // unsupported condition types are ignored
+        IpBlockConditionIndex.addCondition(1, TENANT, "CIDR", "192.168.1.0/24", null, null, false);
+        Assert.assertFalse(IpBlockConditionIndex.isBlocked("192.168.1.1", TENANT));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.throttle.global;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests finding the throttled custom policy key of a request through the {@link KeyTemplateRegistry}.
+ */
+public class KeyTemplateRegistryTest {
+
+    private static final String USER_TEMPLATE = "$userId";
+    private static final String APP_TEMPLATE = "$apiContext:$apiVersion:$appId";
+
+    @After
+    public void cleanUp() {
+        KeyTemplateRegistry.removeKeyTemplate(USER_TEMPLATE);
+        KeyTemplateRegistry.removeKeyTemplate(APP_TEMPLATE);
+        KeyTemplateRegistry.removeThrottledKey("admin");
+        KeyTemplateRegistry.removeThrottledKey("/pizzashack:1.0.0:42");
+    }
+
+    @Test
+    public void testThrottledKeyOfTemplate() {
+        KeyTemplateRegistry.addKeyTemplate(USER_TEMPLATE);
+        KeyTemplateRegistry.addKeyTemplate(APP_TEMPLATE);
+        Assert.assertEquals("", getThrottledKey("admin", "42"));
+
+        KeyTemplateRegistry.putThrottledKey("/pizzashack:1.0.0:42", System.currentTimeMillis() + 60000);
+        Assert.assertEquals("/pizzashack:1.0.0:42", getThrottledKey("admin", "42"));
+        Assert.assertEquals("", getThrottledKey("admin", "43"));
+
+        KeyTemplateRegistry.removeThrottledKey("/pizzashack:1.0.0:42");
+        Assert.assertEquals("", getThrottledKey("admin", "42"));
+    }
+
+    @Test
+    public void testThrottledKeyOfRemovedTemplate() {
+        KeyTemplateRegistry.addKeyTemplate(USER_TEMPLATE);
+        // adding the same template again does not evaluate it twice
+        KeyTemplateRegistry.addKeyTemplate(USER_TEMPLATE);
+        KeyTemplateRegistry.putThrottledKey("admin", System.currentTimeMillis() + 60000);
+        Assert.assertEquals("admin", getThrottledKey("admin", "42"));
+
+        KeyTemplateRegistry.removeKeyTemplate(USER_TEMPLATE);
+        Assert.assertEquals("", getThrottledKey("admin", "42"));
+    }
+
+    @Test
+    public void testExpiredThrottledKey() {
+        KeyTemplateRegistry.addKeyTemplate(USER_TEMPLATE);
+        KeyTemplateRegistry.putThrottledKey("admin", System.currentTimeMillis() - 1);
+        Assert.assertEquals("", getThrottledKey("admin", "42"));
+    }
+
+    private static String getThrottledKey(String userId, String appId) {
+        return KeyTemplateRegistry.getThrottledKey("/pizzashack/1.0.0/menu:GET", userId, "/pizzashack", "1.0.0",
+                "carbon.super", "carbon.super", appId, "10.100.1.22");
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.throttle.global;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Tests adding, evaluating and removing the condition groups of a throttle key in the
+ * {@link ThrottleConditionEvaluator}. The conditions used only refer to the client IP, hence no request is needed.
+ */
+public class ThrottleConditionEvaluatorTest {
+
+    private static final String RESOURCE_KEY = "/pizzashack/1.0.0/menu:GET";
+
+    @After
+    public void cleanUp() {
+        ThrottleConditionEvaluator.removeAllConditions(RESOURCE_KEY);
+    }
+
+    @Test
+    public void testNamedConditionGroup() {
+        ThrottleConditionEvaluator.putConditions(RESOURCE_KEY, "condition1", ipConditions("10.0.0.1"));
+        Assert.assertEquals("condition1", getThrottledCondition("10.0.0.1"));
+        Assert.assertEquals("", getThrottledCondition("10.0.0.2"));
+        Assert.assertEquals("", ThrottleConditionEvaluator.getThrottledCondition("/other", "10.0.0.1", null, false,
+                false, false, "X-JWT-Assertion"));
+    }
+
+    @Test
+    public void testDefaultConditionGroup() {
+        ThrottleConditionEvaluator.putConditions(RESOURCE_KEY, "default", ipConditions("10.0.0.1"));
+        ThrottleConditionEvaluator.putConditions(RESOURCE_KEY, "condition1", ipConditions("10.0.0.2"));
+        // the default group applies to the requests which do not match its conditions
+        Assert.assertEquals("default", getThrottledCondition("10.0.0.3"));
+        Assert.assertEquals("", getThrottledCondition("10.0.0.1"));
+        Assert.assertEquals("condition1", getThrottledCondition("10.0.0.2"));
+    }
+
+    @Test
+    public void testRemoveConditionGroup() {
+        ThrottleConditionEvaluator.putConditions(RESOURCE_KEY, "condition1", ipConditions("10.0.0.1"));
+        ThrottleConditionEvaluator.putConditions(RESOURCE_KEY, "condition2", ipConditions("10.0.0.2"));
+        ThrottleConditionEvaluator.removeConditions(RESOURCE_KEY, "condition1");
+        Assert.assertEquals("", getThrottledCondition("10.0.0.1"));
+        Assert.assertEquals("condition2", getThrottledCondition("10.0.0.2"));
+        ThrottleConditionEvaluator.removeConditions(RESOURCE_KEY, "condition2");
+        Assert.assertEquals("", getThrottledCondition("10.0.0.2"));
+    }
+
+    @Test
+    public void testExistingGroupIsNotReplaced() {
+        ThrottleConditionEvaluator.putConditions(RESOURCE_KEY, "condition1", ipConditions("10.0.0.1"));
+        ThrottleConditionEvaluator.putConditions(RESOURCE_KEY, "condition1", ipConditions("10.0.0.2"));
+        Assert.assertEquals("condition1", getThrottledCondition("10.0.0.1"));
+        Assert.assertEquals("", getThrottledCondition("10.0.0.2"));
+    }
+
+    @Test
+    public void testInvalidConditions() {
+        ThrottleConditionEvaluator.putConditions(RESOURCE_KEY, "condition1", "not base64 *");
+        ThrottleConditionEvaluator.putConditions(RESOURCE_KEY, "condition2", encode("{\"invert\":false}"));
+        Assert.assertEquals("", getThrottledCondition("10.0.0.1"));
+    }
+
+    private static String getThrottledCondition(String clientIp) {
+        return ThrottleConditionEvaluator.getThrottledCondition(RESOURCE_KEY, clientIp, null, false, false, false,
+                "X-JWT-Assertion");
+    }
+
+    private static String ipConditions(String ip) {
+        return encode("[{\"ipspecific\":{\"specificIp\":\"" + CompiledConditionGroupTest.ip(ip)
+                + "\",\"invert\":false}}]");
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.validation;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the sampling of the responses, the bounded queue and the counters of the {@link AsyncResponseValidator}.
+ */
+public class AsyncResponseValidatorTest {
+
+    private static final String SERVICE = "asyncPetstore";
+
+    @BeforeClass
+    public static void init() {
+        SchemaRegistry.register(SERVICE, SchemaExtractorTest.readDefinition("petstore_openapi.json"));
+        // a single worker with a queue of one response, validating none of the responses by default
+        AsyncResponseValidator.init(1, 1, 0);
+    }
+
+    @Test
+    public void testSampleRate() {
+        Assert.assertTrue(AsyncResponseValidator.isSampled(1, 0.99));
+        Assert.assertFalse(AsyncResponseValidator.isSampled(0, 0));
+        Assert.assertTrue(AsyncResponseValidator.isSampled(0.25, 0.2));
+        Assert.assertFalse(AsyncResponseValidator.isSampled(0.25, 0.25));
+    }
+
+    @Test
+    public void testSampleRateOfDefinition() {
+        // the resource defines a sample rate of 1
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(AsyncResponseValidator.isSampled(SERVICE, "/pet", "post"));
+        }
+        // the default sample rate of 0 applies to the APIs which do not define one
+        for (int i = 0; i < 100; i++) {
+            Assert.assertFalse(AsyncResponseValidator.isSampled("unknown", "/pet", "post"));
+        }
+    }
+
+    @Test
+    public void testQueueFullIsDropped() throws InterruptedException {
+        ResponseValidationStats stats = AsyncResponseValidator.getStats();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        long dropped = stats.getDroppedCount();
+        try {
+            Assert.assertTrue(AsyncResponseValidator.submit(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+            // the worker is busy, so the next response fills the queue and the one after it is dropped
+            Assert.assertTrue(AsyncResponseValidator.submit(() -> { }));
+            Assert.assertFalse(AsyncResponseValidator.submit(() -> { }));
+            Assert.assertEquals(dropped + 1, stats.getDroppedCount());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testValidationIsCounted() {
+        ResponseValidationStats stats = AsyncResponseValidator.getStats();
+        long validated = stats.getValidatedCount();
+        long mismatches = stats.getMismatchCount();
+        long errors = stats.getErrorCount();
+        AsyncResponseValidator.validate("/pet", "post", "200", bytes("{\"name\":\"doggie\"}"), SERVICE, 0, 0);
+        Assert.assertEquals(validated + 1, stats.getValidatedCount());
+        AsyncResponseValidator.validate("/pet", "post", "200", bytes("{\"name\":1}"), SERVICE, 0, 0);
+        Assert.assertEquals(mismatches + 1, stats.getMismatchCount());
+        // the schema of a service without an open API definition fails to be compiled
+        AsyncResponseValidator.validate("/pet", "post", "200", bytes("{}"), "unknown", 0, 0);
+        Assert.assertEquals(errors + 1, stats.getErrorCount());
+    }
+
+    private static byte[] bytes(String payload) {
+        return payload.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.validation;
+
+import org.everit.json.schema.Schema;
+import org.everit.json.schema.loader.SchemaLoader;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the states of a {@link CompiledSchema}.
+ */
+public class CompiledSchemaTest {
+
+    @Test
+    public void testCompiledSchema() {
+        Schema schema = SchemaLoader.load(new JSONObject("{\"type\":\"object\"}"));
+        CompiledSchema compiledSchema = new CompiledSchema(schema);
+        Assert.assertTrue(compiledSchema.hasSchema());
+        Assert.assertSame(schema, compiledSchema.getSchema());
+    }
+
+    @Test
+    public void testNoSchema() {
+        Assert.assertFalse(CompiledSchema.NO_SCHEMA.hasSchema());
+        Assert.assertNull(CompiledSchema.NO_SCHEMA.getSchema());
+    }
+
+    @Test
+    public void testNullSchema() {
+        // a schema which could not be loaded is validated against, unlike a resource without a schema
+        Assert.assertTrue(CompiledSchema.NULL_SCHEMA.hasSchema());
+        Assert.assertNull(CompiledSchema.NULL_SCHEMA.getSchema());
+        Assert.assertNotSame(CompiledSchema.NO_SCHEMA, CompiledSchema.NULL_SCHEMA);
+    }
+
+    @Test
+    public void testFailedSchema() {
+        IllegalStateException failure = new IllegalStateException("Invalid schema reference");
+        CompiledSchema compiledSchema = CompiledSchema.failed(failure);
+        Assert.assertTrue(compiledSchema.hasSchema());
+        try {
+            compiledSchema.getSchema();
+            Assert.fail("Failure of the schema was not raised");
+        } catch (IllegalStateException e) {
+            Assert.assertSame(failure, e);
+        }
+    }
+}
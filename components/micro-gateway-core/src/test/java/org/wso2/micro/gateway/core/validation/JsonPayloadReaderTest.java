@@ -0,0 +1,120 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.validation;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tests reading JSON payloads with the {@link JsonPayloadReader}.
+ */
+public class JsonPayloadReaderTest {
+
+    @Test
+    public void testReadObject() throws Exception {
+        Object payload = read("{\"name\":\"doggie\",\"age\":3,\"weight\":4.5,\"vaccinated\":true,\"owner\":null,"
+                + "\"tags\":[\"a\",{\"id\":1}]}", 0, 0);
+        Assert.assertTrue(payload instanceof JSONObject);
+        JSONObject object = (JSONObject) payload;
+        Assert.assertEquals("doggie", object.get("name"));
+        Assert.assertEquals(3, object.getInt("age"));
+        Assert.assertEquals(4.5, object.getDouble("weight"), 0);
+        Assert.assertEquals(Boolean.TRUE, object.get("vaccinated"));
+        Assert.assertEquals(JSONObject.NULL, object.get("owner"));
+        JSONArray tags = object.getJSONArray("tags");
+        Assert.assertEquals(2, tags.length());
+        Assert.assertEquals(1, tags.getJSONObject(1).getInt("id"));
+    }
+
+    @Test
+    public void testReadTopLevelArray() throws Exception {
+        Object payload = read("[{\"name\":\"doggie\"},[1,2],\"cat\"]", 0, 0);
+        Assert.assertTrue(payload instanceof JSONArray);
+        JSONArray array = (JSONArray) payload;
+        Assert.assertEquals(3, array.length());
+        Assert.assertEquals("doggie", array.getJSONObject(0).get("name"));
+        Assert.assertEquals(2, array.getJSONArray(1).getInt(1));
+        Assert.assertEquals("cat", array.get(2));
+        Assert.assertEquals(0, ((JSONArray) read("[]", 0, 0)).length());
+    }
+
+    @Test
+    public void testReadPrimitive() throws Exception {
+        Assert.assertEquals("doggie", read("\"doggie\"", 0, 0));
+        Assert.assertEquals(Boolean.FALSE, read("false", 0, 0));
+        Assert.assertEquals(JSONObject.NULL, read("null", 0, 0));
+        // numbers which do not fit a double are kept as decimals
+        Assert.assertEquals(new BigDecimal("1e400"), read("1e400", 0, 0));
+    }
+
+    @Test
+    public void testSizeLimit() throws Exception {
+        String payload = "{\"name\":\"doggie\"}";
+        int size = payload.getBytes(StandardCharsets.UTF_8).length;
+        Assert.assertTrue(read(payload, size, 0) instanceof JSONObject);
+        try {
+            read(payload, size - 1, 0);
+            Assert.fail("Payload exceeding the size limit was read");
+        } catch (PayloadLimitException e) {
+            Assert.assertEquals("Payload size of " + size + " bytes exceeds the maximum of " + (size - 1)
+                    + " bytes.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testDepthLimit() throws Exception {
+        Assert.assertTrue(read("{\"a\":[{\"b\":1}]}", 0, 3) instanceof JSONObject);
+        try {
+            read("{\"a\":[{\"b\":[1]}]}", 0, 3);
+            Assert.fail("Payload exceeding the depth limit was read");
+        } catch (PayloadLimitException e) {
+            Assert.assertEquals("Payload nesting depth exceeds the maximum of 3.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testMalformedJson() throws Exception {
+        assertMalformed("{\"name\":");
+        assertMalformed("{\"name\":\"doggie\"");
+        assertMalformed("[1,2");
+        assertMalformed("{\"name\":doggie}");
+        assertMalformed("");
+        assertMalformed("{\"name\":\"doggie\",\"name\":\"cat\"}");
+        assertMalformed("{\"name\":\"doggie\"} {}");
+    }
+
+    private static void assertMalformed(String payload) throws PayloadLimitException {
+        try {
+            read(payload, 0, 0);
+            Assert.fail("Malformed payload " + payload + " was read");
+        } catch (IOException e) {
+            // payload is not valid JSON
+        }
+    }
+
+    private static Object read(String payload, long maxSize, long maxDepth) throws IOException,
+            PayloadLimitException {
+        return JsonPayloadReader.read(payload.getBytes(StandardCharsets.UTF_8), maxSize, maxDepth);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.validation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+
+/**
+ * Tests extracting the request and response schemas of resources, with their references resolved, from open API
+ * and swagger definitions.
+ */
+public class SchemaExtractorTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String PET_SCHEMA = "{\"type\":\"object\",\"required\":[\"name\"],\"properties\":{"
+            + "\"name\":{\"type\":\"string\"},\"category\":{\"type\":\"object\",\"properties\":{"
+            + "\"id\":{\"type\":\"integer\"}}}}}";
+
+    @Test
+    public void testOpenApiSchemas() throws IOException {
+        SchemaExtractor extractor = new SchemaExtractor(readDefinition("petstore_openapi.json"));
+        assertJsonEquals(PET_SCHEMA, extractor.extractSchemaFromRequest("/pet", "POST"));
+        assertJsonEquals(PET_SCHEMA, extractor.extractResponse("/pet", "post", "200"));
+        // response codes which are not defined have no schema
+        Assert.assertEquals("[]", extractor.extractResponse("/pet", "post", "404"));
+    }
+
+    @Test
+    public void testSwaggerSchemas() throws IOException {
+        SchemaExtractor extractor = new SchemaExtractor(readDefinition("petstore_swagger.json"));
+        assertJsonEquals(PET_SCHEMA, extractor.extractSchemaFromRequest("/pet", "post"));
+        assertJsonEquals(PET_SCHEMA, extractor.extractResponse("/pet", "post", "200"));
+    }
+
+    @Test
+    public void testRepeatedExtraction() throws IOException {
+        // references resolved by an extraction are kept in the parsed definition used by the next one
+        SchemaExtractor extractor = new SchemaExtractor(readDefinition("petstore_openapi.json"));
+        for (int i = 0; i < 3; i++) {
+            assertJsonEquals(PET_SCHEMA, extractor.extractSchemaFromRequest("/pet", "post"));
+            assertJsonEquals(PET_SCHEMA, extractor.extractResponse("/pet", "post", "200"));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidDefinition() throws IOException {
+        new SchemaExtractor("{\"openapi\": ");
+    }
+
+    static String readDefinition(String name) {
+        InputStream definition = SchemaExtractorTest.class.getClassLoader().getResourceAsStream("validation/"
+                + name);
+        Assert.assertNotNull("Definition " + name + " is not available", definition);
+        try (Scanner scanner = new Scanner(definition, StandardCharsets.UTF_8.name())) {
+            return scanner.useDelimiter("\\A").next();
+        }
+    }
+
+    private static void assertJsonEquals(String expected, String actual) throws IOException {
+        JsonNode expectedJson = objectMapper.readTree(expected);
+        JsonNode actualJson = objectMapper.readTree(actual);
+        Assert.assertEquals(expectedJson, actualJson);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.core.validation;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.wso2.micro.gateway.core.Constants;
+
+import java.io.IOException;
+
+/**
+ * Tests registering open API definitions in the {@link SchemaRegistry} and validating payloads against the compiled
+ * schemas.
+ */
+public class SchemaRegistryTest {
+
+    private static final String SERVICE = "petstore";
+
+    @BeforeClass
+    public static void init() {
+        SchemaRegistry.register(SERVICE, SchemaExtractorTest.readDefinition("petstore_openapi.json"));
+    }
+
+    @Test
+    public void testRequestValidation() throws IOException {
+        Assert.assertEquals(Constants.VALIDATED_STATUS, Validate.validateRequest("/pet", "post",
+                "{\"name\":\"doggie\",\"category\":{\"id\":1}}", SERVICE));
+        Assert.assertTrue(Validate.validateRequest("/pet", "post", "{\"name\":\"doggie\",\"category\":{\"id\":\"a\"}}",
+                SERVICE).contains("#/category/id"));
+        Assert.assertTrue(Validate.validateRequest("/pet", "post", "{}", SERVICE).contains("name"));
+        Assert.assertTrue(Validate.validateRequest("/pet", "post", "{\"name\":", SERVICE)
+                .startsWith("Provided payload is not a valid json."));
+        // requests of the GET method are not validated
+        Assert.assertEquals(Constants.VALIDATED_STATUS, Validate.validateRequest("/pet", "get", "{}", SERVICE));
+    }
+
+    @Test
+    public void testResponseValidation() {
+        Assert.assertEquals(Constants.VALIDATED_STATUS, Validate.validateResponse("/pet", "post", "200",
+                "{\"name\":\"doggie\"}", SERVICE));
+        Assert.assertTrue(Validate.validateResponse("/pet", "post", "200", "{\"name\":1}", SERVICE)
+                .contains("#/name"));
+    }
+
+    @Test
+    public void testSchemasAreCompiledOnce() {
+        CompiledSchema requestSchema = SchemaRegistry.getRequestSchema(SERVICE, "/pet", "post");
+        Assert.assertTrue(requestSchema.hasSchema());
+        Assert.assertNotNull(requestSchema.getSchema());
+        Assert.assertSame(requestSchema, SchemaRegistry.getRequestSchema(SERVICE, "/pet", "POST"));
+        Assert.assertSame(SchemaRegistry.getResponseSchema(SERVICE, "/pet", "post", "200"),
+                SchemaRegistry.getResponseSchema(SERVICE, "/pet", "post", "200"));
+    }
+
+    @Test
+    public void testResponseCodeWithoutSchema() {
+        // response codes which are not in the definition are resolved on their first use and kept
+        CompiledSchema schema = SchemaRegistry.getResponseSchema(SERVICE, "/pet", "post", "404");
+        Assert.assertFalse(schema.hasSchema());
+        Assert.assertSame(schema, SchemaRegistry.getResponseSchema(SERVICE, "/pet", "post", "404"));
+        Assert.assertEquals(Constants.VALIDATED_STATUS, Validate.validateResponse("/pet", "post", "404",
+                "{\"message\":\"not found\"}", SERVICE));
+    }
+
+    @Test
+    public void testRegisterReplacesSchemas() {
+        String service = "replacedPetstore";
+        SchemaRegistry.register(service, SchemaExtractorTest.readDefinition("petstore_openapi.json"));
+        CompiledSchema schema = SchemaRegistry.getRequestSchema(service, "/pet", "post");
+        SchemaRegistry.register(service, SchemaExtractorTest.readDefinition("petstore_swagger.json"));
+        CompiledSchema replacedSchema = SchemaRegistry.getRequestSchema(service, "/pet", "post");
+        Assert.assertNotSame(schema, replacedSchema);
+        Assert.assertTrue(replacedSchema.hasSchema());
+        Assert.assertNull(SchemaRegistry.getResponseSampleRate(service, "/pet", "post"));
+    }
+
+    @Test
+    public void testResponseSampleRate() {
+        Assert.assertEquals(1.0, SchemaRegistry.getResponseSampleRate(SERVICE, "/pet", "post"), 0);
+        // the sample rate of the API applies to the resources which do not define one
+        Assert.assertEquals(0.5, SchemaRegistry.getResponseSampleRate(SERVICE, "/pet", "get"), 0);
+    }
+
+    @Test
+    public void testUnknownService() {
+        CompiledSchema schema = SchemaRegistry.getRequestSchema("unknown", "/pet", "post");
+        Assert.assertTrue(schema.hasSchema());
+        try {
+            schema.getSchema();
+            Assert.fail("Schema of a service without an open API definition was returned");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("unknown"));
+        }
+    }
+
+    @Test
+    public void testInvalidDefinitionIsNotRegistered() {
+        SchemaRegistry.register("invalidPetstore", "{\"openapi\": ");
+        try {
+            SchemaRegistry.getRequestSchema("invalidPetstore", "/pet", "post").getSchema();
+            Assert.fail("Schema of an invalid open API definition was returned");
+        } catch (IllegalArgumentException e) {
+            // the definition is not available
+        }
+    }
+
+    @Test
+    public void testExtractionFailureIsKept() {
+        // the extraction of a resource without a request body fails, and the failure is raised on each use
+        CompiledSchema schema = SchemaRegistry.getRequestSchema(SERVICE, "/store", "post");
+        for (int i = 0; i < 2; i++) {
+            try {
+                schema.getSchema();
+                Assert.fail("Failure of the schema extraction was not raised");
+            } catch (RuntimeException e) {
+                Assert.assertTrue(e instanceof ArrayIndexOutOfBoundsException);
+            }
+        }
+        Assert.assertSame(schema, SchemaRegistry.getRequestSchema(SERVICE, "/store", "post"));
+    }
+}
@@ -21,8 +21,11 @@ import net.minidev.json.JSONArray;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.security.KeyStore;
 import java.security.MessageDigest;
@@ -41,6 +44,10 @@ public abstract class AbstractMGWJWTGenerator {
     private static final Logger logger = LogManager.getLogger(AbstractMGWJWTGenerator.class);
     private static final String NONE = "NONE";
     private static final String SHA256_WITH_RSA = "SHA256withRSA";
+    private static final String NONE_HEADER = "{\"typ\":\"JWT\",\"alg\":\"none\"}";
+    private static final String ENCODED_NONE_HEADER = java.util.Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(NONE_HEADER.getBytes(StandardCharsets.UTF_8));
+    private static final long KEYSTORE_RELOAD_CHECK_INTERVAL = 10000;
     private String dialectURI;
     private String signatureAlgorithm;
     private String keyStorePath;
@@ -55,6 +62,9 @@ public abstract class AbstractMGWJWTGenerator {
     private String[] tokenAudience;
     private Map<String, Object> apiDetails;
     private List<String> defaultRestrictedClaims;
+    // Key material loaded from the keystore, replaced as a whole when the keystore file changes.
+    private volatile SigningMaterial signingMaterial;
+    private volatile long nextKeyStoreCheckTime;
 
     public AbstractMGWJWTGenerator(String dialectURI,
                                    String signatureAlgorithm,
@@ -91,6 +101,7 @@ public abstract class AbstractMGWJWTGenerator {
 
     public void setPrivateKeyAlias(String privateKeyAlias) {
         this.privateKeyAlias = privateKeyAlias;
+        signingMaterial = null;
     }
 
     public List<String> getDefaultRestrictedClaims() {
@@ -107,6 +118,7 @@ public abstract class AbstractMGWJWTGenerator {
 
     public void setCertificateAlias(String certificateAlias) {
         this.certificateAlias = certificateAlias;
+        signingMaterial = null;
     }
 
     public Map<String, Object> getApiDetails() {
@@ -163,6 +175,7 @@ public abstract class AbstractMGWJWTGenerator {
 
     public void setKeyStorePath(String keyStorePath) {
         this.keyStorePath = keyStorePath;
+        signingMaterial = null;
     }
 
     public String getKeyStorePassword() {
@@ -171,6 +184,7 @@ public abstract class AbstractMGWJWTGenerator {
 
     public void setKeyStorePassword(String keyStorePassword) {
         this.keyStorePassword = keyStorePassword;
+        signingMaterial = null;
     }
 
     public String getDialectURI() {
@@ -187,6 +201,7 @@ public abstract class AbstractMGWJWTGenerator {
 
     public void setSignatureAlgorithm(String signatureAlgorithm) {
         this.signatureAlgorithm = signatureAlgorithm;
+        signingMaterial = null;
     }
 
     public int getJwtExpiryTime() {
@@ -205,7 +220,7 @@ public abstract class AbstractMGWJWTGenerator {
         String jwtBody = buildBody(jwtInfo);
         String base64UrlEncodedHeader = "";
         if (jwtHeader != null) {
-            base64UrlEncodedHeader = encode(jwtHeader.getBytes(Charset.defaultCharset()));
+            base64UrlEncodedHeader = encodeHeader(jwtHeader);
         }
         String base64UrlEncodedBody = "";
         if (jwtBody != null) {
@@ -228,13 +243,7 @@ public abstract class AbstractMGWJWTGenerator {
     public String buildHeader() throws Exception {
         String jwtHeader = null;
         if (NONE.equals(signatureAlgorithm)) {
-            StringBuilder jwtHeaderBuilder = new StringBuilder();
-            jwtHeaderBuilder.append("{\"typ\":\"JWT\",");
-            jwtHeaderBuilder.append("\"alg\":\"");
-            jwtHeaderBuilder.append("none");
-            jwtHeaderBuilder.append('\"');
-            jwtHeaderBuilder.append('}');
-            jwtHeader = jwtHeaderBuilder.toString();
+            jwtHeader = NONE_HEADER;
         } else if (SHA256_WITH_RSA.equals(signatureAlgorithm)) {
             jwtHeader = addCertToHeader();
         }
@@ -245,25 +254,10 @@ public abstract class AbstractMGWJWTGenerator {
      * Used to sign the JWT using the keystore.
      */
     public byte[] signJWT(String assertion) throws Exception {
-        FileInputStream is;
-        is = new FileInputStream(keyStorePath);
-        KeyStore keystore = KeyStore.getInstance(KeyStore.getDefaultType());
-        keystore.load(is, keyStorePassword.toCharArray());
-        Key key = keystore.getKey(privateKeyAlias, keyStorePassword.toCharArray());
-        Key privateKey = null;
-        if (key instanceof PrivateKey) {
-            privateKey = key;
-        }
-        //initialize signature with private key and algorithm
-        Signature signature = Signature.getInstance(signatureAlgorithm);
-        signature.initSign((PrivateKey) privateKey);
+        Signature signature = getSigningMaterial().getSignature();
         //update signature with data to be signed
         byte[] dataInBytes = assertion.getBytes(Charset.defaultCharset());
         signature.update(dataInBytes);
-
-        // close the file stream
-        is.close();
-
         //sign the assertion and return the signature
         return signature.sign();
     }
@@ -283,10 +277,22 @@ public abstract class AbstractMGWJWTGenerator {
      * Used to add "ballerina"the certificate from the keystore to the header.
      */
     public String addCertToHeader() throws Exception {
-        FileInputStream is;
-        is = new FileInputStream(keyStorePath);
+        return getSigningMaterial().header;
+    }
+
+    /**
+     * Used to load the keystore and build the header with the SHA-1 thumbprint of the certificate.
+     */
+    private SigningMaterial loadSigningMaterial(File keyStoreFile) throws Exception {
         KeyStore keystore = KeyStore.getInstance(KeyStore.getDefaultType());
-        keystore.load(is, keyStorePassword.toCharArray());
+        try (FileInputStream is = new FileInputStream(keyStoreFile)) {
+            keystore.load(is, keyStorePassword.toCharArray());
+        }
+        Key key = keystore.getKey(privateKeyAlias, keyStorePassword.toCharArray());
+        PrivateKey privateKey = null;
+        if (key instanceof PrivateKey) {
+            privateKey = (PrivateKey) key;
+        }
         Certificate publicCert = keystore.getCertificate(certificateAlias);
 
         //generate the SHA-1 thumbprint of the certificate
@@ -313,10 +319,58 @@ public abstract class AbstractMGWJWTGenerator {
 
         jwtHeader.append('}');
 
-        // close the file stream
-        is.close();
+        String header = jwtHeader.toString();
+        return new SigningMaterial(privateKey, signatureAlgorithm, header,
+                encode(header.getBytes(Charset.defaultCharset())), keyStoreFile.lastModified(),
+                keyStoreFile.length());
+    }
+
+    /**
+     * Returns the key material of the keystore, loading it again if the keystore file has changed. The keystore
+     * file is checked for changes at most once in {@link #KEYSTORE_RELOAD_CHECK_INTERVAL} milliseconds.
+     */
+    private SigningMaterial getSigningMaterial() throws Exception {
+        SigningMaterial material = signingMaterial;
+        long currentTime = System.currentTimeMillis();
+        if (material != null && currentTime < nextKeyStoreCheckTime) {
+            return material;
+        }
+        synchronized (this) {
+            material = signingMaterial;
+            if (material != null && currentTime < nextKeyStoreCheckTime) {
+                return material;
+            }
+            File keyStoreFile = new File(keyStorePath);
+            if (material == null) {
+                material = loadSigningMaterial(keyStoreFile);
+                signingMaterial = material;
+            } else if (material.isModified(keyStoreFile)) {
+                logger.info("Keystore " + keyStorePath + " has changed. Reloading the JWT signing key.");
+                try {
+                    material = loadSigningMaterial(keyStoreFile);
+                    signingMaterial = material;
+                } catch (Exception e) {
+                    // Keep signing with the previous key until the keystore can be loaded again.
+                    logger.error("Error while reloading the keystore " + keyStorePath, e);
+                }
+            }
+            nextKeyStoreCheckTime = currentTime + KEYSTORE_RELOAD_CHECK_INTERVAL;
+            return material;
+        }
+    }
 
-        return jwtHeader.toString();
+    /**
+     * Used for base64 encoding of the header. The header built from the keystore is encoded only once.
+     */
+    private String encodeHeader(String jwtHeader) {
+        SigningMaterial material = signingMaterial;
+        if (material != null && material.header.equals(jwtHeader)) {
+            return material.encodedHeader;
+        }
+        if (NONE_HEADER.equals(jwtHeader)) {
+            return ENCODED_NONE_HEADER;
+        }
+        return encode(jwtHeader.getBytes(Charset.defaultCharset()));
     }
 
     /**
@@ -373,6 +427,46 @@ public abstract class AbstractMGWJWTGenerator {
         return jsonArray;
     }
 
+    /**
+     * Private key, serialized header and per thread signers of a loaded keystore.
+     */
+    private static final class SigningMaterial {
+        private final String header;
+        private final String encodedHeader;
+        private final long lastModified;
+        private final long length;
+        private final ThreadLocal<Signature> signature;
+
+        SigningMaterial(PrivateKey privateKey, String signatureAlgorithm, String header, String encodedHeader,
+                        long lastModified, long length) {
+            this.header = header;
+            this.encodedHeader = encodedHeader;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.signature = ThreadLocal.withInitial(() -> {
+                try {
+                    //initialize signature with private key and algorithm
+                    Signature sig = Signature.getInstance(signatureAlgorithm);
+                    sig.initSign(privateKey);
+                    return sig;
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("Error while initializing the JWT signature", e);
+                }
+            });
+        }
+
+        /**
+         * A signature returns to the state after initSign once it has signed, so it is reused by the thread.
+         */
+        Signature getSignature() {
+            return signature.get();
+        }
+
+        boolean isModified(File keyStoreFile) {
+            return keyStoreFile.lastModified() != lastModified || keyStoreFile.length() != length;
+        }
+    }
+
     public abstract Map<String, Object> populateStandardClaims(Map<String, Object> jwtInfo);
 
     public abstract Map<String, Object> populateCustomClaims(Map<String, Object> jwtInfo,
@@ -0,0 +1,159 @@
+/*
+ *  Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.wso2.micro.gateway.jwt.generator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests signing backend JWTs with the signer cached by the {@link AbstractMGWJWTGenerator}.
+ */
+public class AbstractMGWJWTGeneratorTest {
+
+    private static final String SHA256_WITH_RSA = "SHA256withRSA";
+    private static final String KEYSTORE_PASSWORD = "wso2carbon";
+    private static final String ALIAS = "mgwtest";
+
+    @Test
+    public void testTokensAreSignedWithCachedSigner() throws Exception {
+        AbstractMGWJWTGenerator generator = createGenerator(SHA256_WITH_RSA);
+        String header = generator.addCertToHeader();
+        Assert.assertTrue(header.contains("\"alg\":\"RS256\""));
+        Assert.assertSame(header, generator.addCertToHeader());
+        // the signer is reused, hence each token has to be signed from a clean state
+        for (int i = 0; i < 3; i++) {
+            String token = generator.generateToken(jwtInfo("user" + i));
+            assertSignature(token);
+            Assert.assertTrue(decode(token.split("\\.")[1]).contains("\"sub\":\"user" + i + "\""));
+        }
+    }
+
+    @Test
+    public void testConcurrentSigning() throws Exception {
+        AbstractMGWJWTGenerator generator = createGenerator(SHA256_WITH_RSA);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < 100; i++) {
+                    assertSignature(generator.generateToken(jwtInfo("user" + thread + "-" + i)));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void testSignatureAlgorithmChangeReplacesSigner() throws Exception {
+        AbstractMGWJWTGenerator generator = createGenerator("NONE");
+        // loads the key material with the current signature algorithm
+        generator.addCertToHeader();
+        Assert.assertTrue(generator.generateToken(jwtInfo("user")).endsWith("."));
+
+        generator.setSignatureAlgorithm(SHA256_WITH_RSA);
+        assertSignature(generator.generateToken(jwtInfo("user")));
+    }
+
+    @Test
+    public void testKeyAliasChangeReplacesSigner() throws Exception {
+        AbstractMGWJWTGenerator generator = createGenerator(SHA256_WITH_RSA);
+        assertSignature(generator.generateToken(jwtInfo("user")));
+
+        generator.setPrivateKeyAlias("unknown");
+        try {
+            generator.generateToken(jwtInfo("user"));
+            Assert.fail("Token was signed with the key of the previous alias");
+        } catch (IllegalStateException e) {
+            // there is no private key for the new alias
+        }
+        generator.setPrivateKeyAlias(ALIAS);
+        assertSignature(generator.generateToken(jwtInfo("user")));
+    }
+
+    private static void assertSignature(String token) throws Exception {
+        String[] parts = token.split("\\.");
+        Assert.assertEquals(3, parts.length);
+        Signature signature = Signature.getInstance(SHA256_WITH_RSA);
+        signature.initVerify(getPublicKey());
+        signature.update((parts[0] + '.' + parts[1]).getBytes(Charset.defaultCharset()));
+        Assert.assertTrue("Invalid signature of token " + token,
+                signature.verify(Base64.getUrlDecoder().decode(parts[2])));
+    }
+
+    private static PublicKey getPublicKey() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("JKS");
+        try (FileInputStream is = new FileInputStream(getKeyStorePath())) {
+            keyStore.load(is, KEYSTORE_PASSWORD.toCharArray());
+        }
+        return keyStore.getCertificate(ALIAS).getPublicKey();
+    }
+
+    private static String getKeyStorePath() {
+        return new File(AbstractMGWJWTGeneratorTest.class.getClassLoader().getResource("jwtgenerator.jks")
+                .getFile()).getAbsolutePath();
+    }
+
+    private static String decode(String part) {
+        return new String(Base64.getUrlDecoder().decode(part), StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, Object> jwtInfo(String user) {
+        Map<String, Object> jwtInfo = new HashMap<>();
+        jwtInfo.put("sub", user);
+        return jwtInfo;
+    }
+
+    private static AbstractMGWJWTGenerator createGenerator(String signatureAlgorithm) {
+        return new AbstractMGWJWTGenerator("http://wso2.org/claims", signatureAlgorithm, getKeyStorePath(),
+                KEYSTORE_PASSWORD, ALIAS, ALIAS, 900, new String[0], false, 900, "wso2.org/products/am",
+                new String[0]) {
+
+            @Override
+            public Map<String, Object> populateStandardClaims(Map<String, Object> jwtInfo) {
+                return new HashMap<>(jwtInfo);
+            }
+
+            @Override
+            public Map<String, Object> populateCustomClaims(Map<String, Object> jwtInfo,
+                                                            ArrayList<String> restrictedClaims) {
+                return new HashMap<>();
+            }
+        };
+    }
+}
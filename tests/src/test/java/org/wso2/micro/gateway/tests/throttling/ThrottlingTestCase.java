@@ -37,7 +37,7 @@ import java.util.Map;
 
 public class ThrottlingTestCase extends BaseTestCase {
     private String jwtToken, jwtToken2, token1, token2, continueOnQuotaToken, noSubPolicyJWT, noAppPolicyJWT,
-            noSubPolicyToken, noAppPolicyToken;
+            noSubPolicyToken, noAppPolicyToken, tokenBucketToken;
     private int responseCode;
 
     @BeforeClass
@@ -89,11 +89,23 @@ public class ThrottlingTestCase extends BaseTestCase {
         application3.setTier("Unlimited");
         application3.setId((int) (Math.random() * 1000));
 
+        SubscriptionPolicy tokenBucketPolicy = new SubscriptionPolicy();
+        tokenBucketPolicy.setPolicyName("5MinTokenBucketSubPolicy");
+        tokenBucketPolicy.setRequestCount(5);
+        pub.addSubscriptionPolicy(tokenBucketPolicy);
+
+        ApplicationDTO tokenBucketApp = new ApplicationDTO();
+        tokenBucketApp.setName("tokenBucketApp");
+        tokenBucketApp.setTier("Unlimited");
+        tokenBucketApp.setId((int) (Math.random() * 1000));
+
         //Register a token with key validation info
         jwtToken = getJWT(api, application, subscriptionPolicy.getPolicyName(), TestConstant.KEY_TYPE_PRODUCTION, 3600);
         jwtToken2 = getJWT(api, application2, "Unlimited", TestConstant.KEY_TYPE_PRODUCTION, 3600);
         continueOnQuotaToken = getJWT(api, application3, subPolicyContinueOnLimit.getPolicyName(),
                 TestConstant.KEY_TYPE_PRODUCTION, 3600);
+        tokenBucketToken = getJWT(api, tokenBucketApp, tokenBucketPolicy.getPolicyName(),
+                TestConstant.KEY_TYPE_PRODUCTION, 3600);
 
         KeyValidationInfo info = new KeyValidationInfo();
         info.setApi(api);
@@ -205,6 +217,27 @@ public class ThrottlingTestCase extends BaseTestCase {
                 "Error response should have errorcode 900809 in oauth.");
     }
 
+    /**
+     * The local counters are updated inline on the request thread, so the bucket is drained as soon as the quota
+     * is used. The refill over time is covered by ThrottleCounterTest with a manual clock.
+     */
+    @Test(description = "Test token bucket throttling once the bucket is drained")
+    public void testTokenBucketThrottling() throws Exception {
+        String url = getServiceURLHttp("/pizzashack/1.0.0/menu");
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(invoke(tokenBucketToken, url), 200, "Request within the quota should not throttle");
+        }
+        Assert.assertEquals(invoke(tokenBucketToken, url), 429, "Request should have throttled out");
+    }
+
+    private int invoke(String token, String url) throws Exception {
+        Map<String, String> headers = new HashMap<>();
+        headers.put(HttpHeaderNames.AUTHORIZATION.toString(), "Bearer " + token);
+        org.wso2.micro.gateway.tests.util.HttpResponse response = HttpClientRequest.doGet(url, headers);
+        Assert.assertNotNull(response);
+        return response.getResponseCode();
+    }
+
     private int invokeAndAssert(String token, String url) throws Exception {
         Map<String, String> headers = new HashMap<>();
         if (token != null) {